@@ -19,9 +19,25 @@
 package org.apache.axiom.core;
 
 import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
 import org.apache.axiom.core.stream.XmlInput;
 
 public interface CoreNSAwareElement extends CoreElement, CoreNSAwareNamedNode {
     XmlInput getXmlInput(boolean cache, boolean incremental) throws StreamException;
+    
+    /**
+     * Write a previously serialized form of this element (including its start and end tags) to
+     * the given handler, bypassing the generation of events for the element and its descendants.
+     * The tree walker calls this method before {@link #getXmlInput(boolean, boolean)}.
+     * 
+     * @param handler
+     *            the handler to which events would otherwise be sent
+     * @return <code>true</code> if the element has been written, <code>false</code> if the tree
+     *         walker should generate the events for the element
+     * @throws CoreModelException
+     * @throws StreamException
+     */
+    boolean writeSerializedForm(XmlHandler handler) throws CoreModelException, StreamException;
+    
     void validateName(String staxPrefix, String staxLocalName, String staxNamespaceURI);
 }
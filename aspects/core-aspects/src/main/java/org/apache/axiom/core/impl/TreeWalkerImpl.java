@@ -15,6 +15,7 @@
  */
 package org.apache.axiom.core.impl;
 
+import org.apache.axiom.core.Builder;
 import org.apache.axiom.core.CoreAttribute;
 import org.apache.axiom.core.CoreChildNode;
 import org.apache.axiom.core.CoreDocument;
@@ -77,6 +78,12 @@ public final class TreeWalkerImpl implements XmlReader {
     
     private static final int STATE_ATTRIBUTE = 8;
     
+    /**
+     * Indicates that the current node is an element that has been written from its previously
+     * serialized form (see {@link CoreNSAwareElement#writeSerializedForm(XmlHandler)}).
+     */
+    private static final int STATE_SERIALIZED_FORM_WRITTEN = 9;
+    
     private final XmlHandler handler;
     private final CoreParentNode root;
     private final boolean preserve;
@@ -212,10 +219,15 @@ public final class TreeWalkerImpl implements XmlReader {
             // been visited yet. It may be a sourced element or a leaf node
             if (state == STATE_NOT_VISITED) {
                 if (nextNode instanceof CoreNSAwareElement) {
-                    XmlInput input = ((CoreNSAwareElement)nextNode).getXmlInput(preserve, incremental);
-                    if (input != null) {
-                        reader = input.createReader(new DocumentElementExtractingFilterHandler(handler));
-                        state = STATE_STREAMING;
+                    CoreNSAwareElement element = (CoreNSAwareElement)nextNode;
+                    if (element.writeSerializedForm(handler)) {
+                        state = STATE_SERIALIZED_FORM_WRITTEN;
+                    } else {
+                        XmlInput input = element.getXmlInput(preserve, incremental);
+                        if (input != null) {
+                            reader = input.createReader(new DocumentElementExtractingFilterHandler(handler));
+                            state = STATE_STREAMING;
+                        }
                     }
                 } else if (nextNode instanceof CoreLeafNode) {
                     state = STATE_LEAF;
@@ -249,7 +261,17 @@ public final class TreeWalkerImpl implements XmlReader {
                     break;
                 case STATE_PASS_THROUGH: {
                     CoreParentNode parent = (CoreParentNode)nextNode;
-                    parent.coreGetInputContext().getBuilder().next();
+                    Builder builder = parent.coreGetInputContext().getBuilder();
+                    if (incremental) {
+                        builder.next();
+                    } else {
+                        // Nothing else can happen until the builder has passed through all
+                        // remaining events for the node; don't go through the state machine for
+                        // every one of them.
+                        do {
+                            builder.next();
+                        } while (parent.coreGetInputContext() != null);
+                    }
                     if (parent.coreGetInputContext() == null) {
                         state = STATE_VISITED;
                     }
@@ -261,6 +283,10 @@ public final class TreeWalkerImpl implements XmlReader {
                         reader = null;
                     }
                     break;
+                case STATE_SERIALIZED_FORM_WRITTEN:
+                    // The element has already been written; continue with its next sibling
+                    state = STATE_VISITED;
+                    break;
                 default:
                     throw new IllegalStateException();
             }
@@ -23,24 +23,51 @@ import org.apache.axiom.core.CoreDocument;
 import org.apache.axiom.core.CoreNSAwareElement;
 import org.apache.axiom.core.DeferredParsingException;
 import org.apache.axiom.core.NodeFactory;
+import org.apache.axiom.core.stream.FilteredXmlInput;
 import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlFilter;
 import org.apache.axiom.core.stream.XmlInput;
 import org.apache.axiom.core.stream.XmlReader;
 
 public final class BuilderImpl implements Builder {
-    private final XmlReader reader;
+    private XmlInput input;
+    private XmlReader reader;
     private final BuilderHandler builderHandler;
     private Object facade;
 
     public BuilderImpl(XmlInput input, NodeFactory nodeFactory, Model model,
             CoreNSAwareElement root) {
+        this.input = input;
         builderHandler = new BuilderHandler(nodeFactory, model, root, this);
-        reader = input.createReader(builderHandler);
     }
 
     public void addListener(BuilderListener listener) {
         builderHandler.addListener(listener);
     }
+
+    /**
+     * Add a filter to the input of this builder. This is only possible as long as the builder
+     * hasn't started consuming its input.
+     * 
+     * @param filter
+     *            the filter to add
+     * @throws IllegalStateException
+     *             if the builder has already started consuming its input
+     */
+    public void addFilter(XmlFilter filter) {
+        if (reader != null) {
+            throw new IllegalStateException();
+        }
+        input = new FilteredXmlInput(input, filter);
+    }
+
+    private XmlReader getReader() {
+        if (reader == null) {
+            reader = input.createReader(builderHandler);
+            input = null;
+        }
+        return reader;
+    }
     
     public Object getFacade() {
         return facade;
@@ -56,7 +83,7 @@ public final class BuilderImpl implements Builder {
             throw new IllegalStateException();
         }
         try {
-            reader.proceed();
+            getReader().proceed();
         } catch (StreamException ex) {
             throw new DeferredParsingException(ex);
         }
@@ -78,6 +105,6 @@ public final class BuilderImpl implements Builder {
     
     @Override
     public void close() {
-        reader.dispose();
+        getReader().dispose();
     }
 }
@@ -29,8 +29,10 @@ import org.apache.axiom.om.ds.custombuilder.CustomBuilderSupport;
 import org.apache.axiom.om.ds.custombuilder.CustomBuilder.Selector;
 import org.apache.axiom.om.impl.common.AxiomExceptionTranslator;
 import org.apache.axiom.om.impl.intf.AxiomDocument;
+import org.apache.axiom.om.stats.StatisticsCollector;
+import org.apache.axiom.om.stats.StatisticsSupport;
 
-public class OMXMLParserWrapperImpl implements OMXMLParserWrapper, CustomBuilderSupport {
+public class OMXMLParserWrapperImpl implements OMXMLParserWrapper, CustomBuilderSupport, StatisticsSupport {
     private final BuilderImpl builder;
     private final Detachable detachable;
     private final CustomBuilderManager customBuilderManager = new CustomBuilderManager();
@@ -46,6 +48,11 @@ public class OMXMLParserWrapperImpl implements OMXMLParserWrapper, CustomBuilder
     public final void registerCustomBuilder(Selector selector, CustomBuilder customBuilder) {
         customBuilderManager.register(selector, customBuilder);
     }
+
+    @Override
+    public final void addStatisticsCollector(StatisticsCollector collector) {
+        builder.addFilter(new StatisticsFilter(collector));
+    }
     
     @Override
     public final boolean isCompleted() {
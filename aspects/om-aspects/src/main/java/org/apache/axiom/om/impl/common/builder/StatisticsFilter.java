@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.common.builder;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlFilter;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlHandlerWrapper;
+import org.apache.axiom.om.stats.DocumentStatistics;
+import org.apache.axiom.om.stats.Statistic;
+import org.apache.axiom.om.stats.StatisticsCollector;
+import org.apache.axiom.soap.SOAP11Constants;
+import org.apache.axiom.soap.SOAP12Constants;
+import org.apache.axiom.soap.SOAPConstants;
+
+/**
+ * {@link XmlFilter} that computes {@link DocumentStatistics} from the events received by a
+ * builder and reports them to a {@link StatisticsCollector}.
+ */
+final class StatisticsFilter implements XmlFilter {
+    private final StatisticsCollector collector;
+
+    StatisticsFilter(StatisticsCollector collector) {
+        this.collector = collector;
+    }
+
+    @Override
+    public XmlHandler createFilterHandler(XmlHandler parent) {
+        return new Handler(parent);
+    }
+
+    private final class Handler extends XmlHandlerWrapper {
+        private final long[] values = new long[Statistic.values().length];
+        private long startTime;
+        /**
+         * The number of child elements of the current element at each depth.
+         */
+        private int[] fanOut = new int[16];
+        private int depth;
+        /**
+         * Set while inside a comment or processing instruction, so that their content is not
+         * counted as character data.
+         */
+        private boolean skipCharacterData;
+
+        Handler(XmlHandler parent) {
+            super(parent);
+            values[Statistic.TIME_TO_FIRST_BODY_ELEMENT.ordinal()] = -1;
+        }
+
+        @Override
+        public void startDocument(String inputEncoding, String xmlVersion, String xmlEncoding,
+                Boolean standalone) throws StreamException {
+            startTime = System.nanoTime();
+            super.startDocument(inputEncoding, xmlVersion, xmlEncoding, standalone);
+        }
+
+        @Override
+        public void startFragment() throws StreamException {
+            startTime = System.nanoTime();
+            super.startFragment();
+        }
+
+        @Override
+        public void startElement(String namespaceURI, String localName, String prefix)
+                throws StreamException {
+            values[Statistic.ELEMENTS.ordinal()]++;
+            int count = ++fanOut[depth];
+            if (count > values[Statistic.MAX_FAN_OUT.ordinal()]) {
+                values[Statistic.MAX_FAN_OUT.ordinal()] = count;
+            }
+            depth++;
+            if (depth == fanOut.length) {
+                int[] newFanOut = new int[fanOut.length*2];
+                System.arraycopy(fanOut, 0, newFanOut, 0, fanOut.length);
+                fanOut = newFanOut;
+            }
+            fanOut[depth] = 0;
+            if (depth > values[Statistic.MAX_DEPTH.ordinal()]) {
+                values[Statistic.MAX_DEPTH.ordinal()] = depth;
+            }
+            if (depth == 2
+                    && values[Statistic.TIME_TO_FIRST_BODY_ELEMENT.ordinal()] == -1
+                    && localName.equals(SOAPConstants.BODY_LOCAL_NAME)
+                    && (namespaceURI.equals(SOAP12Constants.SOAP_ENVELOPE_NAMESPACE_URI)
+                            || namespaceURI.equals(SOAP11Constants.SOAP_ENVELOPE_NAMESPACE_URI))) {
+                values[Statistic.TIME_TO_FIRST_BODY_ELEMENT.ordinal()] = System.nanoTime() - startTime;
+            }
+            super.startElement(namespaceURI, localName, prefix);
+        }
+
+        @Override
+        public void endElement() throws StreamException {
+            depth--;
+            super.endElement();
+        }
+
+        @Override
+        public void processAttribute(String namespaceURI, String localName, String prefix,
+                String value, String type, boolean specified) throws StreamException {
+            values[Statistic.ATTRIBUTES.ordinal()]++;
+            super.processAttribute(namespaceURI, localName, prefix, value, type, specified);
+        }
+
+        @Override
+        public void processAttribute(String name, String value, String type, boolean specified)
+                throws StreamException {
+            values[Statistic.ATTRIBUTES.ordinal()]++;
+            super.processAttribute(name, value, type, specified);
+        }
+
+        @Override
+        public void processNamespaceDeclaration(String prefix, String namespaceURI)
+                throws StreamException {
+            values[Statistic.NAMESPACE_DECLARATIONS.ordinal()]++;
+            super.processNamespaceDeclaration(prefix, namespaceURI);
+        }
+
+        @Override
+        public void processCharacterData(Object data, boolean ignorable) throws StreamException {
+            if (!skipCharacterData) {
+                values[Statistic.TEXT_NODES.ordinal()]++;
+                if (data instanceof CharSequence) {
+                    values[Statistic.CHARACTERS.ordinal()] += ((CharSequence)data).length();
+                }
+            }
+            super.processCharacterData(data, ignorable);
+        }
+
+        @Override
+        public void startComment() throws StreamException {
+            skipCharacterData = true;
+            super.startComment();
+        }
+
+        @Override
+        public void endComment() throws StreamException {
+            skipCharacterData = false;
+            super.endComment();
+        }
+
+        @Override
+        public void startProcessingInstruction(String target) throws StreamException {
+            skipCharacterData = true;
+            super.startProcessingInstruction(target);
+        }
+
+        @Override
+        public void endProcessingInstruction() throws StreamException {
+            skipCharacterData = false;
+            super.endProcessingInstruction();
+        }
+
+        @Override
+        public void completed() throws StreamException {
+            super.completed();
+            collector.documentCompleted(new DocumentStatistics(values));
+        }
+    }
+}
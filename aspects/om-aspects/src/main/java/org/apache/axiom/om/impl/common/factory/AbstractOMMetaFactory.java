@@ -21,18 +21,23 @@ package org.apache.axiom.om.impl.common.factory;
 import static org.apache.axiom.om.impl.common.factory.BuilderFactory.OM;
 import static org.apache.axiom.om.impl.common.factory.BuilderFactory.SOAP;
 
+import java.io.InputStream;
+
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Source;
 import javax.xml.transform.sax.SAXSource;
 
 import org.apache.axiom.core.NodeFactory;
 import org.apache.axiom.mime.MultipartBody;
+import org.apache.axiom.om.BinaryXMLOMMetaFactorySPI;
+import org.apache.axiom.om.HeaderFirstSOAPOMMetaFactorySPI;
 import org.apache.axiom.om.OMAttachmentAccessor;
 import org.apache.axiom.om.OMMetaFactory;
 import org.apache.axiom.om.OMMetaFactorySPI;
 import org.apache.axiom.om.OMXMLParserWrapper;
 import org.apache.axiom.om.util.StAXParserConfiguration;
 import org.apache.axiom.soap.SOAPModelBuilder;
+import org.apache.axiom.soap.impl.common.builder.HeaderFirstSOAPBuilder;
 import org.w3c.dom.Node;
 import org.xml.sax.InputSource;
 
@@ -40,7 +45,8 @@ import org.xml.sax.InputSource;
  * Base class for {@link OMMetaFactory} implementations that make use of the standard builders
  * ({@link org.apache.axiom.core.impl.builder.BuilderImpl} and its subclasses).
  */
-public abstract class AbstractOMMetaFactory implements OMMetaFactorySPI {
+public abstract class AbstractOMMetaFactory
+        implements OMMetaFactorySPI, BinaryXMLOMMetaFactorySPI, HeaderFirstSOAPOMMetaFactorySPI {
     private final NodeFactory nodeFactory;
     
     public AbstractOMMetaFactory(NodeFactory nodeFactory) {
@@ -82,6 +88,11 @@ public abstract class AbstractOMMetaFactory implements OMMetaFactorySPI {
         return OM.createBuilder(nodeFactory, BuilderSpec.from(StAXParserConfiguration.DEFAULT, rootPart, attachmentAccessor));
     }
 
+    @Override
+    public OMXMLParserWrapper createBinaryXMLOMBuilder(InputStream in) {
+        return OM.createBuilder(nodeFactory, BuilderSpec.fromBinaryXML(in));
+    }
+
     @Override
     public SOAPModelBuilder createStAXSOAPModelBuilder(XMLStreamReader parser) {
         return SOAP.createBuilder(nodeFactory, BuilderSpec.from(parser));
@@ -92,6 +103,15 @@ public abstract class AbstractOMMetaFactory implements OMMetaFactorySPI {
         return SOAP.createBuilder(nodeFactory, BuilderSpec.from(StAXParserConfiguration.SOAP, is));
     }
 
+    @Override
+    public SOAPModelBuilder createHeaderFirstSOAPModelBuilder(InputSource is) {
+        InputStream in = is.getByteStream();
+        if (in == null) {
+            throw new IllegalArgumentException("The InputSource must have a byte stream");
+        }
+        return HeaderFirstSOAPBuilder.create(this, in, is.getEncoding());
+    }
+
     @Override
     public SOAPModelBuilder createSOAPModelBuilder(Source source) {
         return SOAP.createBuilder(nodeFactory, BuilderSpec.from(StAXParserConfiguration.SOAP, source));
@@ -22,8 +22,12 @@ import org.apache.axiom.core.CoreNode;
 import org.apache.axiom.core.NodeFactory;
 import org.apache.axiom.core.impl.builder.BuilderImpl;
 import org.apache.axiom.core.impl.builder.BuilderListener;
+import org.apache.axiom.core.impl.builder.Model;
 import org.apache.axiom.core.impl.builder.PlainXMLModel;
 import org.apache.axiom.core.stream.FilteredXmlInput;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.metrics.Metrics;
+import org.apache.axiom.metrics.MetricsCollector;
 import org.apache.axiom.om.OMXMLParserWrapper;
 import org.apache.axiom.om.impl.common.builder.OMXMLParserWrapperImpl;
 import org.apache.axiom.soap.SOAPFactory;
@@ -38,15 +42,15 @@ abstract class BuilderFactory<T extends OMXMLParserWrapper> {
     final static BuilderFactory<OMXMLParserWrapper> OM = new BuilderFactory<OMXMLParserWrapper>() {
         @Override
         OMXMLParserWrapper createBuilder(NodeFactory nodeFactory, BuilderSpec spec) {
-            return new OMXMLParserWrapperImpl(new BuilderImpl(spec.getInput(), nodeFactory,
-                    PlainXMLModel.INSTANCE, null), spec.getDetachable());
+            return new OMXMLParserWrapperImpl(createBuilderImpl(spec.getInput(), nodeFactory,
+                    PlainXMLModel.INSTANCE, spec), spec.getDetachable());
         }
     };
 
     final static BuilderFactory<SOAPModelBuilder> SOAP = new BuilderFactory<SOAPModelBuilder>() {
         @Override
         SOAPModelBuilder createBuilder(NodeFactory nodeFactory, BuilderSpec spec) {
-            BuilderImpl builder = new BuilderImpl(new FilteredXmlInput(spec.getInput(), SOAPFilter.INSTANCE), nodeFactory, new SOAPModel(), null);
+            BuilderImpl builder = createBuilderImpl(new FilteredXmlInput(spec.getInput(), SOAPFilter.INSTANCE), nodeFactory, new SOAPModel(), spec);
             // The SOAPFactory instance linked to the SOAPMessage is unknown until we reach the
             // SOAPEnvelope. Register a post-processor that does the necessary updates on the
             // SOAPMessage.
@@ -68,4 +72,18 @@ abstract class BuilderFactory<T extends OMXMLParserWrapper> {
     };
 
     abstract T createBuilder(NodeFactory nodeFactory, BuilderSpec spec);
+
+    static BuilderImpl createBuilderImpl(XmlInput input, NodeFactory nodeFactory, Model model,
+            BuilderSpec spec) {
+        MetricsCollector collector = Metrics.getCollector();
+        if (collector == null) {
+            return new BuilderImpl(input, nodeFactory, model, null);
+        } else {
+            BuilderMetrics metrics = new BuilderMetrics(input, collector,
+                    spec.getCountingInputStream());
+            BuilderImpl builder = new BuilderImpl(metrics, nodeFactory, model, null);
+            builder.addListener(metrics);
+            return builder;
+        }
+    }
 }
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.common.factory;
+
+import org.apache.axiom.core.CoreNode;
+import org.apache.axiom.core.impl.builder.BuilderListener;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.metrics.MetricsCollector;
+
+/**
+ * Collects the metrics for a single builder and reports them to a {@link MetricsCollector} once
+ * the builder has reached the end of the document or is closed. It wraps the {@link XmlInput} of
+ * the builder to measure the time spent in the builder and is registered as a
+ * {@link BuilderListener} to count the nodes that are created.
+ */
+final class BuilderMetrics implements XmlInput, BuilderListener {
+    private final XmlInput parent;
+    private final MetricsCollector collector;
+    private final CountingInputStream countingInputStream;
+    private long nodeCount;
+    private long nanos;
+    private boolean reported;
+
+    BuilderMetrics(XmlInput parent, MetricsCollector collector,
+            CountingInputStream countingInputStream) {
+        this.parent = parent;
+        this.collector = collector;
+        this.countingInputStream = countingInputStream;
+    }
+
+    @Override
+    public XmlReader createReader(XmlHandler handler) {
+        final XmlReader reader = parent.createReader(handler);
+        return new XmlReader() {
+            @Override
+            public boolean proceed() throws StreamException {
+                long start = System.nanoTime();
+                boolean completed = reader.proceed();
+                nanos += System.nanoTime() - start;
+                if (completed) {
+                    report();
+                }
+                return completed;
+            }
+
+            @Override
+            public void dispose() {
+                reader.dispose();
+                report();
+            }
+        };
+    }
+
+    @Override
+    public Runnable nodeAdded(CoreNode node, int depth) {
+        nodeCount++;
+        return null;
+    }
+
+    private void report() {
+        if (!reported) {
+            reported = true;
+            collector.documentBuilt(nodeCount,
+                    countingInputStream == null ? -1 : countingInputStream.getCount(), nanos);
+        }
+    }
+}
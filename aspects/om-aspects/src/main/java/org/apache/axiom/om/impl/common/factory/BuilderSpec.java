@@ -38,11 +38,13 @@ import org.apache.axiom.core.stream.NamespaceRepairingFilter;
 import org.apache.axiom.core.stream.XmlInput;
 import org.apache.axiom.core.stream.dom.DOMInput;
 import org.apache.axiom.core.stream.sax.SAXInput;
+import org.apache.axiom.metrics.Metrics;
 import org.apache.axiom.mime.MultipartBody;
 import org.apache.axiom.mime.Part;
 import org.apache.axiom.om.OMAttachmentAccessor;
 import org.apache.axiom.om.OMException;
 import org.apache.axiom.om.impl.common.builder.Detachable;
+import org.apache.axiom.om.impl.stream.binary.AxiomBinaryXmlInput;
 import org.apache.axiom.om.impl.stream.stax.pull.StAXPullInput;
 import org.apache.axiom.om.impl.stream.xop.XOPDecodingFilter;
 import org.apache.axiom.om.util.StAXParserConfiguration;
@@ -55,10 +57,17 @@ import org.xml.sax.InputSource;
 final class BuilderSpec {
     private final XmlInput input;
     private final Detachable detachable;
+    private final CountingInputStream countingInputStream;
 
-    private BuilderSpec(XmlInput input, Detachable detachable) {
+    private BuilderSpec(XmlInput input, Detachable detachable,
+            CountingInputStream countingInputStream) {
         this.input = input;
         this.detachable = detachable;
+        this.countingInputStream = countingInputStream;
+    }
+
+    private BuilderSpec(XmlInput input, Detachable detachable) {
+        this(input, detachable, null);
     }
 
     private static BuilderSpec create(StAXParserConfiguration configuration,
@@ -66,11 +75,17 @@ final class BuilderSpec {
         XMLStreamReader reader;
         Detachable detachable;
         Closeable closeable;
+        CountingInputStream countingInputStream;
         try {
             if (is.getByteStream() != null) {
                 String systemId = is.getSystemId();
                 String encoding = is.getEncoding();
                 InputStream in = is.getByteStream();
+                if (Metrics.getCollector() != null) {
+                    in = countingInputStream = new CountingInputStream(in);
+                } else {
+                    countingInputStream = null;
+                }
                 if (makeDetachable) {
                     DetachableInputStream detachableInputStream = new DetachableInputStream(in, false);
                     in = detachableInputStream;
@@ -103,9 +118,15 @@ final class BuilderSpec {
                 }
                 reader = StAXUtils.createXMLStreamReader(configuration, in);
                 closeable = null;
+                countingInputStream = null;
             } else {
                 String systemId = is.getSystemId();
                 InputStream in = new URL(systemId).openConnection().getInputStream();
+                if (Metrics.getCollector() != null) {
+                    in = countingInputStream = new CountingInputStream(in);
+                } else {
+                    countingInputStream = null;
+                }
                 if (makeDetachable) {
                     DetachableInputStream detachableInputStream = new DetachableInputStream(in, true);
                     in = detachableInputStream;
@@ -121,7 +142,8 @@ final class BuilderSpec {
         } catch (IOException ex) {
             throw new OMException(ex);
         }
-        return new BuilderSpec(new StAXPullInput(reader, true, closeable), detachable);
+        return new BuilderSpec(new StAXPullInput(reader, true, closeable), detachable,
+                countingInputStream);
     }
     
     static BuilderSpec from(XMLStreamReader reader) {
@@ -182,6 +204,11 @@ final class BuilderSpec {
                 null);
     }
 
+    static BuilderSpec fromBinaryXML(InputStream in) {
+        DetachableInputStream detachableInputStream = new DetachableInputStream(in, false);
+        return new BuilderSpec(new AxiomBinaryXmlInput(detachableInputStream), detachableInputStream);
+    }
+
     static BuilderSpec from(SAXSource source, boolean expandEntityReferences) {
         return new BuilderSpec(new FilteredXmlInput(new SAXInput(source, expandEntityReferences), NamespaceRepairingFilter.DEFAULT), null);
     }
@@ -206,7 +233,8 @@ final class BuilderSpec {
                     public void detach() {
                         message.detach();
                     }
-                });
+                },
+                spec.getCountingInputStream());
     }
 
     static BuilderSpec from(StAXParserConfiguration configuration, Source source, OMAttachmentAccessor attachmentAccessor) {
@@ -215,7 +243,8 @@ final class BuilderSpec {
                 new FilteredXmlInput(
                         spec.getInput(),
                         new XOPDecodingFilter(attachmentAccessor)),
-                spec.getDetachable());
+                spec.getDetachable(),
+                spec.getCountingInputStream());
     }
 
     XmlInput getInput() {
@@ -225,4 +254,8 @@ final class BuilderSpec {
     Detachable getDetachable() {
         return detachable;
     }
+
+    CountingInputStream getCountingInputStream() {
+        return countingInputStream;
+    }
 }
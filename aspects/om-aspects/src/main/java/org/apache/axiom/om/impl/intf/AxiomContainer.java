@@ -25,8 +25,9 @@ import org.apache.axiom.om.OMContainer;
 import org.apache.axiom.om.OMException;
 import org.apache.axiom.om.OMNode;
 import org.apache.axiom.om.OMXMLStreamReaderConfiguration;
+import org.apache.axiom.om.util.DigestSupport;
 
-public interface AxiomContainer extends OMContainer, AxiomCoreParentNode {
+public interface AxiomContainer extends OMContainer, AxiomCoreParentNode, DigestSupport {
     /**
      * Check if the node can be added as a child of this container.
      * 
@@ -40,4 +41,17 @@ public interface AxiomContainer extends OMContainer, AxiomCoreParentNode {
     AxiomChildNode prepareNewChild(OMNode omNode);
     XMLStreamReader defaultGetXMLStreamReader(boolean cache, OMXMLStreamReaderConfiguration configuration);
     CoreElement getContextElement();
+    
+    /**
+     * Discard the digests and serialized forms cached on this container and its ancestors. This is
+     * called whenever the container or one of its descendants is modified.
+     */
+    void invalidateCaches();
+    
+    /**
+     * Ensure that modifications to this container and its current descendants are propagated to
+     * {@link #invalidateCaches()} on this container. This must be called before data is cached on
+     * the container.
+     */
+    void trackModifications();
 }
@@ -23,11 +23,18 @@ import javax.xml.namespace.QName;
 import org.apache.axiom.core.CoreNSAwareElement;
 import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.om.util.EventBufferSupport;
+import org.apache.axiom.om.util.SerializationCacheSupport;
 
-public interface AxiomElement extends OMElement, AxiomContainer, AxiomChildNode, AxiomNamedInformationItem, CoreNSAwareElement {
+public interface AxiomElement extends OMElement, AxiomContainer, AxiomChildNode, AxiomNamedInformationItem, CoreNSAwareElement, EventBufferSupport, SerializationCacheSupport {
     void addNamespaceDeclaration(OMNamespace ns);
     <T extends OMElement> void insertChild(Sequence sequence, int pos, T newChild, boolean allowReplace);
     void _setAttributeValue(QName qname, String value);
     OMNamespace handleNamespace(String namespaceURI, String prefix);
     void initName(String localName, OMNamespace ns, boolean generateNSDecl);
+    
+    /**
+     * Discard the serialized forms cached on this element, without disabling the cache.
+     */
+    void discardSerializedForms();
 }
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.intf;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of DOMHASH digests of a document or element, indexed by algorithm. There are
+ * usually only one or two algorithms in use, so a linear search is sufficient.
+ * <p>
+ * A container refers to {@link #EMPTY} if it has no cached digests, but may have an ancestor with
+ * cached data. When a digest (or a serialized form, see {@link SerializationCache}) is cached on a
+ * container, the container and all its descendant elements are set to at least {@link #EMPTY}.
+ * This ensures that invalidation, which walks up the ancestor chain, can stop at the first
+ * container that has no digest cache at all.
+ */
+public final class DigestCache {
+    public static final DigestCache EMPTY = new DigestCache(new String[0], new byte[0][]);
+    
+    private final String[] algorithms;
+    private final byte[][] digests;
+
+    private DigestCache(String[] algorithms, byte[][] digests) {
+        this.algorithms = algorithms;
+        this.digests = digests;
+    }
+
+    /**
+     * Get the cached digest for the given algorithm.
+     * 
+     * @param algorithm
+     *            the digest algorithm
+     * @return a copy of the digest, or <code>null</code> if no digest is cached for the algorithm
+     */
+    public byte[] get(String algorithm) {
+        for (int i=0; i<algorithms.length; i++) {
+            if (algorithms[i].equals(algorithm)) {
+                return digests[i].clone();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Create a new cache that contains the digests of this cache and the given digest.
+     * 
+     * @param algorithm
+     *            the digest algorithm
+     * @param digest
+     *            the digest; the array is copied
+     * @return the new cache
+     */
+    public DigestCache add(String algorithm, byte[] digest) {
+        int count = algorithms.length;
+        String[] newAlgorithms = Arrays.copyOf(algorithms, count+1);
+        byte[][] newDigests = Arrays.copyOf(digests, count+1);
+        newAlgorithms[count] = algorithm;
+        newDigests[count] = digest.clone();
+        return new DigestCache(newAlgorithms, newDigests);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.intf;
+
+import java.util.Arrays;
+
+import org.apache.axiom.core.CoreElement;
+
+/**
+ * Immutable set of serialized forms of an element, indexed by charset encoding. The serialized
+ * forms are only valid as long as the element has the same parent, because prefixes used in
+ * <tt>xsi:type</tt> attributes are resolved against the ancestors.
+ * <p>
+ * An element refers to {@link #EMPTY} if the cache is enabled but no serialized form has been
+ * cached yet, and to <code>null</code> if the cache is disabled.
+ */
+public final class SerializationCache {
+    public static final SerializationCache EMPTY = new SerializationCache(null, new String[0], new SerializedForm[0]);
+    
+    private final CoreElement contextElement;
+    private final String[] encodings;
+    private final SerializedForm[] forms;
+
+    private SerializationCache(CoreElement contextElement, String[] encodings, SerializedForm[] forms) {
+        this.contextElement = contextElement;
+        this.encodings = encodings;
+        this.forms = forms;
+    }
+
+    /**
+     * Get the cached serialized form for the given encoding.
+     * 
+     * @param encoding
+     *            the charset encoding, or <code>null</code> for the form used with
+     *            {@link java.io.Writer}s
+     * @param contextElement
+     *            the current parent of the element
+     * @return the serialized form, or <code>null</code> if no serialized form is cached for the
+     *         encoding and parent
+     */
+    public SerializedForm get(String encoding, CoreElement contextElement) {
+        if (contextElement != this.contextElement) {
+            return null;
+        }
+        for (int i=0; i<encodings.length; i++) {
+            if (encoding == null ? encodings[i] == null : encoding.equalsIgnoreCase(encodings[i])) {
+                return forms[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Create a new cache that contains the serialized forms of this cache and the given
+     * serialized form. If the parent of the element has changed, the existing serialized forms
+     * are dropped.
+     * 
+     * @param encoding
+     *            the charset encoding
+     * @param contextElement
+     *            the current parent of the element
+     * @param form
+     *            the serialized form
+     * @return the new cache
+     */
+    public SerializationCache add(String encoding, CoreElement contextElement, SerializedForm form) {
+        int count = contextElement == this.contextElement ? encodings.length : 0;
+        String[] newEncodings = Arrays.copyOf(encodings, count+1);
+        SerializedForm[] newForms = Arrays.copyOf(forms, count+1);
+        newEncodings[count] = encoding;
+        newForms[count] = form;
+        return new SerializationCache(contextElement, newEncodings, newForms);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.intf;
+
+import java.io.IOException;
+
+import org.apache.axiom.core.stream.NamespaceRepairingFilterHandler;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlHandlerWrapper;
+import org.apache.axiom.core.stream.serializer.Serializer;
+
+/**
+ * The serialized form of an element, either as encoded bytes or as characters. The serialized
+ * form declares all namespaces used by the element and its descendants, except for the default
+ * namespace: if it contains unqualified elements that are not in a namespace, then it can only be
+ * used in a context where the default namespace is not bound.
+ */
+public final class SerializedForm {
+    private final byte[] bytes;
+    private final char[] chars;
+    private final boolean dependsOnDefaultNamespace;
+
+    /**
+     * Constructor. Exactly one of <code>bytes</code> and <code>chars</code> must be non null.
+     * 
+     * @param bytes
+     *            the encoded serialized form, or <code>null</code>
+     * @param chars
+     *            the serialized form as characters, or <code>null</code>
+     * @param dependsOnDefaultNamespace
+     *            <code>true</code> if the serialized form is only valid in a context where the
+     *            default namespace is not bound
+     */
+    public SerializedForm(byte[] bytes, char[] chars, boolean dependsOnDefaultNamespace) {
+        this.bytes = bytes;
+        this.chars = chars;
+        this.dependsOnDefaultNamespace = dependsOnDefaultNamespace;
+    }
+
+    /**
+     * Determine whether this serialized form is valid in the namespace context of the given
+     * handler chain.
+     * 
+     * @param handler
+     *            the handler chain, as accepted by
+     *            {@link org.apache.axiom.om.impl.stream.SerializedFormFactory#getTargetSerializer(XmlHandler)}
+     * @return <code>true</code> if the serialized form can be written
+     * @throws StreamException
+     */
+    public boolean isCompatible(XmlHandler handler) throws StreamException {
+        if (!dependsOnDefaultNamespace) {
+            return true;
+        }
+        while (handler instanceof XmlHandlerWrapper) {
+            if (handler instanceof NamespaceRepairingFilterHandler) {
+                return ((NamespaceRepairingFilterHandler)handler).isBound("", "");
+            }
+            handler = ((XmlHandlerWrapper)handler).getParent();
+        }
+        return false;
+    }
+
+    public void writeTo(Serializer serializer) throws StreamException {
+        if (bytes == null) {
+            serializer.writeSerializedContent(chars, 0, chars.length);
+        } else {
+            try {
+                serializer.getOutputStream().write(bytes);
+            } catch (IOException ex) {
+                throw new StreamException(ex);
+            }
+        }
+    }
+}
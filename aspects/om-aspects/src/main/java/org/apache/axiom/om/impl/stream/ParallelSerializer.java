@@ -0,0 +1,390 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import org.apache.axiom.core.CoreAttribute;
+import org.apache.axiom.core.CoreChildNode;
+import org.apache.axiom.core.CoreDocument;
+import org.apache.axiom.core.CoreElement;
+import org.apache.axiom.core.CoreModelException;
+import org.apache.axiom.core.CoreNSAwareElement;
+import org.apache.axiom.core.CoreParentNode;
+import org.apache.axiom.core.stream.NamespaceContextProvider;
+import org.apache.axiom.core.stream.NamespaceRepairingFilterHandler;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlHandlerWrapper;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axiom.om.OMSourcedElement;
+
+/**
+ * Serializes a fully built tree using multiple threads. The start and end tags of elements are
+ * written sequentially, but the children of elements that have at least
+ * {@link OMOutputFormat#getParallelSerializationThreshold()} children are serialized concurrently
+ * into separate buffers that are then copied to the output in document order. Elements with fewer
+ * children are descended into so that a wide element nested in a narrow one (such as the body of
+ * a SOAP envelope) is still split.
+ * <p>
+ * Each child is serialized with a {@link NamespaceRepairingFilterHandler} that uses a snapshot of
+ * the namespace declarations written so far as its parent context, so that the child only declares
+ * the namespaces that are not already in scope in the output.
+ */
+public final class ParallelSerializer {
+    /**
+     * The maximum number of children that are serialized ahead of the one being written to the
+     * output. This bounds the number of buffers that exist at any time.
+     */
+    private static final int MAX_PENDING_CHUNKS = 64;
+
+    private final Serializer serializer;
+    private final String encoding;
+    private final Executor executor;
+    private final int threshold;
+    private final boolean cache;
+    private final NamespaceContextTracker tracker;
+    private final XmlHandler handler;
+    private final Queue<Chunk> pool = new ConcurrentLinkedQueue<Chunk>();
+
+    public ParallelSerializer(Serializer serializer, OMOutputFormat format, CoreElement contextElement, boolean cache) {
+        this.serializer = serializer;
+        encoding = serializer.getEncoding();
+        executor = format.getSerializationExecutor();
+        threshold = Math.max(format.getParallelSerializationThreshold(), 1);
+        this.cache = cache;
+        tracker = new NamespaceContextTracker(serializer);
+        XmlHandler handler = new XmlDeclarationRewriterHandler(tracker, format);
+        if (contextElement != null) {
+            handler = new XsiTypeFilterHandler(handler, contextElement);
+        }
+        this.handler = new NamespaceRepairingFilterHandler(handler, null, true);
+    }
+
+    /**
+     * Determine whether the output of the given serializer can be produced in parallel. This is
+     * not the case for encodings that start with a byte order mark, because each buffer would
+     * then get its own byte order mark.
+     * 
+     * @param serializer
+     *            the serializer
+     * @return <code>true</code> if the output can be split
+     */
+    public static boolean isSupported(Serializer serializer) {
+        String encoding = serializer.getEncoding();
+        return encoding == null || !Charset.forName(encoding).name().equals("UTF-16");
+    }
+
+    /**
+     * Serialize the given document or element.
+     * 
+     * @param root
+     *            the document or element; must be fully built
+     * @throws CoreModelException
+     * @throws StreamException
+     */
+    public void serialize(CoreParentNode root) throws CoreModelException, StreamException {
+        if (root instanceof CoreDocument) {
+            root.serializeStartEvent(handler);
+            serializeChildren(root, null);
+            root.serializeEndEvent(handler);
+        } else if (isSplittable(root)) {
+            handler.startFragment();
+            serializeElement((CoreNSAwareElement)root);
+            handler.completed();
+        } else {
+            root.internalSerialize(handler, cache);
+        }
+    }
+
+    private boolean isSplittable(CoreParentNode node) {
+        if (!(node instanceof CoreNSAwareElement)
+                || node instanceof OMSourcedElement && !((OMSourcedElement)node).isExpanded()
+                || node.getState() != CoreParentNode.COMPLETE) {
+            return false;
+        }
+        CoreChildNode child = node.coreGetFirstChildIfAvailable();
+        while (child != null) {
+            if (child instanceof CoreElement) {
+                return true;
+            }
+            child = child.coreGetNextSiblingIfAvailable();
+        }
+        return false;
+    }
+
+    private void serializeElement(CoreNSAwareElement element) throws CoreModelException, StreamException {
+        element.serializeStartEvent(handler);
+        CoreAttribute attr = element.coreGetFirstAttribute();
+        while (attr != null) {
+            attr.internalSerialize(handler, cache);
+            attr = attr.coreGetNextAttribute();
+        }
+        handler.attributesCompleted();
+        serializeChildren(element, element);
+        element.serializeEndEvent(handler);
+    }
+
+    private void serializeChildren(CoreParentNode parent, CoreElement contextElement) throws CoreModelException, StreamException {
+        int count = 0;
+        CoreChildNode child = parent.coreGetFirstChildIfAvailable();
+        while (child != null && count < threshold) {
+            count++;
+            child = child.coreGetNextSiblingIfAvailable();
+        }
+        if (count >= threshold) {
+            serializeChildrenInParallel(parent, contextElement);
+        } else {
+            XmlHandler childHandler = null;
+            child = parent.coreGetFirstChildIfAvailable();
+            while (child != null) {
+                if (child instanceof CoreParentNode && isSplittable((CoreParentNode)child)) {
+                    serializeElement((CoreNSAwareElement)child);
+                } else {
+                    if (childHandler == null) {
+                        childHandler = createChildHandler(serializer, tracker, contextElement);
+                    }
+                    child.internalSerialize(childHandler, cache);
+                }
+                child = child.coreGetNextSiblingIfAvailable();
+            }
+        }
+    }
+
+    private void serializeChildrenInParallel(CoreParentNode parent, CoreElement contextElement) throws CoreModelException, StreamException {
+        NamespaceContextProvider namespaceContext = tracker.snapshot();
+        ArrayDeque<FutureTask<Chunk>> pending = new ArrayDeque<FutureTask<Chunk>>();
+        try {
+            CoreChildNode child = parent.coreGetFirstChildIfAvailable();
+            while (child != null) {
+                FutureTask<Chunk> task = new FutureTask<Chunk>(new ChunkTask(child, namespaceContext, contextElement));
+                pending.add(task);
+                executor.execute(task);
+                if (pending.size() == MAX_PENDING_CHUNKS) {
+                    write(pending.remove());
+                }
+                child = child.coreGetNextSiblingIfAvailable();
+            }
+            while (!pending.isEmpty()) {
+                write(pending.remove());
+            }
+        } finally {
+            for (FutureTask<Chunk> task : pending) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    private void write(FutureTask<Chunk> task) throws CoreModelException, StreamException {
+        Chunk chunk;
+        try {
+            chunk = task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new StreamException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof StreamException) {
+                throw (StreamException)cause;
+            } else if (cause instanceof CoreModelException) {
+                throw (CoreModelException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            } else {
+                throw new StreamException(cause);
+            }
+        }
+        chunk.writeTo(serializer);
+        chunk.reset();
+        pool.add(chunk);
+    }
+
+    private static XmlHandler createChildHandler(XmlHandler handler, NamespaceContextProvider namespaceContext, CoreElement contextElement) {
+        if (contextElement != null) {
+            handler = new XsiTypeFilterHandler(handler, contextElement);
+        }
+        return new NamespaceRepairingFilterHandler(handler, namespaceContext, true);
+    }
+
+    private final class ChunkTask implements Callable<Chunk> {
+        private final CoreChildNode node;
+        private final NamespaceContextProvider namespaceContext;
+        private final CoreElement contextElement;
+
+        ChunkTask(CoreChildNode node, NamespaceContextProvider namespaceContext, CoreElement contextElement) {
+            this.node = node;
+            this.namespaceContext = namespaceContext;
+            this.contextElement = contextElement;
+        }
+
+        @Override
+        public Chunk call() throws Exception {
+            Chunk chunk = pool.poll();
+            if (chunk == null) {
+                chunk = new Chunk(encoding == null);
+            }
+            Serializer chunkSerializer = chunk.createSerializer(encoding);
+            node.internalSerialize(createChildHandler(chunkSerializer, namespaceContext, contextElement), cache);
+            chunkSerializer.flushBuffer();
+            return chunk;
+        }
+    }
+
+    /**
+     * Buffer holding the serialized form of a single child node. Depending on the output of the
+     * main serializer, the content is either stored as encoded bytes or as characters.
+     */
+    private static final class Chunk {
+        private final ByteBuffer bytes;
+        private final CharBuffer chars;
+
+        Chunk(boolean useChars) {
+            if (useChars) {
+                bytes = null;
+                chars = new CharBuffer();
+            } else {
+                bytes = new ByteBuffer();
+                chars = null;
+            }
+        }
+
+        Serializer createSerializer(String encoding) {
+            return bytes == null ? new Serializer(chars) : new Serializer(bytes, encoding);
+        }
+
+        void writeTo(Serializer serializer) throws StreamException {
+            if (bytes == null) {
+                chars.writeTo(serializer);
+            } else {
+                try {
+                    bytes.writeTo(serializer.getOutputStream());
+                } catch (IOException ex) {
+                    throw new StreamException(ex);
+                }
+            }
+        }
+
+        void reset() {
+            if (bytes == null) {
+                chars.reset();
+            } else {
+                bytes.reset();
+            }
+        }
+    }
+
+    private static final class ByteBuffer extends ByteArrayOutputStream {
+        ByteBuffer() {
+            super(4096);
+        }
+    }
+
+    private static final class CharBuffer extends CharArrayWriter {
+        CharBuffer() {
+            super(4096);
+        }
+
+        void writeTo(Serializer serializer) throws StreamException {
+            serializer.writeSerializedContent(buf, 0, count);
+        }
+    }
+
+    /**
+     * Keeps track of the namespace declarations written to the output, so that the children that
+     * are serialized in parallel can be given the namespace context in which they will appear.
+     */
+    private static final class NamespaceContextTracker extends XmlHandlerWrapper implements NamespaceContextProvider {
+        private String[] namespaceStack = new String[16];
+        private int bindings;
+        private int[] scopeStack = new int[8];
+        private int scopes;
+
+        NamespaceContextTracker(XmlHandler parent) {
+            super(parent);
+        }
+
+        @Override
+        public void startElement(String namespaceURI, String localName, String prefix) throws StreamException {
+            super.startElement(namespaceURI, localName, prefix);
+            if (scopes == scopeStack.length) {
+                int[] newScopeStack = new int[scopeStack.length*2];
+                System.arraycopy(scopeStack, 0, newScopeStack, 0, scopeStack.length);
+                scopeStack = newScopeStack;
+            }
+            scopeStack[scopes++] = bindings;
+        }
+
+        @Override
+        public void endElement() throws StreamException {
+            bindings = scopeStack[--scopes];
+            super.endElement();
+        }
+
+        @Override
+        public void processNamespaceDeclaration(String prefix, String namespaceURI) throws StreamException {
+            super.processNamespaceDeclaration(prefix, namespaceURI);
+            if (bindings*2 == namespaceStack.length) {
+                String[] newNamespaceStack = new String[namespaceStack.length*2];
+                System.arraycopy(namespaceStack, 0, newNamespaceStack, 0, namespaceStack.length);
+                namespaceStack = newNamespaceStack;
+            }
+            namespaceStack[bindings*2] = prefix;
+            namespaceStack[bindings*2+1] = namespaceURI;
+            bindings++;
+        }
+
+        @Override
+        public boolean isBound(String prefix, String namespaceURI) {
+            return isBound(namespaceStack, bindings, prefix, namespaceURI);
+        }
+
+        NamespaceContextProvider snapshot() {
+            final String[] snapshot = new String[bindings*2];
+            System.arraycopy(namespaceStack, 0, snapshot, 0, snapshot.length);
+            return new NamespaceContextProvider() {
+                @Override
+                public boolean isBound(String prefix, String namespaceURI) {
+                    return NamespaceContextTracker.isBound(snapshot, snapshot.length/2, prefix, namespaceURI);
+                }
+            };
+        }
+
+        static boolean isBound(String[] namespaceStack, int bindings, String prefix, String namespaceURI) {
+            for (int i=(bindings-1)*2; i>=0; i-=2) {
+                if (prefix.equals(namespaceStack[i])) {
+                    return namespaceURI.equals(namespaceStack[i+1]);
+                }
+            }
+            return prefix.isEmpty() && namespaceURI.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
+
+import org.apache.axiom.core.CoreElement;
+import org.apache.axiom.core.CoreModelException;
+import org.apache.axiom.core.CoreNSAwareElement;
+import org.apache.axiom.core.stream.NamespaceContextProvider;
+import org.apache.axiom.core.stream.NamespaceRepairingFilterHandler;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlHandlerWrapper;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.apache.axiom.om.impl.intf.SerializedForm;
+
+/**
+ * Creates {@link SerializedForm} instances and determines whether they can be used with a given
+ * handler chain.
+ */
+public final class SerializedFormFactory {
+    private SerializedFormFactory() {}
+
+    /**
+     * Serialize the given element.
+     * 
+     * @param element
+     *            the element
+     * @param contextElement
+     *            the parent of the element, used to resolve prefixes in <tt>xsi:type</tt>
+     *            attributes, or <code>null</code>
+     * @param encoding
+     *            the charset encoding, or <code>null</code> to produce characters
+     * @return the serialized form
+     * @throws CoreModelException
+     * @throws StreamException
+     */
+    public static SerializedForm create(CoreNSAwareElement element, CoreElement contextElement, String encoding) throws CoreModelException, StreamException {
+        ByteArrayOutputStream baos;
+        CharArrayWriter caw;
+        Serializer serializer;
+        if (encoding == null) {
+            baos = null;
+            caw = new CharArrayWriter();
+            serializer = new Serializer(caw);
+        } else {
+            baos = new ByteArrayOutputStream();
+            caw = null;
+            serializer = new Serializer(baos, encoding);
+        }
+        EmptyNamespaceContext namespaceContext = new EmptyNamespaceContext();
+        XmlHandler handler = new Marker(serializer);
+        if (contextElement != null) {
+            handler = new XsiTypeFilterHandler(handler, contextElement);
+        }
+        handler = new NamespaceRepairingFilterHandler(handler, namespaceContext, true);
+        element.internalSerialize(handler, true);
+        return new SerializedForm(baos == null ? null : baos.toByteArray(),
+                caw == null ? null : caw.toCharArray(), namespaceContext.defaultNamespaceUsed);
+    }
+
+    /**
+     * Get the serializer to which a serialized form can be written directly in place of the
+     * events sent to the given handler. This is only possible if the handler chain consists of
+     * filters that pass through the events for a complete element unchanged and ends with a
+     * {@link Serializer}. Note that this always returns <code>null</code> while a serialized form
+     * is being created, so that the creation doesn't recurse.
+     * 
+     * @param handler
+     *            the handler
+     * @return the serializer, or <code>null</code> if serialized forms can't be used
+     */
+    public static Serializer getTargetSerializer(XmlHandler handler) {
+        while (handler instanceof XmlHandlerWrapper) {
+            if (!(handler instanceof NamespaceRepairingFilterHandler
+                    || handler instanceof XsiTypeFilterHandler
+                    || handler instanceof XmlDeclarationRewriterHandler)) {
+                return null;
+            }
+            handler = ((XmlHandlerWrapper)handler).getParent();
+        }
+        return handler instanceof Serializer ? (Serializer)handler : null;
+    }
+
+    /**
+     * Namespace context in which no namespaces are bound. It keeps track of whether the
+     * serialized content relies on the default namespace being unbound.
+     */
+    private static final class EmptyNamespaceContext implements NamespaceContextProvider {
+        boolean defaultNamespaceUsed;
+
+        @Override
+        public boolean isBound(String prefix, String namespaceURI) {
+            if (prefix.isEmpty() && namespaceURI.isEmpty()) {
+                defaultNamespaceUsed = true;
+                return true;
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Handler inserted into the chain while a serialized form is being created. Since it is not
+     * one of the filters accepted by {@link #getTargetSerializer(XmlHandler)}, it
+     * prevents cached forms of descendants (and of the element itself) from being used.
+     */
+    private static final class Marker extends XmlHandlerWrapper {
+        Marker(XmlHandler parent) {
+            super(parent);
+        }
+    }
+}
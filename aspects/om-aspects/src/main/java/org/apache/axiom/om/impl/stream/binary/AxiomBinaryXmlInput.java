@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.stream.binary;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.activation.DataHandler;
+
+import org.apache.axiom.blob.Blob;
+import org.apache.axiom.blob.BlobDataSource;
+import org.apache.axiom.blob.Blobs;
+import org.apache.axiom.core.stream.binary.BinaryXmlInput;
+import org.apache.axiom.om.impl.intf.TextContent;
+
+/**
+ * {@link BinaryXmlInput} that represents binary content as {@link TextContent} objects backed by
+ * a {@link DataHandler}, so that the binary data is not base64 encoded.
+ */
+public final class AxiomBinaryXmlInput extends BinaryXmlInput {
+    private final Blob blob;
+
+    public AxiomBinaryXmlInput(InputStream in) {
+        super(in);
+        blob = null;
+    }
+
+    /**
+     * Constructor for an input that reads the content of a blob. Each reader opens a new stream
+     * on the blob and closes it when it is disposed.
+     * 
+     * @param blob
+     *            the blob containing the binary XML
+     */
+    public AxiomBinaryXmlInput(Blob blob) {
+        this.blob = blob;
+    }
+
+    @Override
+    protected InputStream openStream() throws IOException {
+        return blob.getInputStream();
+    }
+
+    @Override
+    protected Object createBinaryCharacterData(byte[] data, String contentType, boolean optimize) {
+        return new TextContent(null, new DataHandler(new BlobDataSource(Blobs.createBlob(data),
+                contentType == null ? "application/octet-stream" : contentType)), optimize);
+    }
+}
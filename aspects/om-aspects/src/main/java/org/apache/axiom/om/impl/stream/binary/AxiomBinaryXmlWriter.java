@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.stream.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.activation.DataHandler;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.binary.BinaryXmlWriter;
+import org.apache.axiom.om.impl.intf.TextContent;
+
+/**
+ * {@link BinaryXmlWriter} that writes the content of binary text nodes in raw form instead of
+ * base64 encoding it.
+ */
+public final class AxiomBinaryXmlWriter extends BinaryXmlWriter {
+    public AxiomBinaryXmlWriter(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    protected boolean processBinaryCharacterData(Object data) throws StreamException {
+        if (data instanceof TextContent && ((TextContent)data).isBinary()) {
+            TextContent textContent = (TextContent)data;
+            DataHandler dataHandler = textContent.getDataHandler();
+            OutputStream out = startBinaryData(dataHandler.getContentType(), textContent.isOptimize());
+            try {
+                dataHandler.writeTo(out);
+                out.close();
+            } catch (IOException ex) {
+                throw new StreamException(ex);
+            }
+            return true;
+        } else {
+            return false;
+        }
+    }
+}
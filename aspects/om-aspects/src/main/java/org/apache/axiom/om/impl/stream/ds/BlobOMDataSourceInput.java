@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.stream.ds;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.axiom.blob.Blob;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.apache.axiom.om.ds.BlobOMDataSource;
+import org.apache.axiom.om.impl.stream.stax.pull.StAXPullInput;
+
+/**
+ * {@link XmlInput} implementation for {@link BlobOMDataSource}. If the events are sent to a
+ * {@link Serializer} that uses the same charset encoding as the data source, the content of the
+ * blob is copied verbatim to the output stream. Otherwise the content is parsed.
+ */
+public final class BlobOMDataSourceInput implements XmlInput {
+    /**
+     * {@link XmlReader} that parses the content of the data source. The parser is created lazily
+     * because {@link XmlInput#createReader(XmlHandler)} can't throw {@link StreamException}.
+     */
+    private static final class ParsingReader implements XmlReader {
+        private final XmlHandler handler;
+        private final BlobOMDataSource dataSource;
+        private XmlReader reader;
+        
+        ParsingReader(XmlHandler handler, BlobOMDataSource dataSource) {
+            this.handler = handler;
+            this.dataSource = dataSource;
+        }
+
+        @Override
+        public boolean proceed() throws StreamException {
+            if (reader == null) {
+                try {
+                    reader = new StAXPullInput(dataSource.getReader()).createReader(handler);
+                } catch (XMLStreamException ex) {
+                    throw new StreamException(ex);
+                }
+            }
+            return reader.proceed();
+        }
+
+        @Override
+        public void dispose() {
+            if (reader != null) {
+                reader.dispose();
+            }
+        }
+    }
+    
+    private final BlobOMDataSource dataSource;
+
+    public BlobOMDataSourceInput(BlobOMDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public XmlReader createReader(XmlHandler handler) {
+        Serializer serializer = SerializerUtil.getSerializer(handler);
+        BlobOMDataSource.Data data = dataSource.getObject();
+        if (serializer != null && isSameEncoding(serializer.getEncoding(), data.getEncoding())
+                && isFragment(data.getBlob())) {
+            return new DirectBlobOMDataSourceReader(serializer, data.getBlob());
+        }
+        return new ParsingReader(handler, dataSource);
+    }
+
+    private static boolean isSameEncoding(String encoding1, String encoding2) {
+        if (encoding1 == null || encoding2 == null) {
+            return false;
+        }
+        try {
+            return Charset.forName(encoding1).equals(Charset.forName(encoding2));
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Check that the blob contains a fragment that can be inserted into the output, i.e. that it
+     * starts with an element (and not with a byte order mark or an XML declaration).
+     */
+    private static boolean isFragment(Blob blob) {
+        try {
+            InputStream in = blob.getInputStream();
+            try {
+                return in.read() == '<' && in.read() != '?';
+            } finally {
+                in.close();
+            }
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+}
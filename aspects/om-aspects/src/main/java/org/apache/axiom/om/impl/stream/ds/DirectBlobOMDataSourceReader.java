@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.stream.ds;
+
+import java.io.IOException;
+
+import org.apache.axiom.blob.Blob;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.core.stream.serializer.Serializer;
+
+final class DirectBlobOMDataSourceReader implements XmlReader {
+    private final Serializer serializer;
+    private final Blob blob;
+
+    DirectBlobOMDataSourceReader(Serializer serializer, Blob blob) {
+        this.serializer = serializer;
+        this.blob = blob;
+    }
+
+    @Override
+    public boolean proceed() throws StreamException {
+        try {
+            blob.writeTo(serializer.getOutputStream());
+        } catch (IOException ex) {
+            throw new StreamException(ex);
+        }
+        return true;
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
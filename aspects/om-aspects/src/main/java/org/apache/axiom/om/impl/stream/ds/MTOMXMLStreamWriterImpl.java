@@ -26,8 +26,6 @@ import javax.xml.namespace.NamespaceContext;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
-import org.apache.axiom.core.stream.DocumentElementExtractingFilterHandler;
-import org.apache.axiom.core.stream.NamespaceRepairingFilterHandler;
 import org.apache.axiom.core.stream.StreamException;
 import org.apache.axiom.core.stream.XmlHandler;
 import org.apache.axiom.core.stream.XmlHandlerWrapper;
@@ -35,9 +33,6 @@ import org.apache.axiom.core.stream.serializer.Serializer;
 import org.apache.axiom.core.stream.stax.push.XmlHandlerStreamWriter;
 import org.apache.axiom.om.OMOutputFormat;
 import org.apache.axiom.om.impl.MTOMXMLStreamWriter;
-import org.apache.axiom.om.impl.stream.XmlDeclarationRewriterHandler;
-import org.apache.axiom.om.impl.stream.XsiTypeFilterHandler;
-import org.apache.axiom.om.impl.stream.xop.XOPEncodingFilterHandler;
 import org.apache.axiom.om.impl.stream.xop.XOPHandler;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -282,18 +277,10 @@ final class MTOMXMLStreamWriterImpl extends MTOMXMLStreamWriter {
     @Override
     public OutputStream getOutputStream() throws XMLStreamException {  
         OutputStream outputStream;
-        XmlHandler handler = getHandler();
-        // Remove wrappers that can be safely removed
-        while (handler instanceof DocumentElementExtractingFilterHandler
-                || handler instanceof NamespaceRepairingFilterHandler
-                || handler instanceof XsiTypeFilterHandler
-                || handler instanceof XmlDeclarationRewriterHandler
-                || handler instanceof XOPEncodingFilterHandler) {
-            handler = ((XmlHandlerWrapper)handler).getParent();
-        }
-        if (handler instanceof Serializer) {
+        Serializer serializer = SerializerUtil.getSerializer(getHandler());
+        if (serializer != null) {
             try {
-                outputStream = ((Serializer)handler).getOutputStream();
+                outputStream = serializer.getOutputStream();
             } catch (StreamException ex) {
                 throw new XMLStreamException(ex);
             }
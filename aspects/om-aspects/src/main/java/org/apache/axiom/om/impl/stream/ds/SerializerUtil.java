@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.stream.ds;
+
+import org.apache.axiom.core.stream.DocumentElementExtractingFilterHandler;
+import org.apache.axiom.core.stream.NamespaceRepairingFilterHandler;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlHandlerWrapper;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.apache.axiom.om.impl.stream.XmlDeclarationRewriterHandler;
+import org.apache.axiom.om.impl.stream.XsiTypeFilterHandler;
+import org.apache.axiom.om.impl.stream.xop.XOPEncodingFilterHandler;
+
+final class SerializerUtil {
+    private SerializerUtil() {}
+
+    /**
+     * Get the {@link Serializer} at the end of a handler chain, provided that all the handlers
+     * before it can be safely bypassed when writing data directly to the output stream.
+     * 
+     * @param handler
+     *            the handler
+     * @return the serializer, or {@code null} if the handler chain doesn't end with a serializer
+     *         or contains handlers that can't be bypassed
+     */
+    static Serializer getSerializer(XmlHandler handler) {
+        // Remove wrappers that can be safely removed
+        while (handler instanceof DocumentElementExtractingFilterHandler
+                || handler instanceof NamespaceRepairingFilterHandler
+                || handler instanceof XsiTypeFilterHandler
+                || handler instanceof XmlDeclarationRewriterHandler
+                || handler instanceof XOPEncodingFilterHandler) {
+            handler = ((XmlHandlerWrapper)handler).getParent();
+        }
+        return handler instanceof Serializer ? (Serializer)handler : null;
+    }
+}
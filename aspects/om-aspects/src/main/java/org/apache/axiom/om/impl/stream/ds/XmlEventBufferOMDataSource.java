@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.impl.stream.ds;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.buffer.XmlEventBuffer;
+import org.apache.axiom.core.stream.stax.pull.StAXPivot;
+import org.apache.axiom.om.ds.AbstractPullOMDataSource;
+import org.apache.axiom.om.impl.stream.stax.pull.AxiomXMLStreamReaderExtensionFactory;
+
+/**
+ * Data source backed by an {@link XmlEventBuffer}. When the data source is serialized or expanded,
+ * the events are replayed directly from the buffer (see
+ * {@link org.apache.axiom.om.impl.intf.AxiomSourcedElement#getXmlInput(boolean, boolean)}). The
+ * buffer is immutable, so that the data source is not destructive and copies share the same
+ * buffer.
+ */
+public final class XmlEventBufferOMDataSource extends AbstractPullOMDataSource {
+    private final XmlEventBuffer buffer;
+
+    public XmlEventBufferOMDataSource(XmlEventBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public XmlEventBuffer getObject() {
+        return buffer;
+    }
+
+    @Override
+    public XMLStreamReader getReader() throws XMLStreamException {
+        StAXPivot pivot = new StAXPivot(AxiomXMLStreamReaderExtensionFactory.INSTANCE);
+        try {
+            pivot.setReader(buffer.createReader(pivot));
+        } catch (StreamException ex) {
+            throw new XMLStreamException(ex);
+        }
+        return pivot;
+    }
+
+    @Override
+    public boolean isDestructiveRead() {
+        return false;
+    }
+
+    @Override
+    public XmlEventBufferOMDataSource copy() {
+        return new XmlEventBufferOMDataSource(buffer);
+    }
+}
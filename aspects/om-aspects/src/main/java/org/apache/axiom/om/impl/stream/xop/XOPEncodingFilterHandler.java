@@ -33,6 +33,7 @@ import org.apache.axiom.ext.stax.datahandler.DataHandlerProvider;
 import org.apache.axiom.om.OMAttachmentAccessor;
 import org.apache.axiom.om.OMException;
 import org.apache.axiom.om.impl.intf.TextContent;
+import org.apache.axiom.util.activation.DataHandlerUtils;
 
 public final class XOPEncodingFilterHandler extends AbstractXOPEncodingFilterHandler implements XOPHandler, OMAttachmentAccessor {
     private final Map<String,Object> dataHandlerObjects = new LinkedHashMap<String,Object>();
@@ -92,15 +93,22 @@ public final class XOPEncodingFilterHandler extends AbstractXOPEncodingFilterHan
     }
 
     @Override
-    protected String processCharacterData(Object data) throws StreamException {
-        if (data instanceof TextContent) {
+    public void processCharacterData(Object data, boolean ignorable) throws StreamException {
+        if (!ignorable && data instanceof TextContent) {
             TextContent textContent = (TextContent)data;
             if (textContent.isBinary()) {
                 Object dataHandlerObject = textContent.getDataHandlerObject();
+                DataHandler peekingDataHandler = null;
                 boolean optimize;
                 try {
                     if (dataHandlerObject instanceof DataHandlerProvider) {
                         optimize = optimizationPolicy.isOptimized((DataHandlerProvider)dataHandlerObject, textContent.isOptimize());
+                    } else if (dataHandlerObject != null && textContent.isOptimize()) {
+                        // The optimization policy may need to read the content to check its size.
+                        // Let it read the content through a wrapper that keeps it, so that it
+                        // doesn't need to be produced again if it is encoded inline.
+                        peekingDataHandler = DataHandlerUtils.createPeekingDataHandler((DataHandler)dataHandlerObject);
+                        optimize = optimizationPolicy.isOptimized(peekingDataHandler, true);
                     } else {
                         optimize = optimizationPolicy.isOptimized((DataHandler)dataHandlerObject, textContent.isOptimize());
                     }
@@ -110,10 +118,13 @@ public final class XOPEncodingFilterHandler extends AbstractXOPEncodingFilterHan
                 if (optimize) {
                     String contentID = contentIDGenerator.generateContentID(textContent.getContentID());
                     dataHandlerObjects.put(contentID, dataHandlerObject);
-                    return contentID;
+                    writeXOPInclude(contentID);
+                    return;
+                } else if (peekingDataHandler != null) {
+                    data = new TextContent(null, peekingDataHandler, false);
                 }
             }
         }
-        return null;
+        super.processCharacterData(data, ignorable);
     }
 }
@@ -27,13 +27,14 @@ import org.apache.axiom.soap.RolePlayer;
 import org.apache.axiom.soap.SOAP12Constants;
 import org.apache.axiom.soap.SOAP12Version;
 import org.apache.axiom.soap.SOAPVersion;
+import org.apache.axiom.soap.impl.index.RoleMatcher;
 import org.apache.axiom.soap.impl.intf.SOAPHelper;
 
 /**
  * This Checker uses a RolePlayer to return the appropriate headers for that RolePlayer to process.
  * Ignore "none", always "next", etc.
  */
-public class RolePlayerChecker implements ElementMatcher<AxiomElement> {
+public class RolePlayerChecker implements ElementMatcher<AxiomElement>, RoleMatcher {
     private final SOAPHelper soapHelper;
     private final RolePlayer rolePlayer;
     private final String namespace;
@@ -65,7 +66,11 @@ public class RolePlayerChecker implements ElementMatcher<AxiomElement> {
             }
         }
 
-        String role = SOAPHeaderBlockHelper.getRole(header, soapHelper);
+        return matchesRole(SOAPHeaderBlockHelper.getRole(header, soapHelper));
+    }
+
+    @Override
+    public boolean matchesRole(String role) {
         SOAPVersion version = soapHelper.getVersion();
 
         // 1. If role is ultimatedest, go by what the rolePlayer says
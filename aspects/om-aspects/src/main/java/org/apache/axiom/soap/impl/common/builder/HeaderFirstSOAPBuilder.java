@@ -0,0 +1,614 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.soap.impl.common.builder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.axiom.blob.Blob;
+import org.apache.axiom.blob.Blobs;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMException;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactorySPI;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.om.OMNode;
+import org.apache.axiom.om.OMSourcedElement;
+import org.apache.axiom.om.ds.BlobOMDataSource;
+import org.apache.axiom.soap.SOAPBody;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axiom.soap.SOAPModelBuilder;
+import org.xml.sax.InputSource;
+
+/**
+ * Internal implementation class. Creates SOAP model builders that only parse the SOAP envelope and header and leave the content
+ * of the SOAP body unparsed. The message is read into memory and scanned at the byte level to
+ * locate the child element of the SOAP body. The remaining parts of the message are then parsed
+ * as usual, and the child element of the body is represented by an {@link OMSourcedElement}
+ * backed by a {@link BlobOMDataSource} that refers to the original bytes.
+ * <p>
+ * If the message doesn't have the expected structure (e.g. if the body is empty, contains more
+ * than one element or a SOAP fault) or uses a charset encoding that is not ASCII compatible, the
+ * message is parsed in the normal way.
+ */
+public final class HeaderFirstSOAPBuilder {
+    /**
+     * {@link ByteArrayOutputStream} that gives access to its internal buffer.
+     */
+    private static final class MessageBuffer extends ByteArrayOutputStream {
+        MessageBuffer() {
+            super(4096);
+        }
+
+        void readFrom(InputStream in) throws IOException {
+            while (true) {
+                if (count == buf.length) {
+                    int newLength = (int)Math.min(buf.length*2L, Integer.MAX_VALUE-8);
+                    if (newLength == buf.length) {
+                        throw new IOException("Message too large");
+                    }
+                    buf = Arrays.copyOf(buf, newLength);
+                }
+                int c = in.read(buf, count, buf.length-count);
+                if (c == -1) {
+                    break;
+                }
+                count += c;
+            }
+        }
+
+        byte[] getBuffer() {
+            return buf;
+        }
+    }
+
+    private static final byte[] UTF8_BOM = { (byte)0xEF, (byte)0xBB, (byte)0xBF };
+    
+    private final byte[] data;
+    private final int length;
+    
+    /**
+     * The current position of the scanner.
+     */
+    private int pos;
+    
+    /**
+     * The end of the name of the last tag processed by {@link #scanTag(Map)}.
+     */
+    private int nameEnd;
+    
+    /**
+     * Indicates whether the last tag processed by {@link #scanTag(Map)} was an empty-element tag.
+     */
+    private boolean emptyElement;
+
+    private HeaderFirstSOAPBuilder(byte[] data, int length) {
+        this.data = data;
+        this.length = length;
+    }
+
+    public static SOAPModelBuilder create(OMMetaFactorySPI metaFactory, InputStream in, String encoding) {
+        MessageBuffer buffer = new MessageBuffer();
+        try {
+            buffer.readFrom(in);
+        } catch (IOException ex) {
+            throw new OMException(ex);
+        }
+        // Scan the internal buffer directly, so that the message is not copied again. The blob
+        // created for the content of the body shares the same array.
+        byte[] data = buffer.getBuffer();
+        int length = buffer.size();
+        SOAPModelBuilder builder = new HeaderFirstSOAPBuilder(data, length).build(metaFactory, encoding);
+        if (builder == null) {
+            builder = createBuilder(metaFactory, new ByteArrayInputStream(data, 0, length), encoding);
+        }
+        return builder;
+    }
+
+    /**
+     * Create a builder that parses the message in the normal way.
+     */
+    private static SOAPModelBuilder createBuilder(OMMetaFactorySPI metaFactory, InputStream in, String encoding) {
+        InputSource is = new InputSource(in);
+        is.setEncoding(encoding);
+        return metaFactory.createSOAPModelBuilder(is);
+    }
+
+    /**
+     * Attempt to build the message with a deferred body.
+     * 
+     * @return the builder, or {@code null} if the message doesn't have the expected structure and
+     *         needs to be parsed in the normal way
+     */
+    private SOAPModelBuilder build(OMMetaFactorySPI metaFactory, String encoding) {
+        if (startsWith(0, UTF8_BOM)) {
+            pos = UTF8_BOM.length;
+            if (encoding == null) {
+                encoding = "UTF-8";
+            }
+        }
+        if (encoding == null) {
+            encoding = getDeclaredEncoding();
+        }
+        if (encoding == null || !isASCIICompatible(encoding)) {
+            return null;
+        }
+        
+        // Locate the body start tag
+        int bodyStart = -1;
+        int depth = 0;
+        while (bodyStart == -1) {
+            int tagStart = nextTag();
+            if (tagStart == -1) {
+                return null;
+            }
+            switch (data[tagStart+1]) {
+                case '/':
+                    if (--depth < 0) {
+                        return null;
+                    }
+                    break;
+                case '!':
+                case '?':
+                    break;
+                default:
+                    if (!scanTag(null)) {
+                        return null;
+                    }
+                    if (depth == 1 && localNameEquals(tagStart+1, nameEnd, "Body")) {
+                        if (emptyElement) {
+                            return null;
+                        }
+                        bodyStart = tagStart;
+                    } else if (!emptyElement) {
+                        depth++;
+                    }
+            }
+        }
+        int bodyNameEnd = nameEnd;
+        int bodyContentStart = pos;
+        
+        // Scan the child element of the body
+        skipWhitespace();
+        if (pos == length || data[pos] != '<') {
+            return null;
+        }
+        int childStart = pos;
+        Map<String,String> childNamespaces = new HashMap<String,String>();
+        if (!scanTag(childNamespaces)) {
+            return null;
+        }
+        int childNameEnd = nameEnd;
+        if (!emptyElement) {
+            depth = 1;
+            while (depth > 0) {
+                int tagStart = nextTag();
+                if (tagStart == -1) {
+                    return null;
+                }
+                switch (data[tagStart+1]) {
+                    case '/':
+                        depth--;
+                        break;
+                    case '!':
+                    case '?':
+                        break;
+                    default:
+                        if (!scanTag(null)) {
+                            return null;
+                        }
+                        if (!emptyElement) {
+                            depth++;
+                        }
+                }
+            }
+        }
+        int childEnd = pos;
+        
+        // Check that the child element is followed by the body end tag
+        skipWhitespace();
+        int bodyContentEnd = pos;
+        int bodyNameLength = bodyNameEnd - bodyStart - 1;
+        if (bodyContentEnd + bodyNameLength + 2 >= length
+                || data[bodyContentEnd] != '<' || data[bodyContentEnd+1] != '/'
+                || !regionMatches(bodyStart+1, bodyContentEnd+2, bodyNameLength)
+                || data[bodyContentEnd+bodyNameLength+2] != '>'
+                        && !isWhitespace(data[bodyContentEnd+bodyNameLength+2])) {
+            return null;
+        }
+        
+        // Parse the message without the content of the body
+        SOAPModelBuilder builder = createBuilder(metaFactory,
+                new SequenceInputStream(new ByteArrayInputStream(data, 0, childStart),
+                        new ByteArrayInputStream(data, childEnd, length-childEnd)),
+                encoding);
+        SOAPEnvelope envelope = builder.getSOAPEnvelope();
+        SOAPBody body = envelope.getBody();
+        builder.getDocument().build();
+        if (body == null
+                || !regionEquals(bodyStart+1, bodyNameEnd, qualifiedName(body.getPrefix(), body.getLocalName()))) {
+            return null;
+        }
+        
+        // Determine the name of the child element
+        String childQName = new String(data, childStart+1, childNameEnd-childStart-1, Charset.forName(encoding));
+        int idx = childQName.indexOf(':');
+        String prefix = idx == -1 ? "" : childQName.substring(0, idx);
+        String localName = childQName.substring(idx+1);
+        String namespaceURI = childNamespaces.get(prefix);
+        if (namespaceURI == null) {
+            OMNamespace ns = body.findNamespaceURI(prefix);
+            namespaceURI = ns == null ? "" : ns.getNamespaceURI();
+        }
+        if (prefix.length() > 0 && namespaceURI.length() == 0) {
+            return null;
+        }
+        if (namespaceURI.equals(envelope.getNamespace().getNamespaceURI())
+                && localName.equals("Fault")) {
+            return null;
+        }
+        
+        // Add the namespace declarations in scope on the body so that the content can be parsed
+        // (and serialized) independently of the envelope
+        StringBuilder namespaceDeclarations = new StringBuilder();
+        for (Iterator<OMNamespace> it = body.getNamespacesInScope(); it.hasNext(); ) {
+            OMNamespace ns = it.next();
+            if (!childNamespaces.containsKey(ns.getPrefix())) {
+                namespaceDeclarations.append(" xmlns");
+                if (ns.getPrefix().length() > 0) {
+                    namespaceDeclarations.append(':');
+                    namespaceDeclarations.append(ns.getPrefix());
+                }
+                namespaceDeclarations.append("=\"");
+                appendEscaped(namespaceDeclarations, ns.getNamespaceURI());
+                namespaceDeclarations.append('"');
+            }
+        }
+        Blob blob;
+        if (namespaceDeclarations.length() == 0) {
+            blob = Blobs.slice(Blobs.createBlob(data), childStart, childEnd-childStart);
+        } else {
+            byte[] declarations;
+            try {
+                declarations = namespaceDeclarations.toString().getBytes(encoding);
+            } catch (UnsupportedEncodingException ex) {
+                // We already checked that the encoding is supported
+                throw new OMException(ex);
+            }
+            byte[] content = new byte[childEnd-childStart+declarations.length];
+            int nameLength = childNameEnd-childStart;
+            System.arraycopy(data, childStart, content, 0, nameLength);
+            System.arraycopy(declarations, 0, content, nameLength, declarations.length);
+            System.arraycopy(data, childNameEnd, content, nameLength+declarations.length, childEnd-childNameEnd);
+            blob = Blobs.createBlob(content);
+        }
+        
+        // Replace the white space in the body by the deferred element, surrounded by the original
+        // white space
+        for (Iterator<OMNode> it = body.getChildren(); it.hasNext(); ) {
+            it.next();
+            it.remove();
+        }
+        SOAPFactory factory = (SOAPFactory)envelope.getOMFactory();
+        addWhitespace(factory, body, bodyContentStart, childStart);
+        body.addChild(factory.createOMElement(new BlobOMDataSource(blob, encoding), localName,
+                namespaceURI.length() == 0 ? null : factory.createOMNamespace(namespaceURI, prefix)));
+        addWhitespace(factory, body, childEnd, bodyContentEnd);
+        return builder;
+    }
+
+    private void addWhitespace(OMFactory factory, OMElement parent, int start, int end) {
+        if (start == end) {
+            return;
+        }
+        StringBuilder buffer = new StringBuilder(end-start);
+        for (int i=start; i<end; i++) {
+            char c = (char)data[i];
+            // Apply end-of-line normalization
+            if (c == '\r') {
+                if (i+1 < end && data[i+1] == '\n') {
+                    continue;
+                }
+                c = '\n';
+            }
+            buffer.append(c);
+        }
+        factory.createOMText(parent, buffer.toString());
+    }
+
+    /**
+     * Get the encoding specified by the XML declaration.
+     * 
+     * @return the encoding, or {@code null} if the encoding can't be determined
+     */
+    private String getDeclaredEncoding() {
+        if (!startsWith(pos, new byte[] { '<', '?', 'x', 'm', 'l' })) {
+            return startsWith(pos, new byte[] { '<' }) ? "UTF-8" : null;
+        }
+        int end = indexOf(pos, (byte)'>');
+        if (end == -1) {
+            return null;
+        }
+        String decl = new String(data, pos, end-pos, Charset.forName("ISO-8859-1"));
+        int idx = decl.indexOf("encoding");
+        if (idx == -1) {
+            return "UTF-8";
+        }
+        idx = decl.indexOf('=', idx);
+        if (idx == -1) {
+            return null;
+        }
+        idx++;
+        while (idx < decl.length() && isWhitespace(decl.charAt(idx))) {
+            idx++;
+        }
+        if (idx == decl.length()) {
+            return null;
+        }
+        char quote = decl.charAt(idx);
+        int valueEnd = decl.indexOf(quote, idx+1);
+        return valueEnd == -1 ? null : decl.substring(idx+1, valueEnd);
+    }
+
+    /**
+     * Determine if the given encoding is known to be ASCII compatible, i.e. if all bytes in the
+     * range 0x00-0x7F represent ASCII characters.
+     */
+    private static boolean isASCIICompatible(String encoding) {
+        String name;
+        try {
+            name = Charset.forName(encoding).name();
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        return name.equals("UTF-8") || name.equals("US-ASCII") || name.startsWith("ISO-8859-")
+                || name.startsWith("windows-125");
+    }
+
+    /**
+     * Move to the next tag (i.e. start tag, end tag, comment, processing instruction or CDATA
+     * section), skipping character data. If the tag is an end tag, comment, processing instruction
+     * or CDATA section, the scanner is positioned after the tag. If the tag is a start tag, the
+     * scanner is positioned at the start of the tag and {@link #scanTag(Map)} needs to be called.
+     * 
+     * @return the position of the tag, or -1 if the end of the data has been reached or the tag
+     *         is malformed or unsupported
+     */
+    private int nextTag() {
+        int tagStart = indexOf(pos, (byte)'<');
+        if (tagStart == -1 || tagStart+1 == length) {
+            return -1;
+        }
+        int end;
+        switch (data[tagStart+1]) {
+            case '/':
+                end = indexOf(tagStart, (byte)'>');
+                break;
+            case '?':
+                end = indexOf(tagStart, new byte[] { '?', '>' });
+                break;
+            case '!':
+                if (startsWith(tagStart, new byte[] { '<', '!', '-', '-' })) {
+                    end = indexOf(tagStart+4, new byte[] { '-', '-', '>' });
+                } else if (startsWith(tagStart, new byte[] { '<', '!', '[', 'C', 'D', 'A', 'T', 'A', '[' })) {
+                    end = indexOf(tagStart+9, new byte[] { ']', ']', '>' });
+                } else {
+                    // Document type declaration; they are not allowed in SOAP messages
+                    return -1;
+                }
+                break;
+            default:
+                pos = tagStart;
+                return tagStart;
+        }
+        if (end == -1) {
+            return -1;
+        }
+        pos = end+1;
+        return tagStart;
+    }
+
+    /**
+     * Scan the start tag at the current position and position the scanner after the tag.
+     * 
+     * @param namespaces
+     *            a map to which the namespace declarations of the tag are added, or {@code null} if
+     *            namespace declarations need not be collected
+     * @return {@code false} if the tag is malformed or has a namespace declaration that can't be
+     *         processed
+     */
+    private boolean scanTag(Map<String,String> namespaces) {
+        int i = pos+1;
+        while (i < length && !isWhitespace(data[i]) && data[i] != '/' && data[i] != '>') {
+            i++;
+        }
+        if (i == pos+1) {
+            return false;
+        }
+        nameEnd = i;
+        while (true) {
+            while (i < length && isWhitespace(data[i])) {
+                i++;
+            }
+            if (i == length) {
+                return false;
+            }
+            byte b = data[i];
+            if (b == '>') {
+                emptyElement = false;
+                pos = i+1;
+                return true;
+            } else if (b == '/') {
+                if (i+1 == length || data[i+1] != '>') {
+                    return false;
+                }
+                emptyElement = true;
+                pos = i+2;
+                return true;
+            }
+            int attNameStart = i;
+            while (i < length && data[i] != '=' && !isWhitespace(data[i])) {
+                i++;
+            }
+            int attNameEnd = i;
+            while (i < length && isWhitespace(data[i])) {
+                i++;
+            }
+            if (i == length || data[i] != '=') {
+                return false;
+            }
+            i++;
+            while (i < length && isWhitespace(data[i])) {
+                i++;
+            }
+            if (i == length || data[i] != '"' && data[i] != '\'') {
+                return false;
+            }
+            int valueStart = i+1;
+            int valueEnd = indexOf(valueStart, data[i]);
+            if (valueEnd == -1) {
+                return false;
+            }
+            if (namespaces != null && regionStartsWith(attNameStart, attNameEnd, "xmlns")) {
+                String prefix;
+                if (attNameEnd - attNameStart == 5) {
+                    prefix = "";
+                } else if (data[attNameStart+5] == ':') {
+                    prefix = new String(data, attNameStart+6, attNameEnd-attNameStart-6, Charset.forName("ISO-8859-1"));
+                } else {
+                    prefix = null;
+                }
+                if (prefix != null) {
+                    int ampersand = indexOf(valueStart, (byte)'&');
+                    if (ampersand != -1 && ampersand < valueEnd) {
+                        // Don't attempt to process entity references
+                        return false;
+                    }
+                    // The actual encoding doesn't matter; we only use the namespace URI to check
+                    // for the SOAP namespace and for the creation of the sourced element
+                    namespaces.put(prefix, new String(data, valueStart, valueEnd-valueStart, Charset.forName("UTF-8")));
+                }
+            }
+            i = valueEnd+1;
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < length && isWhitespace(data[pos])) {
+            pos++;
+        }
+    }
+
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private int indexOf(int start, byte b) {
+        for (int i=start; i<length; i++) {
+            if (data[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOf(int start, byte[] s) {
+        for (int i=start; i<=length-s.length; i++) {
+            if (startsWith(i, s)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean startsWith(int start, byte[] s) {
+        if (start + s.length > length) {
+            return false;
+        }
+        for (int i=0; i<s.length; i++) {
+            if (data[start+i] != s[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean regionMatches(int start1, int start2, int len) {
+        for (int i=0; i<len; i++) {
+            if (data[start1+i] != data[start2+i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean regionEquals(int start, int end, String s) {
+        if (end-start != s.length()) {
+            return false;
+        }
+        for (int i=0; i<s.length(); i++) {
+            if (data[start+i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean regionStartsWith(int start, int end, String s) {
+        return end-start >= s.length() && regionEquals(start, start+s.length(), s);
+    }
+
+    private boolean localNameEquals(int start, int end, String localName) {
+        int idx = end-localName.length();
+        return idx >= start && (idx == start || data[idx-1] == ':') && regionEquals(idx, end, localName);
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.length() == 0 ? localName : prefix + ":" + localName;
+    }
+
+    private static void appendEscaped(StringBuilder buffer, String value) {
+        for (int i=0; i<value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    buffer.append("&amp;");
+                    break;
+                case '<':
+                    buffer.append("&lt;");
+                    break;
+                case '"':
+                    buffer.append("&quot;");
+                    break;
+                default:
+                    buffer.append(c);
+            }
+        }
+    }
+}
@@ -27,12 +27,17 @@ import org.apache.axiom.soap.impl.intf.soap11.AxiomSOAP11FaultCode;
 import org.apache.axiom.soap.impl.intf.soap11.AxiomSOAP11FaultDetail;
 import org.apache.axiom.soap.impl.intf.soap11.AxiomSOAP11FaultReason;
 import org.apache.axiom.soap.impl.intf.soap11.AxiomSOAP11FaultRole;
-import org.w3c.dom.Element;
 
 public class SOAP11BuilderHelper extends SOAPBuilderHelper implements SOAP11Constants {
     private boolean faultcodePresent = false;
     private boolean faultstringPresent = false;
 
+    /**
+     * The local name of the last element encountered at level 4 if it is one of the SOAP fault
+     * children that must not have element children, <code>null</code> otherwise.
+     */
+    private String faultChild;
+
     @Override
     public Class<? extends AxiomElement> handleEvent(OMElement parent, int elementLevel,
             String namespaceURI, String localName) throws SOAPProcessingException {
@@ -40,16 +45,20 @@ public class SOAP11BuilderHelper extends SOAPBuilderHelper implements SOAP11Cons
 
         if (elementLevel == 4) {
 
+            faultChild = null;
             if (SOAP_FAULT_CODE_LOCAL_NAME.equals(localName)) {
 
                 elementType = AxiomSOAP11FaultCode.class;
                 faultcodePresent = true;
+                faultChild = SOAP_FAULT_CODE_LOCAL_NAME;
             } else if (SOAP_FAULT_STRING_LOCAL_NAME.equals(localName)) {
 
                 elementType = AxiomSOAP11FaultReason.class;
                 faultstringPresent = true;
+                faultChild = SOAP_FAULT_STRING_LOCAL_NAME;
             } else if (SOAP_FAULT_ACTOR_LOCAL_NAME.equals(localName)) {
                 elementType = AxiomSOAP11FaultRole.class;
+                faultChild = SOAP_FAULT_ACTOR_LOCAL_NAME;
             } else if (SOAP_FAULT_DETAIL_LOCAL_NAME.equals(localName)) {
                 elementType = AxiomSOAP11FaultDetail.class;
             } else {
@@ -58,24 +67,9 @@ public class SOAP11BuilderHelper extends SOAPBuilderHelper implements SOAP11Cons
 
         } else if (elementLevel == 5) {
 
-            String parentTagName = "";
-            if (parent instanceof Element) {
-                parentTagName = ((Element) parent).getTagName();
-            } else {
-                parentTagName = parent.getLocalName();
-            }
-
-            if (parentTagName.equals(SOAP_FAULT_CODE_LOCAL_NAME)) {
-                throw new SOAPProcessingException(
-                        "faultcode element should not have children");
-            } else if (parentTagName.equals(
-                    SOAP_FAULT_STRING_LOCAL_NAME)) {
-                throw new SOAPProcessingException(
-                        "faultstring element should not have children");
-            } else if (parentTagName.equals(
-                    SOAP_FAULT_ACTOR_LOCAL_NAME)) {
+            if (faultChild != null) {
                 throw new SOAPProcessingException(
-                        "faultactor element should not have children");
+                        faultChild + " element should not have children");
             } else {
                 elementType = AxiomElement.class;
             }
@@ -32,8 +32,6 @@ import org.apache.axiom.soap.impl.intf.soap12.AxiomSOAP12FaultSubCode;
 import org.apache.axiom.soap.impl.intf.soap12.AxiomSOAP12FaultText;
 import org.apache.axiom.soap.impl.intf.soap12.AxiomSOAP12FaultValue;
 
-import java.util.Vector;
-
 public class SOAP12BuilderHelper extends SOAPBuilderHelper {
     private boolean codePresent = false;
     private boolean reasonPresent = false;
@@ -47,8 +45,20 @@ public class SOAP12BuilderHelper extends SOAPBuilderHelper {
     private boolean codeprocessing = false;
     private boolean subCodeProcessing = false;
     private boolean reasonProcessing = false;
-    private boolean processingDetailElements = false;
-    private Vector<String> detailElementNames;
+
+    /**
+     * The local name of the last element encountered at level 4, i.e. the SOAP fault child that
+     * contains any element at level 5.
+     */
+    private String faultChild;
+
+    /**
+     * The deepest level at which the last element encountered was a <tt>Subcode</tt> element,
+     * with all elements above it (up to level 5) also being <tt>Subcode</tt> elements. Since
+     * elements are created in document order, the parent of an element at level <i>n</i> &gt; 5 is
+     * a <tt>Subcode</tt> element if and only if <i>n</i>-1 &lt;= <code>subCodeLevel</code>.
+     */
+    private int subCodeLevel = 4;
 
     @Override
     public Class<? extends AxiomElement> handleEvent(OMElement parent, int elementLevel,
@@ -56,6 +66,7 @@ public class SOAP12BuilderHelper extends SOAPBuilderHelper {
         Class<? extends AxiomElement> elementType = null;
 
         if (elementLevel == 4) {
+            subCodeLevel = 4;
             if (localName.equals(SOAP12Constants.SOAP_FAULT_CODE_LOCAL_NAME)) {
                 if (codePresent) {
                     throw new SOAPProcessingException(
@@ -149,9 +160,11 @@ public class SOAP12BuilderHelper extends SOAPBuilderHelper {
                         localName + " unsupported element in SOAPFault element");
             }
 
+            faultChild = localName;
+
         } else if (elementLevel == 5) {
-            if (parent.getLocalName().equals(
-                    SOAP12Constants.SOAP_FAULT_CODE_LOCAL_NAME)) {
+            subCodeLevel = 4;
+            if (faultChild.equals(SOAP12Constants.SOAP_FAULT_CODE_LOCAL_NAME)) {
                 if (localName.equals(SOAP12Constants.SOAP_FAULT_VALUE_LOCAL_NAME)) {
                     if (!valuePresent) {
                         elementType = AxiomSOAP12FaultValue.class;
@@ -168,6 +181,7 @@ public class SOAP12BuilderHelper extends SOAPBuilderHelper {
                             elementType = AxiomSOAP12FaultSubCode.class;
                             subcodePresent = true;
                             subCodeProcessing = true;
+                            subCodeLevel = 5;
                         } else {
                             throw new SOAPProcessingException(
                                     "Value should present before the subcode");
@@ -182,8 +196,7 @@ public class SOAP12BuilderHelper extends SOAPBuilderHelper {
                             localName + " is not supported inside the code element");
                 }
 
-            } else if (parent.getLocalName().equals(
-                    SOAP12Constants.SOAP_FAULT_REASON_LOCAL_NAME)) {
+            } else if (faultChild.equals(SOAP12Constants.SOAP_FAULT_REASON_LOCAL_NAME)) {
                 if (localName.equals(SOAP12Constants.SOAP_FAULT_TEXT_LOCAL_NAME)) {
                     elementType = AxiomSOAP12FaultText.class;
                     reasonProcessing = false;
@@ -191,12 +204,8 @@ public class SOAP12BuilderHelper extends SOAPBuilderHelper {
                     throw new SOAPProcessingException(
                             localName + " is not supported inside the reason");
                 }
-            } else if (parent.getLocalName().equals(
-                    SOAP12Constants.SOAP_FAULT_DETAIL_LOCAL_NAME)) {
+            } else if (faultChild.equals(SOAP12Constants.SOAP_FAULT_DETAIL_LOCAL_NAME)) {
                 elementType = AxiomElement.class;
-                processingDetailElements = true;
-                detailElementNames = new Vector<String>();
-                detailElementNames.add(localName);
 
             } else {
                 throw new SOAPProcessingException(
@@ -206,8 +215,9 @@ public class SOAP12BuilderHelper extends SOAPBuilderHelper {
 
 
         } else if (elementLevel > 5) {
-            if (parent.getLocalName().equals(
-                    SOAP12Constants.SOAP_FAULT_SUB_CODE_LOCAL_NAME)) {
+            boolean parentIsSubCode = elementLevel-1 <= subCodeLevel;
+            subCodeLevel = Math.min(subCodeLevel, elementLevel-1);
+            if (parentIsSubCode) {
                 if (localName.equals(SOAP12Constants.SOAP_FAULT_VALUE_LOCAL_NAME)) {
                     if (subcodeValuePresent) {
                         throw new SOAPProcessingException(
@@ -225,6 +235,7 @@ public class SOAP12BuilderHelper extends SOAPBuilderHelper {
                             subcodeValuePresent = false;
                             subSubcodePresent = true;
                             subCodeProcessing = true;
+                            subCodeLevel = elementLevel;
                         } else {
                             throw new SOAPProcessingException(
                                     "multiple subcode encountered");
@@ -237,22 +248,8 @@ public class SOAP12BuilderHelper extends SOAPBuilderHelper {
                     throw new SOAPProcessingException(
                             localName + " is not supported inside the subCode element");
                 }
-            } else if (processingDetailElements) {
-                int detailElementLevel = 0;
-                boolean localNameExist = false;
-                for (int i = 0; i < detailElementNames.size(); i++) {
-                    if (parent.getLocalName().equals(
-                            detailElementNames.get(i))) {
-                        localNameExist = true;
-                        detailElementLevel = i + 1;
-                    }
-                }
-                if (localNameExist) {
-                    detailElementNames.setSize(detailElementLevel);
-                    elementType = AxiomElement.class;
-                    detailElementNames.add(localName);
-                }
-
+            } else if (faultChild.equals(SOAP12Constants.SOAP_FAULT_DETAIL_LOCAL_NAME)) {
+                elementType = AxiomElement.class;
             } else {
                 throw new SOAPProcessingException(
                         parent.getLocalName() +
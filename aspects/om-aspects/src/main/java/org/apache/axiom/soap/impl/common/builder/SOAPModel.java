@@ -37,8 +37,19 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 public final class SOAPModel implements Model {
+    private static final int OTHER = 0;
+    private static final int HEADER = 1;
+    private static final int BODY = 2;
+
     private SOAPHelper soapHelper;
 
+    /**
+     * The type ({@link #HEADER}, {@link #BODY} or {@link #OTHER}) of the last element encountered
+     * at level 2. Since elements are created in document order, this describes the parent of any
+     * element at level 3, so that we don't need to look at the parent element itself.
+     */
+    private int level2ElementType;
+
     /** Field headerPresent */
     private boolean headerPresent = false;
 
@@ -98,6 +109,7 @@ public final class SOAPModel implements Model {
                                                           getSenderFaultCode());
                     }
                     headerPresent = true;
+                    level2ElementType = HEADER;
                     elementType = soapHelper.getHeaderClass();
                 } else if (localName.equals(SOAPConstants.BODY_LOCAL_NAME)) {
                     if (bodyPresent) {
@@ -105,20 +117,20 @@ public final class SOAPModel implements Model {
                                                           getSenderFaultCode());
                     }
                     bodyPresent = true;
+                    level2ElementType = BODY;
                     elementType = soapHelper.getBodyClass();
                 } else {
                     throw new SOAPProcessingException(localName + " is not supported here.",
                                                       getSenderFaultCode());
                 }
             } else if (soapHelper == SOAP11Helper.INSTANCE && bodyPresent) {
+                level2ElementType = OTHER;
                 elementType = AxiomElement.class;
             } else {
                 throw new SOAPProcessingException("Disallowed element found inside Envelope : {"
                         + namespaceURI + "}" + localName);
             }
-        } else if ((elementLevel == 3)
-                &&
-                ((OMElement)parent).getLocalName().equals(SOAPConstants.HEADER_LOCAL_NAME)) {
+        } else if (elementLevel == 3 && level2ElementType == HEADER) {
 
             // this is a headerblock
             try {
@@ -127,8 +139,7 @@ public final class SOAPModel implements Model {
                 throw new SOAPProcessingException("Can not create SOAPHeader block",
                                                   getReceiverFaultCode(), e);
             }
-        } else if ((elementLevel == 3) &&
-                ((OMElement)parent).getLocalName().equals(SOAPConstants.BODY_LOCAL_NAME) &&
+        } else if (elementLevel == 3 && level2ElementType == BODY &&
                 localName.equals(SOAPConstants.BODY_FAULT_LOCAL_NAME) &&
                 soapHelper.getEnvelopeURI().equals(namespaceURI)) {
             // this is a SOAP fault
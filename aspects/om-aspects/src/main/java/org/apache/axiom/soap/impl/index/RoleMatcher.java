@@ -16,9 +16,19 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-package org.apache.axiom.util;
+package org.apache.axiom.soap.impl.index;
 
-final class UUIDCache {
-    int position;
-    byte[] randomBytes;
+/**
+ * Selects header blocks based on their role.
+ */
+public interface RoleMatcher {
+    /**
+     * Check whether a header block with the given role is selected.
+     * 
+     * @param role
+     *            the role of the header block, or {@code null} if the header block has no role
+     *            attribute
+     * @return {@code true} if the header block is selected, {@code false} otherwise
+     */
+    boolean matchesRole(String role);
 }
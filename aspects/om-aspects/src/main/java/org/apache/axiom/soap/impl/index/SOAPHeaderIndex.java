@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.soap.impl.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.core.CoreParentNode;
+import org.apache.axiom.om.impl.common.AxiomSemantics;
+import org.apache.axiom.om.impl.intf.AxiomElement;
+import org.apache.axiom.soap.SOAPHeaderBlock;
+
+/**
+ * Index of the header blocks of a SOAP header. It allows to look up header blocks by name,
+ * namespace URI and role without iterating over all children of the header and without looking up
+ * the role and mustUnderstand attributes again for every query.
+ * <p>
+ * An index is a snapshot of the header. The header discards it when a child is added or removed or
+ * when the name or the attributes of a header block change, and creates a new one on demand.
+ * Iterators returned by the index skip header blocks that have been removed from the header after
+ * the index was created.
+ */
+public final class SOAPHeaderIndex {
+    private static final class Entry {
+        final AxiomElement block;
+        final String role;
+        final boolean mustUnderstand;
+
+        Entry(AxiomElement block, String role, boolean mustUnderstand) {
+            this.block = block;
+            this.role = role;
+            this.mustUnderstand = mustUnderstand;
+        }
+    }
+
+    private final class HeaderBlockIterator implements Iterator<SOAPHeaderBlock> {
+        private final List<Entry> entries;
+        private final boolean mustUnderstandOnly;
+        private final RoleMatcher roleMatcher;
+        private int index;
+        private Entry next;
+        private Entry current;
+
+        HeaderBlockIterator(List<Entry> entries, boolean mustUnderstandOnly, RoleMatcher roleMatcher) {
+            this.entries = entries;
+            this.mustUnderstandOnly = mustUnderstandOnly;
+            this.roleMatcher = roleMatcher;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && index < entries.size()) {
+                Entry entry = entries.get(index++);
+                if (entry.block.coreGetParent() == header
+                        && (!mustUnderstandOnly || entry.mustUnderstand)
+                        && (roleMatcher == null || roleMatcher.matchesRole(entry.role))) {
+                    next = entry;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public SOAPHeaderBlock next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            next = null;
+            return (SOAPHeaderBlock)current.block;
+        }
+
+        @Override
+        public void remove() {
+            if (current == null) {
+                throw new IllegalStateException();
+            }
+            current.block.coreDetach(AxiomSemantics.INSTANCE);
+            current = null;
+        }
+    }
+
+    private final CoreParentNode header;
+    private final List<Entry> entries = new ArrayList<Entry>();
+    private final List<Entry> mustUnderstandEntries = new ArrayList<Entry>();
+    private final Map<QName,List<Entry>> entriesByName = new HashMap<QName,List<Entry>>();
+    private final Map<String,List<Entry>> entriesByNamespaceURI = new HashMap<String,List<Entry>>();
+    private final Map<String,List<Entry>> entriesByRole = new HashMap<String,List<Entry>>();
+
+    /**
+     * Constructor.
+     * 
+     * @param header
+     *            the SOAP header; iterators returned by the index only return header blocks that
+     *            are still children of that header
+     */
+    public SOAPHeaderIndex(CoreParentNode header) {
+        this.header = header;
+    }
+
+    /**
+     * Add a header block to the index. Header blocks must be added in document order.
+     * 
+     * @param block
+     *            the header block
+     * @param role
+     *            the role of the header block, or {@code null} if it has no role attribute
+     * @param mustUnderstand
+     *            the value of the mustUnderstand attribute of the header block
+     */
+    public void add(AxiomElement block, String role, boolean mustUnderstand) {
+        Entry entry = new Entry(block, role, mustUnderstand);
+        entries.add(entry);
+        String namespaceURI = block.coreGetNamespaceURI();
+        add(entriesByName, new QName(namespaceURI, block.coreGetLocalName()), entry);
+        add(entriesByNamespaceURI, namespaceURI, entry);
+        add(entriesByRole, role, entry);
+        if (mustUnderstand) {
+            mustUnderstandEntries.add(entry);
+        }
+    }
+
+    private static <K> void add(Map<K,List<Entry>> map, K key, Entry entry) {
+        List<Entry> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<Entry>(1);
+            map.put(key, list);
+        }
+        list.add(entry);
+    }
+
+    private Iterator<SOAPHeaderBlock> iterator(List<Entry> entries, boolean mustUnderstandOnly, RoleMatcher roleMatcher) {
+        if (entries == null) {
+            return Collections.<SOAPHeaderBlock>emptyIterator();
+        } else {
+            return new HeaderBlockIterator(entries, mustUnderstandOnly, roleMatcher);
+        }
+    }
+
+    public Iterator<SOAPHeaderBlock> getHeaderBlocks() {
+        return iterator(entries, false, null);
+    }
+
+    public Iterator<SOAPHeaderBlock> getHeaderBlocks(String role) {
+        return iterator(role == null ? entries : entriesByRole.get(role), false, null);
+    }
+
+    public Iterator<SOAPHeaderBlock> getMustUnderstandHeaderBlocks(String role) {
+        if (role == null) {
+            return iterator(mustUnderstandEntries, false, null);
+        } else {
+            return iterator(entriesByRole.get(role), true, null);
+        }
+    }
+
+    public Iterator<SOAPHeaderBlock> getHeaderBlocks(RoleMatcher roleMatcher, String namespaceURI) {
+        List<Entry> candidates;
+        if (namespaceURI == null) {
+            candidates = entries;
+        } else if (namespaceURI.length() == 0) {
+            // Header blocks without namespace never match a namespace filter
+            candidates = null;
+        } else {
+            candidates = entriesByNamespaceURI.get(namespaceURI);
+        }
+        return iterator(candidates, false, roleMatcher);
+    }
+
+    public Iterator<SOAPHeaderBlock> getHeaderBlocksWithNamespaceURI(String namespaceURI) {
+        return iterator(entriesByNamespaceURI.get(namespaceURI), false, null);
+    }
+
+    public Iterator<SOAPHeaderBlock> getHeaderBlocksWithName(QName name) {
+        return iterator(entriesByName.get(name), false, null);
+    }
+}
@@ -28,9 +28,11 @@ import org.apache.axiom.util.io.IOUtils;
 /**
  * Partial implementation of the {@link WritableBlob} interface that implements
  * {@link WritableBlob#readFrom(InputStream)} using {@link WritableBlob#getOutputStream()} and
- * {@link WritableBlob#writeTo(OutputStream)} using {@link WritableBlob#getInputStream()}.
+ * {@link WritableBlob#writeTo(OutputStream)} using {@link WritableBlob#getInputStream()}. Ranges
+ * of the data are accessed by skipping the bytes preceding the range in the stream returned by
+ * {@link WritableBlob#getInputStream()}.
  */
-public abstract class AbstractWritableBlob implements WritableBlob {
+public abstract class AbstractWritableBlob implements WritableBlob, SliceableBlob {
     @Override
     public long readFrom(InputStream in) throws StreamCopyException {
         OutputStream out;
@@ -68,4 +70,16 @@ public abstract class AbstractWritableBlob implements WritableBlob {
             }
         }
     }
+
+    @Override
+    public void writeTo(OutputStream out, long offset, long length) throws StreamCopyException {
+        BlobSlice.checkRange(getSize(), offset, length);
+        BlobSlice.writeTo(this, out, offset, length);
+    }
+
+    @Override
+    public SliceableBlob slice(long offset, long length) {
+        BlobSlice.checkRange(getSize(), offset, length);
+        return new BlobSlice(this, offset, length);
+    }
 }
@@ -65,4 +65,4 @@ public interface Blob {
      * @return the number of bytes in the blob
      */
     long getSize();
-}
\ No newline at end of file
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.axiom.ext.io.StreamCopyException;
+
+/**
+ * {@link Blob} implementation representing a range of bytes in another blob. Instances are returned
+ * by {@link SliceableBlob#slice(long, long)} and {@link Blobs#slice(Blob, long, long)}.
+ */
+final class BlobSlice implements SliceableBlob {
+    private final Blob parent;
+    private final long offset;
+    private final long length;
+
+    BlobSlice(Blob parent, long offset, long length) {
+        this.parent = parent;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Check that a range is within the bounds of a blob.
+     * 
+     * @param size
+     *            the size of the blob
+     * @param offset
+     *            the start of the range
+     * @param length
+     *            the length of the range
+     * @throws IndexOutOfBoundsException
+     *             if the range is not within the bounds of the blob
+     */
+    static void checkRange(long size, long offset, long length) {
+        if (offset < 0 || length < 0 || offset > size - length) {
+            throw new IndexOutOfBoundsException("Range [" + offset + "," + (offset + length)
+                    + ") is outside of the bounds of the blob (size " + size + ")");
+        }
+    }
+
+    /**
+     * Create an input stream that reads a range of the data in a blob. This is the default
+     * implementation used for blobs that don't have a more efficient way to do this.
+     * 
+     * @param blob
+     *            the blob
+     * @param offset
+     *            the start of the range
+     * @param length
+     *            the length of the range
+     * @return the input stream
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    static InputStream getInputStream(Blob blob, long offset, long length) throws IOException {
+        InputStream in = blob.getInputStream();
+        long toSkip = offset;
+        while (toSkip > 0) {
+            long c = in.skip(toSkip);
+            if (c <= 0) {
+                if (in.read() == -1) {
+                    in.close();
+                    throw new IOException("Unexpected end of stream");
+                }
+                c = 1;
+            }
+            toSkip -= c;
+        }
+        return new BlobSliceInputStream(in, length);
+    }
+
+    /**
+     * Write a range of the data in a blob to an output stream. This is the default implementation
+     * used for blobs that don't have a more efficient way to do this.
+     * 
+     * @param blob
+     *            the blob
+     * @param out
+     *            the output stream
+     * @param offset
+     *            the start of the range
+     * @param length
+     *            the length of the range
+     * @throws StreamCopyException
+     *             if an I/O error occurs
+     */
+    static void writeTo(Blob blob, OutputStream out, long offset, long length) throws StreamCopyException {
+        InputStream in;
+        try {
+            in = getInputStream(blob, offset, length);
+        } catch (IOException ex) {
+            throw new StreamCopyException(StreamCopyException.READ, ex);
+        }
+        byte[] buffer = new byte[4096];
+        try {
+            while (true) {
+                int c;
+                try {
+                    c = in.read(buffer);
+                } catch (IOException ex) {
+                    throw new StreamCopyException(StreamCopyException.READ, ex);
+                }
+                if (c == -1) {
+                    break;
+                }
+                try {
+                    out.write(buffer, 0, c);
+                } catch (IOException ex) {
+                    throw new StreamCopyException(StreamCopyException.WRITE, ex);
+                }
+            }
+        } finally {
+            try {
+                in.close();
+            } catch (IOException ex) {
+                throw new StreamCopyException(StreamCopyException.READ, ex);
+            }
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return getInputStream(parent, offset, length);
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws StreamCopyException {
+        Blobs.writeTo(parent, out, offset, length);
+    }
+
+    @Override
+    public void writeTo(OutputStream out, long offset, long length) throws StreamCopyException {
+        checkRange(this.length, offset, length);
+        Blobs.writeTo(parent, out, this.offset + offset, length);
+    }
+
+    @Override
+    public long getSize() {
+        return length;
+    }
+
+    @Override
+    public SliceableBlob slice(long offset, long length) {
+        checkRange(this.length, offset, length);
+        return new BlobSlice(parent, this.offset + offset, length);
+    }
+}
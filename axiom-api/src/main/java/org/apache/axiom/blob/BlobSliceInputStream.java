@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream that reads a limited number of bytes from an underlying stream.
+ */
+final class BlobSliceInputStream extends InputStream {
+    private final InputStream parent;
+    private long remaining;
+
+    BlobSliceInputStream(InputStream parent, long length) {
+        this.parent = parent;
+        remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining == 0) {
+            return -1;
+        }
+        int b = parent.read();
+        if (b != -1) {
+            remaining--;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (remaining == 0) {
+            return -1;
+        }
+        int c = parent.read(b, off, (int)Math.min(len, remaining));
+        if (c > 0) {
+            remaining -= c;
+        }
+        return c;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long c = parent.skip(Math.min(n, remaining));
+        if (c > 0) {
+            remaining -= c;
+        }
+        return c;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int)Math.min(parent.available(), remaining);
+    }
+
+    @Override
+    public void close() throws IOException {
+        parent.close();
+    }
+}
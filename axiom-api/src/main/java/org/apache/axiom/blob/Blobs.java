@@ -19,9 +19,13 @@
 package org.apache.axiom.blob;
 
 import java.io.File;
+import java.io.OutputStream;
+
+import org.apache.axiom.ext.io.StreamCopyException;
 
 /**
- * Contains factory methods to create various types of blobs.
+ * Contains factory methods to create various types of blobs, as well as methods to access ranges
+ * of the data in arbitrary blobs.
  */
 public final class Blobs {
     private Blobs() {}
@@ -60,6 +64,32 @@ public final class Blobs {
         return new OverflowableBlobImpl(numberOfChunks, chunkSize, overflowBlobFactory);
     }
     
+    /**
+     * Create a {@link WritableBlobFactory} that deduplicates the content of the blobs it creates.
+     * The content of each blob is hashed while it is written. When the blob is committed, the
+     * factory looks up an identical blob in a cache, and if one is found, the newly written data
+     * is discarded and the blob shares the content of the cached blob instead. This trades a
+     * digest computation for reduced memory (or temporary storage) usage in scenarios where the
+     * same content is buffered many times.
+     * <p>
+     * The returned factory is thread safe and may be shared by multiple threads. The content of
+     * shared blobs is reference counted, i.e. the underlying blob created by the parent factory
+     * is released when it has been evicted from the cache and all blobs referencing it have been
+     * released. It is therefore mandatory to call {@link WritableBlob#release()} if the parent
+     * factory creates blobs that need to be released.
+     * 
+     * @param blobFactory
+     *            the factory used to create the blobs that actually store the content
+     * @param maxCacheSize
+     *            the maximum total size (in bytes) of the content retained by the cache; when
+     *            the limit is exceeded, the least recently used entries are evicted
+     * @return the factory
+     */
+    public static WritableBlobFactory<WritableBlob> createDeduplicatingBlobFactory(
+            WritableBlobFactory<?> blobFactory, long maxCacheSize) {
+        return new DeduplicatingBlobFactory(blobFactory, maxCacheSize);
+    }
+    
     /**
      * Create an {@link OverflowableBlob} that overflows to a temporary file. Temporary files are
      * created using {@link File#createTempFile(String, String, File)}.
@@ -80,4 +110,58 @@ public final class Blobs {
         return createOverflowableBlob(threshold,
                 new TempFileBlobFactory(tempPrefix, tempSuffix, tempDirectory));
     }
+
+    /**
+     * Write a range of the data in a blob to a given output stream. If the blob implements
+     * {@link SliceableBlob}, the call is delegated to
+     * {@link SliceableBlob#writeTo(OutputStream, long, long)}; otherwise the data preceding the
+     * range is skipped in the stream returned by {@link Blob#getInputStream()}.
+     * 
+     * @param blob
+     *            the blob
+     * @param out
+     *            The output stream to write the data to. This method will not close the stream.
+     * @param offset
+     *            the offset of the first byte to write
+     * @param length
+     *            the number of bytes to write
+     * @throws StreamCopyException
+     *             Thrown if there is an I/O when reading the data from the blob or when writing it
+     *             to the stream.
+     * @throws IndexOutOfBoundsException
+     *             if the range is not within the bounds of the blob
+     */
+    public static void writeTo(Blob blob, OutputStream out, long offset, long length) throws StreamCopyException {
+        if (blob instanceof SliceableBlob) {
+            ((SliceableBlob)blob).writeTo(out, offset, length);
+        } else {
+            BlobSlice.checkRange(blob.getSize(), offset, length);
+            BlobSlice.writeTo(blob, out, offset, length);
+        }
+    }
+
+    /**
+     * Get a view of a range of the data in a blob. If the blob implements {@link SliceableBlob},
+     * the call is delegated to {@link SliceableBlob#slice(long, long)}; otherwise the returned
+     * blob reads the range by skipping the preceding data in the stream returned by
+     * {@link Blob#getInputStream()}. In both cases no data is copied.
+     * 
+     * @param blob
+     *            the blob
+     * @param offset
+     *            the offset of the first byte of the range
+     * @param length
+     *            the number of bytes in the range
+     * @return a blob representing the given range of the data
+     * @throws IndexOutOfBoundsException
+     *             if the range is not within the bounds of the blob
+     */
+    public static SliceableBlob slice(Blob blob, long offset, long length) {
+        if (blob instanceof SliceableBlob) {
+            return ((SliceableBlob)blob).slice(offset, length);
+        } else {
+            BlobSlice.checkRange(blob.getSize(), offset, length);
+            return new BlobSlice(blob, offset, length);
+        }
+    }
 }
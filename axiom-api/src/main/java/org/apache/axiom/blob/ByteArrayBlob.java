@@ -25,22 +25,40 @@ import java.io.OutputStream;
 
 import org.apache.axiom.ext.io.StreamCopyException;
 
-final class ByteArrayBlob implements Blob {
+final class ByteArrayBlob implements SliceableBlob {
     private final byte[] data;
+    private final int offset;
+    private final int length;
 
     ByteArrayBlob(byte[] data) {
+        this(data, 0, data.length);
+    }
+
+    ByteArrayBlob(byte[] data, int offset, int length) {
         this.data = data;
+        this.offset = offset;
+        this.length = length;
     }
 
     @Override
     public InputStream getInputStream() throws IOException {
-        return new ByteArrayInputStream(data);
+        return new ByteArrayInputStream(data, offset, length);
     }
 
     @Override
     public void writeTo(OutputStream out) throws StreamCopyException {
         try {
-            out.write(data);
+            out.write(data, offset, length);
+        } catch (IOException ex) {
+            throw new StreamCopyException(StreamCopyException.WRITE, ex);
+        }
+    }
+
+    @Override
+    public void writeTo(OutputStream out, long offset, long length) throws StreamCopyException {
+        BlobSlice.checkRange(this.length, offset, length);
+        try {
+            out.write(data, this.offset + (int)offset, (int)length);
         } catch (IOException ex) {
             throw new StreamCopyException(StreamCopyException.WRITE, ex);
         }
@@ -48,6 +66,12 @@ final class ByteArrayBlob implements Blob {
 
     @Override
     public long getSize() {
-        return data.length;
+        return length;
+    }
+
+    @Override
+    public SliceableBlob slice(long offset, long length) {
+        BlobSlice.checkRange(this.length, offset, length);
+        return new ByteArrayBlob(data, this.offset + (int)offset, (int)length);
     }
 }
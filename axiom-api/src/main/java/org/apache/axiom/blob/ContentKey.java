@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import java.util.Arrays;
+
+/**
+ * Key identifying the content of a blob in the cache maintained by
+ * {@link DeduplicatingBlobFactory}.
+ */
+final class ContentKey {
+    private final byte[] digest;
+    private final long size;
+    private final int hashCode;
+
+    ContentKey(byte[] digest, long size) {
+        this.digest = digest;
+        this.size = size;
+        hashCode = Arrays.hashCode(digest);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof ContentKey)) {
+            return false;
+        }
+        ContentKey other = (ContentKey)obj;
+        return size == other.size && Arrays.equals(digest, other.digest);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+
+import org.apache.axiom.ext.io.StreamCopyException;
+
+final class DeduplicatingBlob extends AbstractWritableBlob {
+    class OutputStreamImpl extends OutputStream {
+        private final OutputStream parent;
+        private final MessageDigest digest;
+
+        OutputStreamImpl(OutputStream parent, MessageDigest digest) {
+            this.parent = parent;
+            this.digest = digest;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            parent.write(b, off, len);
+            digest.update(b, off, len);
+        }
+
+        @Override
+        public void write(byte[] b) throws IOException {
+            write(b, 0, b.length);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            parent.write(b);
+            digest.update((byte)b);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            parent.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (state == State.UNCOMMITTED) {
+                parent.close();
+                commit(digest.digest());
+            }
+        }
+    }
+    
+    private final DeduplicatingBlobFactory factory;
+    private State state = State.NEW;
+    
+    /**
+     * The blob to which data is written. Only set in state UNCOMMITTED.
+     */
+    private WritableBlob content;
+    
+    /**
+     * The (possibly shared) content of this blob. Only set in state COMMITTED.
+     */
+    private SharedBlob sharedContent;
+
+    DeduplicatingBlob(DeduplicatingBlobFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        if (state != State.NEW) {
+            throw new IllegalStateException();
+        }
+        content = factory.createParentBlob();
+        OutputStream out = new OutputStreamImpl(content.getOutputStream(), factory.createMessageDigest());
+        state = State.UNCOMMITTED;
+        return out;
+    }
+
+    void commit(byte[] digest) throws IOException {
+        sharedContent = factory.deduplicate(content, digest);
+        content = null;
+        state = State.COMMITTED;
+    }
+
+    private WritableBlob getCommittedContent() {
+        if (state != State.COMMITTED) {
+            throw new IllegalStateException();
+        }
+        return sharedContent.getBlob();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return getCommittedContent().getInputStream();
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws StreamCopyException {
+        getCommittedContent().writeTo(out);
+    }
+
+    @Override
+    public void writeTo(OutputStream out, long offset, long length) throws StreamCopyException {
+        Blobs.writeTo(getCommittedContent(), out, offset, length);
+    }
+
+    @Override
+    public SliceableBlob slice(long offset, long length) {
+        return Blobs.slice(getCommittedContent(), offset, length);
+    }
+
+    @Override
+    public long getSize() {
+        return getCommittedContent().getSize();
+    }
+
+    @Override
+    public void release() throws IOException {
+        if (content != null) {
+            content.release();
+            content = null;
+        }
+        if (sharedContent != null) {
+            sharedContent.release();
+            sharedContent = null;
+        }
+        state = State.RELEASED;
+    }
+}
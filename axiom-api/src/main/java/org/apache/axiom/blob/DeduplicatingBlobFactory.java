@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * {@link WritableBlobFactory} that creates blobs which share their content with previously created
+ * blobs having the same content. The content of each blob is hashed while it is written and, when
+ * the blob is committed, the digest is looked up in a cache. If a blob with identical content is
+ * found, the newly written data is discarded and the blob references the cached content instead.
+ * The cache is bounded by the total size of the cached content and evicts the least recently used
+ * entries first.
+ */
+final class DeduplicatingBlobFactory implements WritableBlobFactory<WritableBlob> {
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    
+    private final WritableBlobFactory<?> parent;
+    private final long maxCacheSize;
+    private final LinkedHashMap<ContentKey,SharedBlob> cache = new LinkedHashMap<ContentKey,SharedBlob>(16, 0.75f, true);
+    private long cacheSize;
+
+    DeduplicatingBlobFactory(WritableBlobFactory<?> parent, long maxCacheSize) {
+        this.parent = parent;
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    @Override
+    public WritableBlob createBlob() {
+        return new DeduplicatingBlob(this);
+    }
+
+    WritableBlob createParentBlob() {
+        return parent.createBlob();
+    }
+    
+    MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            // SHA-256 is one of the algorithms that every Java platform is required to support
+            throw new Error(ex);
+        }
+    }
+
+    /**
+     * Look up the cache for a blob with the same content as the given (committed) blob. If a
+     * matching blob is found, the given blob is released and a reference to the cached blob is
+     * returned. Otherwise the given blob is added to the cache (if its size permits this).
+     * 
+     * @param blob
+     *            the committed blob
+     * @param digest
+     *            the digest of the content of the blob
+     * @return a new reference to a shared blob with the same content as the given blob; the
+     *         reference must be released by the caller
+     * @throws IOException
+     *             if an I/O error occurs while releasing a blob
+     */
+    SharedBlob deduplicate(WritableBlob blob, byte[] digest) throws IOException {
+        long size = blob.getSize();
+        ContentKey key = new ContentKey(digest, size);
+        SharedBlob sharedBlob;
+        SharedBlob evicted = null;
+        synchronized (cache) {
+            sharedBlob = cache.get(key);
+            if (sharedBlob != null) {
+                sharedBlob.acquire();
+            } else {
+                sharedBlob = new SharedBlob(blob);
+                if (size <= maxCacheSize) {
+                    sharedBlob.acquire();
+                    cache.put(key, sharedBlob);
+                    cacheSize += size;
+                    evicted = evict();
+                }
+            }
+        }
+        if (sharedBlob.getBlob() != blob) {
+            blob.release();
+        }
+        while (evicted != null) {
+            evicted.release();
+            evicted = evicted.nextEvicted;
+        }
+        return sharedBlob;
+    }
+
+    /**
+     * Remove least recently used entries from the cache until its size is within the limit. Must
+     * be called with the lock on {@link #cache} held.
+     * 
+     * @return a linked list of the removed entries; they must be released by the caller (after
+     *         releasing the lock)
+     */
+    private SharedBlob evict() {
+        SharedBlob first = null;
+        for (Iterator<SharedBlob> it = cache.values().iterator(); cacheSize > maxCacheSize && it.hasNext(); ) {
+            SharedBlob sharedBlob = it.next();
+            it.remove();
+            cacheSize -= sharedBlob.getBlob().getSize();
+            sharedBlob.nextEvicted = first;
+            first = sharedBlob;
+        }
+        return first;
+    }
+}
@@ -24,7 +24,7 @@ import java.io.OutputStream;
 
 import org.apache.axiom.ext.io.StreamCopyException;
 
-final class MemoryBlobImpl implements MemoryBlob {
+final class MemoryBlobImpl implements MemoryBlob, SliceableBlob {
     private MemoryBlobChunk firstChunk;
     private boolean committed;
     
@@ -109,6 +109,33 @@ final class MemoryBlobImpl implements MemoryBlob {
         }
     }
 
+    @Override
+    public void writeTo(OutputStream os, long offset, long length) throws StreamCopyException {
+        BlobSlice.checkRange(getSize(), offset, length);
+        MemoryBlobChunk chunk = firstChunk;
+        try {
+            while (length > 0) {
+                if (offset >= chunk.size) {
+                    offset -= chunk.size;
+                } else {
+                    int c = (int)Math.min(length, chunk.size - offset);
+                    os.write(chunk.buffer, (int)offset, c);
+                    offset = 0;
+                    length -= c;
+                }
+                chunk = chunk.nextChunk;
+            }
+        } catch (IOException ex) {
+            throw new StreamCopyException(StreamCopyException.WRITE, ex);
+        }
+    }
+
+    @Override
+    public SliceableBlob slice(long offset, long length) {
+        BlobSlice.checkRange(getSize(), offset, length);
+        return new BlobSlice(this, offset, length);
+    }
+
     @Override
     public void release() {
         firstChunk = null;
@@ -25,9 +25,11 @@ import java.io.OutputStream;
 
 import org.apache.axiom.ext.io.ReadFromSupport;
 import org.apache.axiom.ext.io.StreamCopyException;
+import org.apache.axiom.metrics.Metrics;
+import org.apache.axiom.metrics.MetricsCollector;
 import org.apache.axiom.util.io.IOUtils;
 
-final class OverflowableBlobImpl implements OverflowableBlob {
+final class OverflowableBlobImpl implements OverflowableBlob, SliceableBlob {
     class OutputStreamImpl extends OutputStream implements ReadFromSupport {
         @Override
         public void write(byte[] b, int off, int len) throws IOException {
@@ -258,6 +260,11 @@ final class OverflowableBlobImpl implements OverflowableBlob {
      * @throws IOException
      */
     void switchToOverflowBlob() throws IOException {
+        MetricsCollector collector = Metrics.getCollector();
+        if (collector != null) {
+            collector.blobOverflowed((long)chunkIndex*chunkSize + chunkOffset);
+        }
+
         overflowBlob = overflowBlobFactory.createBlob();
 
         overflowOutputStream = overflowBlob.getOutputStream();
@@ -374,6 +381,34 @@ final class OverflowableBlobImpl implements OverflowableBlob {
         }
     }
     
+    @Override
+    public void writeTo(OutputStream out, long offset, long length) throws StreamCopyException {
+        BlobSlice.checkRange(getSize(), offset, length);
+        if (overflowBlob != null) {
+            Blobs.writeTo(overflowBlob, out, offset, length);
+        } else {
+            int index = (int)(offset / chunkSize);
+            int chunkOffset = (int)(offset % chunkSize);
+            try {
+                while (length > 0) {
+                    int c = (int)Math.min(length, chunkSize - chunkOffset);
+                    out.write(chunks[index], chunkOffset, c);
+                    index++;
+                    chunkOffset = 0;
+                    length -= c;
+                }
+            } catch (IOException ex) {
+                throw new StreamCopyException(StreamCopyException.WRITE, ex);
+            }
+        }
+    }
+    
+    @Override
+    public SliceableBlob slice(long offset, long length) {
+        BlobSlice.checkRange(getSize(), offset, length);
+        return overflowBlob != null ? Blobs.slice(overflowBlob, offset, length) : new BlobSlice(this, offset, length);
+    }
+    
     @Override
     public long getSize() {
         if (state != State.COMMITTED) {
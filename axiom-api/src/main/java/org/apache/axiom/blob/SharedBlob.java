@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reference counted wrapper around a committed {@link WritableBlob} whose content is shared by
+ * multiple {@link DeduplicatingBlob} instances (and possibly the cache of the
+ * {@link DeduplicatingBlobFactory}). The underlying blob is released when the last reference is
+ * released.
+ */
+final class SharedBlob {
+    private final WritableBlob blob;
+    private final AtomicInteger refCount = new AtomicInteger(1);
+    
+    /**
+     * Used by {@link DeduplicatingBlobFactory} to chain entries evicted from the cache.
+     */
+    SharedBlob nextEvicted;
+
+    SharedBlob(WritableBlob blob) {
+        this.blob = blob;
+    }
+
+    WritableBlob getBlob() {
+        return blob;
+    }
+
+    void acquire() {
+        refCount.incrementAndGet();
+    }
+
+    void release() throws IOException {
+        if (refCount.decrementAndGet() == 0) {
+            blob.release();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import java.io.OutputStream;
+
+import org.apache.axiom.ext.io.StreamCopyException;
+
+/**
+ * {@link Blob} that provides efficient access to ranges of its data. All blobs created by the
+ * factory methods in {@link Blobs} implement this interface. For other blobs, use
+ * {@link Blobs#writeTo(Blob, OutputStream, long, long)} and {@link Blobs#slice(Blob, long, long)},
+ * which fall back to reading the data from {@link Blob#getInputStream()}.
+ */
+public interface SliceableBlob extends Blob {
+    /**
+     * Write a range of the data to a given output stream. This method can be called multiple
+     * times, i.e. it doesn't consume the content.
+     * 
+     * @param out
+     *            The output stream to write the data to. This method will not close the stream.
+     * @param offset
+     *            the offset of the first byte to write
+     * @param length
+     *            the number of bytes to write
+     * @throws StreamCopyException
+     *             Thrown if there is an I/O when reading the data from the blob or when writing it
+     *             to the stream. {@link StreamCopyException#getOperation()} can be used to
+     *             determine whether the failed operation was a read or a write.
+     * @throws IndexOutOfBoundsException
+     *             if the range is not within the bounds of the blob
+     */
+    void writeTo(OutputStream out, long offset, long length) throws StreamCopyException;
+
+    /**
+     * Get a view of a range of the data in this blob. No data is copied; the returned blob reads
+     * its data from this blob and therefore becomes invalid if this blob is released.
+     * 
+     * @param offset
+     *            the offset of the first byte of the range
+     * @param length
+     *            the number of bytes in the range
+     * @return a blob representing the given range of the data
+     * @throws IndexOutOfBoundsException
+     *             if the range is not within the bounds of the blob
+     */
+    SliceableBlob slice(long offset, long length);
+}
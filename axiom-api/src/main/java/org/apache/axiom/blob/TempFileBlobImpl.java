@@ -19,11 +19,15 @@
 package org.apache.axiom.blob;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
+import org.apache.axiom.ext.io.StreamCopyException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -72,6 +76,50 @@ final class TempFileBlobImpl extends AbstractWritableBlob {
         return new TempFileInputStream(file);
     }
 
+    @Override
+    public void writeTo(OutputStream out, long offset, long length) throws StreamCopyException {
+        BlobSlice.checkRange(getSize(), offset, length);
+        FileInputStream in;
+        try {
+            in = new FileInputStream(file);
+        } catch (IOException ex) {
+            throw new StreamCopyException(StreamCopyException.READ, ex);
+        }
+        try {
+            FileChannel channel = in.getChannel();
+            byte[] buffer = new byte[(int)Math.min(length, 4096)];
+            ByteBuffer bb = ByteBuffer.wrap(buffer);
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                bb.clear();
+                bb.limit((int)Math.min(buffer.length, end - position));
+                int c;
+                try {
+                    c = channel.read(bb, position);
+                } catch (IOException ex) {
+                    throw new StreamCopyException(StreamCopyException.READ, ex);
+                }
+                if (c == -1) {
+                    throw new StreamCopyException(StreamCopyException.READ,
+                            new IOException("Unexpected end of file " + file));
+                }
+                try {
+                    out.write(buffer, 0, c);
+                } catch (IOException ex) {
+                    throw new StreamCopyException(StreamCopyException.WRITE, ex);
+                }
+                position += c;
+            }
+        } finally {
+            try {
+                in.close();
+            } catch (IOException ex) {
+                throw new StreamCopyException(StreamCopyException.READ, ex);
+            }
+        }
+    }
+
     @Override
     public long getSize() {
         if (state != State.COMMITTED) {
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.metrics;
+
+/**
+ * Holds the {@link MetricsCollector} used by Axiom. By default no collector is registered and
+ * Axiom doesn't collect any metrics.
+ */
+public final class Metrics {
+    private static volatile MetricsCollector collector;
+
+    private Metrics() {}
+
+    /**
+     * Get the registered metrics collector.
+     * 
+     * @return the collector, or <code>null</code> if metrics collection is disabled
+     */
+    public static MetricsCollector getCollector() {
+        return collector;
+    }
+
+    /**
+     * Register a metrics collector. The collector applies to operations that start after this
+     * method returns; in particular, object model builders created before the collector is
+     * registered will not report metrics.
+     * 
+     * @param collector
+     *            the collector, or <code>null</code> to disable metrics collection
+     */
+    public static void setCollector(MetricsCollector collector) {
+        Metrics.collector = collector;
+    }
+}
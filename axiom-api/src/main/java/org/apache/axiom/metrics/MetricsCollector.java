@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.metrics;
+
+/**
+ * Receives information about the work performed by Axiom, e.g. to feed it into a metrics registry.
+ * An instance of this class is registered using {@link Metrics#setCollector(MetricsCollector)}.
+ * <p>
+ * All methods in this class do nothing by default; subclasses override the methods for the
+ * events they are interested in. New methods may be added in future versions. Methods are invoked
+ * synchronously on the thread performing the work and may be invoked concurrently; implementations
+ * must therefore be thread safe and should return quickly.
+ */
+public abstract class MetricsCollector {
+    /**
+     * Invoked when an object model builder has finished its work, i.e. when it has reached the end
+     * of the document or has been closed.
+     * 
+     * @param nodeCount
+     *            the number of nodes created by the builder (excluding text nodes)
+     * @param byteCount
+     *            the number of bytes read from the input stream, or -1 if the builder didn't read
+     *            from a byte stream
+     * @param nanos
+     *            the time (in nanoseconds) spent inside the builder; for a builder used in
+     *            deferred mode, this is the sum over all invocations
+     */
+    public void documentBuilt(long nodeCount, long byteCount, long nanos) {
+    }
+
+    /**
+     * Invoked when an object model node has been serialized to an output stream.
+     * 
+     * @param byteCount
+     *            the number of bytes written, including MIME parts if the message was serialized
+     *            as MTOM/XOP
+     * @param nanos
+     *            the time (in nanoseconds) spent to serialize the node
+     */
+    public void documentSerialized(long byteCount, long nanos) {
+    }
+
+    /**
+     * Invoked when the content of a MIME part has been read into a buffer.
+     * 
+     * @param byteCount
+     *            the size of the part content
+     * @param nanos
+     *            the time (in nanoseconds) spent to buffer the part
+     */
+    public void partBuffered(long byteCount, long nanos) {
+    }
+
+    /**
+     * Invoked when an overflowable blob (see
+     * {@link org.apache.axiom.blob.OverflowableBlob})
+     * exceeds its in-memory threshold and switches to its overflow blob (typically a temporary
+     * file).
+     * 
+     * @param byteCount
+     *            the number of bytes buffered in memory at the time of the switch
+     */
+    public void blobOverflowed(long byteCount) {
+    }
+}
@@ -19,14 +19,17 @@
 package org.apache.axiom.mime;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
+import java.util.Locale;
 
 import javax.activation.DataHandler;
 
 import org.apache.axiom.mime.Header;
 import org.apache.axiom.util.UIDGenerator;
 import org.apache.axiom.util.base64.Base64EncodingOutputStream;
+import org.apache.axiom.util.io.IOUtils;
 
 /**
  * Writes a MIME multipart body as used by XOP/MTOM and SOAP with Attachments. MIME parts are
@@ -34,7 +37,8 @@ import org.apache.axiom.util.base64.Base64EncodingOutputStream;
  * {@link #writePart(DataHandler, String, String, List)}. Calls to both methods can be mixed, i.e.
  * it is not required to use the same method for all MIME parts. Instead, the caller should choose
  * the most convenient method for each part (depending on the form in which the content is
- * available). After all parts have been written, {@link #complete()} must be called to write the
+ * available). MIME parts read from a {@link MultipartBody} can be passed through using
+ * {@link #writePart(Part, String, List)}. After all parts have been written, {@link #complete()} must be called to write the
  * final MIME boundary.
  * <p>
  * The following semantics are defined for the {@code contentTransferEncoding} and {@code contentID}
@@ -147,6 +151,12 @@ public final class MultipartBodyWriter {
             transferEncoder = new Base64EncodingOutputStream(out);
             contentTransferEncoding = "base64";
         }
+        writePartHeaders(contentType, contentTransferEncoding, contentID, extraHeaders);
+        return new PartOutputStream(transferEncoder);
+    }
+    
+    private void writePartHeaders(String contentType, String contentTransferEncoding,
+            String contentID, List<Header> extraHeaders) throws IOException {
         writeAscii("--");
         writeAscii(boundary);
         // RFC 2046 explicitly says that Content-Type is not mandatory (and defaults to
@@ -171,7 +181,6 @@ public final class MultipartBodyWriter {
             }
         }
         writeAscii("\r\n\r\n");
-        return new PartOutputStream(transferEncoder);
     }
     
     /**
@@ -197,6 +206,61 @@ public final class MultipartBodyWriter {
         partOutputStream.close();
     }
     
+    /**
+     * Write a MIME part read from a {@link MultipartBody}. The content type and content transfer
+     * encoding of the original part are preserved. If the content of the part has not been
+     * accessed yet and its content transfer encoding is one of {@code binary}, {@code 8bit},
+     * {@code 7bit} or {@code base64}, then the encoded content is copied directly from the
+     * underlying input stream, i.e. it is neither decoded nor buffered. Otherwise the content is
+     * re-encoded as described in {@link #writePart(String, String, String, List)}. In both cases
+     * the content of the part is consumed.
+     * <p>
+     * Note that the content of a part can only be passed through if the parts of the
+     * {@link MultipartBody} are written in the order in which they appear in the input stream:
+     * accessing a subsequent part will cause the content of the current part to be buffered.
+     * 
+     * @param part
+     *            the MIME part to write
+     * @param contentID
+     *            the content ID of the MIME part (see above); may be {@code null}
+     * @param extraHeaders
+     *            a list of {@link Header} objects with additional headers to write to the MIME
+     *            part; may be {@code null}
+     * @throws IOException
+     *             if an I/O error occurs when reading the part or writing it to the underlying
+     *             stream
+     */
+    public void writePart(Part part, String contentID, List<Header> extraHeaders) throws IOException {
+        String contentType = part.getHeader(Header.CONTENT_TYPE);
+        String contentTransferEncoding = part.getHeader(Header.CONTENT_TRANSFER_ENCODING);
+        if (contentTransferEncoding == null) {
+            contentTransferEncoding = "binary";
+        } else {
+            contentTransferEncoding = contentTransferEncoding.trim().toLowerCase(Locale.ENGLISH);
+        }
+        InputStream in = null;
+        if (part instanceof PartImpl && (contentTransferEncoding.equals("binary")
+                || contentTransferEncoding.equals("8bit")
+                || contentTransferEncoding.equals("7bit")
+                || contentTransferEncoding.equals("base64"))) {
+            in = ((PartImpl)part).getEncodedInputStream();
+        }
+        OutputStream partOutputStream;
+        if (in != null) {
+            writePartHeaders(contentType, contentTransferEncoding, contentID, extraHeaders);
+            partOutputStream = new PartOutputStream(out);
+        } else {
+            in = part.getInputStream(false);
+            partOutputStream = writePart(contentType, contentTransferEncoding, contentID, extraHeaders);
+        }
+        try {
+            IOUtils.copy(in, partOutputStream, -1);
+        } finally {
+            in.close();
+        }
+        partOutputStream.close();
+    }
+    
     /**
      * Complete writing of the MIME multipart package. This method does <b>not</b> close the
      * underlying stream.
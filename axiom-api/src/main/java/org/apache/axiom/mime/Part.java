@@ -63,7 +63,8 @@ public interface Part {
     String getContentID();
 
     /**
-     * Get the content of this part as a {@link Blob}.
+     * Get the content of this part as a {@link Blob}. Ranges of the content can be accessed
+     * without copying the data using {@link org.apache.axiom.blob.Blobs#slice(Blob, long, long)}.
      * 
      * @return the content of this part
      */
@@ -24,6 +24,9 @@ import org.apache.axiom.blob.OverflowableBlob;
 import org.apache.axiom.blob.WritableBlob;
 import org.apache.axiom.blob.WritableBlobFactory;
 import org.apache.axiom.ext.io.StreamCopyException;
+import org.apache.axiom.metrics.Metrics;
+import org.apache.axiom.metrics.MetricsCollector;
+import org.apache.axiom.util.base64.Base64DecodingInputStream;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.james.mime4j.MimeException;
@@ -179,7 +182,14 @@ final class PartImpl implements Part {
     }
     
     private InputStream getDecodedInputStream() {
-        InputStream in = parser.getDecodedInputStream();
+        InputStream in;
+        String cte = getHeader("content-transfer-encoding");
+        if (cte != null && cte.trim().equalsIgnoreCase("base64")) {
+            // Use our own decoder which decodes complete quanta in bulk
+            in = new Base64DecodingInputStream(parser.getInputStream());
+        } else {
+            in = parser.getDecodedInputStream();
+        }
         if (log.isDebugEnabled()) {
             in = new DebugInputStream(in, log);
         }
@@ -195,8 +205,13 @@ final class PartImpl implements Part {
                 if (log.isDebugEnabled()) {
                     log.debug("Using blob of type " + content.getClass().getName());
                 }
+                MetricsCollector collector = Metrics.getCollector();
+                long start = collector == null ? 0 : System.nanoTime();
                 try {
-                    content.readFrom(getDecodedInputStream());
+                    long size = content.readFrom(getDecodedInputStream());
+                    if (collector != null) {
+                        collector.partBuffered(size, System.nanoTime()-start);
+                    }
                 } catch (StreamCopyException ex) {
                     if (ex.getOperation() == StreamCopyException.READ) {
                         throw new MIMEException("Failed to fetch the MIME part content", ex.getCause());
@@ -239,6 +254,24 @@ final class PartImpl implements Part {
         parser = null;
     }
     
+    /**
+     * Get the content of this part without applying the content transfer decoding. This is only
+     * possible if the content has not been accessed yet; in that case the content is streamed
+     * directly from the underlying stream and is discarded once it has been read.
+     * 
+     * @return the encoded content of the part, or {@code null} if the content has already been
+     *         accessed
+     */
+    InputStream getEncodedInputStream() {
+        if (state != STATE_UNREAD) {
+            return null;
+        }
+        checkParserState(parser.getState(), EntityState.T_BODY);
+        state = STATE_STREAMING;
+        partInputStream = new PartInputStream(parser.getInputStream(), blobFactory);
+        return partInputStream;
+    }
+    
     @Override
     public InputStream getInputStream(boolean preserve) {
         if (!preserve && state == STATE_UNREAD) {
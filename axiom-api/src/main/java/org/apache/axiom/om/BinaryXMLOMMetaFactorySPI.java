@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axiom.om;
+
+import java.io.InputStream;
+
+/**
+ * Optional interface implemented by {@link OMMetaFactory} instances that support the binary XML
+ * format (see {@link OMOutputFormat#setBinaryXML(boolean)}). This is a separate interface so that
+ * {@link OMMetaFactorySPI} implementations that don't support that format remain valid.
+ * <p>
+ * For internal use only.
+ */
+public interface BinaryXMLOMMetaFactorySPI {
+    /**
+     * Create an object model builder that reads a stream in the binary XML format. See
+     * {@link OMXMLBuilderFactory#createBinaryXMLOMBuilder(OMFactory, InputStream)} for more
+     * details.
+     * 
+     * @param in
+     *            the input stream
+     * @return the builder
+     */
+    OMXMLParserWrapper createBinaryXMLOMBuilder(InputStream in);
+}
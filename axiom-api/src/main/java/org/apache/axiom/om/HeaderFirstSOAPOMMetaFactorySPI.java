@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axiom.om;
+
+import org.apache.axiom.soap.SOAPModelBuilder;
+import org.xml.sax.InputSource;
+
+/**
+ * Optional interface implemented by {@link OMMetaFactory} instances that support building SOAP
+ * messages with a deferred body (see
+ * {@link OMXMLBuilderFactory#createHeaderFirstSOAPModelBuilder(OMMetaFactory, java.io.InputStream, String)}).
+ * This is a separate interface so that {@link OMMetaFactorySPI} implementations that don't support
+ * that feature remain valid.
+ * <p>
+ * For internal use only.
+ */
+public interface HeaderFirstSOAPOMMetaFactorySPI {
+    /**
+     * Create an object model builder for SOAP that reads a message from the provided input source
+     * and that leaves the content of the SOAP body unparsed. See
+     * {@link OMXMLBuilderFactory#createHeaderFirstSOAPModelBuilder(OMMetaFactory, java.io.InputStream, String)}
+     * for more details.
+     * 
+     * @param is
+     *            the source of the SOAP message; this must be a byte stream
+     * @return the builder
+     * @throws IllegalArgumentException
+     *             if the input source doesn't have a byte stream
+     */
+    SOAPModelBuilder createHeaderFirstSOAPModelBuilder(InputSource is);
+}
@@ -21,6 +21,7 @@ package org.apache.axiom.om;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.apache.axiom.om.impl.MTOMConstants;
 import org.apache.axiom.om.util.StAXWriterConfiguration;
@@ -97,7 +98,50 @@ public class OMOutputFormat {
         Boolean.TRUE;
     
     
+    /**
+     * Identifies the Canonical XML 1.0 method, omitting comments.
+     * 
+     * @see #setCanonicalizationMethod(String)
+     */
+    public static final String CANONICAL_XML = "http://www.w3.org/TR/2001/REC-xml-c14n-20010315";
+    
+    /**
+     * Identifies the Canonical XML 1.0 method, including comments.
+     * 
+     * @see #setCanonicalizationMethod(String)
+     */
+    public static final String CANONICAL_XML_WITH_COMMENTS =
+        "http://www.w3.org/TR/2001/REC-xml-c14n-20010315#WithComments";
+    
+    /**
+     * Identifies the Exclusive XML Canonicalization 1.0 method, omitting comments.
+     * 
+     * @see #setCanonicalizationMethod(String)
+     */
+    public static final String EXCLUSIVE_CANONICAL_XML = "http://www.w3.org/2001/10/xml-exc-c14n#";
+    
+    /**
+     * Identifies the Exclusive XML Canonicalization 1.0 method, including comments.
+     * 
+     * @see #setCanonicalizationMethod(String)
+     */
+    public static final String EXCLUSIVE_CANONICAL_XML_WITH_COMMENTS =
+        "http://www.w3.org/2001/10/xml-exc-c14n#WithComments";
+    
+    /**
+     * The default value of the parallel serialization threshold.
+     * 
+     * @see #setParallelSerializationThreshold(int)
+     */
+    public static final int DEFAULT_PARALLEL_SERIALIZATION_THRESHOLD = 16;
+    
     private Map<String,Object> map;  // Map of generic properties
+    
+    private String canonicalizationMethod;
+    private String inclusiveNamespacePrefixes;
+    private boolean binaryXML;
+    private Executor serializationExecutor;
+    private int parallelSerializationThreshold = DEFAULT_PARALLEL_SERIALIZATION_THRESHOLD;
 
 
     public OMOutputFormat() {
@@ -126,6 +170,11 @@ public class OMOutputFormat {
         ignoreXMLDeclaration = format.ignoreXMLDeclaration;
         autoCloseWriter = format.autoCloseWriter;
         writerConfiguration = format.writerConfiguration;
+        canonicalizationMethod = format.canonicalizationMethod;
+        inclusiveNamespacePrefixes = format.inclusiveNamespacePrefixes;
+        binaryXML = format.binaryXML;
+        serializationExecutor = format.serializationExecutor;
+        parallelSerializationThreshold = format.parallelSerializationThreshold;
         if (format.map != null) {
             map = new HashMap<String,Object>(format.map);
         }
@@ -440,6 +489,15 @@ public class OMOutputFormat {
         sb.append(" optimizedThreshold=");
         sb.append(optimizedThreshold);
         
+        sb.append(" canonicalizationMethod=");
+        sb.append(canonicalizationMethod);
+        
+        sb.append(" binaryXML=");
+        sb.append(binaryXML);
+        
+        sb.append(" serializationExecutor=");
+        sb.append(serializationExecutor);
+        
         sb.append("]");
         return sb.toString();
         
@@ -475,4 +533,123 @@ public class OMOutputFormat {
     public void setStAXWriterConfiguration(StAXWriterConfiguration writerConfiguration) {
         this.writerConfiguration = writerConfiguration;
     }
+
+    /**
+     * Get the canonicalization method that will be applied during serialization.
+     * 
+     * @return the URI of the canonicalization method, or <code>null</code> if the output is not
+     *         canonicalized
+     */
+    public String getCanonicalizationMethod() {
+        return canonicalizationMethod;
+    }
+
+    /**
+     * Request the output to be canonicalized. The value must be one of {@link #CANONICAL_XML},
+     * {@link #CANONICAL_XML_WITH_COMMENTS}, {@link #EXCLUSIVE_CANONICAL_XML} and
+     * {@link #EXCLUSIVE_CANONICAL_XML_WITH_COMMENTS}. When a canonicalization method is set, the
+     * output is always encoded using UTF-8, no XML declaration is written and the settings related
+     * to the character set encoding and to MTOM/SwA are ignored. When a subtree is serialized, the
+     * canonical form is computed as specified for a document subset consisting of that subtree,
+     * i.e. with the inclusive methods, the namespace declarations and <tt>xml:*</tt> attributes in
+     * scope on the ancestors of the element are taken into account.
+     * 
+     * @param canonicalizationMethod
+     *            the URI of the canonicalization method, or <code>null</code> to disable
+     *            canonicalization
+     */
+    public void setCanonicalizationMethod(String canonicalizationMethod) {
+        this.canonicalizationMethod = canonicalizationMethod;
+    }
+
+    /**
+     * Get the inclusive namespace prefix list used by the exclusive canonicalization methods.
+     * 
+     * @return the prefix list, or <code>null</code> if none has been set
+     */
+    public String getInclusiveNamespacePrefixes() {
+        return inclusiveNamespacePrefixes;
+    }
+
+    /**
+     * Set the inclusive namespace prefix list used by the exclusive canonicalization methods. The
+     * format is the same as for the <tt>PrefixList</tt> attribute of the
+     * <tt>InclusiveNamespaces</tt> element defined by the Exclusive XML Canonicalization
+     * specification, i.e. a whitespace separated list of prefixes, where <tt>#default</tt> stands
+     * for the default namespace. The setting is ignored by the inclusive methods.
+     * 
+     * @param inclusiveNamespacePrefixes
+     *            the prefix list, or <code>null</code>
+     */
+    public void setInclusiveNamespacePrefixes(String inclusiveNamespacePrefixes) {
+        this.inclusiveNamespacePrefixes = inclusiveNamespacePrefixes;
+    }
+
+    public boolean isBinaryXML() {
+        return binaryXML;
+    }
+
+    /**
+     * Specifies whether the output should use the binary XML format instead of text XML. The
+     * binary format is an Axiom specific encoding of the infoset that is faster to write and to
+     * read than text XML and that transports the content of binary text nodes in raw form. It is
+     * intended for caching and for communication between components that both use Axiom; the
+     * output can be read using
+     * {@link OMXMLBuilderFactory#createBinaryXMLOMBuilder(OMFactory, java.io.InputStream)} or
+     * wrapped in a {@link org.apache.axiom.om.ds.BinaryXMLOMDataSource}. When this option is
+     * enabled, the settings related to the character set encoding, the XML declaration and
+     * MTOM/SwA are ignored. Binary XML can only be written to an {@link java.io.OutputStream}.
+     * 
+     * @param binaryXML
+     *            <code>true</code> to use the binary XML format
+     */
+    public void setBinaryXML(boolean binaryXML) {
+        this.binaryXML = binaryXML;
+    }
+
+    /**
+     * Get the executor used for parallel serialization.
+     * 
+     * @return the executor, or <code>null</code> if parallel serialization is disabled
+     */
+    public Executor getSerializationExecutor() {
+        return serializationExecutor;
+    }
+
+    /**
+     * Enable parallel serialization. If an executor is set, then the children of elements that
+     * have at least as many children as specified by
+     * {@link #setParallelSerializationThreshold(int)} are serialized concurrently into separate
+     * buffers using that executor, and the buffers are then written to the output in document
+     * order. The output is the same as with sequential serialization, except that redundant
+     * namespace declarations may appear in the serialized children.
+     * <p>
+     * Parallel serialization is only used if the tree being serialized is fully built and if
+     * the output is plain XML, i.e. neither MTOM/SwA, canonical XML nor binary XML. In all other
+     * cases the setting is ignored. The tree must not be modified while it is being serialized.
+     * 
+     * @param serializationExecutor
+     *            the executor, or <code>null</code> to disable parallel serialization
+     */
+    public void setSerializationExecutor(Executor serializationExecutor) {
+        this.serializationExecutor = serializationExecutor;
+    }
+
+    public int getParallelSerializationThreshold() {
+        return parallelSerializationThreshold;
+    }
+
+    /**
+     * Set the minimum number of children an element must have for its children to be serialized
+     * in parallel. Elements with fewer children are serialized sequentially, but their
+     * descendants are still considered for parallel serialization. The default value is
+     * {@link #DEFAULT_PARALLEL_SERIALIZATION_THRESHOLD}. The setting is only used if an executor
+     * has been set using {@link #setSerializationExecutor(Executor)}.
+     * 
+     * @param parallelSerializationThreshold
+     *            the threshold
+     */
+    public void setParallelSerializationThreshold(int parallelSerializationThreshold) {
+        this.parallelSerializationThreshold = parallelSerializationThreshold;
+    }
 }
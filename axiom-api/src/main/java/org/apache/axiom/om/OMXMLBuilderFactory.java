@@ -513,6 +513,30 @@ public class OMXMLBuilderFactory {
         return ((OMMetaFactorySPI)omFactory.getMetaFactory()).createOMBuilder(rootPart, attachmentAccessor);
     }
     
+    /**
+     * Create an object model builder that reads a stream in the binary XML format, i.e. a stream
+     * produced by serializing an {@link OMContainer} with an {@link OMOutputFormat} for which
+     * {@link OMOutputFormat#setBinaryXML(boolean)} has been set to <code>true</code>. The builder
+     * reconstructs the exact infoset that has been serialized; binary text nodes are backed by
+     * data handlers and their content is not base64 encoded.
+     * 
+     * @param omFactory
+     *            the object model factory to use
+     * @param in
+     *            the input stream containing the binary XML
+     * @return the builder
+     * @throws UnsupportedOperationException
+     *             if the Axiom implementation doesn't support the binary XML format
+     */
+    public static OMXMLParserWrapper createBinaryXMLOMBuilder(OMFactory omFactory, InputStream in) {
+        OMMetaFactory metaFactory = omFactory.getMetaFactory();
+        if (!(metaFactory instanceof BinaryXMLOMMetaFactorySPI)) {
+            throw new UnsupportedOperationException(
+                    "The Axiom implementation doesn't support the binary XML format");
+        }
+        return ((BinaryXMLOMMetaFactorySPI)metaFactory).createBinaryXMLOMBuilder(in);
+    }
+    
     /**
      * Create an object model builder for SOAP that pulls events from a StAX stream reader and that
      * uses a particular Axiom implementation. The method will select the appropriate
@@ -585,6 +609,58 @@ public class OMXMLBuilderFactory {
         return ((OMMetaFactorySPI)metaFactory).createSOAPModelBuilder(is);
     }
     
+    /**
+     * Create an object model builder for SOAP that reads a message from the provided input stream
+     * and that only parses the SOAP envelope and header. This is an alternative to
+     * {@link #createSOAPModelBuilder(InputStream, String)} for intermediaries that only need to
+     * look at SOAP headers. The content of the SOAP body is kept as unparsed bytes and is
+     * represented by an {@link OMSourcedElement} backed by a
+     * {@link org.apache.axiom.om.ds.BlobOMDataSource}. That element is only parsed when it is
+     * accessed; otherwise it is copied verbatim when the message is serialized to an output stream
+     * with the same charset encoding.
+     * <p>
+     * Note that the builder reads the entire message into memory. If the body doesn't contain
+     * exactly one element, contains a SOAP fault or if the message uses a charset encoding that is
+     * not ASCII compatible, the message is parsed in the normal way.
+     * 
+     * @param in
+     *            the input stream containing the SOAP message
+     * @param encoding
+     *            the charset encoding of the SOAP message or <code>null</code> if the parser should
+     *            determine the charset encoding
+     * @return the builder
+     */
+    public static SOAPModelBuilder createHeaderFirstSOAPModelBuilder(InputStream in, String encoding) {
+        return createHeaderFirstSOAPModelBuilder(OMAbstractFactory.getMetaFactory(), in, encoding);
+    }
+    
+    /**
+     * Create an object model builder for SOAP that reads a message from the provided input stream,
+     * using a particular Axiom implementation, and that only parses the SOAP envelope and header.
+     * See {@link #createHeaderFirstSOAPModelBuilder(InputStream, String)} for more details.
+     * 
+     * @param metaFactory
+     *            the meta factory for the Axiom implementation to use
+     * @param in
+     *            the input stream containing the SOAP message
+     * @param encoding
+     *            the charset encoding of the SOAP message or <code>null</code> if the parser should
+     *            determine the charset encoding
+     * @return the builder
+     */
+    public static SOAPModelBuilder createHeaderFirstSOAPModelBuilder(OMMetaFactory metaFactory,
+            InputStream in, String encoding) {
+        InputSource is = new InputSource(in);
+        is.setEncoding(encoding);
+        if (metaFactory instanceof HeaderFirstSOAPOMMetaFactorySPI) {
+            return ((HeaderFirstSOAPOMMetaFactorySPI)metaFactory).createHeaderFirstSOAPModelBuilder(is);
+        } else {
+            // The implementation doesn't support deferred parsing of the body; parse the message
+            // in the normal way, which produces the same object model
+            return ((OMMetaFactorySPI)metaFactory).createSOAPModelBuilder(is);
+        }
+    }
+    
     /**
      * Create an object model builder for SOAP that reads a message from the provided character
      * stream. The method will select the appropriate {@link SOAPFactory} based on the namespace URI
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.ds;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.axiom.blob.Blob;
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMDataSource;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.OMXMLParserWrapper;
+
+/**
+ * {@link OMDataSource} implementation backed by a {@link Blob} containing an element in the
+ * binary XML format (see {@link OMOutputFormat#setBinaryXML(boolean)}). The Axiom
+ * implementations decode the blob directly when the data source is serialized or expanded; the
+ * {@link #getReader()} method is only used by code that accesses the data source directly.
+ * <p>
+ * Once the data source has been closed, {@link #getObject()} returns <code>null</code> and any
+ * attempt to read the content fails.
+ */
+public final class BinaryXMLOMDataSource extends AbstractPullOMDataSource {
+    private Blob blob;
+
+    /**
+     * Constructor.
+     * 
+     * @param blob
+     *            the blob containing the binary XML
+     */
+    public BinaryXMLOMDataSource(Blob blob) {
+        this.blob = blob;
+    }
+
+    @Override
+    public Blob getObject() {
+        return blob;
+    }
+
+    @Override
+    public BinaryXMLOMDataSource copy() {
+        if (blob == null) {
+            throw new IllegalStateException("The data source has been closed");
+        }
+        return new BinaryXMLOMDataSource(blob);
+    }
+
+    @Override
+    public boolean isDestructiveRead() {
+        return false;
+    }
+
+    @Override
+    public XMLStreamReader getReader() throws XMLStreamException {
+        if (blob == null) {
+            throw new XMLStreamException("The data source has been closed");
+        }
+        try {
+            InputStream in = blob.getInputStream();
+            try {
+                OMXMLParserWrapper builder = OMXMLBuilderFactory.createBinaryXMLOMBuilder(
+                        OMAbstractFactory.getOMFactory(), in);
+                OMElement element = builder.getDocumentElement();
+                // Detach the builder so that the stream can be closed before returning
+                builder.detach();
+                return element.getXMLStreamReader(false);
+            } finally {
+                in.close();
+            }
+        } catch (IOException ex) {
+            throw new XMLStreamException(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        blob = null;
+    }
+}
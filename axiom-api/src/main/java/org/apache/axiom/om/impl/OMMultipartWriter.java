@@ -30,6 +30,7 @@ import org.apache.axiom.attachments.ConfigurableDataHandler;
 import org.apache.axiom.mime.ContentType;
 import org.apache.axiom.mime.Header;
 import org.apache.axiom.mime.MultipartBodyWriter;
+import org.apache.axiom.mime.Part;
 import org.apache.axiom.om.OMOutputFormat;
 import org.apache.axiom.soap.SOAP11Constants;
 import org.apache.axiom.soap.SOAP12Constants;
@@ -183,6 +184,24 @@ public class OMMultipartWriter {
         writePart(dataHandler, contentID, null);
     }
 
+    /**
+     * Write a MIME part read from an incoming message. This method delegates to
+     * {@link MultipartBodyWriter#writePart(Part, String, List)}, i.e. the content transfer encoding
+     * of the original part is preserved and, if the content of the part has not been accessed yet,
+     * it is copied from the input stream without being decoded or buffered.
+     * 
+     * @param part
+     *            the MIME part to write; its content is consumed
+     * @param contentID
+     *            the content ID of the MIME part
+     * @throws IOException
+     *             if an I/O error occurs when reading the part or writing it to the underlying
+     *             stream
+     */
+    public void writePart(Part part, String contentID) throws IOException {
+        writer.writePart(part, contentID, null);
+    }
+
     /**
      * Complete writing of the MIME multipart package. This method delegates to
      * {@link MultipartBodyWriter#complete()}.
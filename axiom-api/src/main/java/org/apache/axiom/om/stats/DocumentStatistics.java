@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.stats;
+
+/**
+ * The statistics collected for a single document.
+ */
+public final class DocumentStatistics {
+    private final long[] values;
+
+    /**
+     * Constructor. This is meant to be used by Axiom implementations.
+     * 
+     * @param values
+     *            the values of the statistics, indexed by {@link Statistic#ordinal()}
+     */
+    public DocumentStatistics(long[] values) {
+        if (values.length != Statistic.values().length) {
+            throw new IllegalArgumentException();
+        }
+        this.values = values.clone();
+    }
+
+    /**
+     * Get the value of the given statistic.
+     * 
+     * @param statistic
+     *            the statistic
+     * @return the value
+     */
+    public long get(Statistic statistic) {
+        return values[statistic.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buffer = new StringBuilder();
+        for (Statistic statistic : Statistic.values()) {
+            buffer.append(buffer.length() == 0 ? '[' : ',');
+            buffer.append(statistic);
+            buffer.append('=');
+            buffer.append(values[statistic.ordinal()]);
+        }
+        buffer.append(']');
+        return buffer.toString();
+    }
+}
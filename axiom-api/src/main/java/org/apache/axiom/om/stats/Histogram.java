@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.stats;
+
+/**
+ * Histogram with exponential bucket sizes. Bucket 0 counts values less than or equal to 0 and
+ * bucket <i>i</i> &gt; 0 counts values <i>v</i> with 2<sup><i>i</i>-1</sup> &lt;= <i>v</i> &lt;
+ * 2<sup><i>i</i></sup>. Instances of this class are thread safe.
+ */
+public final class Histogram {
+    private final long[] buckets = new long[64];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * Add a value to the histogram.
+     * 
+     * @param value
+     *            the value
+     */
+    public synchronized void add(long value) {
+        buckets[getBucket(value)]++;
+        count++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Get the index of the bucket for the given value.
+     * 
+     * @param value
+     *            the value
+     * @return the bucket index
+     */
+    public static int getBucket(long value) {
+        return value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * Get the number of values in the given bucket.
+     * 
+     * @param bucket
+     *            the bucket index, as returned by {@link #getBucket(long)}
+     * @return the number of values
+     */
+    public synchronized long getBucketCount(int bucket) {
+        return buckets[bucket];
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getSum() {
+        return sum;
+    }
+
+    /**
+     * Get the smallest value added to the histogram.
+     * 
+     * @return the smallest value, or {@link Long#MAX_VALUE} if the histogram is empty
+     */
+    public synchronized long getMin() {
+        return min;
+    }
+
+    /**
+     * Get the largest value added to the histogram.
+     * 
+     * @return the largest value, or {@link Long#MIN_VALUE} if the histogram is empty
+     */
+    public synchronized long getMax() {
+        return max;
+    }
+
+    public synchronized double getMean() {
+        return count == 0 ? Double.NaN : (double)sum/count;
+    }
+}
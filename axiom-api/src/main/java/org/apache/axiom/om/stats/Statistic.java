@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.stats;
+
+/**
+ * Identifies a statistic collected for a document parsed by a builder.
+ */
+public enum Statistic {
+    /**
+     * The number of elements.
+     */
+    ELEMENTS,
+    
+    /**
+     * The number of attributes, excluding namespace declarations.
+     */
+    ATTRIBUTES,
+    
+    /**
+     * The number of namespace declarations.
+     */
+    NAMESPACE_DECLARATIONS,
+    
+    /**
+     * The number of character data events (text, CDATA sections and ignorable whitespace)
+     * received from the parser, excluding the content of comments and processing instructions.
+     */
+    TEXT_NODES,
+    
+    /**
+     * The total number of characters in the character data events counted by
+     * {@link #TEXT_NODES}.
+     */
+    CHARACTERS,
+    
+    /**
+     * The maximum element depth, with the document element at depth 1.
+     */
+    MAX_DEPTH,
+    
+    /**
+     * The maximum number of child elements of a single element.
+     */
+    MAX_FAN_OUT,
+    
+    /**
+     * For SOAP messages, the time (in nanoseconds) elapsed between the start of the document and
+     * the start of the SOAP body element; -1 if the document has no SOAP body element. Note that
+     * for a builder used in deferred mode, this includes the time spent by the application between
+     * requests to the builder.
+     */
+    TIME_TO_FIRST_BODY_ELEMENT
+}
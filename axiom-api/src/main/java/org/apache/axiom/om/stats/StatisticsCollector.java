@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.stats;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Collects statistics about documents parsed by one or more builders and aggregates them into
+ * {@link Histogram}s. To collect statistics for a builder, register an instance of this class with
+ * the builder using {@link StatisticsSupport#addStatisticsCollector(StatisticsCollector)}. The
+ * same instance may be registered with any number of builders, including builders used
+ * concurrently.
+ * <p>
+ * Subclasses may override {@link #documentCompleted(DocumentStatistics)} to get access to the
+ * statistics of individual documents.
+ */
+public class StatisticsCollector {
+    private final Map<Statistic,Histogram> histograms = new EnumMap<Statistic,Histogram>(Statistic.class);
+
+    public StatisticsCollector() {
+        for (Statistic statistic : Statistic.values()) {
+            histograms.put(statistic, new Histogram());
+        }
+    }
+
+    /**
+     * Invoked by a builder when it has reached the end of the document. The default
+     * implementation adds the statistics to the histograms.
+     * 
+     * @param statistics
+     *            the statistics for the document
+     */
+    public void documentCompleted(DocumentStatistics statistics) {
+        for (Map.Entry<Statistic,Histogram> entry : histograms.entrySet()) {
+            long value = statistics.get(entry.getKey());
+            if (entry.getKey() != Statistic.TIME_TO_FIRST_BODY_ELEMENT || value != -1) {
+                entry.getValue().add(value);
+            }
+        }
+    }
+
+    /**
+     * Get the histogram aggregating the values of the given statistic for all documents seen by
+     * this collector.
+     * 
+     * @param statistic
+     *            the statistic
+     * @return the histogram
+     */
+    public final Histogram getHistogram(Statistic statistic) {
+        return histograms.get(statistic);
+    }
+
+    /**
+     * Get the number of documents seen by this collector.
+     * 
+     * @return the number of documents
+     */
+    public final long getDocumentCount() {
+        return histograms.get(Statistic.ELEMENTS).getCount();
+    }
+}
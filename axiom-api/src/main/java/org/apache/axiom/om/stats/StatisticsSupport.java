@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.stats;
+
+/**
+ * Interface implemented by builders that support the collection of statistics. Builders created
+ * by {@link org.apache.axiom.om.OMXMLBuilderFactory} implement this interface. Collectors must be
+ * registered before the builder starts parsing the document, i.e. before the document is
+ * accessed in any way.
+ */
+public interface StatisticsSupport {
+    /**
+     * Register a statistics collector. Statistics are reported to the collector when the builder
+     * reaches the end of the document.
+     * 
+     * @param collector
+     *            the collector
+     * @throws IllegalStateException
+     *             if the builder has already started parsing the document
+     */
+    void addStatisticsCollector(StatisticsCollector collector);
+}
@@ -44,8 +44,37 @@ import java.util.TreeMap;
 /**
  * Helper class to provide the functionality of the digest value generation. This is an
  * implementation of the DOMHASH algorithm on OM.
+ * <p>
+ * Documents and elements that implement {@link DigestSupport} (which is the case for the nodes
+ * created by Axiom's own implementations) are digested in a single pass over their serialized
+ * form, without allocating intermediate byte arrays and collections for every node. They may
+ * also cache their digests (see {@link #DigestGenerator(boolean)}). This is only done if this
+ * class is not extended, so that subclasses overriding individual methods continue to work as
+ * expected.
  */
 public class DigestGenerator {
+    private final boolean cacheDigests;
+
+    /**
+     * Create a digest generator that doesn't cache digests.
+     */
+    public DigestGenerator() {
+        this(false);
+    }
+
+    /**
+     * Create a digest generator.
+     * 
+     * @param cacheDigests
+     *            specifies whether the digests of documents and elements should be cached on the
+     *            nodes (if they implement {@link DigestSupport}). A cached digest is discarded
+     *            when the node or one of its descendants is modified (children, attributes, names,
+     *            character data or namespace declarations). Caching is useful if the digest of
+     *            the same unmodified subtree is requested many times.
+     */
+    public DigestGenerator(boolean cacheDigests) {
+        this.cacheDigests = cacheDigests;
+    }
 
     /**
      * This method is an overloaded method for the digest generation for OMDocument
@@ -55,6 +84,9 @@ public class DigestGenerator {
      * @return Returns a byte array representing the calculated digest
      */
     public byte[] getDigest(OMDocument document, String digestAlgorithm) throws OMException {
+        if (document instanceof DigestSupport && getClass() == DigestGenerator.class) {
+            return ((DigestSupport)document).computeDigest(digestAlgorithm, cacheDigests);
+        }
         byte[] digest = new byte[0];
         try {
             MessageDigest md = MessageDigest.getInstance(digestAlgorithm);
@@ -109,6 +141,9 @@ public class DigestGenerator {
      * @return Returns a byte array representing the calculated digest value
      */
     public byte[] getDigest(OMElement element, String digestAlgorithm) throws OMException {
+        if (element instanceof DigestSupport && getClass() == DigestGenerator.class) {
+            return ((DigestSupport)element).computeDigest(digestAlgorithm, cacheDigests);
+        }
         byte[] digest = new byte[0];
         try {
             MessageDigest md = MessageDigest.getInstance(digestAlgorithm);
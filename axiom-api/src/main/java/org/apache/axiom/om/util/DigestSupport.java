@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.util;
+
+import org.apache.axiom.om.OMException;
+
+/**
+ * Interface implemented by {@link org.apache.axiom.om.OMDocument} and
+ * {@link org.apache.axiom.om.OMElement} instances that can compute their DOMHASH digest from
+ * their serialized event stream instead of walking the tree. {@link DigestGenerator} uses this
+ * interface if it is available; application code should use {@link DigestGenerator} instead of
+ * calling this interface directly.
+ */
+public interface DigestSupport {
+    /**
+     * Compute the DOMHASH digest of this node. The result is the same as the one computed by
+     * {@link DigestGenerator#getDigest(org.apache.axiom.om.OMDocument, String)} or
+     * {@link DigestGenerator#getDigest(org.apache.axiom.om.OMElement, String)}. The node is built
+     * completely as a side effect.
+     * 
+     * @param digestAlgorithm
+     *            the name of the digest algorithm
+     * @param cache
+     *            specifies whether the digest should be looked up in and stored into a cache
+     *            attached to the node; the cached digest is discarded when the node or any of its
+     *            descendants is modified
+     * @return the digest
+     * @throws OMException
+     *             if the algorithm is not supported or an error occurs while reading the content
+     *             of the node
+     */
+    byte[] computeDigest(String digestAlgorithm, boolean cache) throws OMException;
+}
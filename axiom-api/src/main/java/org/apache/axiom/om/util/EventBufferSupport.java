@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.util;
+
+import org.apache.axiom.om.OMDataSourceExt;
+import org.apache.axiom.om.OMException;
+
+/**
+ * Interface implemented by {@link org.apache.axiom.om.OMElement} instances that can record their
+ * content into a compact, replayable event buffer. This is useful if the content of an element
+ * needs to be serialized or read several times (e.g. to log it, forward it and compute a
+ * signature) without keeping a full object model in memory and without parsing the original
+ * message again. Recording an element that has not been built with caching disabled takes the
+ * events directly from the parser, i.e. no nodes are created.
+ */
+public interface EventBufferSupport {
+    /**
+     * Record the events for this element and return a data source backed by them. The data
+     * source is not destructive: it can be serialized and read any number of times, including
+     * concurrently by multiple threads, and it can be used to create an
+     * {@link org.apache.axiom.om.OMSourcedElement}. Namespace declarations inherited from the
+     * ancestors of this element are added where necessary, so that the recorded content is self
+     * contained.
+     * 
+     * @param cache
+     *            indicates if the content of the element should be built while it is recorded; if
+     *            <code>false</code> and the element is incomplete, the element is consumed
+     * @return the data source; {@link OMDataSourceExt#getObject()} returns the event buffer
+     * @throws OMException
+     *             if an error occurs while reading the content of the element
+     */
+    OMDataSourceExt recordEvents(boolean cache) throws OMException;
+}
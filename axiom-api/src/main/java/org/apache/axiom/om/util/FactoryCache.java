@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.util;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Cache for StAX factories, keyed by configuration. Keys are weakly referenced. The cache is
+ * optimized for the case where the number of keys is small and lookups are much more frequent than
+ * insertions: entries are stored in an array that is replaced (copy-on-write) when an entry is
+ * added, so that lookups never acquire a lock.
+ *
+ * @param <K>
+ *            the key type
+ * @param <V>
+ *            the value type
+ */
+final class FactoryCache<K,V> {
+    private static final class Entry<K,V> {
+        final WeakReference<K> key;
+        final V value;
+
+        Entry(K key, V value) {
+            this.key = new WeakReference<K>(key);
+            this.value = value;
+        }
+    }
+
+    private volatile Entry<?,?>[] entries = new Entry<?,?>[0];
+
+    @SuppressWarnings("unchecked")
+    V get(K key) {
+        for (Entry<?,?> entry : entries) {
+            if (key.equals(entry.key.get())) {
+                return (V)entry.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add an entry to the cache, unless an entry for the given key already exists. Entries with
+     * keys that have been garbage collected are removed.
+     * 
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @return the value in the cache, i.e. the existing value if there is one and the given value
+     *         otherwise
+     */
+    @SuppressWarnings("unchecked")
+    synchronized V putIfAbsent(K key, V value) {
+        Entry<?,?>[] entries = this.entries;
+        Entry<?,?>[] newEntries = new Entry<?,?>[entries.length+1];
+        int count = 0;
+        for (Entry<?,?> entry : entries) {
+            Object entryKey = entry.key.get();
+            if (key.equals(entryKey)) {
+                return (V)entry.value;
+            } else if (entryKey != null) {
+                newEntries[count++] = entry;
+            }
+        }
+        newEntries[count++] = new Entry<K,V>(key, value);
+        if (count < newEntries.length) {
+            Entry<?,?>[] trimmed = new Entry<?,?>[count];
+            System.arraycopy(newEntries, 0, trimmed, 0, count);
+            newEntries = trimmed;
+        }
+        this.entries = newEntries;
+        return value;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.util;
+
+/**
+ * Interface implemented by {@link org.apache.axiom.om.OMElement} instances (including
+ * {@link org.apache.axiom.om.OMSourcedElement} instances) that can cache their serialized form.
+ * This is useful for static fragments that are serialized many times, such as policies or
+ * common response headers: once the element has been serialized, subsequent serializations with
+ * the same charset encoding copy the cached bytes to the output instead of walking the tree or
+ * invoking the {@link org.apache.axiom.om.OMDataSource} again.
+ * <p>
+ * The cache is only used when the element is serialized as plain XML to an
+ * {@link java.io.OutputStream} or {@link java.io.Writer}, i.e. not for MTOM/SwA, canonical or
+ * binary XML, and only if the cached form is valid in the namespace context in which the element
+ * appears. The cached form may contain namespace declarations that are redundant in that
+ * context. It is discarded when the element or any of its descendants is modified.
+ */
+public interface SerializationCacheSupport {
+    /**
+     * Enable or disable caching of the serialized form of this element. Disabling the cache
+     * discards any cached data.
+     * 
+     * @param enabled
+     *            <code>true</code> to enable the cache
+     */
+    void setSerializationCacheEnabled(boolean enabled);
+    
+    /**
+     * Determine whether caching of the serialized form is enabled for this element.
+     * 
+     * @return <code>true</code> if the cache is enabled
+     */
+    boolean isSerializationCacheEnabled();
+}
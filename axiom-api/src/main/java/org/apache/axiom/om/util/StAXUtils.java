@@ -21,6 +21,8 @@ package org.apache.axiom.om.util;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.axiom.util.stax.debug.UnclosedReaderDetector;
+import org.apache.axiom.util.stax.dialect.ReaderRecyclingDialect;
 import org.apache.axiom.util.stax.dialect.StAXDialect;
 import org.apache.axiom.util.stax.dialect.StAXDialectDetector;
 import org.apache.axiom.util.stax.wrapper.ImmutableXMLInputFactory;
@@ -39,11 +41,9 @@ import java.io.Reader;
 import java.io.Writer;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
-import java.util.WeakHashMap;
 
 /**
  * Utility class containing StAX related methods.
@@ -84,11 +84,14 @@ import java.util.WeakHashMap;
 public class StAXUtils {
     private static final Log log = LogFactory.getLog(StAXUtils.class);
     
-    private static final Map<StAXParserConfiguration,XMLInputFactory> inputFactoryMap
-            = Collections.synchronizedMap(new WeakHashMap<StAXParserConfiguration,XMLInputFactory>());
+    private static final FactoryCache<StAXParserConfiguration,XMLInputFactory> inputFactoryCache
+            = new FactoryCache<StAXParserConfiguration,XMLInputFactory>();
     @SuppressWarnings("deprecation")
-    private static final Map<StAXWriterConfiguration,XMLOutputFactory> outputFactoryMap
-            = Collections.synchronizedMap(new WeakHashMap<StAXWriterConfiguration,XMLOutputFactory>());
+    private static final FactoryCache<StAXWriterConfiguration,XMLOutputFactory> outputFactoryCache
+            = new FactoryCache<StAXWriterConfiguration,XMLOutputFactory>();
+    private static final FactoryCache<StAXParserConfiguration,XMLStreamReaderPool> readerPoolCache
+            = new FactoryCache<StAXParserConfiguration,XMLStreamReaderPool>();
+    private static final int READER_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
     
     /**
      * Get a cached {@link XMLInputFactory} instance using the default
@@ -198,6 +201,89 @@ public class StAXUtils {
         return reader;
     }
 
+    /**
+     * Create a pooled {@link XMLStreamReader} using the specified configuration. If the StAX
+     * implementation supports it, the returned reader is backed by a recycled reader instance, so
+     * that buffers and symbol tables don't need to be allocated again for every document. This is
+     * mainly useful for applications that parse large numbers of small documents.
+     * <p>
+     * Reader recycling is only supported by StAX implementations whose dialect implements
+     * {@link ReaderRecyclingDialect}, i.e. SJSXP (including the version bundled with the JRE).
+     * For other implementations, and in particular for Woodstox (which already recycles its
+     * internal buffers), this method is a no-op wrapper around the factory returned by
+     * {@link #getXMLInputFactory(StAXParserConfiguration)}.
+     * <p>
+     * The caller MUST close the reader once it is no longer needed and MUST NOT use it after that.
+     * A reader that is not closed will not be recycled. If debug logging is enabled for this
+     * class, a warning is logged for pooled readers that are garbage collected without having
+     * been closed.
+     * 
+     * @param configuration
+     *            the configuration applied to the factory creating the reader
+     * @param in
+     *            the input stream to read from
+     * @param encoding
+     *            the character encoding of the stream
+     * @return the reader
+     * @throws XMLStreamException
+     *             if the reader could not be created
+     */
+    public static XMLStreamReader createPooledXMLStreamReader(StAXParserConfiguration configuration,
+            InputStream in, String encoding) throws XMLStreamException {
+        
+        return getXMLStreamReaderPool(configuration).createXMLStreamReader(in, encoding);
+    }
+
+    /**
+     * Create a pooled {@link XMLStreamReader} using the specified configuration. See
+     * {@link #createPooledXMLStreamReader(StAXParserConfiguration, InputStream, String)} for the
+     * restrictions that apply to pooled readers.
+     * 
+     * @param configuration
+     *            the configuration applied to the factory creating the reader
+     * @param in
+     *            the input stream to read from
+     * @return the reader
+     * @throws XMLStreamException
+     *             if the reader could not be created
+     */
+    public static XMLStreamReader createPooledXMLStreamReader(StAXParserConfiguration configuration,
+            InputStream in) throws XMLStreamException {
+        
+        return getXMLStreamReaderPool(configuration).createXMLStreamReader(in);
+    }
+
+    /**
+     * Create a pooled {@link XMLStreamReader} using the specified configuration. See
+     * {@link #createPooledXMLStreamReader(StAXParserConfiguration, InputStream, String)} for the
+     * restrictions that apply to pooled readers.
+     * 
+     * @param configuration
+     *            the configuration applied to the factory creating the reader
+     * @param in
+     *            the character stream to read from
+     * @return the reader
+     * @throws XMLStreamException
+     *             if the reader could not be created
+     */
+    public static XMLStreamReader createPooledXMLStreamReader(StAXParserConfiguration configuration,
+            Reader in) throws XMLStreamException {
+        
+        return getXMLStreamReaderPool(configuration).createXMLStreamReader(in);
+    }
+
+    private static XMLStreamReaderPool getXMLStreamReaderPool(StAXParserConfiguration configuration) {
+        if (configuration == null) {
+            configuration = StAXParserConfiguration.DEFAULT;
+        }
+        XMLStreamReaderPool pool = readerPoolCache.get(configuration);
+        if (pool == null) {
+            pool = readerPoolCache.putIfAbsent(configuration,
+                    new XMLStreamReaderPool(configuration, READER_POOL_SIZE));
+        }
+        return pool;
+    }
+
     /**
      * Get a cached {@link XMLOutputFactory} instance using the default
      * configuration.
@@ -374,7 +460,7 @@ public class StAXUtils {
     }
     
     private static XMLInputFactory newXMLInputFactory(final ClassLoader classLoader,
-            final StAXParserConfiguration configuration) {
+            final StAXParserConfiguration configuration, final boolean recycleReaders) {
         
         return AccessController.doPrivileged(new PrivilegedAction<XMLInputFactory>() {
             @Override
@@ -403,8 +489,18 @@ public class StAXUtils {
                     if (configuration != null) {
                         factory = configuration.configure(factory, dialect);
                     }
-                    return new ImmutableXMLInputFactory(dialect.normalize(
-                            dialect.makeThreadSafe(factory)));
+                    if (recycleReaders) {
+                        if (!(dialect instanceof ReaderRecyclingDialect)) {
+                            return null;
+                        }
+                        factory = ((ReaderRecyclingDialect)dialect).enableReaderRecycling(factory);
+                        if (factory == null) {
+                            return null;
+                        }
+                    } else {
+                        factory = dialect.makeThreadSafe(factory);
+                    }
+                    return new ImmutableXMLInputFactory(dialect.normalize(factory));
                 } finally {
                     if (savedClassLoader != null) {
                         Thread.currentThread().setContextClassLoader(savedClassLoader);
@@ -414,6 +510,28 @@ public class StAXUtils {
         });
     }
 
+    /**
+     * Create a new {@link XMLInputFactory} that recycles its readers. The returned factory is not
+     * thread safe; it is intended to be used by {@link XMLStreamReaderPool}.
+     * 
+     * @param configuration
+     *            the configuration applied to the requested factory
+     * @return the factory, or <code>null</code> if the StAX implementation doesn't support reader
+     *         recycling
+     */
+    static XMLInputFactory newRecyclingXMLInputFactory(StAXParserConfiguration configuration) {
+        XMLInputFactory f = newXMLInputFactory(StAXUtils.class.getClassLoader(), configuration, true);
+        if (log.isDebugEnabled()) {
+            if (f == null) {
+                log.debug("The StAX implementation doesn't support reader recycling; pooled readers will be created using the shared XMLInputFactory");
+            } else {
+                log.debug("Created recycling XMLInputFactory " + f.getClass() + " with configuration " + configuration);
+                f = new UnclosedReaderDetector(f);
+            }
+        }
+        return f;
+    }
+
     /**
      * Get a cached {@link XMLInputFactory} instance using the specified configuration.
      * 
@@ -425,10 +543,10 @@ public class StAXUtils {
         if (configuration == null) {
             configuration = StAXParserConfiguration.DEFAULT;
         }
-        XMLInputFactory f = inputFactoryMap.get(configuration);
+        XMLInputFactory f = inputFactoryCache.get(configuration);
         if (f == null) {
-            f = newXMLInputFactory(StAXUtils.class.getClassLoader(), configuration);
-            inputFactoryMap.put(configuration, f);
+            f = inputFactoryCache.putIfAbsent(configuration,
+                    newXMLInputFactory(StAXUtils.class.getClassLoader(), configuration, false));
             if (log.isDebugEnabled()) {
                 if (f != null) {
                     log.debug("Created singleton XMLInputFactory " + f.getClass() + " with configuration " + configuration);
@@ -491,10 +609,10 @@ public class StAXUtils {
         if (configuration == null) {
             configuration = StAXWriterConfiguration.DEFAULT;
         }
-        XMLOutputFactory f = outputFactoryMap.get(configuration);
+        XMLOutputFactory f = outputFactoryCache.get(configuration);
         if (f == null) {
-            f = newXMLOutputFactory(StAXUtils.class.getClassLoader(), configuration);
-            outputFactoryMap.put(configuration, f);
+            f = outputFactoryCache.putIfAbsent(configuration,
+                    newXMLOutputFactory(StAXUtils.class.getClassLoader(), configuration));
             if (log.isDebugEnabled()) {
                 if (f != null) {
                     log.debug("Created singleton XMLOutputFactory " + f.getClass() + " with configuration " + configuration);
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.util;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.axiom.util.stax.wrapper.XMLStreamReaderWrapper;
+
+/**
+ * Bounded pool of {@link XMLInputFactory} instances configured to recycle their readers (see
+ * {@link org.apache.axiom.util.stax.dialect.ReaderRecyclingDialect#enableReaderRecycling(XMLInputFactory)}).
+ * Since such a factory is not thread safe and always returns the same reader instance, a factory
+ * is removed from the pool while its reader is in use and put back when the reader is closed.
+ * <p>
+ * Only idle factories are held by the pool. If no idle factory is available, a new one is
+ * created, and a factory released while the pool is full is discarded. A reader that is never
+ * closed therefore simply causes its factory to be garbage collected and doesn't reduce the
+ * capacity of the pool.
+ * <p>
+ * If the StAX implementation doesn't support reader recycling, readers are created using the
+ * shared factory returned by {@link StAXUtils#getXMLInputFactory(StAXParserConfiguration)}.
+ */
+final class XMLStreamReaderPool {
+    private final class PooledXMLStreamReader extends XMLStreamReaderWrapper {
+        private XMLInputFactory factory;
+
+        PooledXMLStreamReader(XMLStreamReader parent, XMLInputFactory factory) {
+            super(parent);
+            this.factory = factory;
+        }
+
+        @Override
+        public void close() throws XMLStreamException {
+            if (factory != null) {
+                try {
+                    super.close();
+                } finally {
+                    release(factory);
+                    factory = null;
+                }
+            }
+        }
+    }
+
+    private final StAXParserConfiguration configuration;
+    private final AtomicReferenceArray<XMLInputFactory> factories;
+    
+    private volatile boolean unsupported;
+
+    XMLStreamReaderPool(StAXParserConfiguration configuration, int size) {
+        this.configuration = configuration;
+        factories = new AtomicReferenceArray<XMLInputFactory>(size);
+    }
+
+    private XMLInputFactory acquire() {
+        if (unsupported) {
+            return null;
+        }
+        for (int i=0; i<factories.length(); i++) {
+            if (factories.get(i) != null) {
+                XMLInputFactory factory = factories.getAndSet(i, null);
+                if (factory != null) {
+                    return factory;
+                }
+            }
+        }
+        XMLInputFactory factory = StAXUtils.newRecyclingXMLInputFactory(configuration);
+        if (factory == null) {
+            unsupported = true;
+        }
+        return factory;
+    }
+
+    private void release(XMLInputFactory factory) {
+        for (int i=0; i<factories.length(); i++) {
+            if (factories.compareAndSet(i, null, factory)) {
+                return;
+            }
+        }
+        // The pool is full; just discard the factory
+    }
+    
+    XMLStreamReader createXMLStreamReader(InputStream in, String encoding) throws XMLStreamException {
+        XMLInputFactory factory = acquire();
+        if (factory == null) {
+            return StAXUtils.getXMLInputFactory(configuration).createXMLStreamReader(in, encoding);
+        }
+        boolean success = false;
+        try {
+            XMLStreamReader reader = new PooledXMLStreamReader(
+                    factory.createXMLStreamReader(in, encoding), factory);
+            success = true;
+            return reader;
+        } finally {
+            if (!success) {
+                release(factory);
+            }
+        }
+    }
+
+    XMLStreamReader createXMLStreamReader(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = acquire();
+        if (factory == null) {
+            return StAXUtils.getXMLInputFactory(configuration).createXMLStreamReader(in);
+        }
+        boolean success = false;
+        try {
+            XMLStreamReader reader = new PooledXMLStreamReader(factory.createXMLStreamReader(in), factory);
+            success = true;
+            return reader;
+        } finally {
+            if (!success) {
+                release(factory);
+            }
+        }
+    }
+
+    XMLStreamReader createXMLStreamReader(Reader in) throws XMLStreamException {
+        XMLInputFactory factory = acquire();
+        if (factory == null) {
+            return StAXUtils.getXMLInputFactory(configuration).createXMLStreamReader(in);
+        }
+        boolean success = false;
+        try {
+            XMLStreamReader reader = new PooledXMLStreamReader(factory.createXMLStreamReader(in), factory);
+            success = true;
+            return reader;
+        } finally {
+            if (!success) {
+                release(factory);
+            }
+        }
+    }
+}
@@ -23,17 +23,76 @@ import org.apache.axiom.om.OMAttribute;
 import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.OMNamespace;
 import org.jaxen.BaseXPath;
+import org.jaxen.FunctionContext;
 import org.jaxen.JaxenException;
+import org.jaxen.NamespaceContext;
+import org.jaxen.VariableContext;
+import org.jaxen.function.NumberFunction;
+import org.jaxen.function.StringFunction;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * XPath expression that can be evaluated on Axiom trees.
+ * <p>
+ * Simple location paths (without predicates and only using the child, descendant and attribute
+ * axes) are compiled into a form that is evaluated directly on the Axiom tree. Evaluation of
+ * these expressions stops as soon as enough nodes have been found, e.g. when
+ * {@link #selectSingleNode(Object)} is used. All other expressions are evaluated by Jaxen.
+ */
 public class AXIOMXPath extends BaseXPath {
 
     private static final long serialVersionUID = -5839161412925154639L;
 
+    private static final class CacheKey {
+        private final String expression;
+        private final Map<String,String> namespaces;
+        
+        CacheKey(String expression, Map<String,String> namespaces) {
+            this.expression = expression;
+            this.namespaces = namespaces;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31*expression.hashCode() + namespaces.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey)obj;
+            return expression.equals(other.expression) && namespaces.equals(other.namespaces);
+        }
+    }
+    
+    private static final int CACHE_SIZE = 256;
+    
+    @SuppressWarnings("serial")
+    private static final Map<CacheKey,AXIOMXPath> cache = new LinkedHashMap<CacheKey,AXIOMXPath>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey,AXIOMXPath> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    
     private Map<String,String> namespaces = new HashMap<String,String>();
+    
+    private final CompiledLocationPath compiledPath;
+    
+    /**
+     * Indicates if this instance is shared through the cache maintained by
+     * {@link #getCachedInstance(String, Map)}, in which case it must not be modified.
+     */
+    private boolean shared;
 
     /**
      * Construct an XPath expression from a given string.
@@ -43,6 +102,7 @@ public class AXIOMXPath extends BaseXPath {
      */
     public AXIOMXPath(String xpathExpr) throws JaxenException {
         super(xpathExpr, new DocumentNavigator());
+        compiledPath = CompiledLocationPath.compile(getRootExpr());
     }
 
     /**
@@ -75,6 +135,64 @@ public class AXIOMXPath extends BaseXPath {
         this(attribute.getOwner(), attribute.getAttributeValue());
     }
 
+    /**
+     * Get a (shared) XPath expression with the given namespace context. Instances are cached in a
+     * bounded LRU cache keyed by the expression and the namespace bindings, so that the expression
+     * doesn't need to be parsed again every time it is used. The returned instance may be used
+     * concurrently to evaluate the expression against different documents, but it must not be
+     * modified. In particular, {@link #addNamespace(String, String)},
+     * {@link #setNamespaceContext(NamespaceContext)}, {@link #setFunctionContext(FunctionContext)}
+     * and {@link #setVariableContext(VariableContext)} will throw an
+     * {@link UnsupportedOperationException}.
+     * 
+     * @param xpathExpr
+     *            the string representation of the XPath expression
+     * @param namespaces
+     *            the namespace context of the expression, i.e. a map from prefixes to namespace
+     *            URIs; may be <code>null</code>
+     * @return the XPath expression
+     * @throws JaxenException
+     *             if there is a syntax error while parsing the expression
+     */
+    public static AXIOMXPath getCachedInstance(String xpathExpr, Map<String,String> namespaces)
+            throws JaxenException {
+        if (namespaces == null) {
+            namespaces = Collections.emptyMap();
+        }
+        AXIOMXPath xpath;
+        synchronized (cache) {
+            xpath = cache.get(new CacheKey(xpathExpr, namespaces));
+        }
+        if (xpath == null) {
+            // Parse the expression outside of the synchronized block
+            Map<String,String> namespacesCopy = new HashMap<String,String>(namespaces);
+            xpath = new AXIOMXPath(xpathExpr);
+            for (Map.Entry<String,String> entry : namespacesCopy.entrySet()) {
+                xpath.addNamespace(entry.getKey(), entry.getValue());
+            }
+            // Make sure that the context support is initialized before the instance is shared
+            xpath.getContextSupport();
+            xpath.namespaces = Collections.unmodifiableMap(xpath.namespaces);
+            xpath.shared = true;
+            CacheKey key = new CacheKey(xpathExpr, namespacesCopy);
+            synchronized (cache) {
+                AXIOMXPath existing = cache.get(key);
+                if (existing == null) {
+                    cache.put(key, xpath);
+                } else {
+                    xpath = existing;
+                }
+            }
+        }
+        return xpath;
+    }
+    
+    private void checkNotShared() {
+        if (shared) {
+            throw new UnsupportedOperationException("Shared AXIOMXPath instances can't be modified");
+        }
+    }
+
     /**
      * This override captures any added namespaces, as the Jaxen BaseXPath class nor
      * NamespaceContext (or SimpleNamespaceContext) exposes thier internal map of the prefixes to
@@ -87,6 +205,7 @@ public class AXIOMXPath extends BaseXPath {
      */
     @Override
     public void addNamespace(String prefix, String uri) throws JaxenException {
+        checkNotShared();
         try {
             super.addNamespace(prefix, uri);
         } catch (JaxenException e) {
@@ -97,6 +216,24 @@ public class AXIOMXPath extends BaseXPath {
         namespaces.put(prefix, uri);
     }
 
+    @Override
+    public void setNamespaceContext(NamespaceContext namespaceContext) {
+        checkNotShared();
+        super.setNamespaceContext(namespaceContext);
+    }
+
+    @Override
+    public void setFunctionContext(FunctionContext functionContext) {
+        checkNotShared();
+        super.setFunctionContext(functionContext);
+    }
+
+    @Override
+    public void setVariableContext(VariableContext variableContext) {
+        checkNotShared();
+        super.setVariableContext(variableContext);
+    }
+
     /**
      * Add the namespace declarations of a given {@link OMElement} to the namespace
      * context of an XPath expression. Typically this method is used with an XPath
@@ -134,4 +271,62 @@ public class AXIOMXPath extends BaseXPath {
     public Map<String,String> getNamespaces() {
         return namespaces;
     }
+
+    /**
+     * Evaluate the compiled location path, if there is one.
+     * 
+     * @param node
+     *            the context node
+     * @param limit
+     *            the maximum number of nodes to select
+     * @return the selected nodes in document order, or <code>null</code> if the expression needs
+     *         to be evaluated by Jaxen
+     */
+    private List<Object> evaluateCompiledPath(Object node, int limit) {
+        if (compiledPath == null) {
+            return null;
+        }
+        List<Object> result = new ArrayList<Object>(limit == 1 ? 1 : 10);
+        return compiledPath.evaluate(node, getContextSupport(), result, limit) ? result : null;
+    }
+
+    @Override
+    public Object evaluate(Object node) throws JaxenException {
+        List<Object> result = evaluateCompiledPath(node, Integer.MAX_VALUE);
+        return result != null ? result : super.evaluate(node);
+    }
+
+    @Override
+    public List<?> selectNodes(Object node) throws JaxenException {
+        List<Object> result = evaluateCompiledPath(node, Integer.MAX_VALUE);
+        return result != null ? result : super.selectNodes(node);
+    }
+
+    @Override
+    public Object selectSingleNode(Object node) throws JaxenException {
+        List<Object> result = evaluateCompiledPath(node, 1);
+        if (result == null) {
+            return super.selectSingleNode(node);
+        } else {
+            return result.isEmpty() ? null : result.get(0);
+        }
+    }
+
+    @Override
+    public String stringValueOf(Object node) throws JaxenException {
+        List<Object> result = evaluateCompiledPath(node, 1);
+        return result != null ? StringFunction.evaluate(result, getNavigator()) : super.stringValueOf(node);
+    }
+
+    @Override
+    public boolean booleanValueOf(Object node) throws JaxenException {
+        List<Object> result = evaluateCompiledPath(node, 1);
+        return result != null ? !result.isEmpty() : super.booleanValueOf(node);
+    }
+
+    @Override
+    public Number numberValueOf(Object node) throws JaxenException {
+        List<Object> result = evaluateCompiledPath(node, 1);
+        return result != null ? NumberFunction.evaluate(result, getNavigator()) : super.numberValueOf(node);
+    }
 }
@@ -0,0 +1,357 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.om.xpath;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.OMAttribute;
+import org.apache.axiom.om.OMContainer;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMNamedInformationItem;
+import org.apache.axiom.om.OMNode;
+import org.apache.axiom.om.OMText;
+import org.jaxen.ContextSupport;
+import org.jaxen.expr.AllNodeStep;
+import org.jaxen.expr.Expr;
+import org.jaxen.expr.LocationPath;
+import org.jaxen.expr.NameStep;
+import org.jaxen.expr.PathExpr;
+import org.jaxen.expr.Step;
+import org.jaxen.expr.TextNodeStep;
+import org.jaxen.saxpath.Axis;
+
+/**
+ * Location path compiled into a form that can be evaluated directly on the Axiom tree, without
+ * going through Jaxen and {@link DocumentNavigator}. Only a subset of XPath 1.0 is supported, namely
+ * location paths without predicates using the child, descendant and attribute axes (including the
+ * abbreviated forms <code>//</code> and <code>.</code>) and name, <code>text()</code> and
+ * <code>node()</code> tests. That subset is chosen such that evaluating the steps in a depth-first
+ * manner produces the nodes in document order and without duplicates, which means that the result
+ * is identical to the one produced by Jaxen. In addition, evaluation can stop as soon as the first
+ * node is found, so that a deferred document is built only as far as needed.
+ */
+final class CompiledLocationPath implements Serializable {
+    private static final long serialVersionUID = 3463516484306738563L;
+
+    private static final int AXIS_CHILD = 1;
+    private static final int AXIS_DESCENDANT = 2;
+    private static final int AXIS_ATTRIBUTE = 3;
+    private static final int AXIS_DESCENDANT_OR_SELF_ATTRIBUTE = 4;
+    
+    private static final int TEST_NAME = 1;
+    private static final int TEST_TEXT = 2;
+    private static final int TEST_NODE = 3;
+    
+    private static final class CompiledStep implements Serializable {
+        private static final long serialVersionUID = -5147826262838758316L;
+
+        final int axis;
+        final int test;
+        
+        /**
+         * The prefix of the name test, or <code>null</code> if the name test has no prefix.
+         */
+        final String prefix;
+        
+        /**
+         * The local name of the name test, or <code>null</code> if the name test is a wildcard.
+         */
+        final String localName;
+        
+        CompiledStep(int axis, int test, String prefix, String localName) {
+            this.axis = axis;
+            this.test = test;
+            this.prefix = prefix;
+            this.localName = localName;
+        }
+    }
+    
+    private final boolean absolute;
+    private final CompiledStep[] steps;
+
+    private CompiledLocationPath(boolean absolute, CompiledStep[] steps) {
+        this.absolute = absolute;
+        this.steps = steps;
+    }
+
+    /**
+     * Attempt to compile the given expression.
+     * 
+     * @param expr
+     *            the (simplified) root expression as returned by
+     *            {@link org.jaxen.BaseXPath#getRootExpr()}
+     * @return the compiled location path, or <code>null</code> if the expression uses constructs
+     *         that are not supported
+     */
+    static CompiledLocationPath compile(Expr expr) {
+        if (expr instanceof PathExpr && ((PathExpr)expr).getFilterExpr() == null) {
+            expr = ((PathExpr)expr).getLocationPath();
+        }
+        if (!(expr instanceof LocationPath)) {
+            return null;
+        }
+        LocationPath path = (LocationPath)expr;
+        List<?> steps = path.getSteps();
+        CompiledStep[] compiledSteps = new CompiledStep[steps.size()];
+        int count = 0;
+        for (int i=0; i<steps.size(); i++) {
+            Step step = (Step)steps.get(i);
+            if (!step.getPredicates().isEmpty()) {
+                return null;
+            }
+            int axis = step.getAxis();
+            if (axis == Axis.SELF && step instanceof AllNodeStep) {
+                continue;
+            }
+            int compiledAxis;
+            if (axis == Axis.DESCENDANT_OR_SELF && step instanceof AllNodeStep && i+1 < steps.size()) {
+                // Abbreviated syntax (//)
+                step = (Step)steps.get(++i);
+                if (!step.getPredicates().isEmpty()) {
+                    return null;
+                }
+                switch (step.getAxis()) {
+                    case Axis.CHILD: compiledAxis = AXIS_DESCENDANT; break;
+                    case Axis.ATTRIBUTE: compiledAxis = AXIS_DESCENDANT_OR_SELF_ATTRIBUTE; break;
+                    default: return null;
+                }
+            } else {
+                // Other uses of the descendant-or-self axis are not supported
+                switch (axis) {
+                    case Axis.CHILD:
+                        compiledAxis = AXIS_CHILD;
+                        break;
+                    case Axis.DESCENDANT:
+                        compiledAxis = AXIS_DESCENDANT;
+                        break;
+                    case Axis.ATTRIBUTE:
+                        compiledAxis = AXIS_ATTRIBUTE;
+                        break;
+                    default:
+                        return null;
+                }
+            }
+            if (count > 0) {
+                // Attribute steps must be the last step and a descendant step may only be
+                // followed by an attribute step. Otherwise the result may contain duplicates or
+                // may not be in document order.
+                int previousAxis = compiledSteps[count-1].axis;
+                if (previousAxis == AXIS_ATTRIBUTE || previousAxis == AXIS_DESCENDANT_OR_SELF_ATTRIBUTE
+                        || previousAxis == AXIS_DESCENDANT && compiledAxis != AXIS_ATTRIBUTE) {
+                    return null;
+                }
+            }
+            boolean attributeAxis = compiledAxis == AXIS_ATTRIBUTE
+                    || compiledAxis == AXIS_DESCENDANT_OR_SELF_ATTRIBUTE;
+            CompiledStep compiledStep;
+            if (step instanceof NameStep) {
+                NameStep nameStep = (NameStep)step;
+                String prefix = nameStep.getPrefix();
+                String localName = nameStep.getLocalName();
+                if (attributeAxis && localName.equals("*")
+                        && (path.isAbsolute() || steps.size() > 1)) {
+                    // For multi-step paths, Jaxen sorts the attributes of an element by name;
+                    // only support the case where that doesn't occur.
+                    return null;
+                }
+                compiledStep = new CompiledStep(compiledAxis, TEST_NAME,
+                        prefix == null || prefix.length() == 0 ? null : prefix,
+                        localName.equals("*") ? null : localName);
+            } else if (step instanceof TextNodeStep && !attributeAxis) {
+                compiledStep = new CompiledStep(compiledAxis, TEST_TEXT, null, null);
+            } else if (step instanceof AllNodeStep && !attributeAxis) {
+                compiledStep = new CompiledStep(compiledAxis, TEST_NODE, null, null);
+            } else {
+                return null;
+            }
+            compiledSteps[count++] = compiledStep;
+        }
+        if (!path.isAbsolute() && count == 0) {
+            return null;
+        }
+        if (count < compiledSteps.length) {
+            CompiledStep[] trimmed = new CompiledStep[count];
+            System.arraycopy(compiledSteps, 0, trimmed, 0, count);
+            compiledSteps = trimmed;
+        }
+        return new CompiledLocationPath(path.isAbsolute(), compiledSteps);
+    }
+
+    /**
+     * Evaluate the location path.
+     * 
+     * @param context
+     *            the context node
+     * @param contextSupport
+     *            the context support used to resolve namespace prefixes
+     * @param result
+     *            the list to which the selected nodes are added
+     * @param limit
+     *            the maximum number of nodes to select
+     * @return <code>true</code> if the expression has been evaluated, <code>false</code> if it
+     *         could not be evaluated (because the context node is not supported or a namespace
+     *         prefix could not be resolved) and evaluation needs to be delegated to Jaxen
+     */
+    boolean evaluate(Object context, ContextSupport contextSupport, List<Object> result, int limit) {
+        if (!(context instanceof OMContainer)) {
+            return false;
+        }
+        String[] namespaceURIs = new String[steps.length];
+        for (int i=0; i<steps.length; i++) {
+            String prefix = steps[i].prefix;
+            if (prefix != null) {
+                String namespaceURI = contextSupport.translateNamespacePrefixToUri(prefix);
+                if (namespaceURI == null) {
+                    return false;
+                }
+                namespaceURIs[i] = namespaceURI;
+            } else {
+                namespaceURIs[i] = "";
+            }
+        }
+        OMContainer start = (OMContainer)context;
+        if (absolute) {
+            // Same semantics as DocumentNavigator#getDocumentNode
+            OMContainer parent;
+            while (start instanceof OMNode && (parent = ((OMNode)start).getParent()) != null) {
+                start = parent;
+            }
+        }
+        select(start, 0, namespaceURIs, result, limit);
+        return true;
+    }
+
+    private boolean select(Object node, int stepIndex, String[] namespaceURIs,
+            List<Object> result, int limit) {
+        if (stepIndex == steps.length) {
+            result.add(node);
+            return result.size() >= limit;
+        }
+        if (!(node instanceof OMContainer)) {
+            return false;
+        }
+        CompiledStep step = steps[stepIndex];
+        String namespaceURI = namespaceURIs[stepIndex];
+        switch (step.axis) {
+            case AXIS_CHILD:
+                for (OMNode child = ((OMContainer)node).getFirstOMChild(); child != null;
+                        child = child.getNextOMSibling()) {
+                    if (matches(step, namespaceURI, child)
+                            && select(child, stepIndex+1, namespaceURIs, result, limit)) {
+                        return true;
+                    }
+                }
+                return false;
+            case AXIS_DESCENDANT:
+                return selectDescendants((OMContainer)node, stepIndex, namespaceURIs, result, limit);
+            case AXIS_ATTRIBUTE:
+                return node instanceof OMElement
+                        && selectAttributes((OMElement)node, stepIndex, namespaceURIs, result, limit);
+            default:
+                // AXIS_DESCENDANT_OR_SELF_ATTRIBUTE
+                if (node instanceof OMElement
+                        && selectAttributes((OMElement)node, stepIndex, namespaceURIs, result, limit)) {
+                    return true;
+                }
+                return selectDescendants((OMContainer)node, stepIndex, namespaceURIs, result, limit);
+        }
+    }
+    
+    private boolean selectDescendants(OMContainer root, int stepIndex, String[] namespaceURIs,
+            List<Object> result, int limit) {
+        CompiledStep step = steps[stepIndex];
+        String namespaceURI = namespaceURIs[stepIndex];
+        boolean attributes = step.axis == AXIS_DESCENDANT_OR_SELF_ATTRIBUTE;
+        OMNode node = root.getFirstOMChild();
+        while (node != null) {
+            if (attributes) {
+                if (node instanceof OMElement
+                        && selectAttributes((OMElement)node, stepIndex, namespaceURIs, result, limit)) {
+                    return true;
+                }
+            } else if (matches(step, namespaceURI, node)
+                    && select(node, stepIndex+1, namespaceURIs, result, limit)) {
+                return true;
+            }
+            OMNode next = node instanceof OMContainer ? ((OMContainer)node).getFirstOMChild() : null;
+            while (next == null) {
+                next = node.getNextOMSibling();
+                if (next == null) {
+                    OMContainer parent = node.getParent();
+                    if (parent == root) {
+                        return false;
+                    }
+                    node = (OMNode)parent;
+                }
+            }
+            node = next;
+        }
+        return false;
+    }
+    
+    private boolean selectAttributes(OMElement element, int stepIndex, String[] namespaceURIs,
+            List<Object> result, int limit) {
+        CompiledStep step = steps[stepIndex];
+        String namespaceURI = namespaceURIs[stepIndex];
+        if (step.localName != null) {
+            OMAttribute attr = element.getAttribute(new QName(namespaceURI, step.localName));
+            return attr != null && select(attr, stepIndex+1, namespaceURIs, result, limit);
+        } else {
+            for (Iterator<OMAttribute> it = element.getAllAttributes(); it.hasNext(); ) {
+                OMAttribute attr = it.next();
+                if (matchesNamespace(step, namespaceURI, attr)
+                        && select(attr, stepIndex+1, namespaceURIs, result, limit)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    private static boolean matches(CompiledStep step, String namespaceURI, OMNode node) {
+        switch (step.test) {
+            case TEST_NAME:
+                if (node instanceof OMElement) {
+                    OMElement element = (OMElement)node;
+                    return (step.localName == null || step.localName.equals(element.getLocalName()))
+                            && matchesNamespace(step, namespaceURI, element);
+                } else {
+                    return false;
+                }
+            case TEST_TEXT:
+                return node instanceof OMText;
+            default:
+                return true;
+        }
+    }
+    
+    private static boolean matchesNamespace(CompiledStep step, String namespaceURI,
+            OMNamedInformationItem item) {
+        if (step.localName == null && step.prefix == null) {
+            // "*" matches any name, regardless of the namespace
+            return true;
+        }
+        String itemNamespaceURI = item.getNamespaceURI();
+        return namespaceURI.equals(itemNamespaceURI == null ? "" : itemNamespaceURI);
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.soap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMException;
+import org.apache.axiom.om.OMNode;
+import org.apache.axiom.om.OMOutputFormat;
+
+/**
+ * Pre-serialized SOAP envelope that can be used to produce large numbers of messages that only
+ * differ by a few header values and by the content of the SOAP body.
+ * <p>
+ * A template is created from a skeleton {@link SOAPEnvelope} and a list of slot names. Each slot
+ * name identifies an element in the SOAP header (either a header block or one of its descendants)
+ * whose text content varies from one message to the other. The skeleton is serialized once and the
+ * resulting bytes are cut at the slots and at the content of the SOAP body. When a message is
+ * written, the pre-encoded segments are copied to the output stream, the slot values are encoded
+ * and spliced in, and the body content is serialized using the normal serialization code.
+ * <p>
+ * Instances of this class are immutable and may be shared between threads, provided that the
+ * payloads passed to {@link #writeTo(OutputStream, OMElement, String...)} are not shared.
+ * <p>
+ * Templates don't support MTOM or SwA (the output format must not be optimized) and only support
+ * charset encodings that don't use a byte order mark.
+ */
+public final class SOAPEnvelopeTemplate {
+    private static final int BODY = -1;
+
+    private final SOAPVersion soapVersion;
+    private final OMOutputFormat format;
+    private final OMOutputFormat payloadFormat;
+    private final Charset charset;
+    private final int slotCount;
+    private final byte[][] segments;
+    /**
+     * The slot to write after each segment (except the last one), or {@link #BODY} for the body
+     * content.
+     */
+    private final int[] gaps;
+
+    private SOAPEnvelopeTemplate(SOAPVersion soapVersion, OMOutputFormat format, Charset charset,
+            int slotCount, byte[][] segments, int[] gaps) {
+        this.soapVersion = soapVersion;
+        this.format = format;
+        payloadFormat = new OMOutputFormat(format);
+        payloadFormat.setIgnoreXMLDeclaration(true);
+        this.charset = charset;
+        this.slotCount = slotCount;
+        this.segments = segments;
+        this.gaps = gaps;
+    }
+
+    /**
+     * Create a template.
+     * 
+     * @param skeleton
+     *            the skeleton envelope; it must have a SOAP body. The content of the SOAP body and
+     *            of the slot elements is ignored. The skeleton is not modified and may be discarded
+     *            after the template has been created.
+     * @param format
+     *            the output format; its charset encoding is used for the entire message
+     * @param slots
+     *            the names of the elements in the SOAP header whose text content is supplied when
+     *            a message is written; if there are several elements with the same name, the
+     *            first one in document order is used
+     * @return the template
+     * @throws IllegalArgumentException
+     *             if the skeleton has no SOAP body, if one of the slot elements doesn't exist, if
+     *             the output format is optimized or if the charset encoding is not supported
+     */
+    public static SOAPEnvelopeTemplate create(SOAPEnvelope skeleton, OMOutputFormat format, QName... slots) {
+        if (format.isOptimized()) {
+            throw new IllegalArgumentException("Optimized output formats are not supported");
+        }
+        Charset charset = Charset.forName(format.getCharSetEncoding());
+        if (!charset.canEncode() || "a".getBytes(charset).length * 2 != "aa".getBytes(charset).length) {
+            throw new IllegalArgumentException("Unsupported charset encoding " + charset.name());
+        }
+        SOAPVersion soapVersion = skeleton.getVersion();
+        String envelopeURI = soapVersion.getEnvelopeURI();
+        OMElement envelope = skeleton.cloneOMElement();
+        String marker = "{" + UUID.randomUUID() + "}";
+        OMElement header = envelope.getFirstChildWithName(new QName(envelopeURI, SOAPConstants.HEADER_LOCAL_NAME));
+        for (int i=0; i<slots.length; i++) {
+            OMElement slot = header == null ? null : findElement(header, slots[i]);
+            if (slot == null) {
+                throw new IllegalArgumentException("No element " + slots[i] + " found in the SOAP header");
+            }
+            slot.setText(marker + i + "}");
+        }
+        OMElement body = envelope.getFirstChildWithName(new QName(envelopeURI, SOAPConstants.BODY_LOCAL_NAME));
+        if (body == null) {
+            throw new IllegalArgumentException("The skeleton has no SOAP body");
+        }
+        body.setText(marker + BODY + "}");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            envelope.serialize(baos, format);
+        } catch (XMLStreamException ex) {
+            throw new OMException(ex);
+        }
+        byte[] bytes = baos.toByteArray();
+        String xml = new String(bytes, charset);
+        List<byte[]> segments = new ArrayList<byte[]>();
+        List<Integer> gaps = new ArrayList<Integer>();
+        int start = 0;
+        int startBytes = 0;
+        while (true) {
+            int markerStart = xml.indexOf(marker, start);
+            if (markerStart == -1) {
+                break;
+            }
+            int markerEnd = xml.indexOf('}', markerStart + marker.length());
+            // Since encoding a prefix of a string yields a prefix of the encoded string, we can
+            // compute byte offsets by encoding prefixes
+            int markerStartBytes = xml.substring(0, markerStart).getBytes(charset).length;
+            segments.add(copy(bytes, startBytes, markerStartBytes));
+            gaps.add(Integer.valueOf(xml.substring(markerStart + marker.length(), markerEnd)));
+            start = markerEnd + 1;
+            startBytes = xml.substring(0, start).getBytes(charset).length;
+        }
+        segments.add(copy(bytes, startBytes, bytes.length));
+        int[] gapArray = new int[gaps.size()];
+        for (int i=0; i<gapArray.length; i++) {
+            gapArray[i] = gaps.get(i);
+        }
+        return new SOAPEnvelopeTemplate(soapVersion, new OMOutputFormat(format), charset, slots.length,
+                segments.toArray(new byte[segments.size()][]), gapArray);
+    }
+
+    private static OMElement findElement(OMElement header, QName name) {
+        for (Iterator<OMNode> it = header.getDescendants(false); it.hasNext(); ) {
+            OMNode node = it.next();
+            if (node instanceof OMElement && ((OMElement)node).getQName().equals(name)) {
+                return (OMElement)node;
+            }
+        }
+        return null;
+    }
+
+    private static byte[] copy(byte[] bytes, int start, int end) {
+        byte[] copy = new byte[end-start];
+        System.arraycopy(bytes, start, copy, 0, end-start);
+        return copy;
+    }
+
+    /**
+     * Get the SOAP version of the envelopes produced by this template.
+     * 
+     * @return the SOAP version
+     */
+    public SOAPVersion getSOAPVersion() {
+        return soapVersion;
+    }
+
+    /**
+     * Get the charset encoding of the messages produced by this template.
+     * 
+     * @return the charset encoding
+     */
+    public String getCharsetEncoding() {
+        return format.getCharSetEncoding();
+    }
+
+    /**
+     * Write a message.
+     * 
+     * @param out
+     *            the output stream to write to
+     * @param payload
+     *            the content of the SOAP body, or {@code null} if the SOAP body is empty
+     * @param values
+     *            the text content of the slots, in the order in which the slots were specified when
+     *            the template was created; {@code null} values are written as empty text
+     * @throws IOException
+     *             if an error occurs while writing to the output stream
+     * @throws XMLStreamException
+     *             if an error occurs while serializing the payload
+     * @throws IllegalArgumentException
+     *             if the number of values doesn't match the number of slots
+     */
+    public void writeTo(OutputStream out, OMElement payload, String... values) throws IOException, XMLStreamException {
+        if (values.length != slotCount) {
+            throw new IllegalArgumentException("Expected " + slotCount + " values, got " + values.length);
+        }
+        CharsetEncoder encoder = null;
+        for (int i=0; i<gaps.length; i++) {
+            out.write(segments[i]);
+            int gap = gaps[i];
+            if (gap == BODY) {
+                if (payload != null) {
+                    payload.serialize(out, payloadFormat);
+                }
+            } else {
+                String value = values[gap];
+                if (value != null && value.length() > 0) {
+                    if (encoder == null) {
+                        encoder = charset.newEncoder();
+                    }
+                    out.write(escape(value, encoder).getBytes(charset));
+                }
+            }
+        }
+        out.write(segments[gaps.length]);
+    }
+
+    private static String escape(String value, CharsetEncoder encoder) {
+        StringBuilder buffer = null;
+        int length = value.length();
+        for (int i=0; i<length; ) {
+            int c = value.codePointAt(i);
+            int charCount = Character.charCount(c);
+            String replacement;
+            switch (c) {
+                case '&': replacement = "&amp;"; break;
+                case '<': replacement = "&lt;"; break;
+                case '>': replacement = "&gt;"; break;
+                case '\r': replacement = "&#xD;"; break;
+                default:
+                    if (c < 0x80 || encoder.canEncode(value.subSequence(i, i+charCount))) {
+                        replacement = null;
+                    } else {
+                        replacement = "&#" + c + ";";
+                    }
+            }
+            if (replacement != null) {
+                if (buffer == null) {
+                    buffer = new StringBuilder(length + 16);
+                    buffer.append(value, 0, i);
+                }
+                buffer.append(replacement);
+            } else if (buffer != null) {
+                buffer.append(value, i, i+charCount);
+            }
+            i += charCount;
+        }
+        return buffer == null ? value : buffer.toString();
+    }
+}
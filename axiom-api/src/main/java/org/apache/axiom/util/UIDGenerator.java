@@ -69,68 +69,82 @@ public final class UIDGenerator {
     private static final long threadIdXorOperand;
     private static final long seqXorOperand;
     
+    private static final char[] hexDigits = "0123456789abcdef".toCharArray();
+    
+    private static final char[] contentIdSuffix = "@apache.org".toCharArray();
+    private static final char[] mimeBoundaryPrefix = "MIMEBoundary_".toCharArray();
+    private static final char[] urnPrefix = "urn:uuid:".toCharArray();
+    
     private static final SecureRandom secureRandom = new SecureRandom();
     
     /**
-     * Array of 16 caches that contain random bytes fetched from {@link #secureRandom} and that are
-     * used to compute UUIDs. These caches are used to reduce the number of calls to
-     * {@link SecureRandom#nextBytes(byte[])}. The cache used by a given thread is determined by the
-     * thread ID. Multiple caches are used to reduce contention between threads.
+     * The maximum number of random bytes fetched from {@link #secureRandom} at once (by a given
+     * thread) to compute UUIDs. This reduces the number of calls to
+     * {@link SecureRandom#nextBytes(byte[])}, which is synchronized. The cache of a thread starts
+     * with the bytes for a single UUID and doubles in size on each refill up to this limit, so that
+     * short lived threads that only request a few UUIDs don't fetch more random bytes than they use.
      */
-    private static final UUIDCache[] uuidCaches;
+    private static final int MAX_RANDOM_BYTES_CACHE_SIZE = 1024;
     
     static {
         Random rand = new Random();
         threadIdXorOperand = rand.nextLong();
         startTimeXorOperand = rand.nextLong();
         seqXorOperand = rand.nextLong();
-        uuidCaches = new UUIDCache[16];
-        for (int i=0; i<16; i++) {
-            uuidCaches[i] = new UUIDCache();
-        }
     }
     
     /**
      * Thread local that holds the triplet described in the Javadoc of this
-     * class. Note that we use a simple array here (instead of our own class)
-     * to avoid class loader leaks (see AXIOM-354).
+     * class, followed by the current position in {@link #randomBytesCache}. Note that we use a
+     * simple array here (instead of our own class) to avoid class loader leaks (see AXIOM-354).
      */
-    private static final ThreadLocal<long[]> triplet = new ThreadLocal<long[]>() {
+    private static final ThreadLocal<long[]> state = new ThreadLocal<long[]>() {
         @Override
         protected long[] initialValue() {
-            long[] values = new long[3];
+            long[] values = new long[4];
             values[0] = Thread.currentThread().getId() ^ threadIdXorOperand;
             values[1] = System.currentTimeMillis() ^ startTimeXorOperand;
             return values;
         }
     };
     
+    /**
+     * Thread local with random bytes fetched from {@link #secureRandom} and used to compute UUIDs.
+     * Using a per thread cache avoids contention between threads.
+     */
+    private static final ThreadLocal<byte[]> randomBytesCache = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[0];
+        }
+    };
+    
     private UIDGenerator() {}
     
-    private static void writeReverseLongHex(long value, StringBuilder buffer) {
+    private static int writeReverseLongHex(long value, char[] buffer, int offset) {
         for (int i=0; i<16; i++) {
-            int n = (int)(value >> (4*i)) & 0xF;
-            writeNibble(n, buffer);
+            buffer[offset++] = hexDigits[(int)(value >> (4*i)) & 0xF];
         }
-    }
-    
-    private static void writeNibble(int n, StringBuilder buffer) {
-        buffer.append((char)(n < 10 ? '0' + n : 'a' + n - 10));
+        return offset;
     }
     
     /**
-     * Generate a unique ID as hex value and add it to the given buffer. Note
-     * that with respect to the triplet, the order of nibbles is reversed, i.e.
-     * the least significant nibble of the sequence is written first. This makes
-     * comparing two IDs for equality more efficient.
+     * Generate a unique ID as hex value and write it to the given buffer. The ID is 48 characters
+     * long. Note that with respect to the triplet, the order of nibbles is reversed, i.e. the least
+     * significant nibble of the sequence is written first. This makes comparing two IDs for
+     * equality more efficient.
      * 
      * @param buffer
+     *            the buffer to write the ID to
+     * @param offset
+     *            the offset in the buffer
+     * @return the offset of the first character after the ID
      */
-    private static void generateHex(StringBuilder buffer) {
-        long[] values = triplet.get();
-        writeReverseLongHex(values[2]++ ^ seqXorOperand, buffer);
-        writeReverseLongHex(values[1], buffer);
-        writeReverseLongHex(values[0], buffer);
+    private static int generateHex(char[] buffer, int offset) {
+        long[] values = state.get();
+        offset = writeReverseLongHex(values[2]++ ^ seqXorOperand, buffer, offset);
+        offset = writeReverseLongHex(values[1], buffer, offset);
+        return writeReverseLongHex(values[0], buffer, offset);
     }
     
     /**
@@ -162,10 +176,10 @@ public final class UIDGenerator {
      *         represents the bare content ID.
      */
     public static String generateContentId() {
-        StringBuilder buffer = new StringBuilder();
-        generateHex(buffer);
-        buffer.append("@apache.org");
-        return buffer.toString();
+        char[] buffer = new char[48 + contentIdSuffix.length];
+        int offset = generateHex(buffer, 0);
+        System.arraycopy(contentIdSuffix, 0, buffer, offset, contentIdSuffix.length);
+        return new String(buffer);
     }
     
     /**
@@ -196,9 +210,10 @@ public final class UIDGenerator {
      * @return the generated MIME boundary
      */
     public static String generateMimeBoundary() {
-        StringBuilder buffer = new StringBuilder("MIMEBoundary_");
-        generateHex(buffer);
-        return buffer.toString();
+        char[] buffer = new char[mimeBoundaryPrefix.length + 48];
+        System.arraycopy(mimeBoundaryPrefix, 0, buffer, 0, mimeBoundaryPrefix.length);
+        generateHex(buffer, mimeBoundaryPrefix.length);
+        return new String(buffer);
     }
     
     /**
@@ -218,9 +233,9 @@ public final class UIDGenerator {
      * @return the generated unique ID
      */
     public static String generateUID() {
-        StringBuilder buffer = new StringBuilder(48);
-        generateHex(buffer);
-        return buffer.toString();
+        char[] buffer = new char[48];
+        generateHex(buffer, 0);
+        return new String(buffer);
     }
     
     /**
@@ -231,53 +246,45 @@ public final class UIDGenerator {
      * @return the generated URN
      */
     public static String generateURNString() {
-        StringBuilder urn = new StringBuilder(45);
-        urn.append("urn:uuid:");
-        UUIDCache cache = uuidCaches[(int)Thread.currentThread().getId() & 0xF];
-        synchronized (cache) {
-            boolean fill;
-            int position = cache.position;
-            byte[] randomBytes = cache.randomBytes;
-            if (randomBytes == null) {
-                cache.randomBytes = randomBytes = new byte[4096];
-                fill = true;
-            } else if (position == 4096) {
-                position = 0;
-                fill = true;
-            } else {
-                fill = false;
-            }
-            if (fill) {
-                secureRandom.nextBytes(cache.randomBytes);
+        long[] values = state.get();
+        byte[] randomBytes = randomBytesCache.get();
+        int position = (int)values[3];
+        if (position == randomBytes.length) {
+            if (randomBytes.length < MAX_RANDOM_BYTES_CACHE_SIZE) {
+                randomBytes = new byte[Math.max(16, randomBytes.length*2)];
+                randomBytesCache.set(randomBytes);
             }
-            writeHex(randomBytes[position], urn);
-            writeHex(randomBytes[position+1], urn);
-            writeHex(randomBytes[position+2], urn);
-            writeHex(randomBytes[position+3], urn);
-            urn.append('-');
-            writeHex(randomBytes[position+4], urn);
-            writeHex(randomBytes[position+5], urn);
-            urn.append('-');
-            writeHex((byte)(randomBytes[position+6] & 0x0F | 0x40), urn);
-            writeHex(randomBytes[position+7], urn);
-            urn.append('-');
-            writeHex((byte)(randomBytes[position+8] & 0x3F | 0x80), urn);
-            writeHex(randomBytes[position+9], urn);
-            urn.append('-');
-            writeHex(randomBytes[position+10], urn);
-            writeHex(randomBytes[position+11], urn);
-            writeHex(randomBytes[position+12], urn);
-            writeHex(randomBytes[position+13], urn);
-            writeHex(randomBytes[position+14], urn);
-            writeHex(randomBytes[position+15], urn);
-            cache.position = position+16;
+            secureRandom.nextBytes(randomBytes);
+            position = 0;
+        }
+        values[3] = position+16;
+        char[] urn = new char[45];
+        System.arraycopy(urnPrefix, 0, urn, 0, urnPrefix.length);
+        int offset = urnPrefix.length;
+        offset = writeHex(randomBytes[position], urn, offset);
+        offset = writeHex(randomBytes[position+1], urn, offset);
+        offset = writeHex(randomBytes[position+2], urn, offset);
+        offset = writeHex(randomBytes[position+3], urn, offset);
+        urn[offset++] = '-';
+        offset = writeHex(randomBytes[position+4], urn, offset);
+        offset = writeHex(randomBytes[position+5], urn, offset);
+        urn[offset++] = '-';
+        offset = writeHex((byte)(randomBytes[position+6] & 0x0F | 0x40), urn, offset);
+        offset = writeHex(randomBytes[position+7], urn, offset);
+        urn[offset++] = '-';
+        offset = writeHex((byte)(randomBytes[position+8] & 0x3F | 0x80), urn, offset);
+        offset = writeHex(randomBytes[position+9], urn, offset);
+        urn[offset++] = '-';
+        for (int i=10; i<16; i++) {
+            offset = writeHex(randomBytes[position+i], urn, offset);
         }
-        return urn.toString();
+        return new String(urn);
     }
     
-    private static void writeHex(byte b, StringBuilder buffer) {
-        writeNibble(b >> 4 & 0xF, buffer);
-        writeNibble(b & 0xF, buffer);
+    private static int writeHex(byte b, char[] buffer, int offset) {
+        buffer[offset++] = hexDigits[b >> 4 & 0xF];
+        buffer[offset++] = hexDigits[b & 0xF];
+        return offset;
     }
     
     /**
@@ -30,11 +30,31 @@ import javax.activation.DataSource;
 public final class DataHandlerUtils {
     private DataHandlerUtils() {}
 
+    /**
+     * Determine the size of the data represented by a {@link DataHandler} object without reading
+     * it. This uses {@link DataSourceUtils#getSize(DataSource)} and in addition takes into account
+     * content already buffered by a data handler returned by
+     * {@link #createPeekingDataHandler(DataHandler)}.
+     * 
+     * @param dh
+     *            the data handler
+     * @return (an estimation of) the size of the data or <code>-1</code> if the size is unknown
+     */
+    public static long getSize(DataHandler dh) {
+        if (dh instanceof PeekingDataHandler) {
+            return ((PeekingDataHandler)dh).getSize();
+        } else {
+            return DataSourceUtils.getSize(dh.getDataSource());
+        }
+    }
+
     /**
      * Check if the given {@link DataHandler} will produce a byte stream that is longer than a given
-     * limit. It will first attempt to determine the size using
-     * {@link DataSourceUtils#getSize(DataSource)}. If that fails, it will use
-     * {@link DataHandler#writeTo(OutputStream)} to determine if the size is larger than the limit.
+     * limit. It will first attempt to determine the size using {@link #getSize(DataHandler)}. If
+     * that fails, it will use {@link DataHandler#writeTo(OutputStream)} to determine if the size is
+     * larger than the limit. If the data handler was returned by
+     * {@link #createPeekingDataHandler(DataHandler)} and the size doesn't exceed the limit, the
+     * content produced by that operation is kept so that it isn't produced a second time.
      * 
      * @param dh
      *            the {@link DataHandler} to check
@@ -45,7 +65,10 @@ public final class DataHandlerUtils {
      *             if {@link DataHandler#writeTo(OutputStream)} produced an unexpected exception
      */
     public static boolean isLargerThan(DataHandler dh, long limit) throws IOException {
-        long size = DataSourceUtils.getSize(dh.getDataSource());
+        if (dh instanceof PeekingDataHandler) {
+            return ((PeekingDataHandler)dh).isLargerThan(limit);
+        }
+        long size = getSize(dh);
         if (size != -1) {
             return size > limit;
         } else {
@@ -64,4 +87,23 @@ public final class DataHandlerUtils {
             }
         }
     }
+
+    /**
+     * Wrap a {@link DataHandler} so that a subsequent call to
+     * {@link #isLargerThan(DataHandler, long)} keeps the content it needs to produce if the size
+     * of the data can't be determined otherwise. If the content doesn't exceed the limit, the
+     * wrapper then returns it from {@link DataHandler#writeTo(OutputStream)} and
+     * {@link DataHandler#getInputStream()} instead of producing it again. This avoids reading the
+     * binary content twice when it is checked against a threshold and then written out.
+     * <p>
+     * Note that the wrapper keeps the content in memory for as long as it is referenced. It should
+     * therefore only be used locally, and never be stored in place of the original data handler.
+     * 
+     * @param dh
+     *            the data handler to wrap
+     * @return the wrapper
+     */
+    public static DataHandler createPeekingDataHandler(DataHandler dh) {
+        return new PeekingDataHandler(dh);
+    }
 }
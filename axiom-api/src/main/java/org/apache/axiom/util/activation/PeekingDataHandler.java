@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.util.activation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.activation.DataHandler;
+
+/**
+ * {@link DataHandler} wrapper that keeps the content produced to check its size, so that it
+ * doesn't need to be produced a second time. The content is only kept if it doesn't exceed the
+ * limit passed to {@link #isLargerThan(long)}; otherwise only the fact that the limit has been
+ * exceeded is remembered.
+ */
+final class PeekingDataHandler extends DataHandlerWrapper {
+    /**
+     * Output stream that buffers the data written to it and throws an exception when the size
+     * exceeds a given limit.
+     */
+    private static final class SizeLimitedBuffer extends OutputStream {
+        private final long maxSize;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        SizeLimitedBuffer(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (buffer.size() + (long)len > maxSize) {
+                // Throw a cached exception instance to avoid the overhead of building the
+                // stack trace.
+                throw SizeLimitExceededException.INSTANCE;
+            }
+            buffer.write(b, off, len);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (buffer.size() + 1L > maxSize) {
+                throw SizeLimitExceededException.INSTANCE;
+            }
+            buffer.write(b);
+        }
+
+        byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+    }
+
+    private final DataHandler parent;
+    private byte[] content;
+    private long exceededLimit = -1;
+
+    PeekingDataHandler(DataHandler parent) {
+        super(parent);
+        this.parent = parent;
+    }
+
+    long getSize() {
+        return content == null ? DataHandlerUtils.getSize(parent) : content.length;
+    }
+
+    boolean isLargerThan(long limit) throws IOException {
+        if (content != null) {
+            return content.length > limit;
+        } else if (limit <= exceededLimit) {
+            return true;
+        }
+        long size = DataHandlerUtils.getSize(parent);
+        if (size != -1) {
+            return size > limit;
+        }
+        SizeLimitedBuffer buffer = new SizeLimitedBuffer(limit);
+        try {
+            parent.writeTo(buffer);
+        } catch (SizeLimitExceededException ex) {
+            exceededLimit = limit;
+            return true;
+        }
+        content = buffer.toByteArray();
+        return false;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return content == null ? super.getInputStream() : new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public void writeTo(OutputStream os) throws IOException {
+        if (content == null) {
+            super.writeTo(os);
+        } else {
+            os.write(content);
+        }
+    }
+}
@@ -25,7 +25,7 @@ import java.io.Writer;
 
 import javax.activation.DataHandler;
 
-import org.apache.axiom.util.activation.DataSourceUtils;
+import org.apache.axiom.util.activation.DataHandlerUtils;
 
 /**
  * Contains utility methods to work with base64 encoded data.
@@ -36,7 +36,7 @@ public class Base64Utils {
     }
     
     private static int getBufferSize(DataHandler dh) {
-        long size = DataSourceUtils.getSize(dh.getDataSource());
+        long size = DataHandlerUtils.getSize(dh);
         if (size == -1) {
             // Use a reasonable default capacity.
             return 4096;
@@ -172,8 +172,11 @@ public class Base64Utils {
             throw new IllegalArgumentException("Missing padding");
         }
         byte[] result = new byte[(symbols + padding) / 4 * 3 - padding];
-        int pos = 0;
-        int resultPos = 0;
+        // Decode the leading complete quanta in bulk; the remaining data (white space, padding)
+        // is processed symbol by symbol.
+        int pos = Base64Codec.decodeQuanta(data, 0, data.length(), result, 0);
+        int resultPos = pos/4*3;
+        symbols -= pos;
         byte accumulator = 0;
         int bits = 0;
         while (symbols > 0) {
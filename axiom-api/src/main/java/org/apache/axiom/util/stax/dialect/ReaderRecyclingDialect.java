@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axiom.util.stax.dialect;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Optional interface implemented by {@link StAXDialect} instances for StAX implementations that
+ * support recycling of {@link XMLStreamReader} instances. Code that wants to use this feature
+ * should check if the dialect returned by {@link StAXDialectDetector} implements this interface.
+ * <p>
+ * Among the StAX implementations supported by Axiom, only SJSXP (including the version bundled
+ * with the JRE) supports this. Woodstox doesn't: it already recycles its internal buffers
+ * transparently and shares symbol tables at the factory level, so that there is little to gain
+ * from reusing reader instances. With Woodstox, pooling of readers is therefore a no-op.
+ */
+public interface ReaderRecyclingDialect extends StAXDialect {
+    /**
+     * Configure the given factory to recycle {@link XMLStreamReader} instances. A factory
+     * configured in this way may reset and return a previously created reader instead of creating
+     * a new one, thereby reusing the buffers and symbol tables allocated by that reader. This
+     * implies that the factory is no longer thread safe and that the caller MUST close a reader
+     * (and stop using it) before requesting a new reader from the same factory.
+     * 
+     * @param factory
+     *            the factory to configure; this must be a "raw" factory object that has not been
+     *            normalized or made thread safe
+     * @return the factory with reader recycling enabled (this may be the original factory instance
+     *         or a wrapper), or <code>null</code> if the particular factory doesn't support
+     *         recycling of reader instances
+     */
+    XMLInputFactory enableReaderRecycling(XMLInputFactory factory);
+}
@@ -26,7 +26,7 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
 
-class SJSXPDialect extends AbstractStAXDialect {
+class SJSXPDialect extends AbstractStAXDialect implements ReaderRecyclingDialect {
     private final boolean isUnsafeStreamResult;
     
     public SJSXPDialect(boolean isUnsafeStreamResult) {
@@ -71,6 +71,15 @@ class SJSXPDialect extends AbstractStAXDialect {
         return factory;
     }
 
+    @Override
+    public XMLInputFactory enableReaderRecycling(XMLInputFactory factory) {
+        // With this property set, SJSXP resets and returns the last reader it created. Note that
+        // it doesn't check if that reader is still in use; this is why the caller must close the
+        // reader before requesting a new one.
+        factory.setProperty("reuse-instance", Boolean.TRUE);
+        return factory;
+    }
+
     @Override
     public XMLOutputFactory makeThreadSafe(XMLOutputFactory factory) {
         factory.setProperty("reuse-instance", Boolean.FALSE);
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.axiom.ext.io.StreamCopyException;
+import org.apache.commons.io.IOUtils;
+
+import junit.framework.TestCase;
+
+public class BlobsTest extends TestCase {
+    /**
+     * {@link Blob} implementation that doesn't implement {@link SliceableBlob}.
+     */
+    private static class ForeignBlob implements Blob {
+        private final byte[] data;
+
+        ForeignBlob(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new ByteArrayInputStream(data);
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws StreamCopyException {
+            try {
+                out.write(data);
+            } catch (IOException ex) {
+                throw new StreamCopyException(StreamCopyException.WRITE, ex);
+            }
+        }
+
+        @Override
+        public long getSize() {
+            return data.length;
+        }
+    }
+
+    public void testRangeAccessOnForeignBlob() throws Exception {
+        Blob blob = new ForeignBlob("0123456789".getBytes("ascii"));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Blobs.writeTo(blob, baos, 2, 5);
+        assertThat(baos.toString("ascii")).isEqualTo("23456");
+        SliceableBlob slice = Blobs.slice(blob, 2, 5);
+        assertThat(slice.getSize()).isEqualTo(5);
+        assertThat(IOUtils.toString(slice.getInputStream(), "ascii")).isEqualTo("23456");
+        baos.reset();
+        slice.slice(1, 3).writeTo(baos);
+        assertThat(baos.toString("ascii")).isEqualTo("345");
+        try {
+            Blobs.slice(blob, 8, 3);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException ex) {
+            // Expected
+        }
+    }
+}
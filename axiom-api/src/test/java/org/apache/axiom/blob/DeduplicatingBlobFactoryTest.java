@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class DeduplicatingBlobFactoryTest extends TestCase {
+    private static class CountingBlobFactory implements WritableBlobFactory<WritableBlob> {
+        int created;
+        int released;
+        
+        @Override
+        public WritableBlob createBlob() {
+            created++;
+            final MemoryBlob blob = MemoryBlob.FACTORY.createBlob();
+            return new AbstractWritableBlob() {
+                @Override
+                public OutputStream getOutputStream() {
+                    return blob.getOutputStream();
+                }
+
+                @Override
+                public InputStream getInputStream() {
+                    return blob.getInputStream();
+                }
+
+                @Override
+                public long getSize() {
+                    return blob.getSize();
+                }
+
+                @Override
+                public void release() {
+                    released++;
+                    blob.release();
+                }
+            };
+        }
+    }
+    
+    private static WritableBlob createBlob(WritableBlobFactory<?> factory, byte[] content) throws IOException {
+        WritableBlob blob = factory.createBlob();
+        blob.readFrom(new ByteArrayInputStream(content));
+        return blob;
+    }
+    
+    private static byte[] getContent(Blob blob) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        blob.writeTo(baos);
+        return baos.toByteArray();
+    }
+    
+    public void testSharing() throws Exception {
+        Random random = new Random();
+        byte[] content1 = new byte[1000];
+        random.nextBytes(content1);
+        byte[] content2 = new byte[1000];
+        random.nextBytes(content2);
+        CountingBlobFactory parent = new CountingBlobFactory();
+        WritableBlobFactory<?> factory = Blobs.createDeduplicatingBlobFactory(parent, 10000);
+        WritableBlob blob1 = createBlob(factory, content1);
+        WritableBlob blob2 = createBlob(factory, content1.clone());
+        WritableBlob blob3 = createBlob(factory, content2);
+        assertThat(parent.created).isEqualTo(3);
+        // The content of the second blob is a duplicate and should have been released immediately
+        assertThat(parent.released).isEqualTo(1);
+        assertThat(getContent(blob1)).isEqualTo(content1);
+        assertThat(getContent(blob2)).isEqualTo(content1);
+        assertThat(getContent(blob3)).isEqualTo(content2);
+        blob1.release();
+        blob2.release();
+        blob3.release();
+        // The content is still referenced by the cache
+        assertThat(parent.released).isEqualTo(1);
+    }
+    
+    public void testEviction() throws Exception {
+        CountingBlobFactory parent = new CountingBlobFactory();
+        WritableBlobFactory<?> factory = Blobs.createDeduplicatingBlobFactory(parent, 1500);
+        WritableBlob blob1 = createBlob(factory, new byte[1000]);
+        blob1.release();
+        assertThat(parent.released).isEqualTo(0);
+        WritableBlob blob2 = createBlob(factory, new byte[1001]);
+        // Adding the second blob evicts the first one, which is no longer referenced
+        assertThat(parent.released).isEqualTo(1);
+        WritableBlob blob3 = createBlob(factory, new byte[2000]);
+        // The third blob is too large to be cached
+        assertThat(parent.released).isEqualTo(1);
+        blob3.release();
+        assertThat(parent.released).isEqualTo(2);
+        blob2.release();
+        assertThat(parent.released).isEqualTo(2);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.blob.suite;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.axiom.blob.Blobs;
+import org.apache.axiom.blob.SliceableBlob;
+import org.apache.axiom.blob.WritableBlob;
+import org.apache.axiom.blob.WritableBlobFactory;
+import org.apache.commons.io.IOUtils;
+
+public class TestSlice extends SizeSensitiveWritableBlobTestCase {
+    public TestSlice(WritableBlobFactory<?> factory, int size) {
+        super(factory, State.NEW, size);
+    }
+
+    @Override
+    protected void runTest(WritableBlob blob) throws Throwable {
+        Random random = new Random();
+        byte[] data = new byte[size];
+        random.nextBytes(data);
+        OutputStream out = blob.getOutputStream();
+        out.write(data);
+        out.close();
+        for (int i=0; i<10; i++) {
+            int offset = random.nextInt(size);
+            int length = random.nextInt(size-offset+1);
+            byte[] expected = Arrays.copyOfRange(data, offset, offset+length);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            Blobs.writeTo(blob, baos, offset, length);
+            assertThat(baos.toByteArray()).isEqualTo(expected);
+            SliceableBlob slice = Blobs.slice(blob, offset, length);
+            assertThat(slice.getSize()).isEqualTo(length);
+            baos.reset();
+            slice.writeTo(baos);
+            assertThat(baos.toByteArray()).isEqualTo(expected);
+            InputStream in = slice.getInputStream();
+            assertThat(IOUtils.toByteArray(in)).isEqualTo(expected);
+            in.close();
+            if (length > 0) {
+                int subOffset = random.nextInt(length);
+                int subLength = random.nextInt(length-subOffset+1);
+                baos.reset();
+                slice.slice(subOffset, subLength).writeTo(baos);
+                assertThat(baos.toByteArray()).isEqualTo(
+                        Arrays.copyOfRange(data, offset+subOffset, offset+subOffset+subLength));
+            }
+        }
+        try {
+            Blobs.slice(blob, size-1, 2);
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException ex) {
+            // Expected
+        }
+    }
+}
@@ -72,6 +72,7 @@ public class WritableBlobTestSuiteBuilder extends MatrixTestSuiteBuilder {
             addTest(new TestReadFromSupport(factory, size));
         }
         addTest(new TestRandomReadWrite(factory, size));
+        addTest(new TestSlice(factory, size));
         addTest(new TestWriteTo(factory, size));
         if (writeToUsesReadFromSupport) {
             addTest(new TestWriteToWithReadFromSupport(factory, size));
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.axiom.blob.Blobs;
+import org.apache.axiom.blob.MemoryBlob;
+import org.apache.axiom.blob.OverflowableBlob;
+import org.apache.axiom.blob.WritableBlobFactory;
+import org.apache.axiom.mime.MultipartBody;
+import org.apache.axiom.mime.MultipartBodyWriter;
+import org.apache.axiom.util.UIDGenerator;
+
+import junit.framework.TestCase;
+
+public class MetricsCollectorTest extends TestCase {
+    private final List<Long> events = new ArrayList<Long>();
+
+    @Override
+    protected void setUp() throws Exception {
+        Metrics.setCollector(new MetricsCollector() {
+            @Override
+            public void partBuffered(long byteCount, long nanos) {
+                events.add(byteCount);
+            }
+
+            @Override
+            public void blobOverflowed(long byteCount) {
+                events.add(byteCount);
+            }
+        });
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Metrics.setCollector(null);
+    }
+
+    public void testBlobOverflowed() throws Exception {
+        OverflowableBlob blob = Blobs.createOverflowableBlob(4096, new MemoryBlobFactory());
+        OutputStream out = blob.getOutputStream();
+        out.write(new byte[3000]);
+        assertTrue(events.isEmpty());
+        out.write(new byte[3000]);
+        out.close();
+        assertNotNull(blob.getOverflowBlob());
+        assertEquals(1, events.size());
+        assertEquals(3000, (long)events.get(0));
+    }
+
+    public void testPartBuffered() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        String boundary = UIDGenerator.generateMimeBoundary();
+        MultipartBodyWriter mpw = new MultipartBodyWriter(baos, boundary);
+        OutputStream partOutputStream = mpw.writePart("application/octet-stream", "binary", "part1@example.org", null);
+        partOutputStream.write(new byte[1234]);
+        partOutputStream.close();
+        mpw.complete();
+        MultipartBody mb = MultipartBody.builder()
+                .setInputStream(new ByteArrayInputStream(baos.toByteArray()))
+                .setContentType("multipart/related; boundary=\"" + boundary + "\"")
+                .build();
+        mb.getPart("part1@example.org").fetch();
+        assertEquals(1, events.size());
+        assertEquals(1234, (long)events.get(0));
+    }
+
+    private static class MemoryBlobFactory implements WritableBlobFactory<MemoryBlob> {
+        @Override
+        public MemoryBlob createBlob() {
+            return Blobs.createMemoryBlob();
+        }
+    }
+}
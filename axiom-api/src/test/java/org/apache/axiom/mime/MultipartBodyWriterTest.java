@@ -18,6 +18,7 @@
  */
 package org.apache.axiom.mime;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
@@ -59,4 +60,52 @@ public class MultipartBodyWriterTest extends TestCase {
     public void testBase64() throws Exception {
         test("base64");
     }
+    
+    private void testWritePart(String contentTransferEncoding, boolean fetch) throws Exception {
+        Random random = new Random();
+        byte[] content = new byte[8192];
+        random.nextBytes(content);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        String boundary = UIDGenerator.generateMimeBoundary();
+        MultipartBodyWriter mpw = new MultipartBodyWriter(baos, boundary);
+        OutputStream partOutputStream = mpw.writePart("application/octet-stream", contentTransferEncoding, "part1@example.org", null);
+        partOutputStream.write(content);
+        partOutputStream.close();
+        mpw.complete();
+        
+        MultipartBody mb = MultipartBody.builder()
+                .setInputStream(new ByteArrayInputStream(baos.toByteArray()))
+                .setContentType("multipart/related; boundary=\"" + boundary + "\"")
+                .build();
+        Part part = mb.getPart("part1@example.org");
+        if (fetch) {
+            part.fetch();
+        }
+        baos.reset();
+        mpw = new MultipartBodyWriter(baos, UIDGenerator.generateMimeBoundary());
+        mpw.writePart(part, "part2@example.org", null);
+        mpw.complete();
+        
+        MimeMultipart mp = new MimeMultipart(new ByteArrayDataSource(baos.toByteArray()));
+        assertEquals(1, mp.getCount());
+        MimeBodyPart bp = (MimeBodyPart)mp.getBodyPart(0);
+        assertEquals("application/octet-stream", bp.getContentType());
+        assertEquals(contentTransferEncoding, bp.getHeader("Content-Transfer-Encoding")[0]);
+        assertEquals("<part2@example.org>", bp.getContentID());
+        baos.reset(); 
+        bp.getDataHandler().writeTo(baos);
+        assertTrue(Arrays.equals(content, baos.toByteArray()));
+    }
+    
+    public void testWritePartBinary() throws Exception {
+        testWritePart("binary", false);
+    }
+    
+    public void testWritePartBase64() throws Exception {
+        testWritePart("base64", false);
+    }
+    
+    public void testWritePartBase64Buffered() throws Exception {
+        testWritePart("base64", true);
+    }
 }
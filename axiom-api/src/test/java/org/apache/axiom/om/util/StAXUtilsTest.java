@@ -19,6 +19,10 @@
 
 package org.apache.axiom.om.util;
 
+import java.io.StringReader;
+
+import javax.xml.stream.XMLStreamReader;
+
 import junit.framework.TestCase;
 
 public class StAXUtilsTest extends TestCase {
@@ -41,4 +45,31 @@ public class StAXUtilsTest extends TestCase {
             // Expected
         }
     }
+    
+    private static void assertNextText(XMLStreamReader reader, String text) throws Exception {
+        assertEquals(XMLStreamReader.START_ELEMENT, reader.next());
+        assertEquals(XMLStreamReader.CHARACTERS, reader.next());
+        assertEquals(text, reader.getText());
+        assertEquals(XMLStreamReader.END_ELEMENT, reader.next());
+    }
+    
+    public void testCreatePooledXMLStreamReader() throws Exception {
+        for (int i=0; i<3; i++) {
+            XMLStreamReader reader = StAXUtils.createPooledXMLStreamReader(null,
+                    new StringReader("<root>" + i + "</root>"));
+            assertNextText(reader, String.valueOf(i));
+            reader.close();
+        }
+    }
+    
+    public void testCreatePooledXMLStreamReaderConcurrentUse() throws Exception {
+        XMLStreamReader reader1 = StAXUtils.createPooledXMLStreamReader(null,
+                new StringReader("<root>1</root>"));
+        XMLStreamReader reader2 = StAXUtils.createPooledXMLStreamReader(null,
+                new StringReader("<root>2</root>"));
+        assertNextText(reader1, "1");
+        assertNextText(reader2, "2");
+        reader1.close();
+        reader2.close();
+    }
 }
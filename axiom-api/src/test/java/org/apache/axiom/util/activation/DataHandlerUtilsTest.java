@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.util.activation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import javax.activation.DataHandler;
+
+import junit.framework.TestCase;
+
+public class DataHandlerUtilsTest extends TestCase {
+    /**
+     * {@link DataHandler} that doesn't have a known size and that counts the number of times its
+     * content is produced.
+     */
+    private static class CountingDataHandler extends DataHandler {
+        private final byte[] content;
+        int count;
+
+        CountingDataHandler(byte[] content) {
+            super(content, "application/octet-stream");
+            this.content = content;
+        }
+
+        @Override
+        public void writeTo(OutputStream os) throws IOException {
+            count++;
+            os.write(content);
+        }
+    }
+
+    private static byte[] createContent(int size) {
+        byte[] content = new byte[size];
+        Arrays.fill(content, (byte)'A');
+        return content;
+    }
+
+    private static byte[] getContent(DataHandler dh) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        dh.writeTo(baos);
+        return baos.toByteArray();
+    }
+
+    public void testIsLargerThanWithSizeAwareDataSource() throws Exception {
+        DataHandler dh = new DataHandler(EmptyDataSource.INSTANCE);
+        assertEquals(0, DataHandlerUtils.getSize(dh));
+        assertFalse(DataHandlerUtils.isLargerThan(dh, 0));
+    }
+
+    public void testPeekingDataHandlerKeepsSmallContent() throws Exception {
+        byte[] content = createContent(100);
+        CountingDataHandler dh = new CountingDataHandler(content);
+        DataHandler peekingDataHandler = DataHandlerUtils.createPeekingDataHandler(dh);
+        assertEquals(-1, DataHandlerUtils.getSize(peekingDataHandler));
+        assertFalse(DataHandlerUtils.isLargerThan(peekingDataHandler, 100));
+        assertEquals(1, dh.count);
+        assertEquals(100, DataHandlerUtils.getSize(peekingDataHandler));
+        assertTrue(DataHandlerUtils.isLargerThan(peekingDataHandler, 50));
+        assertTrue(Arrays.equals(content, getContent(peekingDataHandler)));
+        assertEquals(1, dh.count);
+    }
+
+    public void testPeekingDataHandlerWithLargeContent() throws Exception {
+        byte[] content = createContent(1000);
+        CountingDataHandler dh = new CountingDataHandler(content);
+        DataHandler peekingDataHandler = DataHandlerUtils.createPeekingDataHandler(dh);
+        assertTrue(DataHandlerUtils.isLargerThan(peekingDataHandler, 100));
+        assertTrue(DataHandlerUtils.isLargerThan(peekingDataHandler, 50));
+        assertEquals(1, dh.count);
+        assertEquals(-1, DataHandlerUtils.getSize(peekingDataHandler));
+        assertTrue(Arrays.equals(content, getContent(peekingDataHandler)));
+        assertEquals(2, dh.count);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.util.base64;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.codec.binary.Base64;
+
+public class Base64CodecTest extends TestCase {
+    public void testEncode() {
+        Random random = new Random(75463312);
+        for (int len=0; len<50; len++) {
+            byte[] data = new byte[len+3];
+            random.nextBytes(data);
+            String expected = Base64.encodeBase64String(slice(data, 2, len));
+            byte[] bytes = new byte[Base64Codec.getEncodedLength(len)+1];
+            assertThat(Base64Codec.encode(data, 2, len, bytes, 1)).isEqualTo(expected.length());
+            assertThat(new String(bytes, 1, expected.length())).isEqualTo(expected);
+            char[] chars = new char[Base64Codec.getEncodedLength(len)];
+            assertThat(Base64Codec.encode(data, 2, len, chars, 0)).isEqualTo(expected.length());
+            assertThat(new String(chars)).isEqualTo(expected);
+        }
+    }
+
+    public void testDecodeQuanta() {
+        Random random = new Random(8876234);
+        byte[] data = new byte[300];
+        random.nextBytes(data);
+        String encoded = Base64.encodeBase64String(data);
+        byte[] decoded = new byte[300];
+        assertThat(Base64Codec.decodeQuanta(encoded, 0, encoded.length(), decoded, 0)).isEqualTo(400);
+        assertThat(decoded).isEqualTo(data);
+        decoded = new byte[300];
+        assertThat(Base64Codec.decodeQuanta(encoded.toCharArray(), 0, encoded.length(), decoded, 0)).isEqualTo(400);
+        assertThat(decoded).isEqualTo(data);
+        decoded = new byte[300];
+        assertThat(Base64Codec.decodeQuanta(encoded.getBytes(), 0, encoded.length(), decoded, 0)).isEqualTo(400);
+        assertThat(decoded).isEqualTo(data);
+    }
+    
+    public void testDecodeQuantaStopsAtPadding() {
+        byte[] decoded = new byte[9];
+        assertThat(Base64Codec.decodeQuanta("YW55IGNhcm5hbA==", 0, 16, decoded, 0)).isEqualTo(12);
+        assertThat(new String(decoded)).isEqualTo("any carna");
+    }
+    
+    public void testDecodeQuantaStopsAtWhiteSpace() {
+        assertThat(Base64Codec.decodeQuanta("YW55IG\r\nNh", 0, 10, new byte[6], 0)).isEqualTo(4);
+    }
+    
+    public void testEncodingOutputStream() throws Exception {
+        Random random = new Random(2343451);
+        byte[] data = new byte[10000];
+        random.nextBytes(data);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Base64EncodingOutputStream out = new Base64EncodingOutputStream(baos);
+        int pos = 0;
+        int chunk = 1;
+        while (pos < data.length) {
+            int len = Math.min(chunk, data.length-pos);
+            out.write(data, pos, len);
+            pos += len;
+            chunk = chunk*3 + 1;
+        }
+        out.close();
+        assertThat(baos.toString("ascii")).isEqualTo(Base64.encodeBase64String(data));
+    }
+    
+    public void testDecodingWriter() throws Exception {
+        Random random = new Random(998877);
+        byte[] data = new byte[10000];
+        random.nextBytes(data);
+        String encoded = Base64.encodeBase64String(data);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Base64DecodingOutputStreamWriter writer = new Base64DecodingOutputStreamWriter(baos);
+        writer.write(encoded.substring(0, 5));
+        writer.write(encoded.substring(5, 5000).toCharArray());
+        writer.write(encoded.substring(5000));
+        writer.close();
+        assertThat(baos.toByteArray()).isEqualTo(data);
+    }
+    
+    private static byte[] slice(byte[] data, int off, int len) {
+        byte[] result = new byte[len];
+        System.arraycopy(data, off, result, 0, len);
+        return result;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.util.base64;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.io.IOUtils;
+
+public class Base64DecodingInputStreamTest extends TestCase {
+    private static byte[] decode(String encoded) throws Exception {
+        return IOUtils.toByteArray(new Base64DecodingInputStream(
+                new ByteArrayInputStream(encoded.getBytes("ascii"))));
+    }
+    
+    public void testReadSingleBytes() throws Exception {
+        Random random = new Random(5563421);
+        byte[] data = new byte[10000];
+        random.nextBytes(data);
+        Base64DecodingInputStream in = new Base64DecodingInputStream(
+                new ByteArrayInputStream(Base64.encodeBase64Chunked(data)));
+        for (int i=0; i<data.length; i++) {
+            assertEquals(data[i] & 0xFF, in.read());
+        }
+        assertEquals(-1, in.read());
+    }
+    
+    public void testLineBreaks() throws Exception {
+        Random random = new Random(1290873);
+        for (int len=0; len<20000; len+=1013) {
+            byte[] data = new byte[len];
+            random.nextBytes(data);
+            assertThat(decode(new String(Base64.encodeBase64Chunked(data), "ascii"))).isEqualTo(data);
+        }
+    }
+    
+    public void testMissingPadding() throws Exception {
+        assertThat(new String(decode("YW55IGNhcm5hbA"), "ascii")).isEqualTo("any carnal");
+        assertThat(new String(decode("YW55IGNhcm5hbC4"), "ascii")).isEqualTo("any carnal.");
+    }
+    
+    public void testIgnoreDataAfterPadding() throws Exception {
+        assertThat(new String(decode("YW55IGNhcm5hbA==\r\nYW55"), "ascii")).isEqualTo("any carnal");
+    }
+    
+    public void testInvalidCharacters() throws Exception {
+        assertThat(new String(decode("YW55*IGN\u00e9hcm5hbC4="), "iso-8859-1")).isEqualTo("any carnal.");
+    }
+}
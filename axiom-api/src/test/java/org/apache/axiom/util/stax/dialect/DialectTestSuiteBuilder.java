@@ -53,6 +53,7 @@ public class DialectTestSuiteBuilder extends MatrixTestSuiteBuilder {
         addTest(new TestDisallowDoctypeDeclWithInternalSubset(staxImpl));
         addTest(new TestDTDReader(staxImpl));
         addTest(new TestEnableCDataReporting(staxImpl));
+        addTest(new TestEnableReaderRecycling(staxImpl));
         addTest(new TestGetAttributeNamespaceWithNoPrefix(staxImpl));
         addTest(new TestGetCharacterEncodingScheme(staxImpl));
         addTest(new TestGetEncodingExternal(staxImpl));
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.util.stax.dialect;
+
+import java.io.StringReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+
+public class TestEnableReaderRecycling extends DialectTestCase {
+    public TestEnableReaderRecycling(StAXImplementation staxImpl) {
+        super(staxImpl);
+    }
+
+    protected void runTest() throws Throwable {
+        StAXDialect dialect = staxImpl.getDialect();
+        if (!(dialect instanceof ReaderRecyclingDialect)) {
+            // Reader recycling is optional
+            return;
+        }
+        XMLInputFactory factory = ((ReaderRecyclingDialect)dialect).enableReaderRecycling(
+                staxImpl.newXMLInputFactory());
+        if (factory == null) {
+            return;
+        }
+        factory = dialect.normalize(factory);
+        for (int i=0; i<3; i++) {
+            String text = String.valueOf(i);
+            XMLStreamReader reader = factory.createXMLStreamReader(
+                    new StringReader("<root" + i + ">" + text + "</root" + i + ">"));
+            assertEquals(XMLStreamReader.START_ELEMENT, reader.next());
+            assertEquals("root" + i, reader.getLocalName());
+            assertEquals(XMLStreamReader.CHARACTERS, reader.next());
+            assertEquals(text, reader.getText());
+            assertEquals(XMLStreamReader.END_ELEMENT, reader.next());
+            assertEquals(XMLStreamReader.END_DOCUMENT, reader.next());
+            reader.close();
+        }
+    }
+}
@@ -29,6 +29,8 @@ public abstract class AbstractBase64DecodingWriter extends Writer {
     private final char[] in = new char[4];
     private final byte[] out = new byte[3];
     private int rest; // Number of characters remaining in the in buffer
+    private byte[] decodeBuffer; // Used to decode data in bulk; allocated lazily
+    private char[] charBuffer; // Used to decode strings in bulk; allocated lazily
 
     private static boolean isWhitespace(int c) {
         return c <= 32 && (c == ' ' || c == '\n' || c == '\r' || c == '\t'); 
@@ -37,6 +39,18 @@ public abstract class AbstractBase64DecodingWriter extends Writer {
     @Override
     public final void write(char[] cbuf, int off, int len) throws IOException {
         while (len > 0) {
+            if (rest == 0 && len >= 8) {
+                if (decodeBuffer == null) {
+                    decodeBuffer = new byte[3072];
+                }
+                int consumed = Base64Codec.decodeQuanta(cbuf, off, Math.min(len, 4096), decodeBuffer, 0);
+                if (consumed > 0) {
+                    doWrite(decodeBuffer, consumed/4*3);
+                    off += consumed;
+                    len -= consumed;
+                    continue;
+                }
+            }
             write(cbuf[off]);
             off++;
             len--;
@@ -45,10 +59,23 @@ public abstract class AbstractBase64DecodingWriter extends Writer {
 
     @Override
     public final void write(String str, int off, int len) throws IOException {
-        while (len > 0) {
-            write(str.charAt(off));
-            off++;
-            len--;
+        if (len >= 8) {
+            if (charBuffer == null) {
+                charBuffer = new char[4096];
+            }
+            while (len > 0) {
+                int c = Math.min(len, charBuffer.length);
+                str.getChars(off, off+c, charBuffer, 0);
+                write(charBuffer, 0, c);
+                off += c;
+                len -= c;
+            }
+        } else {
+            while (len > 0) {
+                write(str.charAt(off));
+                off++;
+                len--;
+            }
         }
     }
 
@@ -106,8 +133,8 @@ public abstract class AbstractBase64DecodingWriter extends Writer {
     /**
      * Write base64 decoded data. If necessary, the implementation should
      * accumulate the data in a buffer before writing it to the underlying
-     * stream. The maximum number of bytes passed to this method in a single
-     * call is 3.
+     * stream. Note that large amounts of data are decoded in bulk and
+     * passed to this method in blocks of up to 3072 bytes.
      * 
      * @param b
      *            the byte array containing the data to write, starting at
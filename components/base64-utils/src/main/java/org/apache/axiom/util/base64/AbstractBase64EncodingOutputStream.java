@@ -31,6 +31,7 @@ public abstract class AbstractBase64EncodingOutputStream extends OutputStream {
     private final byte[] out = new byte[4];
     private int rest; // Number of bytes remaining in the inBuffer
     private boolean completed;
+    private byte[] encodeBuffer; // Used to encode data in bulk; allocated lazily
 
     /**
      * Constructor.
@@ -72,10 +73,24 @@ public abstract class AbstractBase64EncodingOutputStream extends OutputStream {
                 rest = 0;
             }
         }
-        while (len >= 3) {
-            encode(b, off, 3);
-            off += 3;
-            len -= 3;
+        if (len >= 3) {
+            int encodedLength = Base64Codec.getEncodedLength(len - len % 3);
+            if (encodedLength == 4) {
+                encode(b, off, 3);
+                off += 3;
+                len -= 3;
+            } else {
+                if (encodeBuffer == null || encodeBuffer.length < 4096 && encodeBuffer.length < encodedLength) {
+                    encodeBuffer = new byte[Math.min(encodedLength, 4096)];
+                }
+                int chunkSize = encodeBuffer.length/4*3;
+                while (len >= 3) {
+                    int c = Math.min(len - len % 3, chunkSize);
+                    doWrite(encodeBuffer, 0, Base64Codec.encode(b, off, c, encodeBuffer, 0));
+                    off += c;
+                    len -= c;
+                }
+            }
         }
         while (len > 0) {
             in[rest++] = b[off++];
@@ -155,6 +170,30 @@ public abstract class AbstractBase64EncodingOutputStream extends OutputStream {
      */
     protected abstract void doWrite(byte[] b) throws IOException;
     
+    /**
+     * Write a block of base64 encoded data. The length of the block is always a multiple of 4.
+     * This method is used when data is encoded in bulk. The default implementation calls
+     * {@link #doWrite(byte[])} for each group of 4 bytes; subclasses should override it if they
+     * can process larger blocks more efficiently.
+     * 
+     * @param b
+     *            the byte array containing the encoded data
+     * @param off
+     *            the offset of the data in the array
+     * @param len
+     *            the number of bytes to write
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    protected void doWrite(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            System.arraycopy(b, off, out, 0, 4);
+            doWrite(out);
+            off += 4;
+            len -= 4;
+        }
+    }
+    
     /**
      * Write any pending data to the underlying stream, if applicable.
      * Note that implementations should not flush the underlying stream.
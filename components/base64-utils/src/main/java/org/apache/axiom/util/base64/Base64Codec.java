@@ -0,0 +1,387 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.util.base64;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes and decodes base64 data in bulk. In contrast to the stream based classes in this package,
+ * the methods in this class process arrays of data directly and are optimized for large inputs.
+ */
+public final class Base64Codec {
+    private static final byte[] ENCODE_TABLE = Base64Constants.S_BASE64CHAR;
+
+    /**
+     * Maps the characters in the base64 alphabet to their values. All other characters (including
+     * the padding character) are mapped to -1.
+     */
+    private static final int[] DECODE_TABLE = new int[128];
+    
+    static {
+        for (int i=0; i<DECODE_TABLE.length; i++) {
+            int value = Base64Constants.S_DECODETABLE[i];
+            DECODE_TABLE[i] = value >= 0 ? value : -1;
+        }
+    }
+    
+    private Base64Codec() {}
+
+    /**
+     * Get the number of characters produced by encoding a given number of bytes.
+     * 
+     * @param len
+     *            the number of bytes to encode
+     * @return the length of the base64 encoded data (including padding)
+     */
+    public static int getEncodedLength(int len) {
+        return (len+2)/3*4;
+    }
+
+    /**
+     * Encode data in base64. The encoded data includes padding if the number of bytes to encode is
+     * not a multiple of 3. If the caller needs to encode data in several steps, it must therefore
+     * pass chunks of data with a length multiple of 3 (except for the last chunk).
+     * 
+     * @param src
+     *            the data to encode
+     * @param off
+     *            the offset of the first byte to encode
+     * @param len
+     *            the number of bytes to encode
+     * @param dst
+     *            the array to write the encoded data to (as ASCII bytes); it must have a capacity
+     *            of at least {@link #getEncodedLength(int)} bytes starting at {@code dstOff}
+     * @param dstOff
+     *            the offset in {@code dst} at which the encoded data is written
+     * @return the number of bytes written to {@code dst}
+     */
+    public static int encode(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        final byte[] table = ENCODE_TABLE;
+        int s = off;
+        int d = dstOff;
+        int end = off + len - len % 3;
+        // Process two quanta per iteration
+        int end2 = end - 6;
+        while (s <= end2) {
+            int i = (src[s] & 0xff) << 16 | (src[s+1] & 0xff) << 8 | (src[s+2] & 0xff);
+            int j = (src[s+3] & 0xff) << 16 | (src[s+4] & 0xff) << 8 | (src[s+5] & 0xff);
+            dst[d] = table[i >>> 18];
+            dst[d+1] = table[(i >>> 12) & 0x3f];
+            dst[d+2] = table[(i >>> 6) & 0x3f];
+            dst[d+3] = table[i & 0x3f];
+            dst[d+4] = table[j >>> 18];
+            dst[d+5] = table[(j >>> 12) & 0x3f];
+            dst[d+6] = table[(j >>> 6) & 0x3f];
+            dst[d+7] = table[j & 0x3f];
+            s += 6;
+            d += 8;
+        }
+        if (s < end) {
+            int i = (src[s] & 0xff) << 16 | (src[s+1] & 0xff) << 8 | (src[s+2] & 0xff);
+            dst[d] = table[i >>> 18];
+            dst[d+1] = table[(i >>> 12) & 0x3f];
+            dst[d+2] = table[(i >>> 6) & 0x3f];
+            dst[d+3] = table[i & 0x3f];
+            s += 3;
+            d += 4;
+        }
+        switch (len % 3) {
+            case 1: {
+                int i = src[s] & 0xff;
+                dst[d] = table[i >> 2];
+                dst[d+1] = table[(i << 4) & 0x3f];
+                dst[d+2] = Base64Constants.S_BASE64PAD;
+                dst[d+3] = Base64Constants.S_BASE64PAD;
+                d += 4;
+                break;
+            }
+            case 2: {
+                int i = (src[s] & 0xff) << 8 | (src[s+1] & 0xff);
+                dst[d] = table[i >> 10];
+                dst[d+1] = table[(i >> 4) & 0x3f];
+                dst[d+2] = table[(i << 2) & 0x3f];
+                dst[d+3] = Base64Constants.S_BASE64PAD;
+                d += 4;
+            }
+        }
+        return d - dstOff;
+    }
+
+    /**
+     * Encode data in base64. This method is similar to
+     * {@link #encode(byte[], int, int, byte[], int)}, except that the encoded data is written to a
+     * {@code char} array.
+     * 
+     * @param src
+     *            the data to encode
+     * @param off
+     *            the offset of the first byte to encode
+     * @param len
+     *            the number of bytes to encode
+     * @param dst
+     *            the array to write the encoded data to; it must have a capacity of at least
+     *            {@link #getEncodedLength(int)} characters starting at {@code dstOff}
+     * @param dstOff
+     *            the offset in {@code dst} at which the encoded data is written
+     * @return the number of characters written to {@code dst}
+     */
+    public static int encode(byte[] src, int off, int len, char[] dst, int dstOff) {
+        final byte[] table = ENCODE_TABLE;
+        int s = off;
+        int d = dstOff;
+        int end = off + len - len % 3;
+        int end2 = end - 6;
+        while (s <= end2) {
+            int i = (src[s] & 0xff) << 16 | (src[s+1] & 0xff) << 8 | (src[s+2] & 0xff);
+            int j = (src[s+3] & 0xff) << 16 | (src[s+4] & 0xff) << 8 | (src[s+5] & 0xff);
+            dst[d] = (char)table[i >>> 18];
+            dst[d+1] = (char)table[(i >>> 12) & 0x3f];
+            dst[d+2] = (char)table[(i >>> 6) & 0x3f];
+            dst[d+3] = (char)table[i & 0x3f];
+            dst[d+4] = (char)table[j >>> 18];
+            dst[d+5] = (char)table[(j >>> 12) & 0x3f];
+            dst[d+6] = (char)table[(j >>> 6) & 0x3f];
+            dst[d+7] = (char)table[j & 0x3f];
+            s += 6;
+            d += 8;
+        }
+        if (s < end) {
+            int i = (src[s] & 0xff) << 16 | (src[s+1] & 0xff) << 8 | (src[s+2] & 0xff);
+            dst[d] = (char)table[i >>> 18];
+            dst[d+1] = (char)table[(i >>> 12) & 0x3f];
+            dst[d+2] = (char)table[(i >>> 6) & 0x3f];
+            dst[d+3] = (char)table[i & 0x3f];
+            s += 3;
+            d += 4;
+        }
+        switch (len % 3) {
+            case 1: {
+                int i = src[s] & 0xff;
+                dst[d] = (char)table[i >> 2];
+                dst[d+1] = (char)table[(i << 4) & 0x3f];
+                dst[d+2] = (char)Base64Constants.S_BASE64PAD;
+                dst[d+3] = (char)Base64Constants.S_BASE64PAD;
+                d += 4;
+                break;
+            }
+            case 2: {
+                int i = (src[s] & 0xff) << 8 | (src[s+1] & 0xff);
+                dst[d] = (char)table[i >> 10];
+                dst[d+1] = (char)table[(i >> 4) & 0x3f];
+                dst[d+2] = (char)table[(i << 2) & 0x3f];
+                dst[d+3] = (char)Base64Constants.S_BASE64PAD;
+                d += 4;
+            }
+        }
+        return d - dstOff;
+    }
+
+    /**
+     * Encode the remaining bytes in a buffer in base64. The encoded data (including padding) is
+     * written as ASCII bytes to another buffer. On return, the position of the source buffer is
+     * advanced to its limit and the position of the destination buffer is advanced by the number of
+     * bytes written.
+     * 
+     * @param src
+     *            the data to encode
+     * @param dst
+     *            the buffer to write the encoded data to; it must have at least
+     *            {@link #getEncodedLength(int)} bytes remaining
+     * @return the number of bytes written to {@code dst}
+     */
+    public static int encode(ByteBuffer src, ByteBuffer dst) {
+        int len = src.remaining();
+        int encodedLength = getEncodedLength(len);
+        if (dst.remaining() < encodedLength) {
+            throw new IllegalArgumentException("Insufficient space in destination buffer");
+        }
+        if (src.hasArray() && dst.hasArray()) {
+            encode(src.array(), src.arrayOffset() + src.position(), len,
+                    dst.array(), dst.arrayOffset() + dst.position());
+            src.position(src.limit());
+            dst.position(dst.position() + encodedLength);
+        } else {
+            byte[] in = new byte[Math.min(len, 3072)];
+            byte[] out = new byte[getEncodedLength(in.length)];
+            while (src.hasRemaining()) {
+                int c = Math.min(src.remaining(), in.length);
+                src.get(in, 0, c);
+                dst.put(out, 0, encode(in, 0, c, out, 0));
+            }
+        }
+        return encodedLength;
+    }
+
+    /**
+     * Decode complete base64 quanta (i.e. groups of 4 characters) that contain neither padding nor
+     * white space. The method stops at the first quantum that contains a character that is not in
+     * the base64 alphabet, allowing the caller to handle white space, padding and errors using a
+     * slower code path.
+     * 
+     * @param src
+     *            the base64 encoded data
+     * @param off
+     *            the offset of the first character to decode
+     * @param len
+     *            the maximum number of characters to decode; if this is not a multiple of 4, the
+     *            trailing characters are not decoded
+     * @param dst
+     *            the array to write the decoded data to; it must have a capacity of at least
+     *            {@code len/4*3} bytes starting at {@code dstOff}
+     * @param dstOff
+     *            the offset in {@code dst} at which the decoded data is written
+     * @return the number of characters consumed; this is always a multiple of 4 and the number of
+     *         bytes written to {@code dst} is 3/4 of that value
+     */
+    public static int decodeQuanta(char[] src, int off, int len, byte[] dst, int dstOff) {
+        final int[] table = DECODE_TABLE;
+        int s = off;
+        int d = dstOff;
+        int end = off + len - 3;
+        while (s < end) {
+            char c0 = src[s];
+            char c1 = src[s+1];
+            char c2 = src[s+2];
+            char c3 = src[s+3];
+            if ((c0 | c1 | c2 | c3) >= 128) {
+                break;
+            }
+            int v0 = table[c0];
+            int v1 = table[c1];
+            int v2 = table[c2];
+            int v3 = table[c3];
+            if ((v0 | v1 | v2 | v3) < 0) {
+                break;
+            }
+            int i = v0 << 18 | v1 << 12 | v2 << 6 | v3;
+            dst[d] = (byte)(i >> 16);
+            dst[d+1] = (byte)(i >> 8);
+            dst[d+2] = (byte)i;
+            s += 4;
+            d += 3;
+        }
+        return s - off;
+    }
+
+    /**
+     * Decode complete base64 quanta from a string. See
+     * {@link #decodeQuanta(char[], int, int, byte[], int)} for more details.
+     * 
+     * @param src
+     *            the base64 encoded data
+     * @param off
+     *            the offset of the first character to decode
+     * @param len
+     *            the maximum number of characters to decode
+     * @param dst
+     *            the array to write the decoded data to
+     * @param dstOff
+     *            the offset in {@code dst} at which the decoded data is written
+     * @return the number of characters consumed
+     */
+    public static int decodeQuanta(String src, int off, int len, byte[] dst, int dstOff) {
+        final int[] table = DECODE_TABLE;
+        int s = off;
+        int d = dstOff;
+        int end = off + len - 3;
+        while (s < end) {
+            char c0 = src.charAt(s);
+            char c1 = src.charAt(s+1);
+            char c2 = src.charAt(s+2);
+            char c3 = src.charAt(s+3);
+            if ((c0 | c1 | c2 | c3) >= 128) {
+                break;
+            }
+            int v0 = table[c0];
+            int v1 = table[c1];
+            int v2 = table[c2];
+            int v3 = table[c3];
+            if ((v0 | v1 | v2 | v3) < 0) {
+                break;
+            }
+            int i = v0 << 18 | v1 << 12 | v2 << 6 | v3;
+            dst[d] = (byte)(i >> 16);
+            dst[d+1] = (byte)(i >> 8);
+            dst[d+2] = (byte)i;
+            s += 4;
+            d += 3;
+        }
+        return s - off;
+    }
+
+    /**
+     * Decode complete base64 quanta from ASCII encoded data. See
+     * {@link #decodeQuanta(char[], int, int, byte[], int)} for more details.
+     * 
+     * @param src
+     *            the base64 encoded data
+     * @param off
+     *            the offset of the first byte to decode
+     * @param len
+     *            the maximum number of bytes to decode
+     * @param dst
+     *            the array to write the decoded data to; this may be the same array as
+     *            {@code src} provided that {@code dstOff} is not greater than {@code off}
+     * @param dstOff
+     *            the offset in {@code dst} at which the decoded data is written
+     * @return the number of bytes consumed
+     */
+    public static int decodeQuanta(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        final int[] table = DECODE_TABLE;
+        int s = off;
+        int d = dstOff;
+        int end = off + len - 3;
+        while (s < end) {
+            int c0 = src[s];
+            int c1 = src[s+1];
+            int c2 = src[s+2];
+            int c3 = src[s+3];
+            // Bytes >= 128 are negative
+            if ((c0 | c1 | c2 | c3) < 0) {
+                break;
+            }
+            int v0 = table[c0];
+            int v1 = table[c1];
+            int v2 = table[c2];
+            int v3 = table[c3];
+            if ((v0 | v1 | v2 | v3) < 0) {
+                break;
+            }
+            int i = v0 << 18 | v1 << 12 | v2 << 6 | v3;
+            dst[d] = (byte)(i >> 16);
+            dst[d+1] = (byte)(i >> 8);
+            dst[d+2] = (byte)i;
+            s += 4;
+            d += 3;
+        }
+        return s - off;
+    }
+
+    /**
+     * Get the value of a character in the base64 alphabet.
+     * 
+     * @param c
+     *            the character
+     * @return the value of the character (0 to 63), or -1 if the character is not in the base64
+     *         alphabet (this includes the padding character)
+     */
+    static int decode(int c) {
+        return c >= 0 && c < 128 ? DECODE_TABLE[c] : -1;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.util.base64;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@link InputStream} implementation that decodes base64 encoded data read from another
+ * {@link InputStream}. Complete quanta are decoded in bulk. As required by RFC 2045 for the
+ * {@code base64} content transfer encoding, characters that are not in the base64 alphabet (in
+ * particular line breaks) are ignored, and decoding stops at the first padding character.
+ */
+public class Base64DecodingInputStream extends InputStream {
+    private final InputStream parent;
+    private final byte[] in = new byte[4096];
+    
+    /**
+     * The buffer for the decoded data. Its size accounts for the incomplete quantum that may be
+     * carried over from the previous chunk of encoded data.
+     */
+    private final byte[] buffer = new byte[3072 + 3];
+    
+    /**
+     * The position of the next decoded byte to return.
+     */
+    private int decodedPosition;
+    
+    /**
+     * The number of decoded bytes in the buffer.
+     */
+    private int decodedLength;
+    
+    /**
+     * The position of the next encoded byte to decode.
+     */
+    private int encodedPosition;
+    
+    /**
+     * The end of the encoded data in the buffer.
+     */
+    private int encodedLength;
+    
+    /**
+     * The bits accumulated from the incomplete quantum.
+     */
+    private int accumulator;
+    
+    /**
+     * The number of characters in the incomplete quantum.
+     */
+    private int quantumLength;
+    
+    /**
+     * Indicates that the end of the base64 data has been reached (because of the end of the
+     * underlying stream or because padding has been encountered).
+     */
+    private boolean eof;
+
+    /**
+     * Constructor.
+     * 
+     * @param parent
+     *            the stream to read the base64 encoded data from
+     */
+    public Base64DecodingInputStream(InputStream parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Fill the buffer with decoded data.
+     * 
+     * @return {@code false} if the end of the data has been reached
+     * @throws IOException
+     *             if an I/O error occurs on the underlying stream
+     */
+    private boolean fill() throws IOException {
+        decodedPosition = 0;
+        decodedLength = 0;
+        while (decodedLength == 0) {
+            if (eof) {
+                return false;
+            }
+            if (encodedPosition == encodedLength) {
+                int c = parent.read(in, 0, in.length);
+                if (c == -1) {
+                    eof = true;
+                    flushQuantum();
+                    continue;
+                }
+                encodedPosition = 0;
+                encodedLength = c;
+            }
+            int d = 0;
+            while (encodedPosition < encodedLength) {
+                if (quantumLength == 0) {
+                    int consumed = Base64Codec.decodeQuanta(in, encodedPosition,
+                            encodedLength - encodedPosition, buffer, d);
+                    encodedPosition += consumed;
+                    d += consumed/4*3;
+                    if (encodedPosition == encodedLength) {
+                        break;
+                    }
+                }
+                int b = in[encodedPosition++];
+                if (b == Base64Constants.S_BASE64PAD) {
+                    decodedLength = d;
+                    eof = true;
+                    flushQuantum();
+                    return decodedLength > 0;
+                }
+                int value = Base64Codec.decode(b);
+                if (value >= 0) {
+                    accumulator = accumulator << 6 | value;
+                    if (++quantumLength == 4) {
+                        buffer[d++] = (byte)(accumulator >> 16);
+                        buffer[d++] = (byte)(accumulator >> 8);
+                        buffer[d++] = (byte)accumulator;
+                        accumulator = 0;
+                        quantumLength = 0;
+                    }
+                }
+            }
+            decodedLength = d;
+        }
+        return true;
+    }
+
+    /**
+     * Decode the incomplete quantum at the end of the data (if any) and append the result to the
+     * decoded data.
+     */
+    private void flushQuantum() {
+        switch (quantumLength) {
+            case 2:
+                buffer[decodedLength++] = (byte)(accumulator >> 4);
+                break;
+            case 3:
+                buffer[decodedLength++] = (byte)(accumulator >> 10);
+                buffer[decodedLength++] = (byte)(accumulator >> 2);
+        }
+        accumulator = 0;
+        quantumLength = 0;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (decodedPosition == decodedLength && !fill()) {
+            return -1;
+        }
+        return buffer[decodedPosition++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (decodedPosition == decodedLength && !fill()) {
+            return -1;
+        }
+        int c = Math.min(len, decodedLength - decodedPosition);
+        System.arraycopy(buffer, decodedPosition, b, off, c);
+        decodedPosition += c;
+        return c;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return decodedLength - decodedPosition;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parent.close();
+    }
+}
@@ -61,6 +61,19 @@ public class Base64EncodingOutputStream extends AbstractBase64EncodingOutputStre
         len += 4;
     }
     
+    @Override
+    protected void doWrite(byte[] b, int off, int len) throws IOException {
+        if (buffer.length - this.len < len) {
+            flushBuffer();
+            if (len > buffer.length) {
+                parent.write(b, off, len);
+                return;
+            }
+        }
+        System.arraycopy(b, off, buffer, this.len, len);
+        this.len += len;
+    }
+    
     @Override
     protected void flushBuffer() throws IOException {
         parent.write(buffer, 0, len);
@@ -54,6 +54,13 @@ public class Base64EncodingStringBufferOutputStream extends AbstractBase64Encodi
         }
     }
 
+    @Override
+    protected void doWrite(byte[] b, int off, int len) throws IOException {
+        for (int i=0; i<len; i++) {
+            buffer.append((char)(b[off+i] & 0xFF));
+        }
+    }
+
     @Override
     protected void flushBuffer() throws IOException {
         // Nothing to do
@@ -79,6 +79,24 @@ public class Base64EncodingWriterOutputStream extends AbstractBase64EncodingOutp
         }
     }
     
+    @Override
+    protected void doWrite(byte[] b, int off, int len) throws IOException {
+        char[] buffer = this.buffer;
+        while (len > 0) {
+            if (buffer.length - this.len < 4) {
+                flushBuffer();
+            }
+            int c = Math.min(len, (buffer.length - this.len) & ~3);
+            int pos = this.len;
+            for (int i=0; i<c; i++) {
+                buffer[pos++] = (char)(b[off+i] & 0xFF);
+            }
+            this.len = pos;
+            off += c;
+            len -= c;
+        }
+    }
+    
     @Override
     protected void flushBuffer() throws IOException {
         writer.write(buffer, 0, len);
@@ -20,7 +20,7 @@ package org.apache.axiom.core.stream;
 
 import javax.xml.XMLConstants;
 
-public final class NamespaceRepairingFilterHandler extends XmlHandlerWrapper {
+public final class NamespaceRepairingFilterHandler extends XmlHandlerWrapper implements NamespaceContextProvider {
     private final NamespaceContextProvider parentNamespaceContext;
     private final boolean removeRedundantDeclarations;
     private String[] namespaceStack = new String[32];
@@ -73,6 +73,24 @@ public final class NamespaceRepairingFilterHandler extends XmlHandlerWrapper {
         }
     }
     
+    /**
+     * Determine whether the given prefix is bound to the given namespace URI in the namespace
+     * context established by the events received so far, taking into account the parent
+     * namespace context.
+     */
+    public boolean isBound(String prefix, String namespaceURI) throws StreamException {
+        for (int i=(bindings-1)*2; i>=0; i-=2) {
+            if (prefix.equals(namespaceStack[i])) {
+                return namespaceURI.equals(namespaceStack[i+1]);
+            }
+        }
+        if (parentNamespaceContext != null) {
+            return parentNamespaceContext.isBound(prefix, namespaceURI);
+        } else {
+            return prefix.isEmpty() && namespaceURI.isEmpty();
+        }
+    }
+    
     public void startElement(String namespaceURI, String localName, String prefix) throws StreamException {
         super.startElement(namespaceURI, localName, prefix);
         if (scopes == scopeStack.length) {
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.binary;
+
+/**
+ * Constants for the binary XML format written by {@link BinaryXmlWriter} and read by
+ * {@link BinaryXmlInput}.
+ * <p>
+ * A stream starts with the four bytes of {@link #MAGIC}, followed by a sequence of events. Each
+ * event is a single byte identifying the event type, followed by its operands:
+ * <ul>
+ * <li>Integers (lengths and indexes) are encoded as unsigned variable length quantities, seven
+ * bits per byte, least significant group first.
+ * <li>Names (local names, prefixes, namespace URIs, attribute types, processing instruction
+ * targets, etc.) are encoded as references to a table built while the stream is written: 0
+ * stands for <code>null</code>, 1 means that the name is new (it is added to the table and its
+ * value follows, encoded as text) and any other value <i>n</i> refers to the entry with index
+ * <i>n</i>-2.
+ * <li>Text (character data and attribute values) is encoded as the number of UTF-16 code units,
+ * followed by the code units, each one encoded using one to three bytes in the same way as in
+ * UTF-8 (surrogates are encoded individually).
+ * <li>Binary content is encoded as a sequence of chunks, each one consisting of the chunk size
+ * followed by the bytes, terminated by an empty chunk.
+ * </ul>
+ */
+final class BinaryXmlConstants {
+    static final byte[] MAGIC = { 'A', 'X', 'B', 1 };
+    
+    static final int START_DOCUMENT = 1;
+    static final int START_FRAGMENT = 2;
+    static final int DOCUMENT_TYPE_DECLARATION = 3;
+    static final int START_ELEMENT = 4;
+    static final int END_ELEMENT = 5;
+    static final int NS_AWARE_ATTRIBUTE = 6;
+    static final int NS_UNAWARE_ATTRIBUTE = 7;
+    static final int NAMESPACE_DECLARATION = 8;
+    static final int ATTRIBUTES_COMPLETED = 9;
+    static final int CHARACTERS = 10;
+    static final int IGNORABLE_CHARACTERS = 11;
+    static final int BINARY = 12;
+    static final int START_PROCESSING_INSTRUCTION = 13;
+    static final int END_PROCESSING_INSTRUCTION = 14;
+    static final int START_COMMENT = 15;
+    static final int END_COMMENT = 16;
+    static final int START_CDATA_SECTION = 17;
+    static final int END_CDATA_SECTION = 18;
+    static final int ENTITY_REFERENCE = 19;
+    static final int COMPLETED = 20;
+    
+    /**
+     * Flag for the {@link #BINARY} event indicating that the binary content is marked as
+     * optimized (i.e. that it should be sent as an attachment if XOP is used).
+     */
+    static final int BINARY_OPTIMIZE = 1;
+    
+    /**
+     * Value for the standalone operand of the {@link #START_DOCUMENT} event if the XML
+     * declaration doesn't specify the standalone attribute. The other values are 0 for
+     * <code>no</code> and 1 for <code>yes</code>.
+     */
+    static final int STANDALONE_UNSPECIFIED = 2;
+    
+    private BinaryXmlConstants() {}
+}
@@ -0,0 +1,386 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.binary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.util.base64.Base64Codec;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * {@link XmlInput} implementation that decodes a stream written by {@link BinaryXmlWriter}. By
+ * default, binary content is reported as base64 encoded text; subclasses can override
+ * {@link #createBinaryCharacterData(byte[], String, boolean)} to produce a different
+ * representation.
+ */
+public class BinaryXmlInput implements XmlInput {
+    private final class Reader implements XmlReader {
+        private final XmlHandler handler;
+        private InputStream in;
+        private boolean closeStream;
+        private final byte[] buffer = new byte[8192];
+        private int position;
+        private int length;
+        private String[] names = new String[32];
+        private int nameCount;
+        private char[] chars = new char[64];
+        private boolean headerRead;
+
+        Reader(XmlHandler handler) {
+            this.handler = handler;
+        }
+
+        private void fillBuffer() throws StreamException {
+            int read;
+            try {
+                if (in.markSupported()) {
+                    // Allows resetStream to give back the bytes not consumed by this reader
+                    in.mark(buffer.length);
+                }
+                read = in.read(buffer, 0, buffer.length);
+            } catch (IOException ex) {
+                throw new StreamException(ex);
+            }
+            if (read == -1) {
+                throw new StreamException("Unexpected end of stream");
+            }
+            position = 0;
+            length = read;
+        }
+        
+        /**
+         * Position the stream immediately after the last byte consumed by this reader, if the
+         * stream supports {@link InputStream#mark(int)}.
+         */
+        private void resetStream() throws StreamException {
+            if (position == length || !in.markSupported()) {
+                return;
+            }
+            try {
+                in.reset();
+                int remaining = position;
+                while (remaining > 0) {
+                    long skipped = in.skip(remaining);
+                    if (skipped > 0) {
+                        remaining -= skipped;
+                    } else if (in.read() != -1) {
+                        remaining--;
+                    } else {
+                        throw new StreamException("Unexpected end of stream");
+                    }
+                }
+            } catch (IOException ex) {
+                throw new StreamException(ex);
+            }
+            position = 0;
+            length = 0;
+        }
+        
+        private int readByte() throws StreamException {
+            if (position == length) {
+                fillBuffer();
+            }
+            return buffer[position++] & 0xFF;
+        }
+        
+        private void readBytes(byte[] b, int off, int len) throws StreamException {
+            while (len > 0) {
+                if (position == length) {
+                    fillBuffer();
+                }
+                int c = Math.min(len, length - position);
+                System.arraycopy(buffer, position, b, off, c);
+                position += c;
+                off += c;
+                len -= c;
+            }
+        }
+        
+        private int readInt() throws StreamException {
+            int value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = readByte();
+                // Only 31 bits are used; anything else would be a negative or overflowing value
+                if (shift == 28 && (b & 0xF8) != 0) {
+                    throw new StreamException("Malformed integer");
+                }
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+        
+        private String readText() throws StreamException {
+            int len = readInt();
+            for (int i=0; i<len; i++) {
+                // Grow the array as the characters are actually read, so that an invalid length
+                // results in an "unexpected end of stream" error rather than a huge allocation
+                if (i == chars.length) {
+                    chars = Arrays.copyOf(chars, (int)Math.min((long)chars.length*2, len));
+                }
+                int b = readByte();
+                if (b < 0x80) {
+                    chars[i] = (char)b;
+                } else if (b < 0xE0) {
+                    chars[i] = (char)(((b & 0x1F) << 6) | (readByte() & 0x3F));
+                } else {
+                    int b2 = readByte();
+                    chars[i] = (char)(((b & 0x0F) << 12) | ((b2 & 0x3F) << 6) | (readByte() & 0x3F));
+                }
+            }
+            return new String(chars, 0, len);
+        }
+        
+        private String readName() throws StreamException {
+            int ref = readInt();
+            if (ref == 0) {
+                return null;
+            } else if (ref == 1) {
+                String name = readText();
+                if (nameCount == names.length) {
+                    names = Arrays.copyOf(names, nameCount*2);
+                }
+                names[nameCount++] = name;
+                return name;
+            } else {
+                int index = ref-2;
+                if (index >= nameCount) {
+                    throw new StreamException("Invalid name reference");
+                }
+                return names[index];
+            }
+        }
+        
+        private boolean readFlag() throws StreamException {
+            return readByte() == 1;
+        }
+        
+        private Object readBinary() throws StreamException {
+            boolean optimize = (readByte() & BinaryXmlConstants.BINARY_OPTIMIZE) != 0;
+            String contentType = readName();
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            int len;
+            while ((len = readInt()) != 0) {
+                // Copy the chunk from the buffer instead of allocating an array of the announced
+                // size, which may be invalid
+                while (len > 0) {
+                    if (position == length) {
+                        fillBuffer();
+                    }
+                    int c = Math.min(len, length - position);
+                    baos.write(buffer, position, c);
+                    position += c;
+                    len -= c;
+                }
+            }
+            return createBinaryCharacterData(baos.toByteArray(), contentType, optimize);
+        }
+        
+        @Override
+        public boolean proceed() throws StreamException {
+            if (in == null) {
+                if (BinaryXmlInput.this.in != null) {
+                    in = BinaryXmlInput.this.in;
+                } else {
+                    try {
+                        in = openStream();
+                    } catch (IOException ex) {
+                        throw new StreamException(ex);
+                    }
+                    closeStream = true;
+                }
+            }
+            if (!headerRead) {
+                byte[] magic = new byte[BinaryXmlConstants.MAGIC.length];
+                readBytes(magic, 0, magic.length);
+                if (!Arrays.equals(magic, BinaryXmlConstants.MAGIC)) {
+                    throw new StreamException("Not a binary XML stream or unsupported version");
+                }
+                headerRead = true;
+            }
+            // As for other XmlReader implementations, a start tag (including its attributes) is
+            // produced in a single invocation
+            while (true) {
+                int event = readByte();
+                switch (event) {
+                    case BinaryXmlConstants.START_DOCUMENT: {
+                        String inputEncoding = readName();
+                        String xmlVersion = readName();
+                        String xmlEncoding = readName();
+                        int standalone = readByte();
+                        handler.startDocument(inputEncoding, xmlVersion, xmlEncoding,
+                                standalone == BinaryXmlConstants.STANDALONE_UNSPECIFIED ? null : Boolean.valueOf(standalone == 1));
+                        return false;
+                    }
+                    case BinaryXmlConstants.START_FRAGMENT:
+                        handler.startFragment();
+                        return false;
+                    case BinaryXmlConstants.DOCUMENT_TYPE_DECLARATION:
+                        handler.processDocumentTypeDeclaration(readName(), readName(), readName(), readName());
+                        return false;
+                    case BinaryXmlConstants.START_ELEMENT:
+                        handler.startElement(readName(), readName(), readName());
+                        break;
+                    case BinaryXmlConstants.END_ELEMENT:
+                        handler.endElement();
+                        return false;
+                    case BinaryXmlConstants.NS_AWARE_ATTRIBUTE:
+                        handler.processAttribute(readName(), readName(), readName(), readText(), readName(), readFlag());
+                        break;
+                    case BinaryXmlConstants.NS_UNAWARE_ATTRIBUTE:
+                        handler.processAttribute(readName(), readText(), readName(), readFlag());
+                        break;
+                    case BinaryXmlConstants.NAMESPACE_DECLARATION:
+                        handler.processNamespaceDeclaration(readName(), readName());
+                        break;
+                    case BinaryXmlConstants.ATTRIBUTES_COMPLETED:
+                        handler.attributesCompleted();
+                        return false;
+                    case BinaryXmlConstants.CHARACTERS:
+                        handler.processCharacterData(readText(), false);
+                        return false;
+                    case BinaryXmlConstants.IGNORABLE_CHARACTERS:
+                        handler.processCharacterData(readText(), true);
+                        return false;
+                    case BinaryXmlConstants.BINARY:
+                        handler.processCharacterData(readBinary(), false);
+                        return false;
+                    case BinaryXmlConstants.START_PROCESSING_INSTRUCTION:
+                        handler.startProcessingInstruction(readName());
+                        return false;
+                    case BinaryXmlConstants.END_PROCESSING_INSTRUCTION:
+                        handler.endProcessingInstruction();
+                        return false;
+                    case BinaryXmlConstants.START_COMMENT:
+                        handler.startComment();
+                        return false;
+                    case BinaryXmlConstants.END_COMMENT:
+                        handler.endComment();
+                        return false;
+                    case BinaryXmlConstants.START_CDATA_SECTION:
+                        handler.startCDATASection();
+                        return false;
+                    case BinaryXmlConstants.END_CDATA_SECTION:
+                        handler.endCDATASection();
+                        return false;
+                    case BinaryXmlConstants.ENTITY_REFERENCE:
+                        handler.processEntityReference(readName(), readName());
+                        return false;
+                    case BinaryXmlConstants.COMPLETED:
+                        handler.completed();
+                        resetStream();
+                        dispose();
+                        return true;
+                    default:
+                        throw new StreamException("Unexpected event type " + event);
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (closeStream) {
+                closeStream = false;
+                try {
+                    in.close();
+                } catch (IOException ex) {
+                    // Nothing useful can be done with this exception at this point
+                    if (log.isDebugEnabled()) {
+                        log.debug("Failed to close input stream", ex);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static final Log log = LogFactory.getLog(BinaryXmlInput.class);
+    
+    private final InputStream in;
+
+    /**
+     * Constructor. The stream is read in blocks. If it supports {@link InputStream#mark(int)} (e.g. a
+     * {@link java.io.BufferedInputStream}), the bytes read ahead are given back once the end of
+     * the encoded events has been reached, i.e. the stream is left positioned immediately after
+     * them and further content (such as another encoded document) can be read from it. Otherwise
+     * the position of the stream at that point is undefined.
+     * 
+     * @param in
+     *            the stream to read from; the stream is not closed when the end of the encoded
+     *            events is reached
+     */
+    public BinaryXmlInput(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Constructor for subclasses that open the stream lazily. Subclasses using this constructor
+     * must override {@link #openStream()}.
+     */
+    protected BinaryXmlInput() {
+        in = null;
+    }
+
+    /**
+     * Open the stream to read from. This method is only used if the instance was created using
+     * the {@link #BinaryXmlInput()} constructor. It is invoked once for every reader, when the
+     * reader is first used, and the stream is closed when the reader is disposed.
+     * 
+     * @return the stream to read from
+     * @throws IOException
+     *             if the stream could not be opened
+     */
+    protected InputStream openStream() throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Create the object representing binary content. The default implementation returns the
+     * base64 encoded data as a string.
+     * 
+     * @param data
+     *            the binary data
+     * @param contentType
+     *            the content type, or <code>null</code> if unknown
+     * @param optimize
+     *            the value of the optimize flag
+     * @return the character data to pass to {@link XmlHandler#processCharacterData(Object, boolean)}
+     * @throws StreamException
+     */
+    protected Object createBinaryCharacterData(byte[] data, String contentType, boolean optimize)
+            throws StreamException {
+        char[] encoded = new char[Base64Codec.getEncodedLength(data.length)];
+        Base64Codec.encode(data, 0, data.length, encoded, 0);
+        return new String(encoded);
+    }
+
+    @Override
+    public final XmlReader createReader(XmlHandler handler) {
+        return new Reader(handler);
+    }
+}
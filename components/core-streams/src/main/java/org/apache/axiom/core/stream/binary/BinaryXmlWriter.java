@@ -0,0 +1,332 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+
+/**
+ * {@link XmlHandler} implementation that encodes events in a compact binary format. The format
+ * preserves the full infoset produced by the events (including CDATA sections, comments, entity
+ * references, ignorable whitespace and the prefixes used in the input) and avoids the costs of
+ * escaping and of charset encoding lookups. Names and namespace URIs are written only once per
+ * stream. The stream can be read using {@link BinaryXmlInput}. The format is described in the
+ * documentation of the (package private) <code>BinaryXmlConstants</code> class.
+ * <p>
+ * By default, character data is always written as text. Subclasses can override
+ * {@link #processBinaryCharacterData(Object)} to write binary content (such as base64 encoded
+ * data backed by a data handler) in raw form.
+ */
+public class BinaryXmlWriter implements XmlHandler {
+    private final OutputStream out;
+    private final byte[] buffer = new byte[8192];
+    private int length;
+    private final Map<String,Integer> names = new HashMap<String,Integer>();
+    
+    private final OutputStream binaryOut = new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte)b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            try {
+                writeInt(len);
+                writeBytes(b, off, len);
+            } catch (StreamException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                writeInt(0);
+            } catch (StreamException ex) {
+                throw new IOException(ex);
+            }
+        }
+    };
+
+    /**
+     * Constructor. The output stream is not closed when the end of the stream is reached.
+     * 
+     * @param out
+     *            the output stream to write the encoded events to
+     */
+    public BinaryXmlWriter(OutputStream out) {
+        this.out = out;
+        System.arraycopy(BinaryXmlConstants.MAGIC, 0, buffer, 0, BinaryXmlConstants.MAGIC.length);
+        length = BinaryXmlConstants.MAGIC.length;
+    }
+
+    private void flushBuffer() throws StreamException {
+        try {
+            out.write(buffer, 0, length);
+        } catch (IOException ex) {
+            throw new StreamException(ex);
+        }
+        length = 0;
+    }
+    
+    private void writeByte(int b) throws StreamException {
+        if (length == buffer.length) {
+            flushBuffer();
+        }
+        buffer[length++] = (byte)b;
+    }
+    
+    final void writeBytes(byte[] b, int off, int len) throws StreamException {
+        if (len > buffer.length - length) {
+            flushBuffer();
+            if (len > buffer.length) {
+                try {
+                    out.write(b, off, len);
+                } catch (IOException ex) {
+                    throw new StreamException(ex);
+                }
+                return;
+            }
+        }
+        System.arraycopy(b, off, buffer, length, len);
+        length += len;
+    }
+    
+    final void writeInt(int value) throws StreamException {
+        while ((value & ~0x7F) != 0) {
+            writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte(value);
+    }
+    
+    private void writeText(String s) throws StreamException {
+        int len = s.length();
+        writeInt(len);
+        for (int i=0; i<len; i++) {
+            if (buffer.length - length < 3) {
+                flushBuffer();
+            }
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buffer[length++] = (byte)c;
+            } else if (c < 0x800) {
+                buffer[length++] = (byte)(0xC0 | (c >> 6));
+                buffer[length++] = (byte)(0x80 | (c & 0x3F));
+            } else {
+                buffer[length++] = (byte)(0xE0 | (c >> 12));
+                buffer[length++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+                buffer[length++] = (byte)(0x80 | (c & 0x3F));
+            }
+        }
+    }
+    
+    private void writeName(String name) throws StreamException {
+        if (name == null) {
+            writeInt(0);
+        } else {
+            Integer index = names.get(name);
+            if (index == null) {
+                names.put(name, names.size());
+                writeInt(1);
+                writeText(name);
+            } else {
+                writeInt(index + 2);
+            }
+        }
+    }
+    
+    /**
+     * Start writing binary content. The caller must write the binary data to the returned stream
+     * and then close it (which writes the end marker, but doesn't close the underlying stream).
+     * This method must only be called from {@link #processBinaryCharacterData(Object)}.
+     * 
+     * @param contentType
+     *            the content type of the binary data, or <code>null</code> if unknown
+     * @param optimize
+     *            specifies whether the binary data should be optimized (i.e. sent as an attachment)
+     *            when the infoset is serialized using XOP
+     * @return the stream to write the binary data to
+     * @throws StreamException
+     */
+    protected final OutputStream startBinaryData(String contentType, boolean optimize)
+            throws StreamException {
+        writeByte(BinaryXmlConstants.BINARY);
+        writeByte(optimize ? BinaryXmlConstants.BINARY_OPTIMIZE : 0);
+        writeName(contentType);
+        return binaryOut;
+    }
+    
+    /**
+     * Write the given character data as binary content if applicable. The default implementation
+     * always returns <code>false</code>.
+     * 
+     * @param data
+     *            the character data, as received by
+     *            {@link #processCharacterData(Object, boolean)}
+     * @return <code>true</code> if the data has been written using
+     *         {@link #startBinaryData(String, boolean)}, <code>false</code> if it should be
+     *         written as text
+     * @throws StreamException
+     */
+    protected boolean processBinaryCharacterData(Object data) throws StreamException {
+        return false;
+    }
+    
+    @Override
+    public final void startDocument(String inputEncoding, String xmlVersion, String xmlEncoding,
+            Boolean standalone) throws StreamException {
+        writeByte(BinaryXmlConstants.START_DOCUMENT);
+        writeName(inputEncoding);
+        writeName(xmlVersion);
+        writeName(xmlEncoding);
+        writeByte(standalone == null ? BinaryXmlConstants.STANDALONE_UNSPECIFIED : standalone ? 1 : 0);
+    }
+
+    @Override
+    public final void startFragment() throws StreamException {
+        writeByte(BinaryXmlConstants.START_FRAGMENT);
+    }
+
+    @Override
+    public final void processDocumentTypeDeclaration(String rootName, String publicId,
+            String systemId, String internalSubset) throws StreamException {
+        writeByte(BinaryXmlConstants.DOCUMENT_TYPE_DECLARATION);
+        writeName(rootName);
+        writeName(publicId);
+        writeName(systemId);
+        writeName(internalSubset);
+    }
+
+    @Override
+    public final void startElement(String namespaceURI, String localName, String prefix)
+            throws StreamException {
+        writeByte(BinaryXmlConstants.START_ELEMENT);
+        writeName(namespaceURI);
+        writeName(localName);
+        writeName(prefix);
+    }
+
+    @Override
+    public final void endElement() throws StreamException {
+        writeByte(BinaryXmlConstants.END_ELEMENT);
+    }
+
+    @Override
+    public final void processAttribute(String namespaceURI, String localName, String prefix,
+            String value, String type, boolean specified) throws StreamException {
+        writeByte(BinaryXmlConstants.NS_AWARE_ATTRIBUTE);
+        writeName(namespaceURI);
+        writeName(localName);
+        writeName(prefix);
+        writeText(value);
+        writeName(type);
+        writeByte(specified ? 1 : 0);
+    }
+
+    @Override
+    public final void processAttribute(String name, String value, String type, boolean specified)
+            throws StreamException {
+        writeByte(BinaryXmlConstants.NS_UNAWARE_ATTRIBUTE);
+        writeName(name);
+        writeText(value);
+        writeName(type);
+        writeByte(specified ? 1 : 0);
+    }
+
+    @Override
+    public final void processNamespaceDeclaration(String prefix, String namespaceURI)
+            throws StreamException {
+        writeByte(BinaryXmlConstants.NAMESPACE_DECLARATION);
+        writeName(prefix);
+        writeName(namespaceURI);
+    }
+
+    @Override
+    public final void attributesCompleted() throws StreamException {
+        writeByte(BinaryXmlConstants.ATTRIBUTES_COMPLETED);
+    }
+
+    @Override
+    public final void processCharacterData(Object data, boolean ignorable) throws StreamException {
+        if (ignorable || !processBinaryCharacterData(data)) {
+            writeByte(ignorable ? BinaryXmlConstants.IGNORABLE_CHARACTERS : BinaryXmlConstants.CHARACTERS);
+            writeText(data.toString());
+        }
+    }
+
+    @Override
+    public final void startProcessingInstruction(String target) throws StreamException {
+        writeByte(BinaryXmlConstants.START_PROCESSING_INSTRUCTION);
+        writeName(target);
+    }
+
+    @Override
+    public final void endProcessingInstruction() throws StreamException {
+        writeByte(BinaryXmlConstants.END_PROCESSING_INSTRUCTION);
+    }
+
+    @Override
+    public final void startComment() throws StreamException {
+        writeByte(BinaryXmlConstants.START_COMMENT);
+    }
+
+    @Override
+    public final void endComment() throws StreamException {
+        writeByte(BinaryXmlConstants.END_COMMENT);
+    }
+
+    @Override
+    public final void startCDATASection() throws StreamException {
+        writeByte(BinaryXmlConstants.START_CDATA_SECTION);
+    }
+
+    @Override
+    public final void endCDATASection() throws StreamException {
+        writeByte(BinaryXmlConstants.END_CDATA_SECTION);
+    }
+
+    @Override
+    public final void processEntityReference(String name, String replacementText)
+            throws StreamException {
+        writeByte(BinaryXmlConstants.ENTITY_REFERENCE);
+        writeName(name);
+        writeName(replacementText);
+    }
+
+    @Override
+    public final void completed() throws StreamException {
+        writeByte(BinaryXmlConstants.COMPLETED);
+        flushBuffer();
+    }
+
+    @Override
+    public final boolean drain() throws StreamException {
+        return true;
+    }
+}
@@ -0,0 +1,434 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.buffer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.axiom.core.stream.CharacterData;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+
+/**
+ * Records a stream of events so that it can be replayed any number of times. The events are
+ * stored in a compact form: an <code>int</code> array with the event types and their operands, a
+ * single <code>char</code> array with the character data and attribute values, and a table of the
+ * distinct names, namespace URIs and other strings. Character data that is not a string (such as
+ * {@link CharacterData} instances representing binary content) is stored by reference; it is
+ * assumed to be immutable.
+ * <p>
+ * An instance is filled by sending events to it (typically from another {@link XmlInput} or by
+ * serializing a tree) and is complete once it has received the {@link #completed()} event. It is
+ * then immutable and can be used as an {@link XmlInput}. Any number of readers can be created,
+ * and they can be used concurrently by different threads.
+ */
+public final class XmlEventBuffer implements XmlHandler, XmlInput {
+    static final int START_DOCUMENT = 1;
+    static final int START_FRAGMENT = 2;
+    static final int DOCUMENT_TYPE_DECLARATION = 3;
+    static final int START_ELEMENT = 4;
+    static final int END_ELEMENT = 5;
+    static final int NS_AWARE_ATTRIBUTE = 6;
+    static final int NS_UNAWARE_ATTRIBUTE = 7;
+    static final int NAMESPACE_DECLARATION = 8;
+    static final int ATTRIBUTES_COMPLETED = 9;
+    static final int CHARACTERS = 10;
+    static final int CHARACTER_DATA_OBJECT = 11;
+    static final int START_PROCESSING_INSTRUCTION = 12;
+    static final int END_PROCESSING_INSTRUCTION = 13;
+    static final int START_COMMENT = 14;
+    static final int END_COMMENT = 15;
+    static final int START_CDATA_SECTION = 16;
+    static final int END_CDATA_SECTION = 17;
+    static final int ENTITY_REFERENCE = 18;
+    static final int COMPLETED = 19;
+    
+    private static final class Reader implements XmlReader {
+        private final XmlHandler handler;
+        private final int[] events;
+        private final char[] chars;
+        private final String[] strings;
+        private final Object[] objects;
+        private int position;
+
+        Reader(XmlHandler handler, int[] events, char[] chars, String[] strings,
+                Object[] objects) {
+            this.handler = handler;
+            this.events = events;
+            this.chars = chars;
+            this.strings = strings;
+            this.objects = objects;
+        }
+
+        private String string() {
+            int index = events[position++];
+            return index == -1 ? null : strings[index];
+        }
+
+        private String chars() {
+            int offset = events[position++];
+            int length = events[position++];
+            return new String(chars, offset, length);
+        }
+
+        private boolean flag() {
+            return events[position++] == 1;
+        }
+
+        @Override
+        public boolean proceed() throws StreamException {
+            // An element start tag (including its attributes) is sent in a single invocation; every
+            // other event is sent separately, so that consumers such as StAXPivot can pull one event
+            // at a time.
+            while (true) {
+                switch (events[position++]) {
+                    case START_DOCUMENT: {
+                        String inputEncoding = string();
+                        String xmlVersion = string();
+                        String xmlEncoding = string();
+                        int standalone = events[position++];
+                        handler.startDocument(inputEncoding, xmlVersion, xmlEncoding,
+                                standalone == -1 ? null : Boolean.valueOf(standalone == 1));
+                        return false;
+                    }
+                    case START_FRAGMENT:
+                        handler.startFragment();
+                        return false;
+                    case DOCUMENT_TYPE_DECLARATION:
+                        handler.processDocumentTypeDeclaration(string(), string(), string(), string());
+                        return false;
+                    case START_ELEMENT:
+                        handler.startElement(string(), string(), string());
+                        break;
+                    case END_ELEMENT:
+                        handler.endElement();
+                        return false;
+                    case NS_AWARE_ATTRIBUTE:
+                        handler.processAttribute(string(), string(), string(), chars(), string(), flag());
+                        break;
+                    case NS_UNAWARE_ATTRIBUTE:
+                        handler.processAttribute(string(), chars(), string(), flag());
+                        break;
+                    case NAMESPACE_DECLARATION:
+                        handler.processNamespaceDeclaration(string(), string());
+                        break;
+                    case ATTRIBUTES_COMPLETED:
+                        handler.attributesCompleted();
+                        return false;
+                    case CHARACTERS:
+                        handler.processCharacterData(chars(), flag());
+                        return false;
+                    case CHARACTER_DATA_OBJECT:
+                        handler.processCharacterData(objects[events[position++]], flag());
+                        return false;
+                    case START_PROCESSING_INSTRUCTION:
+                        handler.startProcessingInstruction(string());
+                        return false;
+                    case END_PROCESSING_INSTRUCTION:
+                        handler.endProcessingInstruction();
+                        return false;
+                    case START_COMMENT:
+                        handler.startComment();
+                        return false;
+                    case END_COMMENT:
+                        handler.endComment();
+                        return false;
+                    case START_CDATA_SECTION:
+                        handler.startCDATASection();
+                        return false;
+                    case END_CDATA_SECTION:
+                        handler.endCDATASection();
+                        return false;
+                    case ENTITY_REFERENCE:
+                        handler.processEntityReference(string(), string());
+                        return false;
+                    case COMPLETED:
+                        handler.completed();
+                        return true;
+                    default:
+                        throw new IllegalStateException();
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+        }
+    }
+    
+    private int[] events = new int[64];
+    private int eventsLength;
+    private char[] chars = new char[256];
+    private int charsLength;
+    private String[] strings = new String[16];
+    private int stringCount;
+    private Object[] objects;
+    private int objectCount;
+    
+    /**
+     * Maps strings to their index in {@link #strings}. Only used while recording.
+     */
+    private Map<String,Integer> stringIndexes = new HashMap<String,Integer>();
+    
+    /**
+     * Set once the {@link #completed()} event has been received. This field is volatile so that
+     * readers created by other threads see the final state of the arrays.
+     */
+    private volatile boolean complete;
+
+    /**
+     * Determine whether this buffer has received the {@link #completed()} event and can be
+     * replayed.
+     * 
+     * @return <code>true</code> if the buffer is complete
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+    
+    /**
+     * Get the number of characters stored in this buffer. This includes character data and
+     * attribute values, but not the names and namespace URIs, which are stored only once.
+     * 
+     * @return the number of characters
+     */
+    public int getCharacterCount() {
+        return charsLength;
+    }
+    
+    private void ensureCapacity(int count) {
+        if (complete) {
+            throw new IllegalStateException("The buffer is already complete");
+        }
+        if (eventsLength + count > events.length) {
+            events = Arrays.copyOf(events, Math.max(events.length*2, eventsLength + count));
+        }
+    }
+    
+    private void add(int event) {
+        ensureCapacity(1);
+        events[eventsLength++] = event;
+    }
+    
+    private int stringIndex(String s) {
+        if (s == null) {
+            return -1;
+        }
+        Integer index = stringIndexes.get(s);
+        if (index != null) {
+            return index;
+        }
+        if (stringCount == strings.length) {
+            strings = Arrays.copyOf(strings, stringCount*2);
+        }
+        strings[stringCount] = s;
+        stringIndexes.put(s, stringCount);
+        return stringCount++;
+    }
+    
+    /**
+     * Add the operands identifying a string stored in the character array.
+     */
+    private void addChars(String s) {
+        int length = s.length();
+        if (charsLength + length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length*2, charsLength + length));
+        }
+        s.getChars(0, length, chars, charsLength);
+        events[eventsLength++] = charsLength;
+        events[eventsLength++] = length;
+        charsLength += length;
+    }
+    
+    @Override
+    public void startDocument(String inputEncoding, String xmlVersion, String xmlEncoding,
+            Boolean standalone) throws StreamException {
+        ensureCapacity(5);
+        events[eventsLength++] = START_DOCUMENT;
+        events[eventsLength++] = stringIndex(inputEncoding);
+        events[eventsLength++] = stringIndex(xmlVersion);
+        events[eventsLength++] = stringIndex(xmlEncoding);
+        events[eventsLength++] = standalone == null ? -1 : standalone ? 1 : 0;
+    }
+
+    @Override
+    public void startFragment() throws StreamException {
+        add(START_FRAGMENT);
+    }
+
+    @Override
+    public void processDocumentTypeDeclaration(String rootName, String publicId,
+            String systemId, String internalSubset) throws StreamException {
+        ensureCapacity(5);
+        events[eventsLength++] = DOCUMENT_TYPE_DECLARATION;
+        events[eventsLength++] = stringIndex(rootName);
+        events[eventsLength++] = stringIndex(publicId);
+        events[eventsLength++] = stringIndex(systemId);
+        events[eventsLength++] = stringIndex(internalSubset);
+    }
+
+    @Override
+    public void startElement(String namespaceURI, String localName, String prefix)
+            throws StreamException {
+        ensureCapacity(4);
+        events[eventsLength++] = START_ELEMENT;
+        events[eventsLength++] = stringIndex(namespaceURI);
+        events[eventsLength++] = stringIndex(localName);
+        events[eventsLength++] = stringIndex(prefix);
+    }
+
+    @Override
+    public void endElement() throws StreamException {
+        add(END_ELEMENT);
+    }
+
+    @Override
+    public void processAttribute(String namespaceURI, String localName, String prefix,
+            String value, String type, boolean specified) throws StreamException {
+        ensureCapacity(8);
+        events[eventsLength++] = NS_AWARE_ATTRIBUTE;
+        events[eventsLength++] = stringIndex(namespaceURI);
+        events[eventsLength++] = stringIndex(localName);
+        events[eventsLength++] = stringIndex(prefix);
+        addChars(value);
+        events[eventsLength++] = stringIndex(type);
+        events[eventsLength++] = specified ? 1 : 0;
+    }
+
+    @Override
+    public void processAttribute(String name, String value, String type, boolean specified)
+            throws StreamException {
+        ensureCapacity(6);
+        events[eventsLength++] = NS_UNAWARE_ATTRIBUTE;
+        events[eventsLength++] = stringIndex(name);
+        addChars(value);
+        events[eventsLength++] = stringIndex(type);
+        events[eventsLength++] = specified ? 1 : 0;
+    }
+
+    @Override
+    public void processNamespaceDeclaration(String prefix, String namespaceURI)
+            throws StreamException {
+        ensureCapacity(3);
+        events[eventsLength++] = NAMESPACE_DECLARATION;
+        events[eventsLength++] = stringIndex(prefix);
+        events[eventsLength++] = stringIndex(namespaceURI);
+    }
+
+    @Override
+    public void attributesCompleted() throws StreamException {
+        add(ATTRIBUTES_COMPLETED);
+    }
+
+    @Override
+    public void processCharacterData(Object data, boolean ignorable) throws StreamException {
+        if (data instanceof CharacterData) {
+            ensureCapacity(3);
+            if (objects == null) {
+                objects = new Object[4];
+            } else if (objectCount == objects.length) {
+                objects = Arrays.copyOf(objects, objectCount*2);
+            }
+            objects[objectCount] = data;
+            events[eventsLength++] = CHARACTER_DATA_OBJECT;
+            events[eventsLength++] = objectCount++;
+        } else {
+            ensureCapacity(4);
+            events[eventsLength++] = CHARACTERS;
+            addChars(data.toString());
+        }
+        events[eventsLength++] = ignorable ? 1 : 0;
+    }
+
+    @Override
+    public void startProcessingInstruction(String target) throws StreamException {
+        ensureCapacity(2);
+        events[eventsLength++] = START_PROCESSING_INSTRUCTION;
+        events[eventsLength++] = stringIndex(target);
+    }
+
+    @Override
+    public void endProcessingInstruction() throws StreamException {
+        add(END_PROCESSING_INSTRUCTION);
+    }
+
+    @Override
+    public void startComment() throws StreamException {
+        add(START_COMMENT);
+    }
+
+    @Override
+    public void endComment() throws StreamException {
+        add(END_COMMENT);
+    }
+
+    @Override
+    public void startCDATASection() throws StreamException {
+        add(START_CDATA_SECTION);
+    }
+
+    @Override
+    public void endCDATASection() throws StreamException {
+        add(END_CDATA_SECTION);
+    }
+
+    @Override
+    public void processEntityReference(String name, String replacementText)
+            throws StreamException {
+        ensureCapacity(3);
+        events[eventsLength++] = ENTITY_REFERENCE;
+        events[eventsLength++] = stringIndex(name);
+        events[eventsLength++] = stringIndex(replacementText);
+    }
+
+    @Override
+    public void completed() throws StreamException {
+        add(COMPLETED);
+        events = Arrays.copyOf(events, eventsLength);
+        chars = Arrays.copyOf(chars, charsLength);
+        strings = Arrays.copyOf(strings, stringCount);
+        if (objects != null) {
+            objects = Arrays.copyOf(objects, objectCount);
+        }
+        stringIndexes = null;
+        complete = true;
+    }
+
+    @Override
+    public boolean drain() throws StreamException {
+        return true;
+    }
+
+    /**
+     * Create a reader that replays the recorded events.
+     * 
+     * @throws IllegalStateException
+     *             if the buffer is not complete
+     */
+    @Override
+    public XmlReader createReader(XmlHandler handler) {
+        if (!complete) {
+            throw new IllegalStateException("The buffer is not complete");
+        }
+        return new Reader(handler, events, chars, strings, objects);
+    }
+}
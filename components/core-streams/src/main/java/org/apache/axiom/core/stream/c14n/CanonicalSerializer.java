@@ -0,0 +1,468 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.c14n;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import org.apache.axiom.core.stream.CharacterData;
+import org.apache.axiom.core.stream.CharacterDataSink;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.util.base64.AbstractBase64EncodingOutputStream;
+import org.apache.axiom.util.base64.Base64EncodingWriterOutputStream;
+
+/**
+ * Writes the canonical octet stream of the events it receives, as defined by Canonical XML 1.0:
+ * UTF-8 encoding, empty elements written as start-end tag pairs, attribute values delimited by
+ * double quotes and the character references required by the specification. The events are
+ * expected to have been normalized by a {@link CanonicalizationFilterHandler}; this class doesn't
+ * sort attributes or remove superfluous namespace declarations.
+ * <p>
+ * The output is written to an {@link OutputStream}, to a {@link Writer} (in which case the
+ * UTF-8 encoding step is skipped) or directly to a {@link MessageDigest}, so that the digest of
+ * the canonical form can be computed without buffering it.
+ */
+public final class CanonicalSerializer implements XmlHandler {
+    private static final int TEXT = 0;
+    private static final int ATTRIBUTE = 1;
+    private static final int RAW = 2;
+    
+    private final OutputStream out;
+    private final Writer textOut;
+    private final MessageDigest digest;
+    private final byte[] buffer;
+    private final char[] charBuffer;
+    private int length;
+    
+    private String[] prefixes = new String[16];
+    private String[] localNames = new String[16];
+    private int depth;
+    
+    private int context = TEXT;
+    
+    /**
+     * Set at the start of a processing instruction. The space between the target and the data is
+     * only written if the data is not empty.
+     */
+    private boolean processingInstructionDataPending;
+    
+    private char highSurrogate;
+    
+    private final Writer writer = new Writer() {
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            try {
+                CanonicalSerializer.this.write(cbuf, off, len);
+            } catch (StreamException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            try {
+                CanonicalSerializer.this.write(str, off, len);
+            } catch (StreamException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+    
+    private final CharacterDataSink sink = new CharacterDataSink() {
+        @Override
+        public Writer getWriter() {
+            return writer;
+        }
+        
+        @Override
+        public AbstractBase64EncodingOutputStream getBase64EncodingOutputStream() {
+            return new Base64EncodingWriterOutputStream(writer, 4096, true);
+        }
+    };
+
+    /**
+     * Create a serializer that writes the canonical form to an output stream. The stream is not
+     * closed when the end of the document is reached.
+     * 
+     * @param out
+     *            the output stream
+     */
+    public CanonicalSerializer(OutputStream out) {
+        this.out = out;
+        textOut = null;
+        digest = null;
+        buffer = new byte[4096];
+        charBuffer = null;
+    }
+
+    /**
+     * Create a serializer that writes the canonical form as a character stream. The writer is not
+     * closed when the end of the document is reached.
+     * 
+     * @param out
+     *            the writer
+     */
+    public CanonicalSerializer(Writer out) {
+        this.out = null;
+        textOut = out;
+        digest = null;
+        buffer = null;
+        charBuffer = new char[4096];
+    }
+
+    /**
+     * Create a serializer that updates a message digest with the canonical form.
+     * 
+     * @param digest
+     *            the message digest
+     */
+    public CanonicalSerializer(MessageDigest digest) {
+        out = null;
+        textOut = null;
+        this.digest = digest;
+        buffer = new byte[4096];
+        charBuffer = null;
+    }
+
+    private void flushBuffer() throws StreamException {
+        try {
+            if (out != null) {
+                out.write(buffer, 0, length);
+            } else if (textOut != null) {
+                textOut.write(charBuffer, 0, length);
+            } else {
+                digest.update(buffer, 0, length);
+            }
+        } catch (IOException ex) {
+            throw new StreamException(ex);
+        }
+        length = 0;
+    }
+    
+    /**
+     * Write a single code unit: a byte of the UTF-8 encoding, or a UTF-16 code unit if the output
+     * is a {@link Writer}.
+     */
+    private void writeByte(int b) throws StreamException {
+        if (charBuffer != null) {
+            if (length == charBuffer.length) {
+                flushBuffer();
+            }
+            charBuffer[length++] = (char)b;
+        } else {
+            if (length == buffer.length) {
+                flushBuffer();
+            }
+            buffer[length++] = (byte)b;
+        }
+    }
+    
+    private void writeASCII(String s) throws StreamException {
+        for (int i=0, l=s.length(); i<l; i++) {
+            writeByte(s.charAt(i));
+        }
+    }
+    
+    private void writeCodePoint(int c) throws StreamException {
+        if (charBuffer != null) {
+            if (c < 0x10000) {
+                writeByte(c);
+            } else {
+                writeByte(Character.highSurrogate(c));
+                writeByte(Character.lowSurrogate(c));
+            }
+        } else if (c < 0x80) {
+            writeByte(c);
+        } else if (c < 0x800) {
+            writeByte(0xC0 | (c >> 6));
+            writeByte(0x80 | (c & 0x3F));
+        } else if (c < 0x10000) {
+            writeByte(0xE0 | (c >> 12));
+            writeByte(0x80 | ((c >> 6) & 0x3F));
+            writeByte(0x80 | (c & 0x3F));
+        } else {
+            writeByte(0xF0 | (c >> 18));
+            writeByte(0x80 | ((c >> 12) & 0x3F));
+            writeByte(0x80 | ((c >> 6) & 0x3F));
+            writeByte(0x80 | (c & 0x3F));
+        }
+    }
+    
+    private void write(char c) throws StreamException {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                writeCodePoint(Character.toCodePoint(high, c));
+                return;
+            } else {
+                throw new StreamException("Unpaired surrogate");
+            }
+        }
+        switch (c) {
+            case '&':
+                if (context != RAW) {
+                    writeASCII("&amp;");
+                    return;
+                }
+                break;
+            case '<':
+                if (context != RAW) {
+                    writeASCII("&lt;");
+                    return;
+                }
+                break;
+            case '>':
+                if (context == TEXT) {
+                    writeASCII("&gt;");
+                    return;
+                }
+                break;
+            case '"':
+                if (context == ATTRIBUTE) {
+                    writeASCII("&quot;");
+                    return;
+                }
+                break;
+            case '\t':
+                if (context == ATTRIBUTE) {
+                    writeASCII("&#x9;");
+                    return;
+                }
+                break;
+            case '\n':
+                if (context == ATTRIBUTE) {
+                    writeASCII("&#xA;");
+                    return;
+                }
+                break;
+            case '\r':
+                if (context != RAW) {
+                    writeASCII("&#xD;");
+                    return;
+                }
+                break;
+        }
+        if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else {
+            writeCodePoint(c);
+        }
+    }
+    
+    void write(char[] cbuf, int off, int len) throws StreamException {
+        if (len > 0) {
+            startProcessingInstructionData();
+        }
+        for (int i=0; i<len; i++) {
+            write(cbuf[off+i]);
+        }
+    }
+    
+    void write(String s, int off, int len) throws StreamException {
+        if (len > 0) {
+            startProcessingInstructionData();
+        }
+        for (int i=0; i<len; i++) {
+            write(s.charAt(off+i));
+        }
+    }
+    
+    private void write(String s) throws StreamException {
+        write(s, 0, s.length());
+    }
+    
+    private void startProcessingInstructionData() throws StreamException {
+        if (processingInstructionDataPending) {
+            processingInstructionDataPending = false;
+            writeByte(' ');
+        }
+    }
+    
+    private void writeName(String prefix, String localName) throws StreamException {
+        if (prefix.length() > 0) {
+            write(prefix);
+            writeByte(':');
+        }
+        write(localName);
+    }
+    
+    @Override
+    public void startDocument(String inputEncoding, String xmlVersion, String xmlEncoding,
+            Boolean standalone) throws StreamException {
+    }
+
+    @Override
+    public void startFragment() throws StreamException {
+    }
+
+    @Override
+    public void processDocumentTypeDeclaration(String rootName, String publicId,
+            String systemId, String internalSubset) throws StreamException {
+    }
+
+    @Override
+    public void startElement(String namespaceURI, String localName, String prefix)
+            throws StreamException {
+        if (depth == prefixes.length) {
+            prefixes = Arrays.copyOf(prefixes, depth*2);
+            localNames = Arrays.copyOf(localNames, depth*2);
+        }
+        prefixes[depth] = prefix;
+        localNames[depth] = localName;
+        depth++;
+        writeByte('<');
+        writeName(prefix, localName);
+    }
+
+    @Override
+    public void endElement() throws StreamException {
+        depth--;
+        writeByte('<');
+        writeByte('/');
+        writeName(prefixes[depth], localNames[depth]);
+        writeByte('>');
+        prefixes[depth] = null;
+        localNames[depth] = null;
+        if (depth == 0) {
+            // There is no completed event if an element is serialized on its own
+            flushBuffer();
+        }
+    }
+
+    private void writeAttributeValue(String value) throws StreamException {
+        writeByte('=');
+        writeByte('"');
+        context = ATTRIBUTE;
+        write(value);
+        context = TEXT;
+        writeByte('"');
+    }
+    
+    @Override
+    public void processAttribute(String namespaceURI, String localName, String prefix,
+            String value, String type, boolean specified) throws StreamException {
+        writeByte(' ');
+        writeName(prefix, localName);
+        writeAttributeValue(value);
+    }
+
+    @Override
+    public void processAttribute(String name, String value, String type, boolean specified)
+            throws StreamException {
+        writeByte(' ');
+        write(name);
+        writeAttributeValue(value);
+    }
+
+    @Override
+    public void processNamespaceDeclaration(String prefix, String namespaceURI)
+            throws StreamException {
+        writeASCII(" xmlns");
+        if (prefix.length() > 0) {
+            writeByte(':');
+            write(prefix);
+        }
+        writeAttributeValue(namespaceURI);
+    }
+
+    @Override
+    public void attributesCompleted() throws StreamException {
+        writeByte('>');
+    }
+
+    @Override
+    public void processCharacterData(Object data, boolean ignorable) throws StreamException {
+        if (data instanceof CharacterData) {
+            try {
+                ((CharacterData)data).writeTo(sink);
+            } catch (IOException ex) {
+                throw new StreamException(ex);
+            }
+        } else {
+            write(data.toString());
+        }
+    }
+
+    @Override
+    public void startProcessingInstruction(String target) throws StreamException {
+        writeASCII("<?");
+        write(target);
+        context = RAW;
+        processingInstructionDataPending = true;
+    }
+
+    @Override
+    public void endProcessingInstruction() throws StreamException {
+        processingInstructionDataPending = false;
+        context = TEXT;
+        writeASCII("?>");
+    }
+
+    @Override
+    public void startComment() throws StreamException {
+        writeASCII("<!--");
+        context = RAW;
+    }
+
+    @Override
+    public void endComment() throws StreamException {
+        context = TEXT;
+        writeASCII("-->");
+    }
+
+    @Override
+    public void startCDATASection() throws StreamException {
+    }
+
+    @Override
+    public void endCDATASection() throws StreamException {
+    }
+
+    @Override
+    public void processEntityReference(String name, String replacementText)
+            throws StreamException {
+        if (replacementText == null) {
+            throw new StreamException("Unable to canonicalize unexpanded entity reference " + name);
+        }
+        write(replacementText);
+    }
+
+    @Override
+    public void completed() throws StreamException {
+        flushBuffer();
+    }
+
+    @Override
+    public boolean drain() throws StreamException {
+        return true;
+    }
+}
@@ -0,0 +1,479 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.c14n;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.xml.XMLConstants;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlHandlerWrapper;
+
+/**
+ * Filter handler that transforms a stream of events into the events of its canonical form, as
+ * defined by Canonical XML 1.0 or Exclusive XML Canonicalization 1.0. It takes care of the aspects
+ * of canonicalization that are defined at the level of the data model:
+ * <ul>
+ * <li>the XML declaration and the document type declaration are removed;
+ * <li>CDATA sections are replaced by their character content and entity references by their
+ * replacement text;
+ * <li>comments are removed, unless a method with comments is used;
+ * <li>namespace declarations are only emitted where they are rendered, i.e. where they are
+ * visibly utilized (exclusive canonicalization) or where they change the namespace context of
+ * the output (inclusive canonicalization);
+ * <li>namespace declarations are sorted by prefix and attributes by namespace URI and local name;
+ * <li>whitespace outside of the document element is removed and line breaks are inserted between
+ * the top level nodes of a document.
+ * </ul>
+ * <p>
+ * The resulting events can be sent to any handler, e.g. a
+ * {@link org.apache.axiom.core.stream.serializer.Serializer}. To produce the exact octet stream
+ * defined by the specifications (character escaping, empty elements, encoding), send them to a
+ * {@link CanonicalSerializer}, which can also feed a {@link java.security.MessageDigest}
+ * directly.
+ * <p>
+ * When an element subtree is canonicalized with inclusive canonicalization, the namespace
+ * declarations in scope at the apex element must be included in the events for that element and
+ * the attributes in the <code>xml</code> namespace of its ancestors must be registered using
+ * {@link #addInheritedXmlAttribute(String, String)}.
+ */
+public final class CanonicalizationFilterHandler extends XmlHandlerWrapper {
+    /**
+     * A stack of namespace bindings with one scope per element.
+     */
+    private static final class NamespaceStack {
+        String[] prefixes = new String[16];
+        String[] namespaceURIs = new String[16];
+        int count;
+        int[] scopes = new int[16];
+        
+        void enterScope(int depth) {
+            if (depth == scopes.length) {
+                scopes = Arrays.copyOf(scopes, depth*2);
+            }
+            scopes[depth] = count;
+        }
+        
+        void exitScope(int depth) {
+            for (int i=scopes[depth]; i<count; i++) {
+                prefixes[i] = null;
+                namespaceURIs[i] = null;
+            }
+            count = scopes[depth];
+        }
+        
+        void add(String prefix, String namespaceURI) {
+            if (count == prefixes.length) {
+                prefixes = Arrays.copyOf(prefixes, count*2);
+                namespaceURIs = Arrays.copyOf(namespaceURIs, count*2);
+            }
+            prefixes[count] = prefix;
+            namespaceURIs[count] = namespaceURI;
+            count++;
+        }
+        
+        int indexOf(String prefix, int start) {
+            for (int i=count-1; i>=start; i--) {
+                if (prefixes[i].equals(prefix)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        
+        String lookup(String prefix) {
+            int index = indexOf(prefix, 0);
+            return index == -1 ? null : namespaceURIs[index];
+        }
+    }
+    
+    private final boolean exclusive;
+    private final boolean withComments;
+    private final Set<String> inclusivePrefixes;
+    
+    private boolean document;
+    private int depth;
+    private boolean documentElementSeen;
+    
+    /**
+     * Indicates that we are inside a processing instruction or a comment that is preserved.
+     */
+    private boolean inLeafNode;
+    
+    /**
+     * Indicates that we are inside a comment that is removed.
+     */
+    private boolean inRemovedComment;
+    
+    /**
+     * The namespace bindings in scope in the input.
+     */
+    private final NamespaceStack inScope = new NamespaceStack();
+    
+    /**
+     * The namespace bindings rendered in the output.
+     */
+    private final NamespaceStack rendered = new NamespaceStack();
+    
+    private String elementNamespaceURI;
+    private String elementLocalName;
+    private String elementPrefix;
+    
+    private String[] declaredPrefixes = new String[8];
+    private String[] declaredNamespaceURIs = new String[8];
+    private int declarationCount;
+    
+    private String[] attributeNamespaceURIs = new String[8];
+    private String[] attributeLocalNames = new String[8];
+    private String[] attributePrefixes = new String[8];
+    private String[] attributeValues = new String[8];
+    private String[] attributeTypes = new String[8];
+    private boolean[] attributeSpecified = new boolean[8];
+    private int[] attributeOrder = new int[8];
+    private int attributeCount;
+    
+    private String[] inheritedXmlAttributeNames = new String[0];
+    private String[] inheritedXmlAttributeValues = new String[0];
+
+    /**
+     * Constructor.
+     * 
+     * @param parent
+     *            the handler to send the canonicalized events to
+     * @param method
+     *            the canonicalization method
+     * @param inclusivePrefixes
+     *            for exclusive canonicalization, the prefixes in the <code>PrefixList</code> of the
+     *            <code>InclusiveNamespaces</code> parameter, with the empty string representing
+     *            the default namespace; may be <code>null</code>; ignored for inclusive
+     *            canonicalization
+     */
+    public CanonicalizationFilterHandler(XmlHandler parent, CanonicalizationMethod method,
+            Set<String> inclusivePrefixes) {
+        super(parent);
+        exclusive = method.isExclusive();
+        withComments = method.isWithComments();
+        this.inclusivePrefixes = inclusivePrefixes == null || !exclusive
+                ? Collections.<String>emptySet() : inclusivePrefixes;
+    }
+
+    /**
+     * Register an attribute in the <code>xml</code> namespace that is inherited by the apex
+     * element from one of its ancestors. For inclusive canonicalization, the attribute is added to
+     * the apex element unless that element has an attribute with the same name. For exclusive
+     * canonicalization, this method has no effect.
+     * 
+     * @param localName
+     *            the local name of the attribute, e.g. <code>lang</code>
+     * @param value
+     *            the value of the attribute
+     */
+    public void addInheritedXmlAttribute(String localName, String value) {
+        if (!exclusive) {
+            int count = inheritedXmlAttributeNames.length;
+            inheritedXmlAttributeNames = Arrays.copyOf(inheritedXmlAttributeNames, count+1);
+            inheritedXmlAttributeValues = Arrays.copyOf(inheritedXmlAttributeValues, count+1);
+            inheritedXmlAttributeNames[count] = localName;
+            inheritedXmlAttributeValues[count] = value;
+        }
+    }
+
+    @Override
+    public void startDocument(String inputEncoding, String xmlVersion, String xmlEncoding,
+            Boolean standalone) throws StreamException {
+        document = true;
+        // The canonical form has no XML declaration
+        super.startFragment();
+    }
+
+    @Override
+    public void processDocumentTypeDeclaration(String rootName, String publicId,
+            String systemId, String internalSubset) throws StreamException {
+        // The document type declaration is removed
+    }
+
+    @Override
+    public void startElement(String namespaceURI, String localName, String prefix)
+            throws StreamException {
+        depth++;
+        elementNamespaceURI = namespaceURI;
+        elementLocalName = localName;
+        elementPrefix = prefix;
+    }
+
+    @Override
+    public void processNamespaceDeclaration(String prefix, String namespaceURI)
+            throws StreamException {
+        if (declarationCount == declaredPrefixes.length) {
+            declaredPrefixes = Arrays.copyOf(declaredPrefixes, declarationCount*2);
+            declaredNamespaceURIs = Arrays.copyOf(declaredNamespaceURIs, declarationCount*2);
+        }
+        declaredPrefixes[declarationCount] = prefix;
+        declaredNamespaceURIs[declarationCount] = namespaceURI;
+        declarationCount++;
+    }
+
+    private void addAttribute(String namespaceURI, String localName, String prefix,
+            String value, String type, boolean specified) {
+        if (attributeCount == attributeValues.length) {
+            int newLength = attributeCount*2;
+            attributeNamespaceURIs = Arrays.copyOf(attributeNamespaceURIs, newLength);
+            attributeLocalNames = Arrays.copyOf(attributeLocalNames, newLength);
+            attributePrefixes = Arrays.copyOf(attributePrefixes, newLength);
+            attributeValues = Arrays.copyOf(attributeValues, newLength);
+            attributeTypes = Arrays.copyOf(attributeTypes, newLength);
+            attributeSpecified = Arrays.copyOf(attributeSpecified, newLength);
+            attributeOrder = new int[newLength];
+        }
+        attributeNamespaceURIs[attributeCount] = namespaceURI;
+        attributeLocalNames[attributeCount] = localName;
+        attributePrefixes[attributeCount] = prefix;
+        attributeValues[attributeCount] = value;
+        attributeTypes[attributeCount] = type;
+        attributeSpecified[attributeCount] = specified;
+        attributeCount++;
+    }
+    
+    @Override
+    public void processAttribute(String namespaceURI, String localName, String prefix,
+            String value, String type, boolean specified) throws StreamException {
+        addAttribute(namespaceURI, localName, prefix, value, type, specified);
+    }
+
+    @Override
+    public void processAttribute(String name, String value, String type, boolean specified)
+            throws StreamException {
+        addAttribute("", name, "", value, type, specified);
+    }
+
+    /**
+     * Render a namespace binding on the current element if it differs from the binding rendered
+     * by the output ancestors.
+     */
+    private void render(String prefix, String namespaceURI) {
+        if (prefix.equals(XMLConstants.XML_NS_PREFIX)
+                || rendered.indexOf(prefix, rendered.scopes[depth]) != -1) {
+            return;
+        }
+        String current = rendered.lookup(prefix);
+        if (namespaceURI.length() == 0) {
+            // xmlns="" is only rendered if it undeclares a default namespace of an output ancestor
+            if (prefix.length() == 0 && current != null && current.length() > 0) {
+                rendered.add(prefix, namespaceURI);
+            }
+        } else if (!namespaceURI.equals(current)) {
+            rendered.add(prefix, namespaceURI);
+        }
+    }
+    
+    private int compareAttributes(int i1, int i2) {
+        int result = attributeNamespaceURIs[i1].compareTo(attributeNamespaceURIs[i2]);
+        return result != 0 ? result : attributeLocalNames[i1].compareTo(attributeLocalNames[i2]);
+    }
+    
+    @Override
+    public void attributesCompleted() throws StreamException {
+        inScope.enterScope(depth);
+        for (int i=0; i<declarationCount; i++) {
+            inScope.add(declaredPrefixes[i], declaredNamespaceURIs[i]);
+        }
+        rendered.enterScope(depth);
+        if (exclusive) {
+            render(elementPrefix, elementNamespaceURI);
+            for (int i=0; i<attributeCount; i++) {
+                String prefix = attributePrefixes[i];
+                if (prefix.length() > 0) {
+                    render(prefix, attributeNamespaceURIs[i]);
+                }
+            }
+            for (String prefix : inclusivePrefixes) {
+                String namespaceURI = inScope.lookup(prefix);
+                if (namespaceURI != null) {
+                    render(prefix, namespaceURI);
+                }
+            }
+        } else {
+            for (int i=0; i<declarationCount; i++) {
+                render(declaredPrefixes[i], declaredNamespaceURIs[i]);
+            }
+            if (depth == 1) {
+                for (int i=0; i<inheritedXmlAttributeNames.length; i++) {
+                    String localName = inheritedXmlAttributeNames[i];
+                    boolean found = false;
+                    for (int j=0; j<attributeCount; j++) {
+                        if (attributeLocalNames[j].equals(localName)
+                                && attributeNamespaceURIs[j].equals(XMLConstants.XML_NS_URI)) {
+                            found = true;
+                            break;
+                        }
+                    }
+                    if (!found) {
+                        addAttribute(XMLConstants.XML_NS_URI, localName, XMLConstants.XML_NS_PREFIX,
+                                inheritedXmlAttributeValues[i], "CDATA", true);
+                    }
+                }
+            }
+        }
+        super.startElement(elementNamespaceURI, elementLocalName, elementPrefix);
+        // Namespace declarations are sorted by prefix, i.e. the default namespace comes first
+        int start = rendered.scopes[depth];
+        for (int i=start+1; i<rendered.count; i++) {
+            String prefix = rendered.prefixes[i];
+            String namespaceURI = rendered.namespaceURIs[i];
+            int j = i;
+            while (j > start && rendered.prefixes[j-1].compareTo(prefix) > 0) {
+                rendered.prefixes[j] = rendered.prefixes[j-1];
+                rendered.namespaceURIs[j] = rendered.namespaceURIs[j-1];
+                j--;
+            }
+            rendered.prefixes[j] = prefix;
+            rendered.namespaceURIs[j] = namespaceURI;
+        }
+        for (int i=start; i<rendered.count; i++) {
+            super.processNamespaceDeclaration(rendered.prefixes[i], rendered.namespaceURIs[i]);
+        }
+        // Attributes are sorted by namespace URI and local name; attributes without namespace
+        // come first
+        for (int i=0; i<attributeCount; i++) {
+            int j = i;
+            while (j > 0 && compareAttributes(attributeOrder[j-1], i) > 0) {
+                attributeOrder[j] = attributeOrder[j-1];
+                j--;
+            }
+            attributeOrder[j] = i;
+        }
+        for (int i=0; i<attributeCount; i++) {
+            int index = attributeOrder[i];
+            super.processAttribute(attributeNamespaceURIs[index], attributeLocalNames[index],
+                    attributePrefixes[index], attributeValues[index], attributeTypes[index],
+                    attributeSpecified[index]);
+        }
+        super.attributesCompleted();
+        Arrays.fill(declaredPrefixes, 0, declarationCount, null);
+        Arrays.fill(declaredNamespaceURIs, 0, declarationCount, null);
+        declarationCount = 0;
+        Arrays.fill(attributeNamespaceURIs, 0, attributeCount, null);
+        Arrays.fill(attributeLocalNames, 0, attributeCount, null);
+        Arrays.fill(attributePrefixes, 0, attributeCount, null);
+        Arrays.fill(attributeValues, 0, attributeCount, null);
+        Arrays.fill(attributeTypes, 0, attributeCount, null);
+        attributeCount = 0;
+        elementNamespaceURI = null;
+        elementLocalName = null;
+        elementPrefix = null;
+    }
+
+    @Override
+    public void endElement() throws StreamException {
+        rendered.exitScope(depth);
+        inScope.exitScope(depth);
+        depth--;
+        if (depth == 0) {
+            documentElementSeen = true;
+        }
+        super.endElement();
+    }
+
+    @Override
+    public void processCharacterData(Object data, boolean ignorable) throws StreamException {
+        if (inLeafNode) {
+            super.processCharacterData(data, ignorable);
+        } else if (!inRemovedComment && depth > 0) {
+            // Character data outside of the document element is removed
+            super.processCharacterData(data, false);
+        }
+    }
+
+    /**
+     * Called before a processing instruction or comment is emitted.
+     */
+    private void beforeTopLevelNode() throws StreamException {
+        if (document && depth == 0 && documentElementSeen) {
+            super.processCharacterData("\n", false);
+        }
+    }
+    
+    /**
+     * Called after a processing instruction or comment has been emitted.
+     */
+    private void afterTopLevelNode() throws StreamException {
+        if (document && depth == 0 && !documentElementSeen) {
+            super.processCharacterData("\n", false);
+        }
+    }
+    
+    @Override
+    public void startProcessingInstruction(String target) throws StreamException {
+        beforeTopLevelNode();
+        super.startProcessingInstruction(target);
+        inLeafNode = true;
+    }
+
+    @Override
+    public void endProcessingInstruction() throws StreamException {
+        inLeafNode = false;
+        super.endProcessingInstruction();
+        afterTopLevelNode();
+    }
+
+    @Override
+    public void startComment() throws StreamException {
+        if (withComments) {
+            beforeTopLevelNode();
+            super.startComment();
+            inLeafNode = true;
+        } else {
+            inRemovedComment = true;
+        }
+    }
+
+    @Override
+    public void endComment() throws StreamException {
+        if (withComments) {
+            inLeafNode = false;
+            super.endComment();
+            afterTopLevelNode();
+        } else {
+            inRemovedComment = false;
+        }
+    }
+
+    @Override
+    public void startCDATASection() throws StreamException {
+        // CDATA sections are replaced by their content
+    }
+
+    @Override
+    public void endCDATASection() throws StreamException {
+    }
+
+    @Override
+    public void processEntityReference(String name, String replacementText)
+            throws StreamException {
+        if (replacementText == null) {
+            throw new StreamException("Unable to canonicalize unexpanded entity reference " + name);
+        }
+        if (depth > 0) {
+            super.processCharacterData(replacementText, false);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.c14n;
+
+/**
+ * The canonicalization methods supported by {@link CanonicalizationFilterHandler}.
+ */
+public enum CanonicalizationMethod {
+    /**
+     * Canonical XML 1.0 without comments.
+     */
+    C14N("http://www.w3.org/TR/2001/REC-xml-c14n-20010315", false, false),
+    
+    /**
+     * Canonical XML 1.0 with comments.
+     */
+    C14N_WITH_COMMENTS("http://www.w3.org/TR/2001/REC-xml-c14n-20010315#WithComments", false, true),
+    
+    /**
+     * Exclusive XML Canonicalization 1.0 without comments.
+     */
+    EXC_C14N("http://www.w3.org/2001/10/xml-exc-c14n#", true, false),
+    
+    /**
+     * Exclusive XML Canonicalization 1.0 with comments.
+     */
+    EXC_C14N_WITH_COMMENTS("http://www.w3.org/2001/10/xml-exc-c14n#WithComments", true, true);
+    
+    private final String uri;
+    private final boolean exclusive;
+    private final boolean withComments;
+    
+    private CanonicalizationMethod(String uri, boolean exclusive, boolean withComments) {
+        this.uri = uri;
+        this.exclusive = exclusive;
+        this.withComments = withComments;
+    }
+
+    /**
+     * Get the URI that identifies this canonicalization method in XML Signature.
+     * 
+     * @return the algorithm URI
+     */
+    public String getURI() {
+        return uri;
+    }
+
+    /**
+     * Determine whether this is an exclusive canonicalization method, i.e. whether only visibly
+     * utilized namespaces are rendered.
+     * 
+     * @return <code>true</code> for exclusive canonicalization
+     */
+    public boolean isExclusive() {
+        return exclusive;
+    }
+
+    /**
+     * Determine whether comments are included in the canonical form.
+     * 
+     * @return <code>true</code> if comments are included
+     */
+    public boolean isWithComments() {
+        return withComments;
+    }
+    
+    /**
+     * Get the canonicalization method identified by the given URI.
+     * 
+     * @param uri
+     *            the algorithm URI
+     * @return the canonicalization method
+     * @throws IllegalArgumentException
+     *             if the URI doesn't identify a supported canonicalization method
+     */
+    public static CanonicalizationMethod forURI(String uri) {
+        for (CanonicalizationMethod method : values()) {
+            if (method.uri.equals(uri)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported canonicalization method " + uri);
+    }
+}
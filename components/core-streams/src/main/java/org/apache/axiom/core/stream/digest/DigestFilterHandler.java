@@ -0,0 +1,491 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.digest;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.apache.axiom.core.stream.CharacterData;
+import org.apache.axiom.core.stream.CharacterDataSink;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlHandlerWrapper;
+import org.apache.axiom.util.base64.AbstractBase64EncodingOutputStream;
+import org.apache.axiom.util.base64.Base64EncodingWriterOutputStream;
+
+/**
+ * Filter handler that computes the DOMHASH digest (RFC 2803) of the events it receives, in the
+ * same way as <code>org.apache.axiom.om.util.DigestGenerator</code> does for an object model
+ * tree. The result is the digest of the tree that a builder would create from the same events:
+ * <ul>
+ * <li>Every {@link #processCharacterData(Object, boolean)} event is a separate text node.
+ * Ignorable whitespace and CDATA sections are counted as children of their parent element, but
+ * don't contribute to its digest.
+ * <li>Comments, entity references and the document type declaration are ignored.
+ * <li>Namespace declarations are ignored and attributes are sorted by expanded name.
+ * </ul>
+ * <p>
+ * The handler keeps one {@link MessageDigest} and one buffer for the digests of the children per
+ * element nesting level, as well as a {@link MessageDigest} for leaf nodes. These are reused for
+ * all elements at the same level, so that the amount of memory allocated doesn't depend on the
+ * size of the document. Events are passed unchanged to the parent handler.
+ */
+public final class DigestFilterHandler extends XmlHandlerWrapper {
+    private static final int CHUNK_SIZE = 256;
+    
+    private final String algorithm;
+    private final MessageDigest leafDigest;
+    private final int digestLength;
+    
+    /**
+     * The digests of the open elements, indexed by depth. Index 0 is used for the document.
+     */
+    private MessageDigest[] digests = new MessageDigest[8];
+    
+    /**
+     * The digests of the children of the open elements, indexed by depth. They are only written
+     * to {@link #digests} when the element ends because DOMHASH puts the number of children first.
+     */
+    private byte[][] childDigests = new byte[8][];
+    private int[] childDigestsLength = new int[8];
+    private int[] childCount = new int[8];
+    private int depth;
+    
+    private boolean document;
+    private byte[] result;
+    
+    private String[] attributeNamespaceURIs = new String[8];
+    private String[] attributeLocalNames = new String[8];
+    private String[] attributeValues = new String[8];
+    private int[] attributeOrder = new int[8];
+    private int attributeCount;
+    
+    /**
+     * The message digest to which character data is currently written, or <code>null</code> if
+     * character data is ignored.
+     */
+    private MessageDigest characterDataDigest;
+    private boolean inProcessingInstruction;
+    private boolean inComment;
+    private boolean inCDATASection;
+    
+    private final byte[] bytes = new byte[CHUNK_SIZE*2];
+    private final char[] chars = new char[CHUNK_SIZE];
+    private final byte[] intBytes = new byte[4];
+    
+    private final Writer writer = new Writer() {
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            update(characterDataDigest, cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            update(characterDataDigest, str, off, len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+    
+    private final CharacterDataSink sink = new CharacterDataSink() {
+        @Override
+        public Writer getWriter() {
+            return writer;
+        }
+        
+        @Override
+        public AbstractBase64EncodingOutputStream getBase64EncodingOutputStream() {
+            return new Base64EncodingWriterOutputStream(writer, CHUNK_SIZE, true);
+        }
+    };
+    
+    /**
+     * Constructor.
+     * 
+     * @param parent
+     *            the handler to pass the events to; use
+     *            {@link org.apache.axiom.core.stream.NullXmlHandler#INSTANCE} if the digest is
+     *            the only thing that needs to be computed
+     * @param algorithm
+     *            the name of the digest algorithm
+     * @throws NoSuchAlgorithmException
+     *             if the algorithm is not supported
+     */
+    public DigestFilterHandler(XmlHandler parent, String algorithm) throws NoSuchAlgorithmException {
+        super(parent);
+        this.algorithm = algorithm;
+        leafDigest = MessageDigest.getInstance(algorithm);
+        digestLength = leafDigest.getDigestLength();
+        digests[0] = MessageDigest.getInstance(algorithm, leafDigest.getProvider());
+        childDigests[0] = new byte[digestLength*4];
+    }
+
+    /**
+     * Get the computed digest. If the events describe a document, this is the digest of the
+     * document and it is available after {@link #completed()} has been called. Otherwise it is the
+     * digest of the first top level node.
+     * 
+     * @return the digest
+     * @throws IllegalStateException
+     *             if no digest has been computed yet
+     */
+    public byte[] getDigest() {
+        if (result == null && !document && childDigestsLength[0] >= digestLength) {
+            result = Arrays.copyOf(childDigests[0], digestLength);
+        }
+        if (result == null) {
+            throw new IllegalStateException();
+        }
+        return result;
+    }
+
+    private static void update(MessageDigest md, int b0, int b1, int b2, int b3) {
+        md.update((byte)b0);
+        md.update((byte)b1);
+        md.update((byte)b2);
+        md.update((byte)b3);
+    }
+    
+    private void updateInt(MessageDigest md, int value) {
+        intBytes[0] = (byte)(value >>> 24);
+        intBytes[1] = (byte)(value >>> 16);
+        intBytes[2] = (byte)(value >>> 8);
+        intBytes[3] = (byte)value;
+        md.update(intBytes);
+    }
+    
+    /**
+     * Write characters to a message digest using the UTF-16BE encoding (without byte order mark),
+     * as required by DOMHASH.
+     */
+    void update(MessageDigest md, char[] cbuf, int off, int len) {
+        while (len > 0) {
+            int count = Math.min(len, CHUNK_SIZE);
+            for (int i=0, j=0; i<count; i++) {
+                char c = cbuf[off+i];
+                bytes[j++] = (byte)(c >>> 8);
+                bytes[j++] = (byte)c;
+            }
+            md.update(bytes, 0, count*2);
+            off += count;
+            len -= count;
+        }
+    }
+    
+    void update(MessageDigest md, String s, int off, int len) {
+        while (len > 0) {
+            int count = Math.min(len, CHUNK_SIZE);
+            s.getChars(off, off+count, chars, 0);
+            update(md, chars, 0, count);
+            off += count;
+            len -= count;
+        }
+    }
+    
+    private void update(MessageDigest md, String s) {
+        update(md, s, 0, s.length());
+    }
+    
+    private void updateExpandedName(MessageDigest md, String namespaceURI, String localName) {
+        if (namespaceURI != null && namespaceURI.length() > 0) {
+            update(md, namespaceURI);
+            // ':' encoded as UTF-16BE
+            md.update((byte)0);
+            md.update((byte)':');
+        }
+        update(md, localName);
+    }
+    
+    /**
+     * Complete the given message digest and add the result to the children of the element at the
+     * current depth.
+     */
+    private void addChildDigest(MessageDigest md) throws StreamException {
+        byte[] buffer = childDigests[depth];
+        int length = childDigestsLength[depth];
+        if (buffer.length - length < digestLength) {
+            buffer = Arrays.copyOf(buffer, buffer.length*2);
+            childDigests[depth] = buffer;
+        }
+        try {
+            md.digest(buffer, length, digestLength);
+        } catch (DigestException ex) {
+            throw new StreamException(ex);
+        }
+        childDigestsLength[depth] = length + digestLength;
+        childCount[depth]++;
+    }
+
+    @Override
+    public void startDocument(String inputEncoding, String xmlVersion, String xmlEncoding,
+            Boolean standalone) throws StreamException {
+        document = true;
+        super.startDocument(inputEncoding, xmlVersion, xmlEncoding, standalone);
+    }
+
+    @Override
+    public void startElement(String namespaceURI, String localName, String prefix)
+            throws StreamException {
+        depth++;
+        if (depth == digests.length) {
+            int newLength = depth*2;
+            digests = Arrays.copyOf(digests, newLength);
+            childDigests = Arrays.copyOf(childDigests, newLength);
+            childDigestsLength = Arrays.copyOf(childDigestsLength, newLength);
+            childCount = Arrays.copyOf(childCount, newLength);
+        }
+        MessageDigest md = digests[depth];
+        if (md == null) {
+            try {
+                md = MessageDigest.getInstance(algorithm, leafDigest.getProvider());
+            } catch (NoSuchAlgorithmException ex) {
+                throw new StreamException(ex);
+            }
+            digests[depth] = md;
+            childDigests[depth] = new byte[digestLength*4];
+        }
+        childDigestsLength[depth] = 0;
+        childCount[depth] = 0;
+        updateInt(md, 1);
+        updateExpandedName(md, namespaceURI, localName);
+        md.update((byte)0);
+        md.update((byte)0);
+        attributeCount = 0;
+        super.startElement(namespaceURI, localName, prefix);
+    }
+
+    private void addAttribute(String namespaceURI, String localName, String value) {
+        if (attributeCount == attributeValues.length) {
+            int newLength = attributeCount*2;
+            attributeNamespaceURIs = Arrays.copyOf(attributeNamespaceURIs, newLength);
+            attributeLocalNames = Arrays.copyOf(attributeLocalNames, newLength);
+            attributeValues = Arrays.copyOf(attributeValues, newLength);
+            attributeOrder = new int[newLength];
+        }
+        attributeNamespaceURIs[attributeCount] = namespaceURI;
+        attributeLocalNames[attributeCount] = localName;
+        attributeValues[attributeCount] = value;
+        attributeCount++;
+    }
+    
+    @Override
+    public void processAttribute(String namespaceURI, String localName, String prefix,
+            String value, String type, boolean specified) throws StreamException {
+        if (!localName.equals("xmlns") && !localName.startsWith("xmlns:")) {
+            addAttribute(namespaceURI, localName, value);
+        }
+        super.processAttribute(namespaceURI, localName, prefix, value, type, specified);
+    }
+
+    @Override
+    public void processAttribute(String name, String value, String type, boolean specified)
+            throws StreamException {
+        if (!name.equals("xmlns") && !name.startsWith("xmlns:")) {
+            addAttribute("", name, value);
+        }
+        super.processAttribute(name, value, type, specified);
+    }
+
+    private static int length(String namespaceURI, String localName) {
+        return namespaceURI == null || namespaceURI.length() == 0
+                ? localName.length() : namespaceURI.length() + 1 + localName.length();
+    }
+    
+    private static char charAt(String namespaceURI, String localName, int index) {
+        if (namespaceURI == null || namespaceURI.length() == 0) {
+            return localName.charAt(index);
+        }
+        int uriLength = namespaceURI.length();
+        if (index < uriLength) {
+            return namespaceURI.charAt(index);
+        } else if (index == uriLength) {
+            return ':';
+        } else {
+            return localName.charAt(index - uriLength - 1);
+        }
+    }
+    
+    /**
+     * Compare the expanded names of two attributes in the same way as
+     * {@link String#compareTo(String)}, but without constructing the expanded names.
+     */
+    private int compareAttributes(int i1, int i2) {
+        String uri1 = attributeNamespaceURIs[i1];
+        String localName1 = attributeLocalNames[i1];
+        String uri2 = attributeNamespaceURIs[i2];
+        String localName2 = attributeLocalNames[i2];
+        int length1 = length(uri1, localName1);
+        int length2 = length(uri2, localName2);
+        int length = Math.min(length1, length2);
+        for (int i=0; i<length; i++) {
+            char c1 = charAt(uri1, localName1, i);
+            char c2 = charAt(uri2, localName2, i);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return length1 - length2;
+    }
+    
+    @Override
+    public void attributesCompleted() throws StreamException {
+        // Attributes are usually few, so insertion sort is good enough
+        for (int i=0; i<attributeCount; i++) {
+            int j = i;
+            while (j > 0 && compareAttributes(attributeOrder[j-1], i) > 0) {
+                attributeOrder[j] = attributeOrder[j-1];
+                j--;
+            }
+            attributeOrder[j] = i;
+        }
+        MessageDigest md = digests[depth];
+        updateInt(md, attributeCount);
+        for (int i=0; i<attributeCount; i++) {
+            int index = attributeOrder[i];
+            update(leafDigest, 0, 0, 0, 2);
+            updateExpandedName(leafDigest, attributeNamespaceURIs[index], attributeLocalNames[index]);
+            leafDigest.update((byte)0);
+            leafDigest.update((byte)0);
+            update(leafDigest, attributeValues[index]);
+            try {
+                leafDigest.digest(bytes, 0, digestLength);
+            } catch (DigestException ex) {
+                throw new StreamException(ex);
+            }
+            md.update(bytes, 0, digestLength);
+        }
+        Arrays.fill(attributeNamespaceURIs, 0, attributeCount, null);
+        Arrays.fill(attributeLocalNames, 0, attributeCount, null);
+        Arrays.fill(attributeValues, 0, attributeCount, null);
+        attributeCount = 0;
+        super.attributesCompleted();
+    }
+
+    @Override
+    public void endElement() throws StreamException {
+        MessageDigest md = digests[depth];
+        updateInt(md, childCount[depth]);
+        md.update(childDigests[depth], 0, childDigestsLength[depth]);
+        depth--;
+        addChildDigest(md);
+        super.endElement();
+    }
+
+    private void updateCharacterData(Object data) throws StreamException {
+        if (data instanceof String) {
+            update(characterDataDigest, (String)data);
+        } else if (data instanceof CharacterData) {
+            try {
+                ((CharacterData)data).writeTo(sink);
+            } catch (IOException ex) {
+                throw new StreamException(ex);
+            }
+        } else {
+            update(characterDataDigest, data.toString());
+        }
+    }
+    
+    @Override
+    public void processCharacterData(Object data, boolean ignorable) throws StreamException {
+        if (inProcessingInstruction) {
+            updateCharacterData(data);
+        } else if (!inComment && !inCDATASection && (depth > 0 || !document)) {
+            if (ignorable) {
+                // Ignorable whitespace is counted, but is not a text node in the sense of DOMHASH
+                childCount[depth]++;
+            } else {
+                update(leafDigest, 0, 0, 0, 3);
+                characterDataDigest = leafDigest;
+                updateCharacterData(data);
+                characterDataDigest = null;
+                addChildDigest(leafDigest);
+            }
+        }
+        super.processCharacterData(data, ignorable);
+    }
+
+    @Override
+    public void startProcessingInstruction(String target) throws StreamException {
+        update(leafDigest, 0, 0, 0, 7);
+        update(leafDigest, target);
+        leafDigest.update((byte)0);
+        leafDigest.update((byte)0);
+        characterDataDigest = leafDigest;
+        inProcessingInstruction = true;
+        super.startProcessingInstruction(target);
+    }
+
+    @Override
+    public void endProcessingInstruction() throws StreamException {
+        inProcessingInstruction = false;
+        characterDataDigest = null;
+        addChildDigest(leafDigest);
+        super.endProcessingInstruction();
+    }
+
+    @Override
+    public void startComment() throws StreamException {
+        inComment = true;
+        super.startComment();
+    }
+
+    @Override
+    public void endComment() throws StreamException {
+        inComment = false;
+        super.endComment();
+    }
+
+    @Override
+    public void startCDATASection() throws StreamException {
+        inCDATASection = true;
+        // Same as for ignorable whitespace
+        if (depth > 0 || !document) {
+            childCount[depth]++;
+        }
+        super.startCDATASection();
+    }
+
+    @Override
+    public void endCDATASection() throws StreamException {
+        inCDATASection = false;
+        super.endCDATASection();
+    }
+
+    @Override
+    public void completed() throws StreamException {
+        if (document) {
+            MessageDigest md = digests[0];
+            updateInt(md, 9);
+            updateInt(md, childCount[0]);
+            md.update(childDigests[0], 0, childDigestsLength[0]);
+            result = md.digest();
+        }
+        super.completed();
+    }
+}
@@ -65,6 +65,7 @@ public final class Serializer implements XmlHandler, CharacterDataSink {
     
     private final XmlWriter writer;
     private final OutputStream outputStream;
+    private final String encoding;
     
     /**
      * Add space before '/>' for XHTML.
@@ -100,11 +101,13 @@ public final class Serializer implements XmlHandler, CharacterDataSink {
     public Serializer(Writer out) {
         writer = new WriterXmlWriter(out);
         outputStream = null;
+        encoding = null;
     }
 
     public Serializer(OutputStream out, String encoding) {
         writer = XmlWriter.create(out, encoding);
         outputStream = out;
+        this.encoding = encoding;
     }
 
     private void switchContext(int context) throws StreamException {
@@ -136,6 +139,16 @@ public final class Serializer implements XmlHandler, CharacterDataSink {
         }
     }
 
+    /**
+     * Get the charset encoding used to serialize events to the output stream.
+     * 
+     * @return the charset encoding, or {@code null} if this serializer is not writing to an output
+     *         stream
+     */
+    public String getEncoding() {
+        return encoding;
+    }
+
     /**
      *   Report an element type declaration.
      *  
@@ -836,6 +849,28 @@ public final class Serializer implements XmlHandler, CharacterDataSink {
         }
     }
 
+    /**
+     * Write content that has already been serialized by another {@link Serializer} instance
+     * writing to a {@link Writer}. The content must be well balanced; any open start tag is closed
+     * before the content is written.
+     *
+     * @param chars
+     *            the buffer containing the serialized content
+     * @param start
+     *            the start offset in the buffer
+     * @param length
+     *            the number of characters to write
+     * @throws StreamException
+     */
+    public void writeSerializedContent(char[] chars, int start, int length) throws StreamException {
+        closeStartTag();
+        try {
+            writer.write(chars, start, length);
+        } catch (IOException ex) {
+            throw new StreamException(ex);
+        }
+    }
+
     @Override
     public void processEntityReference(String name, String replacementText) throws StreamException {
         closeStartTag();
@@ -134,6 +134,20 @@ abstract class ASCIICompatibleXmlWriter extends XmlWriter {
                 System.arraycopy(b, 0, buffer, bufferPosition, 4);
                 bufferPosition += 4;
             }
+
+            @Override
+            protected void doWrite(byte[] b, int off, int len) throws IOException {
+                while (len > 0) {
+                    if (bufferPosition == buffer.length) {
+                        ASCIICompatibleXmlWriter.this.flushBuffer();
+                    }
+                    int c = Math.min(len, buffer.length-bufferPosition);
+                    System.arraycopy(b, off, buffer, bufferPosition, c);
+                    bufferPosition += c;
+                    off += c;
+                    len -= c;
+                }
+            }
             
             @Override
             protected void flushBuffer() throws IOException {
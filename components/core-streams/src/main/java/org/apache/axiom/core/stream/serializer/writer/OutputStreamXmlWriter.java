@@ -157,6 +157,21 @@ final class OutputStreamXmlWriter extends XmlWriter {
                     encoderIn.put((char)(b[i] & 0xFF));
                 }
             }
+
+            @Override
+            protected void doWrite(byte[] b, int off, int len) throws IOException {
+                CharBuffer encoderIn = getEncoderIn();
+                while (len > 0) {
+                    if (!encoderIn.hasRemaining()) {
+                        OutputStreamXmlWriter.this.flush(encoderIn);
+                    }
+                    int c = Math.min(len, encoderIn.remaining());
+                    for (int i=0; i<c; i++) {
+                        encoderIn.put((char)(b[off++] & 0xFF));
+                    }
+                    len -= c;
+                }
+            }
             
             @Override
             protected void flushBuffer() throws IOException {
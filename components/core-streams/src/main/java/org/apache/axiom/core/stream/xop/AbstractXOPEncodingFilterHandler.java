@@ -29,8 +29,6 @@ public abstract class AbstractXOPEncodingFilterHandler extends XmlHandlerWrapper
         super(parent);
     }
 
-    protected abstract String processCharacterData(Object data) throws StreamException;
-
     /**
      * Build a cid URL from the given content ID as described in RFC2392.
      * <p>
@@ -88,20 +86,20 @@ public abstract class AbstractXOPEncodingFilterHandler extends XmlHandlerWrapper
         super.endElement();
     }
 
-    @Override
-    public void processCharacterData(Object data, boolean ignorable) throws StreamException {
-        if (!ignorable) {
-            String contentID = processCharacterData(data);
-            if (contentID != null) {
-                super.startElement(XOPConstants.NAMESPACE_URI, XOPConstants.INCLUDE, XOPConstants.DEFAULT_PREFIX);
-                super.processNamespaceDeclaration(XOPConstants.DEFAULT_PREFIX, XOPConstants.NAMESPACE_URI);
-                super.processAttribute("", XOPConstants.HREF, "", getURLForContentID(contentID), "CDATA", true);
-                super.attributesCompleted();
-                inXOPInclude = true;
-                return;
-            }
-        }
-        super.processCharacterData(data, ignorable);
+    /**
+     * Write an {@code xop:Include} element information item referring to the given content ID.
+     * Subclasses call this method in place of passing the binary content to the parent handler.
+     * 
+     * @param contentID
+     *            the content ID (without enclosing angle brackets)
+     * @throws StreamException
+     */
+    protected final void writeXOPInclude(String contentID) throws StreamException {
+        super.startElement(XOPConstants.NAMESPACE_URI, XOPConstants.INCLUDE, XOPConstants.DEFAULT_PREFIX);
+        super.processNamespaceDeclaration(XOPConstants.DEFAULT_PREFIX, XOPConstants.NAMESPACE_URI);
+        super.processAttribute("", XOPConstants.HREF, "", getURLForContentID(contentID), "CDATA", true);
+        super.attributesCompleted();
+        inXOPInclude = true;
     }
 
     @Override
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.xpath;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Forward-only XPath expression that can be evaluated against a stream of events by
+ * {@link StreamingXPathFilter}. The supported syntax is a subset of XPath 1.0 abbreviated location
+ * paths:
+ * <ul>
+ * <li>The expression must be an absolute location path.
+ * <li>Each step is separated by <code>/</code> (child axis) or <code>//</code> (descendant axis)
+ * and consists of a name test (<code>name</code>, <code>prefix:name</code>,
+ * <code>prefix:*</code> or <code>*</code>) without predicates.
+ * <li>The last step may be an attribute step (<code>@name</code>, <code>@prefix:name</code>,
+ * <code>@prefix:*</code> or <code>@*</code>) separated by <code>/</code>. <code>//@name</code>
+ * is only supported as the entire expression.
+ * </ul>
+ * Examples are <code>/soapenv:Envelope/soapenv:Header/wsa:Action</code> and
+ * <code>//order/@id</code>.
+ */
+public final class StreamingXPath {
+    private final String expression;
+    private final boolean[] descendant;
+    private final String[] namespaceURIs;
+    private final String[] localNames;
+    private final boolean hasAttributeStep;
+    private final String attributeNamespaceURI;
+    private final String attributeLocalName;
+
+    private StreamingXPath(String expression, boolean[] descendant, String[] namespaceURIs,
+            String[] localNames, boolean hasAttributeStep, String attributeNamespaceURI,
+            String attributeLocalName) {
+        this.expression = expression;
+        this.descendant = descendant;
+        this.namespaceURIs = namespaceURIs;
+        this.localNames = localNames;
+        this.hasAttributeStep = hasAttributeStep;
+        this.attributeNamespaceURI = attributeNamespaceURI;
+        this.attributeLocalName = attributeLocalName;
+    }
+
+    /**
+     * Compile an expression.
+     * 
+     * @param expression
+     *            the expression
+     * @param namespaces
+     *            the namespace context of the expression, i.e. a map from prefixes to namespace
+     *            URIs
+     * @return the compiled expression
+     * @throws IllegalArgumentException
+     *             if the expression is not supported or uses a prefix that is not bound
+     */
+    public static StreamingXPath compile(String expression, Map<String,String> namespaces) {
+        int length = expression.length();
+        if (length < 2 || expression.charAt(0) != '/') {
+            throw new IllegalArgumentException("Unsupported expression \"" + expression
+                    + "\": expected an absolute location path");
+        }
+        List<Boolean> descendant = new ArrayList<Boolean>();
+        List<String> namespaceURIs = new ArrayList<String>();
+        List<String> localNames = new ArrayList<String>();
+        String[] attributeName = null;
+        int pos = 0;
+        while (pos < length) {
+            if (attributeName != null) {
+                throw new IllegalArgumentException("Unsupported expression \"" + expression
+                        + "\": an attribute step must be the last step");
+            }
+            boolean isDescendant = expression.startsWith("//", pos);
+            pos += isDescendant ? 2 : 1;
+            int end = expression.indexOf('/', pos);
+            if (end == -1) {
+                end = length;
+            }
+            String test = expression.substring(pos, end);
+            if (test.startsWith("@")) {
+                if (isDescendant) {
+                    if (!descendant.isEmpty()) {
+                        throw new IllegalArgumentException("Unsupported expression \"" + expression
+                                + "\": // is not supported before an attribute step");
+                    }
+                    // Since the document node has no attributes, //@name is equivalent to //*/@name
+                    descendant.add(Boolean.TRUE);
+                    namespaceURIs.add(null);
+                    localNames.add(null);
+                }
+                attributeName = parseNameTest(expression, test.substring(1), namespaces);
+            } else {
+                String[] name = parseNameTest(expression, test, namespaces);
+                descendant.add(isDescendant);
+                namespaceURIs.add(name[0]);
+                localNames.add(name[1]);
+            }
+            pos = end;
+        }
+        int count = descendant.size();
+        if (count > 62) {
+            throw new IllegalArgumentException("Unsupported expression \"" + expression
+                    + "\": too many steps");
+        }
+        boolean[] descendantArray = new boolean[count];
+        for (int i=0; i<count; i++) {
+            descendantArray[i] = descendant.get(i);
+        }
+        return new StreamingXPath(expression, descendantArray,
+                namespaceURIs.toArray(new String[count]), localNames.toArray(new String[count]),
+                attributeName != null, attributeName == null ? null : attributeName[0],
+                attributeName == null ? null : attributeName[1]);
+    }
+
+    /**
+     * Parse a name test.
+     * 
+     * @return a two element array with the namespace URI and local name; the namespace URI is
+     *         <code>null</code> if the test matches any namespace and the local name is
+     *         <code>null</code> if the test matches any local name
+     */
+    private static String[] parseNameTest(String expression, String test,
+            Map<String,String> namespaces) {
+        if (test.equals("*")) {
+            return new String[] { null, null };
+        }
+        int idx = test.indexOf(':');
+        String prefix = idx == -1 ? null : test.substring(0, idx);
+        String localName = test.substring(idx+1);
+        if (!isNCName(localName) && !(prefix != null && localName.equals("*"))
+                || prefix != null && !isNCName(prefix)) {
+            throw new IllegalArgumentException("Unsupported expression \"" + expression
+                    + "\": invalid or unsupported step \"" + test + "\"");
+        }
+        String namespaceURI;
+        if (prefix == null) {
+            namespaceURI = "";
+        } else {
+            namespaceURI = namespaces == null ? null : namespaces.get(prefix);
+            if (namespaceURI == null) {
+                throw new IllegalArgumentException("Unbound prefix \"" + prefix
+                        + "\" in expression \"" + expression + "\"");
+            }
+        }
+        return new String[] { namespaceURI, localName.equals("*") ? null : localName };
+    }
+    
+    private static boolean isNCName(String s) {
+        if (s.length() == 0) {
+            return false;
+        }
+        for (int i=0; i<s.length(); i++) {
+            char c = s.charAt(i);
+            if (!(Character.isLetter(c) || c == '_'
+                    || i > 0 && (Character.isDigit(c) || c == '-' || c == '.'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int getElementStepCount() {
+        return descendant.length;
+    }
+    
+    boolean isDescendant(int step) {
+        return descendant[step];
+    }
+    
+    boolean matchesElement(int step, String namespaceURI, String localName) {
+        String expectedNamespaceURI = namespaceURIs[step];
+        String expectedLocalName = localNames[step];
+        return (expectedLocalName == null || expectedLocalName.equals(localName))
+                && (expectedNamespaceURI == null || expectedNamespaceURI.equals(namespaceURI));
+    }
+    
+    boolean hasAttributeStep() {
+        return hasAttributeStep;
+    }
+    
+    boolean matchesAttribute(String namespaceURI, String localName) {
+        return (attributeLocalName == null || attributeLocalName.equals(localName))
+                && (attributeNamespaceURI == null || attributeNamespaceURI.equals(namespaceURI));
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
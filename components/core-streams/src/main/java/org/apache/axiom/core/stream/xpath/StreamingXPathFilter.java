@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.xpath;
+
+import org.apache.axiom.core.stream.NullXmlHandler;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlFilter;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+
+/**
+ * Filter that evaluates a set of {@link StreamingXPath} expressions against the events passing
+ * through it. The filter can either be inserted into a pipeline (e.g. in front of a builder, in
+ * which case the events are passed through unchanged) or be used standalone using
+ * {@link #evaluate(XmlInput)}.
+ */
+public final class StreamingXPathFilter implements XmlFilter {
+    private final StreamingXPath[] expressions;
+    private final StreamingXPathListener listener;
+    private final boolean firstMatchOnly;
+
+    /**
+     * Constructor.
+     * 
+     * @param expressions
+     *            the expressions to evaluate
+     * @param listener
+     *            the listener that will receive the matches
+     * @param firstMatchOnly
+     *            <code>true</code> if only the first match of each expression should be reported;
+     *            in that case, {@link #evaluate(XmlInput)} stops as soon as all expressions are
+     *            resolved
+     */
+    public StreamingXPathFilter(StreamingXPath[] expressions, StreamingXPathListener listener,
+            boolean firstMatchOnly) {
+        this.expressions = expressions.clone();
+        this.listener = listener;
+        this.firstMatchOnly = firstMatchOnly;
+    }
+
+    @Override
+    public StreamingXPathFilterHandler createFilterHandler(XmlHandler parent) {
+        return new StreamingXPathFilterHandler(parent, expressions, listener, firstMatchOnly);
+    }
+    
+    /**
+     * Evaluate the expressions against the given input without building anything. If the filter
+     * is configured to only report the first match of each expression, then the input is only
+     * consumed until all expressions have been resolved.
+     * 
+     * @param input
+     *            the input
+     * @throws StreamException
+     *             if an error occurs while reading the input or if the listener throws an
+     *             exception
+     */
+    public void evaluate(XmlInput input) throws StreamException {
+        StreamingXPathFilterHandler handler = createFilterHandler(NullXmlHandler.INSTANCE);
+        XmlReader reader = input.createReader(handler);
+        try {
+            while (!handler.isResolved() && !reader.proceed()) {
+                // Just loop
+            }
+        } finally {
+            reader.dispose();
+        }
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.xpath;
+
+import org.apache.axiom.core.stream.CharacterData;
+import org.apache.axiom.core.stream.NamespaceRepairingFilterHandler;
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlHandlerWrapper;
+
+/**
+ * Filter handler created by {@link StreamingXPathFilter}. The expressions are evaluated as
+ * non-deterministic automata: for each open element and each expression, the handler keeps a bit
+ * set of the steps that have been matched so far.
+ */
+public final class StreamingXPathFilterHandler extends XmlHandlerWrapper {
+    /**
+     * Element matched by one of the expressions. We need to accumulate its string value and
+     * possibly forward its events to a snapshot handler.
+     */
+    private static final class Capture {
+        final StreamingXPath xpath;
+        final int depth;
+        final StringBuilder stringValue = new StringBuilder();
+        final XmlHandler snapshot;
+        
+        Capture(StreamingXPath xpath, int depth, XmlHandler snapshot) {
+            this.xpath = xpath;
+            this.depth = depth;
+            this.snapshot = snapshot;
+        }
+    }
+    
+    private final StreamingXPath[] expressions;
+    private final StreamingXPathListener listener;
+    private final boolean firstMatchOnly;
+    private final boolean[] resolved;
+    private int unresolvedCount;
+    
+    /**
+     * The states of the automata. The state of expression <code>i</code> for the element at depth
+     * <code>d</code> is stored at index <code>d*expressions.length+i</code>. Bit <code>n</code> is
+     * set if the first <code>n</code> steps of the expression match the element.
+     */
+    private long[] states;
+    private int depth;
+    
+    /**
+     * Flags indicating which expressions have an attribute step that applies to the attributes of
+     * the current element.
+     */
+    private final boolean[] attributeCandidates;
+    private boolean hasAttributeCandidates;
+    
+    private Capture[] captures = new Capture[4];
+    private int captureCount;
+    private int snapshotCount;
+    
+    /**
+     * Indicates whether we are inside a comment or processing instruction, i.e. if character data
+     * doesn't contribute to string values.
+     */
+    private boolean skipCharacterData;
+
+    StreamingXPathFilterHandler(XmlHandler parent, StreamingXPath[] expressions,
+            StreamingXPathListener listener, boolean firstMatchOnly) {
+        super(parent);
+        this.expressions = expressions;
+        this.listener = listener;
+        this.firstMatchOnly = firstMatchOnly;
+        resolved = new boolean[expressions.length];
+        unresolvedCount = expressions.length;
+        attributeCandidates = new boolean[expressions.length];
+        states = new long[expressions.length*8];
+        for (int i=0; i<expressions.length; i++) {
+            states[i] = 1;
+        }
+    }
+
+    /**
+     * Determine whether all expressions have been resolved. This is only possible if the filter is
+     * configured to report the first match of each expression only.
+     * 
+     * @return <code>true</code> if the first match of every expression has been reported
+     */
+    public boolean isResolved() {
+        return unresolvedCount == 0 && captureCount == 0;
+    }
+    
+    private void resolve(int index) {
+        if (firstMatchOnly) {
+            resolved[index] = true;
+            unresolvedCount--;
+        }
+    }
+
+    @Override
+    public void startElement(String namespaceURI, String localName, String prefix)
+            throws StreamException {
+        super.startElement(namespaceURI, localName, prefix);
+        for (int i=0; i<snapshotCount; i++) {
+            // Captures with snapshots are always at the start of the array
+            captures[i].snapshot.startElement(namespaceURI, localName, prefix);
+        }
+        int count = expressions.length;
+        int parentOffset = depth*count;
+        depth++;
+        int offset = depth*count;
+        if (offset+count > states.length) {
+            long[] newStates = new long[states.length*2];
+            System.arraycopy(states, 0, newStates, 0, states.length);
+            states = newStates;
+        }
+        if (unresolvedCount == 0) {
+            for (int i=0; i<count; i++) {
+                states[offset+i] = 0;
+            }
+            return;
+        }
+        for (int i=0; i<count; i++) {
+            long parentState = states[parentOffset+i];
+            long state = 0;
+            if (parentState != 0 && !resolved[i]) {
+                StreamingXPath xpath = expressions[i];
+                int stepCount = xpath.getElementStepCount();
+                for (int step=0; step<stepCount; step++) {
+                    if ((parentState & (1L << step)) != 0) {
+                        if (xpath.isDescendant(step)) {
+                            state |= 1L << step;
+                        }
+                        if (xpath.matchesElement(step, namespaceURI, localName)) {
+                            state |= 1L << (step+1);
+                        }
+                    }
+                }
+                long finalState = 1L << stepCount;
+                if ((state & finalState) != 0) {
+                    state &= ~finalState;
+                    if (xpath.hasAttributeStep()) {
+                        attributeCandidates[i] = true;
+                        hasAttributeCandidates = true;
+                    } else {
+                        resolve(i);
+                        startCapture(xpath, namespaceURI, localName, prefix);
+                    }
+                }
+            }
+            states[offset+i] = state;
+        }
+    }
+    
+    private void startCapture(StreamingXPath xpath, String namespaceURI, String localName,
+            String prefix) throws StreamException {
+        XmlHandler snapshot = listener.elementMatched(xpath);
+        if (snapshot != null) {
+            snapshot = new NamespaceRepairingFilterHandler(snapshot, null, false);
+            snapshot.startFragment();
+            snapshot.startElement(namespaceURI, localName, prefix);
+        }
+        if (captureCount == captures.length) {
+            Capture[] newCaptures = new Capture[captures.length*2];
+            System.arraycopy(captures, 0, newCaptures, 0, captures.length);
+            captures = newCaptures;
+        }
+        Capture capture = new Capture(xpath, depth, snapshot);
+        if (snapshot == null) {
+            captures[captureCount++] = capture;
+        } else {
+            // Keep the captures with snapshots at the start of the array so that events can be
+            // forwarded to them without checking every capture.
+            int i = captureCount++;
+            while (i > snapshotCount) {
+                captures[i] = captures[i-1];
+                i--;
+            }
+            captures[i] = capture;
+            snapshotCount++;
+        }
+    }
+
+    @Override
+    public void endElement() throws StreamException {
+        for (int i=0; i<snapshotCount; i++) {
+            captures[i].snapshot.endElement();
+        }
+        int i = 0;
+        while (i < captureCount) {
+            Capture capture = captures[i];
+            if (capture.depth == depth) {
+                if (capture.snapshot != null) {
+                    capture.snapshot.completed();
+                    snapshotCount--;
+                }
+                System.arraycopy(captures, i+1, captures, i, captureCount-i-1);
+                captures[--captureCount] = null;
+                listener.matched(capture.xpath, capture.stringValue.toString());
+            } else {
+                i++;
+            }
+        }
+        depth--;
+        super.endElement();
+    }
+
+    @Override
+    public void processAttribute(String namespaceURI, String localName, String prefix,
+            String value, String type, boolean specified) throws StreamException {
+        super.processAttribute(namespaceURI, localName, prefix, value, type, specified);
+        for (int i=0; i<snapshotCount; i++) {
+            captures[i].snapshot.processAttribute(namespaceURI, localName, prefix, value, type,
+                    specified);
+        }
+        if (hasAttributeCandidates) {
+            matchAttribute(namespaceURI, localName, value);
+        }
+    }
+
+    @Override
+    public void processAttribute(String name, String value, String type, boolean specified)
+            throws StreamException {
+        super.processAttribute(name, value, type, specified);
+        for (int i=0; i<snapshotCount; i++) {
+            captures[i].snapshot.processAttribute(name, value, type, specified);
+        }
+        if (hasAttributeCandidates) {
+            matchAttribute("", name, value);
+        }
+    }
+    
+    private void matchAttribute(String namespaceURI, String localName, String value)
+            throws StreamException {
+        for (int i=0; i<expressions.length; i++) {
+            if (attributeCandidates[i] && !resolved[i]
+                    && expressions[i].matchesAttribute(namespaceURI, localName)) {
+                resolve(i);
+                listener.matched(expressions[i], value);
+            }
+        }
+    }
+
+    @Override
+    public void processNamespaceDeclaration(String prefix, String namespaceURI)
+            throws StreamException {
+        super.processNamespaceDeclaration(prefix, namespaceURI);
+        for (int i=0; i<snapshotCount; i++) {
+            captures[i].snapshot.processNamespaceDeclaration(prefix, namespaceURI);
+        }
+    }
+
+    @Override
+    public void attributesCompleted() throws StreamException {
+        super.attributesCompleted();
+        for (int i=0; i<snapshotCount; i++) {
+            captures[i].snapshot.attributesCompleted();
+        }
+        if (hasAttributeCandidates) {
+            for (int i=0; i<attributeCandidates.length; i++) {
+                attributeCandidates[i] = false;
+            }
+            hasAttributeCandidates = false;
+        }
+    }
+
+    @Override
+    public void processCharacterData(Object data, boolean ignorable) throws StreamException {
+        super.processCharacterData(data, ignorable);
+        for (int i=0; i<snapshotCount; i++) {
+            captures[i].snapshot.processCharacterData(data, ignorable);
+        }
+        if (!skipCharacterData) {
+            for (int i=0; i<captureCount; i++) {
+                StringBuilder buffer = captures[i].stringValue;
+                if (data instanceof CharacterData) {
+                    ((CharacterData)data).appendTo(buffer);
+                } else {
+                    buffer.append(data);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void startProcessingInstruction(String target) throws StreamException {
+        super.startProcessingInstruction(target);
+        for (int i=0; i<snapshotCount; i++) {
+            captures[i].snapshot.startProcessingInstruction(target);
+        }
+        skipCharacterData = true;
+    }
+
+    @Override
+    public void endProcessingInstruction() throws StreamException {
+        super.endProcessingInstruction();
+        for (int i=0; i<snapshotCount; i++) {
+            captures[i].snapshot.endProcessingInstruction();
+        }
+        skipCharacterData = false;
+    }
+
+    @Override
+    public void startComment() throws StreamException {
+        super.startComment();
+        for (int i=0; i<snapshotCount; i++) {
+            captures[i].snapshot.startComment();
+        }
+        skipCharacterData = true;
+    }
+
+    @Override
+    public void endComment() throws StreamException {
+        super.endComment();
+        for (int i=0; i<snapshotCount; i++) {
+            captures[i].snapshot.endComment();
+        }
+        skipCharacterData = false;
+    }
+
+    @Override
+    public void startCDATASection() throws StreamException {
+        super.startCDATASection();
+        for (int i=0; i<snapshotCount; i++) {
+            captures[i].snapshot.startCDATASection();
+        }
+    }
+
+    @Override
+    public void endCDATASection() throws StreamException {
+        super.endCDATASection();
+        for (int i=0; i<snapshotCount; i++) {
+            captures[i].snapshot.endCDATASection();
+        }
+    }
+
+    @Override
+    public void processEntityReference(String name, String replacementText)
+            throws StreamException {
+        super.processEntityReference(name, replacementText);
+        for (int i=0; i<snapshotCount; i++) {
+            captures[i].snapshot.processEntityReference(name, replacementText);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.xpath;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+
+/**
+ * Receives the matches found by {@link StreamingXPathFilter}.
+ */
+public interface StreamingXPathListener {
+    /**
+     * Notify the listener that the start tag of an element matching the given expression has been
+     * encountered. This allows the listener to request a snapshot of the element.
+     * 
+     * @param xpath
+     *            the matching expression
+     * @return a handler that will receive the events for the matched element (as a fragment that
+     *         includes the necessary namespace declarations), or <code>null</code> if no snapshot
+     *         is needed
+     * @throws StreamException
+     */
+    XmlHandler elementMatched(StreamingXPath xpath) throws StreamException;
+    
+    /**
+     * Notify the listener that a node matching the given expression has been found. For elements,
+     * this method is called when the end tag is encountered.
+     * 
+     * @param xpath
+     *            the matching expression
+     * @param stringValue
+     *            the XPath string value of the node
+     * @throws StreamException
+     */
+    void matched(StreamingXPath xpath, String stringValue) throws StreamException;
+}
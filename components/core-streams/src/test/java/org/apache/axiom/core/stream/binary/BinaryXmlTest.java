@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.binary;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.apache.axiom.testing.multiton.Multiton.getInstances;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.core.stream.dom.DOMInput;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.apache.axiom.ts.xml.XMLSample;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+public class BinaryXmlTest {
+    private static void pipe(XmlInput input, XmlHandler handler) throws Exception {
+        XmlReader reader = input.createReader(handler);
+        try {
+            while (!reader.proceed()) {
+                // Just loop
+            }
+        } finally {
+            reader.dispose();
+        }
+    }
+    
+    private static String serialize(XmlInput input) throws Exception {
+        StringWriter sw = new StringWriter();
+        pipe(input, new Serializer(sw));
+        return sw.toString();
+    }
+    
+    @Test
+    public void testRoundTrip() throws Exception {
+        for (XMLSample sample : getInstances(XMLSample.class)) {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setExpandEntityReferences(false);
+            Document document = factory.newDocumentBuilder().parse(sample.getUrl().toString());
+            DOMInput input = new DOMInput(document, false);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            pipe(input, new BinaryXmlWriter(baos));
+            assertThat(serialize(new BinaryXmlInput(new ByteArrayInputStream(baos.toByteArray()))))
+                    .isEqualTo(serialize(input));
+        }
+    }
+    
+    @Test
+    public void testBinaryContent() throws Exception {
+        final byte[] data = new byte[20000];
+        for (int i=0; i<data.length; i++) {
+            data[i] = (byte)i;
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        BinaryXmlWriter writer = new BinaryXmlWriter(baos) {
+            @Override
+            protected boolean processBinaryCharacterData(Object content) throws StreamException {
+                if (content == data) {
+                    OutputStream out = startBinaryData("application/octet-stream", true);
+                    try {
+                        out.write(data, 0, 10000);
+                        out.write(data, 10000, 10000);
+                        out.close();
+                    } catch (IOException ex) {
+                        throw new StreamException(ex);
+                    }
+                    return true;
+                } else {
+                    return false;
+                }
+            }
+        };
+        writer.startFragment();
+        writer.startElement("", "root", "");
+        writer.attributesCompleted();
+        writer.processCharacterData(data, false);
+        writer.endElement();
+        writer.completed();
+        final byte[][] decoded = new byte[1][];
+        pipe(new BinaryXmlInput(new ByteArrayInputStream(baos.toByteArray())) {
+            @Override
+            protected Object createBinaryCharacterData(byte[] content, String contentType,
+                    boolean optimize) throws StreamException {
+                assertThat(contentType).isEqualTo("application/octet-stream");
+                assertThat(optimize).isTrue();
+                decoded[0] = content;
+                return super.createBinaryCharacterData(content, contentType, optimize);
+            }
+        }, new Serializer(new StringWriter()));
+        assertThat(decoded[0]).isEqualTo(data);
+    }
+    
+    private static byte[] encode(String content) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        BinaryXmlWriter writer = new BinaryXmlWriter(baos);
+        writer.startFragment();
+        writer.startElement("", "root", "");
+        writer.attributesCompleted();
+        writer.processCharacterData(content, false);
+        writer.endElement();
+        writer.completed();
+        return baos.toByteArray();
+    }
+    
+    @Test
+    public void testCloseStream() throws Exception {
+        final byte[] data = encode("test");
+        final boolean[] closed = new boolean[1];
+        String result = serialize(new BinaryXmlInput() {
+            @Override
+            protected InputStream openStream() throws IOException {
+                return new ByteArrayInputStream(data) {
+                    @Override
+                    public void close() throws IOException {
+                        closed[0] = true;
+                    }
+                };
+            }
+        });
+        assertThat(result).isEqualTo("<root>test</root>");
+        assertThat(closed[0]).isTrue();
+    }
+    
+    @Test
+    public void testMultipleDocuments() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(encode("first"));
+        baos.write(encode("second"));
+        InputStream in = new BufferedInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        assertThat(serialize(new BinaryXmlInput(in))).isEqualTo("<root>first</root>");
+        assertThat(serialize(new BinaryXmlInput(in))).isEqualTo("<root>second</root>");
+        assertThat(in.read()).isEqualTo(-1);
+    }
+    
+    private static void assertInvalid(byte[] length) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(BinaryXmlConstants.MAGIC);
+        baos.write(BinaryXmlConstants.CHARACTERS);
+        baos.write(length);
+        try {
+            pipe(new BinaryXmlInput(new ByteArrayInputStream(baos.toByteArray())),
+                    new Serializer(new StringWriter()));
+            fail("Expected StreamException");
+        } catch (StreamException ex) {
+            // Expected
+        }
+    }
+    
+    @Test
+    public void testOverflowingLength() throws Exception {
+        assertInvalid(new byte[] { (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x0F });
+    }
+    
+    @Test
+    public void testTruncatedText() throws Exception {
+        assertInvalid(new byte[] { (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x07 });
+    }
+    
+    @Test
+    public void testInvalidHeader() throws Exception {
+        try {
+            pipe(new BinaryXmlInput(new ByteArrayInputStream("<root/>".getBytes("UTF-8"))),
+                    new Serializer(new StringWriter()));
+            fail("Expected StreamException");
+        } catch (StreamException ex) {
+            // Expected
+        }
+    }
+}
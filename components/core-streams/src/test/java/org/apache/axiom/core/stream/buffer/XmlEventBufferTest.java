@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.buffer;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.apache.axiom.testing.multiton.Multiton.getInstances;
+import static org.junit.Assert.fail;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.core.stream.dom.DOMInput;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.apache.axiom.ts.xml.XMLSample;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+public class XmlEventBufferTest {
+    private static void pipe(XmlInput input, XmlHandler handler) throws Exception {
+        XmlReader reader = input.createReader(handler);
+        try {
+            while (!reader.proceed()) {
+                // Just loop
+            }
+        } finally {
+            reader.dispose();
+        }
+    }
+    
+    private static String serialize(XmlInput input) throws Exception {
+        StringWriter sw = new StringWriter();
+        pipe(input, new Serializer(sw));
+        return sw.toString();
+    }
+    
+    private static DOMInput parse(XMLSample sample) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setExpandEntityReferences(false);
+        Document document = factory.newDocumentBuilder().parse(sample.getUrl().toString());
+        return new DOMInput(document, false);
+    }
+    
+    @Test
+    public void testReplay() throws Exception {
+        for (XMLSample sample : getInstances(XMLSample.class)) {
+            DOMInput input = parse(sample);
+            String expected = serialize(input);
+            XmlEventBuffer buffer = new XmlEventBuffer();
+            pipe(input, buffer);
+            assertThat(buffer.isComplete()).isTrue();
+            // Check that the buffer can be replayed more than once
+            assertThat(serialize(buffer)).isEqualTo(expected);
+            assertThat(serialize(buffer)).isEqualTo(expected);
+        }
+    }
+    
+    @Test
+    public void testConcurrentReplay() throws Exception {
+        DOMInput input = parse(XMLSample.LARGE);
+        final String expected = serialize(input);
+        final XmlEventBuffer buffer = new XmlEventBuffer();
+        pipe(input, buffer);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int i=0; i<4; i++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int j=0; j<10; j++) {
+                            assertThat(serialize(buffer)).isEqualTo(expected);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testCreateReaderOnIncompleteBuffer() throws Exception {
+        XmlEventBuffer buffer = new XmlEventBuffer();
+        buffer.startFragment();
+        buffer.startElement("", "root", "");
+        try {
+            buffer.createReader(new Serializer(new StringWriter()));
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+    }
+    
+    @Test
+    public void testAddEventToCompleteBuffer() throws Exception {
+        XmlEventBuffer buffer = new XmlEventBuffer();
+        buffer.startFragment();
+        buffer.completed();
+        try {
+            buffer.startElement("", "root", "");
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+    }
+}
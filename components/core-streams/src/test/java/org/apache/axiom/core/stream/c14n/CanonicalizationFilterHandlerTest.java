@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.c14n;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.core.stream.dom.DOMInput;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+/**
+ * Tests for {@link CanonicalizationFilterHandler} and {@link CanonicalSerializer}. Most of the
+ * test cases are taken from the examples in the Canonical XML and Exclusive XML Canonicalization
+ * specifications.
+ */
+public class CanonicalizationFilterHandlerTest {
+    private static Document parse(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+    }
+    
+    private static void process(String xml, XmlHandler handler) throws Exception {
+        XmlReader reader = new DOMInput(parse(xml), true).createReader(handler);
+        try {
+            while (!reader.proceed()) {
+                // Just loop
+            }
+        } finally {
+            reader.dispose();
+        }
+    }
+    
+    private static String canonicalize(String xml, CanonicalizationMethod method,
+            Set<String> inclusivePrefixes) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        process(xml, new CanonicalizationFilterHandler(new CanonicalSerializer(out), method,
+                inclusivePrefixes));
+        return new String(out.toByteArray(), "UTF-8");
+    }
+    
+    private static String canonicalize(String xml, CanonicalizationMethod method) throws Exception {
+        return canonicalize(xml, method, null);
+    }
+    
+    private static final String PIS_AND_COMMENTS =
+            "<?xml version=\"1.0\"?>\n\n" +
+            "<?xml-stylesheet   href=\"doc.xsl\"\n   type=\"text/xsl\"   ?>\n\n" +
+            "<doc>Hello, world!<!-- Comment 1 --></doc>\n\n" +
+            "<?pi-without-data     ?>\n\n" +
+            "<!-- Comment 2 -->\n\n" +
+            "<!-- Comment 3 -->";
+    
+    @Test
+    public void testProcessingInstructionsAndComments() throws Exception {
+        assertThat(canonicalize(PIS_AND_COMMENTS, CanonicalizationMethod.C14N)).isEqualTo(
+                "<?xml-stylesheet href=\"doc.xsl\"\n   type=\"text/xsl\"   ?>\n" +
+                "<doc>Hello, world!</doc>\n" +
+                "<?pi-without-data?>");
+    }
+    
+    @Test
+    public void testProcessingInstructionsAndCommentsWithComments() throws Exception {
+        assertThat(canonicalize(PIS_AND_COMMENTS, CanonicalizationMethod.C14N_WITH_COMMENTS)).isEqualTo(
+                "<?xml-stylesheet href=\"doc.xsl\"\n   type=\"text/xsl\"   ?>\n" +
+                "<doc>Hello, world!<!-- Comment 1 --></doc>\n" +
+                "<?pi-without-data?>\n" +
+                "<!-- Comment 2 -->\n" +
+                "<!-- Comment 3 -->");
+    }
+    
+    @Test
+    public void testStartAndEndTags() throws Exception {
+        assertThat(canonicalize(
+                "<!DOCTYPE doc [<!ATTLIST e9 attr CDATA \"default\">]>\n" +
+                "<doc>\n" +
+                "   <e1   />\n" +
+                "   <e2   ></e2>\n" +
+                "   <e3   name = \"elem3\"   id=\"elem3\"   />\n" +
+                "   <e4   name=\"elem4\"   id=\"elem4\"   ></e4>\n" +
+                "   <e5 a:attr=\"out\" b:attr=\"sorted\" attr2=\"all\" attr=\"I'm\"\n" +
+                "      xmlns:b=\"http://www.ietf.org\"\n" +
+                "      xmlns:a=\"http://www.w3.org\"\n" +
+                "      xmlns=\"http://example.org\"/>\n" +
+                "   <e6 xmlns=\"\" xmlns:a=\"http://www.w3.org\">\n" +
+                "      <e7 xmlns=\"http://www.ietf.org\">\n" +
+                "         <e8 xmlns=\"\" xmlns:a=\"http://www.w3.org\">\n" +
+                "            <e9 xmlns=\"\" xmlns:a=\"http://www.ietf.org\"/>\n" +
+                "         </e8>\n" +
+                "      </e7>\n" +
+                "   </e6>\n" +
+                "</doc>", CanonicalizationMethod.C14N)).isEqualTo(
+                "<doc>\n" +
+                "   <e1></e1>\n" +
+                "   <e2></e2>\n" +
+                "   <e3 id=\"elem3\" name=\"elem3\"></e3>\n" +
+                "   <e4 id=\"elem4\" name=\"elem4\"></e4>\n" +
+                "   <e5 xmlns=\"http://example.org\" xmlns:a=\"http://www.w3.org\" xmlns:b=\"http://www.ietf.org\" attr=\"I'm\" attr2=\"all\" b:attr=\"sorted\" a:attr=\"out\"></e5>\n" +
+                "   <e6 xmlns:a=\"http://www.w3.org\">\n" +
+                "      <e7 xmlns=\"http://www.ietf.org\">\n" +
+                "         <e8 xmlns=\"\">\n" +
+                "            <e9 xmlns:a=\"http://www.ietf.org\" attr=\"default\"></e9>\n" +
+                "         </e8>\n" +
+                "      </e7>\n" +
+                "   </e6>\n" +
+                "</doc>");
+    }
+    
+    @Test
+    public void testCharacterEscaping() throws Exception {
+        assertThat(canonicalize(
+                "<doc attr=\"a&#xA;&#x9;&quot;&lt;&amp;>'\">&lt;&gt;&amp;\"'&#xD;<![CDATA[<x>]]>é😀</doc>",
+                CanonicalizationMethod.C14N)).isEqualTo(
+                "<doc attr=\"a&#xA;&#x9;&quot;&lt;&amp;>'\">&lt;&gt;&amp;\"'&#xD;&lt;x&gt;é😀</doc>");
+    }
+    
+    private static final String EXCLUSIVE =
+            "<n0:local xmlns:n0=\"foo:bar\" xmlns:n3=\"ftp://example.org\" xmlns:n4=\"urn:n4\">" +
+            "<n1:elem2 xmlns:n1=\"http://example.net\" xml:lang=\"en\">" +
+            "<n3:stuff xmlns:n3=\"ftp://example.org\" n4:a=\"1\"/>" +
+            "</n1:elem2>" +
+            "</n0:local>";
+    
+    @Test
+    public void testExclusive() throws Exception {
+        assertThat(canonicalize(EXCLUSIVE, CanonicalizationMethod.EXC_C14N)).isEqualTo(
+                "<n0:local xmlns:n0=\"foo:bar\">" +
+                "<n1:elem2 xmlns:n1=\"http://example.net\" xml:lang=\"en\">" +
+                "<n3:stuff xmlns:n3=\"ftp://example.org\" xmlns:n4=\"urn:n4\" n4:a=\"1\"></n3:stuff>" +
+                "</n1:elem2>" +
+                "</n0:local>");
+    }
+    
+    @Test
+    public void testExclusiveWithInclusivePrefixes() throws Exception {
+        assertThat(canonicalize(EXCLUSIVE, CanonicalizationMethod.EXC_C14N,
+                Collections.singleton("n3"))).isEqualTo(
+                "<n0:local xmlns:n0=\"foo:bar\" xmlns:n3=\"ftp://example.org\">" +
+                "<n1:elem2 xmlns:n1=\"http://example.net\" xml:lang=\"en\">" +
+                "<n3:stuff xmlns:n4=\"urn:n4\" n4:a=\"1\"></n3:stuff>" +
+                "</n1:elem2>" +
+                "</n0:local>");
+    }
+    
+    @Test
+    public void testInclusive() throws Exception {
+        assertThat(canonicalize(EXCLUSIVE, CanonicalizationMethod.C14N)).isEqualTo(
+                "<n0:local xmlns:n0=\"foo:bar\" xmlns:n3=\"ftp://example.org\" xmlns:n4=\"urn:n4\">" +
+                "<n1:elem2 xmlns:n1=\"http://example.net\" xml:lang=\"en\">" +
+                "<n3:stuff n4:a=\"1\"></n3:stuff>" +
+                "</n1:elem2>" +
+                "</n0:local>");
+    }
+    
+    @Test
+    public void testMessageDigest() throws Exception {
+        String xml = "<root xmlns:p='urn:p' b='2' a='1'><p:child>text</p:child></root>";
+        MessageDigest md = MessageDigest.getInstance("SHA-1");
+        process(xml, new CanonicalizationFilterHandler(new CanonicalSerializer(md),
+                CanonicalizationMethod.EXC_C14N, null));
+        assertThat(md.digest()).isEqualTo(MessageDigest.getInstance("SHA-1").digest(
+                canonicalize(xml, CanonicalizationMethod.EXC_C14N).getBytes("UTF-8")));
+    }
+    
+    @Test
+    public void testWriter() throws Exception {
+        String xml = "<doc attr='&#xD;'>\u00e9\ud83d\ude00<e/></doc>";
+        StringWriter sw = new StringWriter();
+        process(xml, new CanonicalizationFilterHandler(new CanonicalSerializer(sw),
+                CanonicalizationMethod.C14N, null));
+        assertThat(sw.toString()).isEqualTo(canonicalize(xml, CanonicalizationMethod.C14N));
+    }
+    
+    @Test
+    public void testWithSerializer() throws Exception {
+        StringWriter sw = new StringWriter();
+        process("<?xml version='1.0'?><!--c--><root xmlns:p='urn:p' b='2' a='1'><p:child/></root>",
+                new CanonicalizationFilterHandler(new Serializer(sw), CanonicalizationMethod.EXC_C14N, null));
+        assertThat(sw.toString()).isEqualTo("<root a=\"1\" b=\"2\"><p:child xmlns:p=\"urn:p\"/></root>");
+    }
+}
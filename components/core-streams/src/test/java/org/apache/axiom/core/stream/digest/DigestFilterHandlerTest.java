@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.digest;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.StringReader;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.axiom.core.stream.NullXmlHandler;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.core.stream.dom.DOMInput;
+import org.apache.axiom.testutils.DigestUtils;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+
+/**
+ * Tests for {@link DigestFilterHandler}. The expected values are the same as in the DOMHASH tests
+ * for <code>DigestGenerator</code> in the Axiom test suite.
+ */
+public class DigestFilterHandlerTest {
+    private static String digest(String xml, String algorithm) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        DigestFilterHandler handler = new DigestFilterHandler(NullXmlHandler.INSTANCE, algorithm);
+        XmlReader reader = new DOMInput(factory.newDocumentBuilder().parse(
+                new InputSource(new StringReader(xml))), false).createReader(handler);
+        try {
+            while (!reader.proceed()) {
+                // Just loop
+            }
+        } finally {
+            reader.dispose();
+        }
+        return DigestUtils.toHexString(handler.getDigest());
+    }
+    
+    @Test
+    public void testElementWithNamespace() throws Exception {
+        DigestFilterHandler handler = new DigestFilterHandler(NullXmlHandler.INSTANCE, "MD5");
+        handler.startElement("urn:ns", "element", "p");
+        handler.processNamespaceDeclaration("p", "urn:ns");
+        handler.attributesCompleted();
+        handler.endElement();
+        assertThat(DigestUtils.toHexString(handler.getDigest())).isEqualTo("76e696f6b648837de0fa32e2ad8f1250");
+    }
+
+    @Test
+    public void testElementWithoutNamespace() throws Exception {
+        DigestFilterHandler handler = new DigestFilterHandler(NullXmlHandler.INSTANCE, "MD5");
+        handler.startElement("", "elementName", "");
+        handler.attributesCompleted();
+        handler.endElement();
+        assertThat(DigestUtils.toHexString(handler.getDigest())).isEqualTo("0730b7dda59f628a10b53b5502682ceb");
+    }
+
+    @Test
+    public void testText() throws Exception {
+        DigestFilterHandler handler = new DigestFilterHandler(NullXmlHandler.INSTANCE, "SHA1");
+        handler.processCharacterData("some test data", false);
+        assertThat(DigestUtils.toHexString(handler.getDigest())).isEqualTo("91b802187b7ae7c2c858f4aa5ae5470fc50d0306");
+    }
+
+    @Test
+    public void testProcessingInstruction() throws Exception {
+        DigestFilterHandler handler = new DigestFilterHandler(NullXmlHandler.INSTANCE, "MD5");
+        handler.startProcessingInstruction("dbfo");
+        handler.processCharacterData("bgcolor=\"#EEEEEE\"", false);
+        handler.endProcessingInstruction();
+        assertThat(DigestUtils.toHexString(handler.getDigest())).isEqualTo("a7066a04f134fc8b62c1745da10dcd26");
+    }
+
+    @Test
+    public void testInsignificantDifferences() throws Exception {
+        assertThat(digest("<a:root xmlns:a='urn:test' b='2' a:c='3' a='1'><!--x--><child/></a:root>", "SHA1"))
+                .isEqualTo(digest("<p:root a='1' xmlns:p='urn:test' p:c='3' b='2'><child/><!--y--></p:root>", "SHA1"));
+    }
+
+    @Test
+    public void testSignificantDifferences() throws Exception {
+        assertThat(digest("<root a='1'>text</root>", "SHA1"))
+                .isNotEqualTo(digest("<root a='2'>text</root>", "SHA1"));
+        assertThat(digest("<root a='1'>text</root>", "SHA1"))
+                .isNotEqualTo(digest("<root a='1'>test</root>", "SHA1"));
+        assertThat(digest("<root xmlns='urn:a'/>", "SHA1"))
+                .isNotEqualTo(digest("<root xmlns='urn:b'/>", "SHA1"));
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testNoDigest() throws Exception {
+        new DigestFilterHandler(NullXmlHandler.INSTANCE, "MD5").getDigest();
+    }
+}
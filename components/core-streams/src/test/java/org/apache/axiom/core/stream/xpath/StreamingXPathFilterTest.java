@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.core.stream.xpath;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.apache.axiom.core.stream.StreamException;
+import org.apache.axiom.core.stream.XmlHandler;
+import org.apache.axiom.core.stream.XmlInput;
+import org.apache.axiom.core.stream.XmlReader;
+import org.apache.axiom.core.stream.dom.DOMInput;
+import org.apache.axiom.core.stream.serializer.Serializer;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+public class StreamingXPathFilterTest {
+    private static final class Listener implements StreamingXPathListener {
+        final List<String> matches = new ArrayList<String>();
+        final StringWriter snapshot;
+        
+        Listener(boolean snapshot) {
+            this.snapshot = snapshot ? new StringWriter() : null;
+        }
+
+        @Override
+        public XmlHandler elementMatched(StreamingXPath xpath) throws StreamException {
+            return snapshot == null ? null : new Serializer(snapshot);
+        }
+
+        @Override
+        public void matched(StreamingXPath xpath, String stringValue) throws StreamException {
+            matches.add(xpath + "=" + stringValue);
+        }
+    }
+    
+    private static Document parse(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+    }
+    
+    private static StreamingXPath[] compile(String... expressions) {
+        Map<String,String> namespaces = new HashMap<String,String>();
+        namespaces.put("p", "urn:p");
+        StreamingXPath[] result = new StreamingXPath[expressions.length];
+        for (int i=0; i<expressions.length; i++) {
+            result[i] = StreamingXPath.compile(expressions[i], namespaces);
+        }
+        return result;
+    }
+    
+    private static List<String> evaluate(String xml, boolean firstMatchOnly,
+            String... expressions) throws Exception {
+        Listener listener = new Listener(false);
+        new StreamingXPathFilter(compile(expressions), listener, firstMatchOnly).evaluate(
+                new DOMInput(parse(xml), false));
+        return listener.matches;
+    }
+    
+    @Test
+    public void testChildPath() throws Exception {
+        assertThat(evaluate("<p:root xmlns:p='urn:p'><p:a>1</p:a><a>2</a><p:a>3<!--x--><b>4</b></p:a></p:root>",
+                false, "/p:root/p:a")).containsExactly("/p:root/p:a=1", "/p:root/p:a=34").inOrder();
+    }
+    
+    @Test
+    public void testDescendantPath() throws Exception {
+        assertThat(evaluate("<root><a><a>1</a>2</a><b><a>3</a></b></root>", false, "//a"))
+                .containsExactly("//a=1", "//a=12", "//a=3").inOrder();
+    }
+    
+    @Test
+    public void testAttribute() throws Exception {
+        assertThat(evaluate("<root><order id='1'/><x><order id='2'/></x><order/></root>",
+                false, "//order/@id", "/root/*/@*")).containsExactly(
+                        "//order/@id=1", "/root/*/@*=1", "//order/@id=2").inOrder();
+    }
+    
+    @Test
+    public void testFirstMatchOnly() throws Exception {
+        assertThat(evaluate("<root><a>1</a><a>2</a><b c='x'/><b c='y'/></root>", true, "//a", "//@c"))
+                .containsExactly("//a=1", "//@c=x").inOrder();
+    }
+    
+    @Test
+    public void testSnapshot() throws Exception {
+        Listener listener = new Listener(true);
+        new StreamingXPathFilter(compile("/p:root/p:a"), listener, false).evaluate(
+                new DOMInput(parse("<p:root xmlns:p='urn:p'><p:a att='v'>text</p:a></p:root>"), false));
+        assertThat(listener.snapshot.toString()).isEqualTo("<p:a xmlns:p=\"urn:p\" att=\"v\">text</p:a>");
+    }
+    
+    @Test
+    public void testEarlyTermination() throws Exception {
+        final XmlInput input = new DOMInput(parse("<root><a>1</a><b/><b/><b/><b/><b/><b/></root>"), false);
+        final int[] calls = new int[1];
+        Listener listener = new Listener(false);
+        new StreamingXPathFilter(compile("/root/a"), listener, true).evaluate(new XmlInput() {
+            @Override
+            public XmlReader createReader(XmlHandler handler) {
+                final XmlReader reader = input.createReader(handler);
+                return new XmlReader() {
+                    @Override
+                    public boolean proceed() throws StreamException {
+                        calls[0]++;
+                        return reader.proceed();
+                    }
+                    
+                    @Override
+                    public void dispose() {
+                        reader.dispose();
+                    }
+                };
+            }
+        });
+        assertThat(listener.matches).containsExactly("/root/a=1");
+        assertThat(calls[0]).isLessThan(8);
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testPredicateNotSupported() {
+        compile("/root/a[1]");
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testUnboundPrefix() {
+        compile("/q:root");
+    }
+}
@@ -26,6 +26,7 @@ import javax.xml.namespace.QName;
 
 import org.apache.axiom.om.OMMetaFactory;
 import org.apache.axiom.om.OMNode;
+import org.apache.axiom.om.OMOutputFormat;
 import org.apache.axiom.testing.multiton.Multiton;
 import org.apache.axiom.testutils.suite.MatrixTestSuiteBuilder;
 import org.apache.axiom.ts.dimension.AddAttributeStrategy;
@@ -149,6 +150,7 @@ public class OMTestSuiteBuilder extends MatrixTestSuiteBuilder {
         addTest(new org.apache.axiom.ts.om.builder.TestInvalidXML(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestIOExceptionInGetText(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestMalformedDocument(metaFactory));
+        addTest(new org.apache.axiom.ts.om.builder.TestMetrics(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestReadAttachmentBeforeRootPartComplete(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestRegisterCustomBuilderForPayloadJAXBPlain(metaFactory));
         addTest(new org.apache.axiom.ts.om.builder.TestRegisterCustomBuilderForPayloadJAXBWithDataHandlerReaderExtension(metaFactory));
@@ -193,6 +195,9 @@ public class OMTestSuiteBuilder extends MatrixTestSuiteBuilder {
         addTest(new org.apache.axiom.ts.om.document.TestDigest(metaFactory, "digest2.xml", "SHA1", "3c47a807517d867d42ffacb2d3e9da81895d5aac"));
         addTest(new org.apache.axiom.ts.om.document.TestDigest(metaFactory, "digest3.xml", "SHA", "41466144c1cab4234fb127cfb8cf92f9"));
         addTest(new org.apache.axiom.ts.om.document.TestDigest(metaFactory, "digest4.xml", "SHA", "be3b0836cd6f0ceacdf3d40b49a0468d03d2ba2e"));
+        for (int i=1; i<=4; i++) {
+            addTest(new org.apache.axiom.ts.om.document.TestDigestStreaming(metaFactory, "digest" + i + ".xml", "SHA1"));
+        }
         addTest(new org.apache.axiom.ts.om.document.TestGetOMDocumentElement(metaFactory));
         addTest(new org.apache.axiom.ts.om.document.TestGetOMDocumentElementAfterDetach(metaFactory));
         addTest(new org.apache.axiom.ts.om.document.TestGetOMDocumentElementWithParser(metaFactory));
@@ -219,6 +224,8 @@ public class OMTestSuiteBuilder extends MatrixTestSuiteBuilder {
         addTest(new org.apache.axiom.ts.om.document.TestRemoveChildren(metaFactory, false, true));
         addTest(new org.apache.axiom.ts.om.document.TestSerializeAndConsume(metaFactory));
         addTest(new org.apache.axiom.ts.om.document.TestSerializeAndConsumeWithIncompleteDescendant(metaFactory));
+        addTest(new org.apache.axiom.ts.om.document.TestSerializeParallel(metaFactory, false));
+        addTest(new org.apache.axiom.ts.om.document.TestSerializeParallel(metaFactory, true));
         addTest(new org.apache.axiom.ts.om.document.TestSerializeUTF16(metaFactory));
         addTest(new org.apache.axiom.ts.om.document.TestSerializeWithIgnoreXMLDeclaration(metaFactory));
         addTest(new org.apache.axiom.ts.om.document.TestSerializeXML11(metaFactory));
@@ -280,6 +287,7 @@ public class OMTestSuiteBuilder extends MatrixTestSuiteBuilder {
         addTest(new org.apache.axiom.ts.om.element.TestDeclareNamespaceWithGeneratedPrefix1(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestDeclareNamespaceWithGeneratedPrefix3(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestDetachWithDifferentBuilder(metaFactory));
+        addTest(new org.apache.axiom.ts.om.element.TestDigestCacheInvalidation(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestDigestWithNamespace(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestDigestWithoutNamespace(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestDiscardDocumentElement(metaFactory));
@@ -384,6 +392,8 @@ public class OMTestSuiteBuilder extends MatrixTestSuiteBuilder {
         addTest(new org.apache.axiom.ts.om.element.TestIsCompleteAfterAddingIncompleteChild(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestIsCompleteWithParser(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestMultipleDefaultNS(metaFactory));
+        addTest(new org.apache.axiom.ts.om.element.TestRecordEvents(metaFactory, true));
+        addTest(new org.apache.axiom.ts.om.element.TestRecordEvents(metaFactory, false));
         addTest(new org.apache.axiom.ts.om.element.TestRemoveAttribute(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestRemoveAttributeNotOwner(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestRemoveChildren(metaFactory, true));
@@ -410,10 +420,20 @@ public class OMTestSuiteBuilder extends MatrixTestSuiteBuilder {
                 "<person><p:name xmlns:p=\"urn:ns\">John</p:name><p:age xmlns:p=\"urn:ns\">34</p:age><p:weight xmlns:p=\"urn:ns\">50</p:weight></person>"));
         addTest(new org.apache.axiom.ts.om.element.TestSerialization(metaFactory, "U", "D",
                 "<person><name xmlns=\"urn:ns\">John</name><age xmlns=\"urn:ns\">34</age><weight xmlns=\"urn:ns\">50</weight></person>"));
+        addTest(new org.apache.axiom.ts.om.element.TestSerializationCache(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestSerializationWithTwoNonBuiltOMElements(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestSerializeAndConsumeConsumed(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestSerializeAndConsumePartiallyBuilt(metaFactory));
         addTest(new org.apache.axiom.ts.om.element.TestSerializeAndConsumeWithIncompleteDescendant(metaFactory));
+        addTest(new org.apache.axiom.ts.om.element.TestSerializeBinaryXML(metaFactory));
+        addTest(new org.apache.axiom.ts.om.element.TestSerializeCanonical(metaFactory, OMOutputFormat.CANONICAL_XML, null,
+                "<a:child xmlns=\"urn:default\" xmlns:a=\"urn:a\" xmlns:unused=\"urn:unused\" a=\"1\" b=\"2\" xml:lang=\"en\"><leaf></leaf></a:child>"));
+        addTest(new org.apache.axiom.ts.om.element.TestSerializeCanonical(metaFactory, OMOutputFormat.CANONICAL_XML_WITH_COMMENTS, null,
+                "<a:child xmlns=\"urn:default\" xmlns:a=\"urn:a\" xmlns:unused=\"urn:unused\" a=\"1\" b=\"2\" xml:lang=\"en\"><!--c--><leaf></leaf></a:child>"));
+        addTest(new org.apache.axiom.ts.om.element.TestSerializeCanonical(metaFactory, OMOutputFormat.EXCLUSIVE_CANONICAL_XML, null,
+                "<a:child xmlns:a=\"urn:a\" a=\"1\" b=\"2\"><leaf xmlns=\"urn:default\"></leaf></a:child>"));
+        addTest(new org.apache.axiom.ts.om.element.TestSerializeCanonical(metaFactory, OMOutputFormat.EXCLUSIVE_CANONICAL_XML, "#default",
+                "<a:child xmlns=\"urn:default\" xmlns:a=\"urn:a\" a=\"1\" b=\"2\"><leaf></leaf></a:child>"));
         for (int i=0; i<3; i++) {
             Boolean declare = i == 0 ? null : Boolean.valueOf(i==2);
             boolean implicitDeclare = declare == null || declare.booleanValue();
@@ -661,6 +681,8 @@ public class OMTestSuiteBuilder extends MatrixTestSuiteBuilder {
         addTest(new org.apache.axiom.ts.om.text.TestSerialize(metaFactory, OMNode.CDATA_SECTION_NODE));
         addTest(new org.apache.axiom.ts.om.xop.TestSerialize(metaFactory, false));
         addTest(new org.apache.axiom.ts.om.xop.TestSerialize(metaFactory, true));
+        addTest(new org.apache.axiom.ts.om.xop.TestSerializeWithOptimizedThreshold(metaFactory, 50));
+        addTest(new org.apache.axiom.ts.om.xop.TestSerializeWithOptimizedThreshold(metaFactory, 1000));
         addTest(new org.apache.axiom.ts.om.xop.TestSetOptimize(metaFactory, false));
         addTest(new org.apache.axiom.ts.om.xop.TestSetOptimize(metaFactory, true));
         addTest(new org.apache.axiom.ts.om.xop.XOPRoundtripTest(metaFactory));
@@ -673,6 +695,39 @@ public class OMTestSuiteBuilder extends MatrixTestSuiteBuilder {
         }
         addTest(new org.apache.axiom.ts.om.xpath.TestAddNamespaces(metaFactory));
         addTest(new org.apache.axiom.ts.om.xpath.TestAddNamespaces2(metaFactory));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "/"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "/root"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "/root/*"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "/root/q:a"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "/root/q:*"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "/root/q:a/b"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "//b"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "//q:a"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "//b/text()"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "/root/a/text()"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "/root/a/node()"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "//node()"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "//text()"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "//@id"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "//@q:att"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "/root/@a"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "q:a/@id"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "@*"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "@q:*"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "./q:a/b"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "q:a//b"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "q:a//@id"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "//a/@id"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "/root//b/@q:att"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "child::*/descendant::b"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "descendant-or-self::b"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "a/descendant-or-self::b"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "/root/descendant-or-self::b"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "self::node()/descendant-or-self::b"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "/root/x"));
+        addTest(new org.apache.axiom.ts.om.xpath.TestCompiledLocationPath(metaFactory, "//xml:foo"));
         addTest(new org.apache.axiom.ts.om.xpath.TestGetAttributeQName(metaFactory));
+        addTest(new org.apache.axiom.ts.om.xpath.TestGetCachedInstance(metaFactory));
+        addTest(new org.apache.axiom.ts.om.xpath.TestSelectSingleNodeIncremental(metaFactory));
     }
 }
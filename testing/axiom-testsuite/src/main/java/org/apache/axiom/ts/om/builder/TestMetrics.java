@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.builder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.apache.axiom.metrics.Metrics;
+import org.apache.axiom.metrics.MetricsCollector;
+import org.apache.axiom.om.OMDocument;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that builders and the serializer report to the registered {@link MetricsCollector}.
+ */
+public class TestMetrics extends AxiomTestCase {
+    public TestMetrics(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        final long[] built = new long[3];
+        final long[] serialized = new long[2];
+        Metrics.setCollector(new MetricsCollector() {
+            @Override
+            public void documentBuilt(long nodeCount, long byteCount, long nanos) {
+                built[0]++;
+                built[1] = nodeCount;
+                built[2] = byteCount;
+            }
+
+            @Override
+            public void documentSerialized(long byteCount, long nanos) {
+                serialized[0]++;
+                serialized[1] = byteCount;
+            }
+        });
+        try {
+            byte[] content = "<root><a>text</a><b/><!--comment--></root>".getBytes("UTF-8");
+            OMDocument document = OMXMLBuilderFactory.createOMBuilder(metaFactory.getOMFactory(),
+                    new ByteArrayInputStream(content)).getDocument();
+            assertEquals(0, built[0]);
+            document.build();
+            assertEquals(1, built[0]);
+            // document, root, a, b and the comment
+            assertEquals(5, built[1]);
+            assertEquals(content.length, built[2]);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            document.getOMDocumentElement().serialize(baos);
+            assertEquals(1, serialized[0]);
+            assertEquals(baos.size(), serialized[1]);
+            document.close(false);
+            assertEquals(1, built[0]);
+        } finally {
+            Metrics.setCollector(null);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.document;
+
+import java.io.InputStream;
+import java.util.Iterator;
+
+import org.apache.axiom.om.OMDocument;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMNode;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.util.DigestGenerator;
+import org.apache.axiom.om.util.DigestSupport;
+import org.apache.axiom.testutils.DigestUtils;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that the digests computed by {@link DigestSupport} are the same as the ones computed by
+ * walking the tree. The latter is achieved by using a subclass of {@link DigestGenerator}.
+ */
+public class TestDigestStreaming extends AxiomTestCase {
+    private final String file;
+    private final String algorithm;
+
+    public TestDigestStreaming(OMMetaFactory metaFactory, String file, String algorithm) {
+        super(metaFactory);
+        this.file = file;
+        this.algorithm = algorithm;
+        addTestParameter("file", file);
+        addTestParameter("algorithm", algorithm);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMDocument document;
+        InputStream in = TestDigestStreaming.class.getResourceAsStream(file);
+        try {
+            document = OMXMLBuilderFactory.createOMBuilder(metaFactory.getOMFactory(), in).getDocument();
+            document.build();
+        } finally {
+            in.close();
+        }
+        // Add nodes that the parser doesn't produce
+        OMFactory factory = metaFactory.getOMFactory();
+        OMElement root = document.getOMDocumentElement();
+        OMElement child = factory.createOMElement("extra", null, root);
+        factory.createOMText(child, "cdata", OMNode.CDATA_SECTION_NODE);
+        factory.createOMText(child, "  ", OMNode.SPACE_NODE);
+        factory.createOMText(child, "text");
+        factory.createOMText(child, "more text");
+        factory.createOMComment(child, "comment");
+        factory.createOMProcessingInstruction(child, "target", "data");
+        assertTrue(document instanceof DigestSupport);
+        DigestGenerator streaming = new DigestGenerator();
+        DigestGenerator treeWalking = new DigestGenerator() {};
+        assertEquals(DigestUtils.toHexString(treeWalking.getDigest(document, algorithm)),
+                DigestUtils.toHexString(streaming.getDigest(document, algorithm)));
+        checkElement(root, streaming, treeWalking);
+    }
+
+    private void checkElement(OMElement element, DigestGenerator streaming, DigestGenerator treeWalking) {
+        assertEquals(DigestUtils.toHexString(treeWalking.getDigest(element, algorithm)),
+                DigestUtils.toHexString(streaming.getDigest(element, algorithm)));
+        for (Iterator<OMElement> it = element.getChildElements(); it.hasNext(); ) {
+            checkElement(it.next(), streaming, treeWalking);
+        }
+    }
+}
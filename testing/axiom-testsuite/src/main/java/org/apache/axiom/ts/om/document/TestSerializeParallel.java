@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.document;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static org.apache.axiom.truth.xml.XMLTruth.xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.axiom.om.OMDocument;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that serializing a document with {@link OMOutputFormat#setSerializationExecutor(Executor)}
+ * produces the same output as sequential serialization and that the executor is only used if the
+ * document is fully built.
+ */
+public class TestSerializeParallel extends AxiomTestCase {
+    private final boolean useWriter;
+
+    public TestSerializeParallel(OMMetaFactory metaFactory, boolean useWriter) {
+        super(metaFactory);
+        this.useWriter = useWriter;
+        addTestParameter("useWriter", useWriter);
+    }
+
+    private String serialize(OMDocument document, OMOutputFormat format) throws Exception {
+        if (useWriter) {
+            StringWriter sw = new StringWriter();
+            document.serialize(sw, format);
+            return sw.toString();
+        } else {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            document.serialize(baos, format);
+            return baos.toString("utf-8");
+        }
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        StringBuilder xml = new StringBuilder("<?xml version='1.0'?><!--prolog-->"
+                + "<root xmlns:p='urn:p' xmlns='urn:default'><header><p:h1>1</p:h1><h2/></header><body>");
+        for (int i=0; i<200; i++) {
+            switch (i % 4) {
+                case 0:
+                    xml.append("<record id='" + i + "'><name>n\u00e9&amp;" + i + "</name></record>");
+                    break;
+                case 1:
+                    xml.append("<p:record xmlns='' p:id='" + i + "'><name>" + i + "</name><!--c--></p:record>");
+                    break;
+                case 2:
+                    xml.append("<record xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xsi:type='p:T'><![CDATA[" + i + "]]></record>");
+                    break;
+                default:
+                    xml.append("text<?pi " + i + "?>");
+            }
+        }
+        xml.append("</body></root>");
+        
+        final AtomicInteger tasks = new AtomicInteger();
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            OMOutputFormat format = new OMOutputFormat();
+            format.setSerializationExecutor(new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    tasks.incrementAndGet();
+                    executorService.execute(command);
+                }
+            });
+            
+            OMDocument document = OMXMLBuilderFactory.createOMBuilder(metaFactory.getOMFactory(),
+                    new StringReader(xml.toString())).getDocument();
+            assertAbout(xml())
+                    .that(serialize(document, format))
+                    .hasSameContentAs(xml.toString());
+            assertEquals(0, tasks.get());
+            assertTrue(document.isComplete());
+            
+            String expected = serialize(document, new OMOutputFormat());
+            for (int i=0; i<2; i++) {
+                assertAbout(xml())
+                        .that(serialize(document, format))
+                        .ignoringRedundantNamespaceDeclarations()
+                        .hasSameContentAs(expected);
+            }
+            assertTrue(tasks.get() > 0);
+        } finally {
+            executorService.shutdown();
+        }
+    }
+}
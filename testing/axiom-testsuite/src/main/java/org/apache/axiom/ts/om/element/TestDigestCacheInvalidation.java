@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.element;
+
+import java.io.StringReader;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.OMAttribute;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMProcessingInstruction;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.util.DigestGenerator;
+import org.apache.axiom.testutils.DigestUtils;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that digests cached by {@link DigestGenerator#DigestGenerator(boolean)} are discarded
+ * when a descendant of the element is modified.
+ */
+public class TestDigestCacheInvalidation extends AxiomTestCase {
+    private final DigestGenerator cachingGenerator = new DigestGenerator(true);
+    private final DigestGenerator generator = new DigestGenerator();
+    private OMElement root;
+    private OMElement child;
+    private String lastDigest;
+
+    public TestDigestCacheInvalidation(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    /**
+     * Check that the cached digests of the root and the child element match the actual digests,
+     * and that the digest of the root element has changed since the last call.
+     */
+    private void checkDigests(boolean expectChange) {
+        for (OMElement element : new OMElement[] { root, child }) {
+            assertEquals(DigestUtils.toHexString(generator.getDigest(element, "SHA1")),
+                    DigestUtils.toHexString(cachingGenerator.getDigest(element, "SHA1")));
+            // Check that a second request returns the same digest
+            assertEquals(DigestUtils.toHexString(generator.getDigest(element, "SHA1")),
+                    DigestUtils.toHexString(cachingGenerator.getDigest(element, "SHA1")));
+        }
+        String digest = DigestUtils.toHexString(cachingGenerator.getDigest(root, "SHA1"));
+        if (lastDigest != null) {
+            if (expectChange) {
+                assertFalse(digest.equals(lastDigest));
+            } else {
+                assertEquals(lastDigest, digest);
+            }
+        }
+        lastDigest = digest;
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMFactory factory = metaFactory.getOMFactory();
+        root = OMXMLBuilderFactory.createOMBuilder(factory, new StringReader(
+                "<root xmlns='urn:test'><child a='1'><grandchild b='2'>text<?pi value?></grandchild></child></root>")).getDocumentElement();
+        child = root.getFirstElement();
+        OMElement grandchild = child.getFirstElement();
+        OMProcessingInstruction pi = (OMProcessingInstruction)grandchild.getFirstOMChild().getNextOMSibling();
+        checkDigests(false);
+        
+        grandchild.getAttribute(new QName("b")).setAttributeValue("3");
+        checkDigests(true);
+        
+        OMAttribute attr = grandchild.addAttribute("c", "4", null);
+        checkDigests(true);
+        
+        grandchild.removeAttribute(attr);
+        checkDigests(true);
+        
+        pi.setValue("other");
+        checkDigests(true);
+        
+        pi.setTarget("target");
+        checkDigests(true);
+        
+        grandchild.setLocalName("renamed");
+        checkDigests(true);
+        
+        grandchild.setNamespace(factory.createOMNamespace("urn:other", "p"));
+        checkDigests(true);
+        
+        // Namespace declarations don't contribute to the digest
+        grandchild.declareNamespace("urn:unused", "q");
+        checkDigests(false);
+        
+        factory.createOMElement("new", null, grandchild);
+        checkDigests(true);
+        
+        grandchild.getFirstElement().detach();
+        checkDigests(true);
+        
+        factory.createOMComment(grandchild, "comment");
+        checkDigests(false);
+        
+        grandchild.addChild(factory.createOMText("more text"));
+        checkDigests(true);
+        
+        grandchild.setText("replaced");
+        checkDigests(true);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.element;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static org.apache.axiom.truth.xml.XMLTruth.xml;
+
+import java.io.StringReader;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.OMDataSourceExt;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMSourcedElement;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.util.EventBufferSupport;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests {@link EventBufferSupport#recordEvents(boolean)}. The data source must be replayable any
+ * number of times, both through serialization and through its
+ * {@link javax.xml.stream.XMLStreamReader}, and the recorded content must include the namespace
+ * declarations inherited from the ancestors.
+ */
+public class TestRecordEvents extends AxiomTestCase {
+    private final boolean cache;
+
+    public TestRecordEvents(OMMetaFactory metaFactory, boolean cache) {
+        super(metaFactory);
+        this.cache = cache;
+        addTestParameter("cache", cache);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMFactory factory = metaFactory.getOMFactory();
+        OMElement root = OMXMLBuilderFactory.createOMBuilder(factory, new StringReader(
+                "<root xmlns:p='urn:p' xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'>"
+                + "<p:a attr='v'>text<!--c--><b xsi:type='p:T'>x</b><?pi data?></p:a><c/></root>"))
+                .getDocumentElement();
+        String expected = "<p:a xmlns:p='urn:p' attr='v'>text<!--c-->"
+                + "<b xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xsi:type='p:T'>x</b>"
+                + "<?pi data?></p:a>";
+        OMDataSourceExt ds = ((EventBufferSupport)root.getFirstElement()).recordEvents(cache);
+        assertFalse(ds.isDestructiveRead());
+        assertFalse(ds.isDestructiveWrite());
+        OMSourcedElement element = factory.createOMElement(ds);
+        for (int i=0; i<2; i++) {
+            assertAbout(xml())
+                    .that(element.toString())
+                    .hasSameContentAs(expected);
+            assertFalse(element.isExpanded());
+            assertAbout(xml())
+                    .that(xml(OMElement.class, OMXMLBuilderFactory.createStAXOMBuilder(factory, ds.getReader()).getDocumentElement()))
+                    .ignoringRedundantNamespaceDeclarations()
+                    .hasSameContentAs(expected);
+        }
+        assertEquals("a", element.getLocalName());
+        OMElement b = element.getFirstChildWithName(new QName("b"));
+        assertEquals(new QName("urn:p", "T"), b.resolveQName(b.getAttributeValue(
+                new QName(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type"))));
+        assertTrue(element.isExpanded());
+        assertAbout(xml())
+                .that(element.toString())
+                .hasSameContentAs(expected);
+    }
+}
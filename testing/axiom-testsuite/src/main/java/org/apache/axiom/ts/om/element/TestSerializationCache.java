@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.element;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static org.apache.axiom.truth.xml.XMLTruth.xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axiom.om.OMSourcedElement;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.ds.AbstractPushOMDataSource;
+import org.apache.axiom.om.util.SerializationCacheSupport;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests {@link SerializationCacheSupport}. The cached form must be used for repeated
+ * serializations with the same encoding, must be discarded when a descendant is modified and must
+ * not be used in a namespace context where it would change the meaning of the content. Note that
+ * cached forms may contain redundant namespace declarations.
+ */
+public class TestSerializationCache extends AxiomTestCase {
+    static class CountingOMDataSource extends AbstractPushOMDataSource {
+        int count;
+        
+        @Override
+        public void serialize(XMLStreamWriter writer) throws XMLStreamException {
+            count++;
+            writer.writeStartElement("p", "policy", "urn:policy");
+            writer.writeNamespace("p", "urn:policy");
+            writer.writeStartElement("p", "rule", "urn:policy");
+            writer.writeCharacters("value");
+            writer.writeEndElement();
+            writer.writeEndElement();
+        }
+        
+        @Override
+        public boolean isDestructiveWrite() {
+            return false;
+        }
+    }
+    
+    public TestSerializationCache(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    private static String serialize(OMElement element, String encoding) throws Exception {
+        OMOutputFormat format = new OMOutputFormat();
+        format.setCharSetEncoding(encoding);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        element.serialize(baos, format);
+        return baos.toString(encoding);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMFactory factory = metaFactory.getOMFactory();
+        
+        // Sourced element: the data source is only invoked once per encoding
+        OMElement root = factory.createOMElement(new QName("root"));
+        CountingOMDataSource ds = new CountingOMDataSource();
+        OMSourcedElement sourcedElement = factory.createOMElement(ds);
+        root.addChild(sourcedElement);
+        assertFalse(((SerializationCacheSupport)sourcedElement).isSerializationCacheEnabled());
+        ((SerializationCacheSupport)sourcedElement).setSerializationCacheEnabled(true);
+        String expected = "<root><p:policy xmlns:p='urn:policy'><p:rule>value</p:rule></p:policy></root>";
+        for (int i=0; i<3; i++) {
+            assertAbout(xml())
+                    .that(serialize(root, "UTF-8"))
+                    .hasSameContentAs(expected);
+        }
+        assertEquals(1, ds.count);
+        assertAbout(xml())
+                .that(serialize(root, "ISO-8859-1"))
+                .ignoringRedundantNamespaceDeclarations()
+                .hasSameContentAs(expected);
+        assertEquals(2, ds.count);
+        assertAbout(xml())
+                .that(root.toString())
+                .ignoringRedundantNamespaceDeclarations()
+                .hasSameContentAs(expected);
+        assertAbout(xml())
+                .that(root.toString())
+                .ignoringRedundantNamespaceDeclarations()
+                .hasSameContentAs(expected);
+        assertEquals(3, ds.count);
+        assertFalse(sourcedElement.isExpanded());
+        
+        // Modifying the expanded element discards the cached form
+        sourcedElement.getFirstElement().setText("new");
+        assertTrue(sourcedElement.isExpanded());
+        assertAbout(xml())
+                .that(serialize(root, "UTF-8"))
+                .ignoringRedundantNamespaceDeclarations()
+                .hasSameContentAs("<root><p:policy xmlns:p='urn:policy'><p:rule>new</p:rule></p:policy></root>");
+        
+        // Plain element: modifications of descendants discard the cached form
+        OMElement element = OMXMLBuilderFactory.createOMBuilder(factory, new StringReader(
+                "<a xmlns='urn:a'><b><c>1</c></b></a>")).getDocumentElement();
+        OMElement b = element.getFirstElement();
+        ((SerializationCacheSupport)b).setSerializationCacheEnabled(true);
+        assertAbout(xml())
+                .that(serialize(element, "UTF-8"))
+                .ignoringRedundantNamespaceDeclarations()
+                .hasSameContentAs("<a xmlns='urn:a'><b><c>1</c></b></a>");
+        b.getFirstElement().setText("2");
+        assertAbout(xml())
+                .that(serialize(element, "UTF-8"))
+                .ignoringRedundantNamespaceDeclarations()
+                .hasSameContentAs("<a xmlns='urn:a'><b><c>2</c></b></a>");
+        b.getFirstElement().addAttribute("attr", "value", null);
+        assertAbout(xml())
+                .that(serialize(element, "UTF-8"))
+                .ignoringRedundantNamespaceDeclarations()
+                .hasSameContentAs("<a xmlns='urn:a'><b><c attr='value'>2</c></b></a>");
+        
+        // An element in no namespace cached outside of a default namespace declaration must not be
+        // replayed where the default namespace is bound
+        OMElement unqualified = factory.createOMElement(new QName("u"));
+        ((SerializationCacheSupport)unqualified).setSerializationCacheEnabled(true);
+        assertAbout(xml())
+                .that(serialize(unqualified, "UTF-8"))
+                .ignoringRedundantNamespaceDeclarations()
+                .hasSameContentAs("<u/>");
+        OMElement parent = factory.createOMElement("parent", factory.createOMNamespace("urn:default", ""));
+        parent.addChild(unqualified);
+        assertAbout(xml())
+                .that(serialize(parent, "UTF-8"))
+                .ignoringRedundantNamespaceDeclarations()
+                .hasSameContentAs("<parent xmlns='urn:default'><u xmlns=''/></parent>");
+        
+        ((SerializationCacheSupport)unqualified).setSerializationCacheEnabled(false);
+        assertFalse(((SerializationCacheSupport)unqualified).isSerializationCacheEnabled());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.element;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static org.apache.axiom.truth.xml.XMLTruth.xml;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import javax.activation.DataHandler;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.axiom.blob.Blobs;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axiom.om.OMSourcedElement;
+import org.apache.axiom.om.OMText;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.ds.BinaryXMLOMDataSource;
+import org.apache.axiom.testutils.activation.RandomDataSource;
+import org.apache.axiom.testutils.io.IOTestUtils;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that an element serialized with {@link OMOutputFormat#setBinaryXML(boolean)} can be read
+ * back using {@link OMXMLBuilderFactory#createBinaryXMLOMBuilder(OMFactory, java.io.InputStream)}
+ * and {@link BinaryXMLOMDataSource}, and that optimized binary content is preserved as raw bytes.
+ */
+public class TestSerializeBinaryXML extends AxiomTestCase {
+    public TestSerializeBinaryXML(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMFactory factory = metaFactory.getOMFactory();
+        OMElement root = OMXMLBuilderFactory.createOMBuilder(factory, new StringReader(
+                "<root xmlns:p='urn:p'><p:a attr='v' p:attr='w'>text<!--c--><?pi data?>"
+                + "<![CDATA[<cdata>]]><b/></p:a></root>")).getDocumentElement();
+        OMElement element = root.getFirstElement();
+        RandomDataSource orgDS = new RandomDataSource(10000);
+        element.getFirstChildWithName(new QName("b")).addChild(
+                factory.createOMText(new DataHandler(orgDS), true));
+        String expected = element.toString();
+        
+        OMOutputFormat format = new OMOutputFormat();
+        format.setBinaryXML(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        element.serialize(out, format);
+        byte[] content = out.toByteArray();
+        try {
+            element.serialize(new StringWriter(), format);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+        
+        OMElement copy = OMXMLBuilderFactory.createBinaryXMLOMBuilder(factory,
+                Blobs.createBlob(content).getInputStream()).getDocumentElement();
+        assertAbout(xml())
+                .that(xml(OMElement.class, copy))
+                .hasSameContentAs(expected);
+        OMText text = (OMText)copy.getFirstChildWithName(new QName("b")).getFirstOMChild();
+        assertTrue(text.isBinary());
+        assertTrue(text.isOptimized());
+        IOTestUtils.compareStreams(orgDS.getInputStream(), text.getDataHandler().getInputStream());
+        
+        OMSourcedElement sourcedElement = factory.createOMElement(
+                new BinaryXMLOMDataSource(Blobs.createBlob(content)));
+        for (int i=0; i<2; i++) {
+            assertAbout(xml())
+                    .that(sourcedElement.toString())
+                    .hasSameContentAs(expected);
+            assertFalse(sourcedElement.isExpanded());
+        }
+        assertEquals("w", sourcedElement.getAttributeValue(new QName("urn:p", "attr")));
+        assertTrue(sourcedElement.isExpanded());
+        assertAbout(xml())
+                .that(xml(OMElement.class, sourcedElement))
+                .hasSameContentAs(expected);
+        
+        BinaryXMLOMDataSource ds = new BinaryXMLOMDataSource(Blobs.createBlob(content));
+        ds.close();
+        assertNull(ds.getObject());
+        try {
+            ds.getReader();
+            fail("Expected XMLStreamException");
+        } catch (XMLStreamException ex) {
+            // Expected
+        }
+    }
+}
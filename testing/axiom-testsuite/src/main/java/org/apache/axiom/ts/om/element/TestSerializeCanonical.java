@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.element;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that {@link OMElement#serialize(java.io.Writer, OMOutputFormat)} and
+ * {@link OMElement#serialize(java.io.OutputStream, OMOutputFormat)} produce the canonical form of
+ * the element if a canonicalization method is set with
+ * {@link OMOutputFormat#setCanonicalizationMethod(String)}. The element is not the document
+ * element, so that the handling of namespace declarations and <tt>xml:*</tt> attributes inherited
+ * from the ancestors is covered.
+ */
+public class TestSerializeCanonical extends AxiomTestCase {
+    private final String method;
+    private final String inclusiveNamespacePrefixes;
+    private final String expected;
+
+    public TestSerializeCanonical(OMMetaFactory metaFactory, String method,
+            String inclusiveNamespacePrefixes, String expected) {
+        super(metaFactory);
+        this.method = method;
+        this.inclusiveNamespacePrefixes = inclusiveNamespacePrefixes;
+        this.expected = expected;
+        addTestParameter("method", method);
+        if (inclusiveNamespacePrefixes != null) {
+            addTestParameter("inclusiveNamespacePrefixes", inclusiveNamespacePrefixes);
+        }
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMElement root = OMXMLBuilderFactory.createOMBuilder(metaFactory.getOMFactory(), new StringReader(
+                "<root xmlns='urn:default' xmlns:a='urn:a' xmlns:unused='urn:unused' xml:lang='en'>"
+                + "<a:child b='2' a='1'><!--c--><leaf/></a:child></root>")).getDocumentElement();
+        OMElement child = root.getFirstElement();
+        OMOutputFormat format = new OMOutputFormat();
+        format.setCanonicalizationMethod(method);
+        format.setInclusiveNamespacePrefixes(inclusiveNamespacePrefixes);
+        StringWriter sw = new StringWriter();
+        child.serialize(sw, format);
+        assertEquals(expected, sw.toString());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        child.serialize(baos, format);
+        assertEquals(expected, new String(baos.toByteArray(), "UTF-8"));
+    }
+}
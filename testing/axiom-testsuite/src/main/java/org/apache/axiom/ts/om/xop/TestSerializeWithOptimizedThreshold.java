@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.xop;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import javax.activation.DataHandler;
+import javax.mail.Multipart;
+import javax.mail.internet.MimeMultipart;
+import javax.mail.util.ByteArrayDataSource;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axiom.om.OMText;
+import org.apache.axiom.ts.AxiomTestCase;
+import org.apache.axiom.util.base64.Base64Utils;
+
+/**
+ * Tests that binary content for which the size can't be determined in advance is only produced
+ * once if its size is checked against {@link OMOutputFormat#getOptimizedThreshold()} and it ends
+ * up being encoded inline.
+ */
+public class TestSerializeWithOptimizedThreshold extends AxiomTestCase {
+    static class CountingDataHandler extends DataHandler {
+        private final byte[] content;
+        int count;
+        
+        CountingDataHandler(byte[] content) {
+            super(content, "application/octet-stream");
+            this.content = content;
+        }
+
+        @Override
+        public void writeTo(OutputStream os) throws IOException {
+            count++;
+            os.write(content);
+        }
+    }
+    
+    private final int size;
+    
+    public TestSerializeWithOptimizedThreshold(OMMetaFactory metaFactory, int size) {
+        super(metaFactory);
+        this.size = size;
+        addTestParameter("size", size);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMFactory factory = metaFactory.getOMFactory();
+        byte[] content = new byte[size];
+        Arrays.fill(content, (byte)'A');
+        CountingDataHandler dh = new CountingDataHandler(content);
+        OMElement element = factory.createOMElement("test", null);
+        element.addChild(factory.createOMText(dh, true));
+        OMOutputFormat format = new OMOutputFormat();
+        format.setDoOptimize(true);
+        format.setOptimizedThreshold(100);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        element.serialize(out, format);
+        Multipart mp = new MimeMultipart(new ByteArrayDataSource(out.toByteArray(), format.getContentType()));
+        if (size > 100) {
+            assertThat(mp.getCount()).isEqualTo(2);
+        } else {
+            assertThat(mp.getCount()).isEqualTo(1);
+            assertThat(dh.count).isEqualTo(1);
+            ByteArrayOutputStream rootPart = new ByteArrayOutputStream();
+            mp.getBodyPart(0).getDataHandler().writeTo(rootPart);
+            assertThat(rootPart.toString("UTF-8")).contains(Base64Utils.encode(content));
+        }
+        // The data handler must not be replaced by the wrapper used to check the size
+        assertSame(dh, ((OMText)element.getFirstOMChild()).getDataHandler());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.xpath;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.apache.axiom.om.OMDocument;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.xpath.AXIOMXPath;
+import org.apache.axiom.om.xpath.DocumentNavigator;
+import org.apache.axiom.ts.AxiomTestCase;
+import org.jaxen.BaseXPath;
+import org.jaxen.XPath;
+
+/**
+ * Tests that {@link AXIOMXPath} produces the same results as Jaxen for location paths that are
+ * evaluated directly on the Axiom tree.
+ */
+public class TestCompiledLocationPath extends AxiomTestCase {
+    private final String expression;
+    
+    public TestCompiledLocationPath(OMMetaFactory metaFactory, String expression) {
+        super(metaFactory);
+        this.expression = expression;
+        addTestParameter("expression", expression);
+    }
+
+    private static void assertSameNodes(List<?> expected, List<?> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i=0; i<expected.size(); i++) {
+            assertSame(expected.get(i), actual.get(i));
+        }
+    }
+    
+    private static void assertSameResults(XPath expected, AXIOMXPath actual, Object context)
+            throws Exception {
+        assertSameNodes(expected.selectNodes(context), actual.selectNodes(context));
+        assertSame(expected.selectSingleNode(context), actual.selectSingleNode(context));
+        assertEquals(expected.stringValueOf(context), actual.stringValueOf(context));
+        assertEquals(expected.booleanValueOf(context), actual.booleanValueOf(context));
+    }
+    
+    @Override
+    protected void runTest() throws Throwable {
+        OMDocument document = OMXMLBuilderFactory.createOMBuilder(metaFactory.getOMFactory(),
+                new StringReader("<root xmlns:p='urn:p' a='1'>"
+                        + "<p:a id='a1' p:att='x'>text1<b>b1</b><!--comment--><p:a id='a2'><b>b2</b></p:a><b>b3</b></p:a>"
+                        + "<a id='a3'>text2<b p:att='y'>b4</b><![CDATA[cdata]]></a>"
+                        + "<c><a id='a4'/></c>"
+                        + "</root>")).getDocument();
+        XPath expected = new BaseXPath(expression, new DocumentNavigator());
+        expected.addNamespace("q", "urn:p");
+        AXIOMXPath actual = new AXIOMXPath(expression);
+        actual.addNamespace("q", "urn:p");
+        OMElement root = document.getOMDocumentElement();
+        assertSameResults(expected, actual, document);
+        assertSameResults(expected, actual, root);
+        assertSameResults(expected, actual, root.getFirstElement());
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.om.xpath;
+
+import java.io.StringReader;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.xpath.AXIOMXPath;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that {@link AXIOMXPath#selectSingleNode(Object)} only builds the document as far as
+ * necessary to locate the first matching node.
+ */
+public class TestSelectSingleNodeIncremental extends AxiomTestCase {
+    public TestSelectSingleNodeIncremental(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMElement root = OMXMLBuilderFactory.createOMBuilder(metaFactory.getOMFactory(),
+                new StringReader("<root><a><b>test</b></a><c/><d/></root>")).getDocumentElement();
+        OMElement b = (OMElement)new AXIOMXPath("/root/a/b").selectSingleNode(root);
+        assertEquals("test", b.getText());
+        assertFalse(root.isComplete());
+        assertEquals("c", ((OMElement)new AXIOMXPath("//c").selectSingleNode(root)).getLocalName());
+        assertFalse(root.isComplete());
+    }
+}
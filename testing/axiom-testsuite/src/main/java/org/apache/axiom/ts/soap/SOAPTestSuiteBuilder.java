@@ -119,6 +119,7 @@ public class SOAPTestSuiteBuilder extends MatrixTestSuiteBuilder {
         for (SerializationStrategy serializationStrategy : getInstances(SerializationStrategy.class)) {
             addTest(new org.apache.axiom.ts.soap.body.TestSerializeWithXSITypeAttribute(metaFactory, spec, serializationStrategy));
         }
+        addTest(new org.apache.axiom.ts.soap.builder.TestCollectStatistics(metaFactory, spec));
         addTest(new org.apache.axiom.ts.soap.builder.TestCommentInEpilog(metaFactory, spec));
         addTest(new org.apache.axiom.ts.soap.builder.TestCommentInProlog(metaFactory, spec));
         addTest(new org.apache.axiom.ts.soap.builder.TestCreateSOAPModelBuilderFromDOMSource(metaFactory, spec));
@@ -151,8 +152,11 @@ public class SOAPTestSuiteBuilder extends MatrixTestSuiteBuilder {
         addTest(new org.apache.axiom.ts.soap.envelope.TestGetXMLStreamReaderWithoutCachingWithPartiallyBuiltHeaderBlock(metaFactory, spec));
         addTest(new org.apache.axiom.ts.soap.envelope.TestHasFault(metaFactory, spec));
         addTest(new org.apache.axiom.ts.soap.envelope.TestHasFaultWithParser(metaFactory, spec));
+        addTest(new org.apache.axiom.ts.soap.envelope.TestSerializeAndConsumeWithLargeBody(metaFactory, spec));
         addTest(new org.apache.axiom.ts.soap.envelope.TestSerializeAndConsumeWithOMSEInBody(metaFactory, spec));
         addTest(new org.apache.axiom.ts.soap.envelope.TestSerializeAsChild(metaFactory, spec));
+        addTest(new org.apache.axiom.ts.soap.envelope.TestWriteFromTemplate(metaFactory, spec, "UTF-8"));
+        addTest(new org.apache.axiom.ts.soap.envelope.TestWriteFromTemplate(metaFactory, spec, "ISO-8859-1"));
         addTest(new org.apache.axiom.ts.soap.factory.TestCreateDefaultSOAPMessage(metaFactory, spec));
         addTest(new org.apache.axiom.ts.soap.factory.TestCreateSOAPEnvelopeWithCustomPrefix(metaFactory, spec));
         for (SOAPElementType type : SOAPElementType.getAll()) {
@@ -219,6 +223,7 @@ public class SOAPTestSuiteBuilder extends MatrixTestSuiteBuilder {
         addTest(new org.apache.axiom.ts.soap.header.TestExamineAllHeaderBlocks(metaFactory, spec));
         addTest(new org.apache.axiom.ts.soap.header.TestExamineAllHeaderBlocksWithParser(metaFactory, spec));
         addTest(new org.apache.axiom.ts.soap.header.TestExamineHeaderBlocks(metaFactory, spec));
+        addTest(new org.apache.axiom.ts.soap.header.TestExamineHeaderBlocksAfterModification(metaFactory, spec));
         addTest(new org.apache.axiom.ts.soap.header.TestExamineHeaderBlocksWithParser(metaFactory, spec));
         addTest(new org.apache.axiom.ts.soap.header.TestExamineMustUnderstandHeaderBlocksWithParser(metaFactory, spec));
         addTest(new org.apache.axiom.ts.soap.header.TestExtractAllHeaderBlocks(metaFactory, spec));
@@ -297,6 +302,7 @@ public class SOAPTestSuiteBuilder extends MatrixTestSuiteBuilder {
         }
         for (SOAPSample msg : goodSOAPFiles) {
             addTest(new org.apache.axiom.ts.soap.builder.MessageTest(metaFactory, msg));
+            addTest(new org.apache.axiom.ts.soap.builder.TestCreateHeaderFirstSOAPModelBuilder(metaFactory, msg));
             addTest(new org.apache.axiom.ts.soap.builder.TestRegisterCustomBuilderForPayload(metaFactory, msg));
             addTest(new org.apache.axiom.ts.soap.envelope.TestClone(metaFactory, msg));
             for (ExpansionStrategy expansionStrategy : getInstances(ExpansionStrategy.class)) {
@@ -320,6 +326,7 @@ public class SOAPTestSuiteBuilder extends MatrixTestSuiteBuilder {
         addTest(new org.apache.axiom.ts.soap12.envelope.TestMTOMForwardStreaming(metaFactory, true));
         addTest(new org.apache.axiom.ts.soap12.envelope.TestMTOMForwardStreaming(metaFactory, false));
         addTest(new org.apache.axiom.ts.soap12.factory.TestCreateSOAPFaultSubCode(metaFactory));
+        addTest(new org.apache.axiom.ts.soap12.fault.TestGetDetailEntryWithSubcodeChild(metaFactory));
         addTest(new org.apache.axiom.ts.soap12.fault.TestGetNode(metaFactory));
         addTest(new org.apache.axiom.ts.soap12.fault.TestGetNodeWithParser(metaFactory));
         addTest(new org.apache.axiom.ts.soap12.fault.TestMoreChildrenAddition(metaFactory));
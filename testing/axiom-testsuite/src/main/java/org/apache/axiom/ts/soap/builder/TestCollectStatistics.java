@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.soap.builder;
+
+import java.io.StringReader;
+
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.stats.DocumentStatistics;
+import org.apache.axiom.om.stats.Histogram;
+import org.apache.axiom.om.stats.Statistic;
+import org.apache.axiom.om.stats.StatisticsCollector;
+import org.apache.axiom.om.stats.StatisticsSupport;
+import org.apache.axiom.soap.SOAPModelBuilder;
+import org.apache.axiom.ts.soap.SOAPSpec;
+import org.apache.axiom.ts.soap.SOAPTestCase;
+
+/**
+ * Tests that a {@link StatisticsCollector} registered with a SOAP builder receives the expected
+ * statistics and aggregates them across documents.
+ */
+public class TestCollectStatistics extends SOAPTestCase {
+    public TestCollectStatistics(OMMetaFactory metaFactory, SOAPSpec spec) {
+        super(metaFactory, spec);
+    }
+
+    private SOAPModelBuilder createBuilder() {
+        return OMXMLBuilderFactory.createSOAPModelBuilder(metaFactory, new StringReader(
+                "<s:Envelope xmlns:s='" + spec.getEnvelopeNamespaceURI() + "'>"
+                + "<s:Header><h:a xmlns:h='urn:h' h:x='1'>text</h:a></s:Header>"
+                + "<s:Body><p:b xmlns:p='urn:p' y='2'><!--comment--><c/><c/><c/>more</p:b></s:Body>"
+                + "</s:Envelope>"));
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        final DocumentStatistics[] last = new DocumentStatistics[1];
+        StatisticsCollector collector = new StatisticsCollector() {
+            @Override
+            public void documentCompleted(DocumentStatistics statistics) {
+                last[0] = statistics;
+                super.documentCompleted(statistics);
+            }
+        };
+        for (int i=0; i<2; i++) {
+            SOAPModelBuilder builder = createBuilder();
+            ((StatisticsSupport)builder).addStatisticsCollector(collector);
+            builder.getSOAPEnvelope().getHeader();
+            assertEquals(i, collector.getDocumentCount());
+            builder.getSOAPMessage().build();
+            assertEquals(i+1, collector.getDocumentCount());
+        }
+        DocumentStatistics statistics = last[0];
+        assertEquals(8, statistics.get(Statistic.ELEMENTS));
+        assertEquals(2, statistics.get(Statistic.ATTRIBUTES));
+        assertEquals(3, statistics.get(Statistic.NAMESPACE_DECLARATIONS));
+        assertEquals(2, statistics.get(Statistic.TEXT_NODES));
+        assertEquals(8, statistics.get(Statistic.CHARACTERS));
+        assertEquals(4, statistics.get(Statistic.MAX_DEPTH));
+        assertEquals(3, statistics.get(Statistic.MAX_FAN_OUT));
+        assertTrue(statistics.get(Statistic.TIME_TO_FIRST_BODY_ELEMENT) >= 0);
+        Histogram histogram = collector.getHistogram(Statistic.ELEMENTS);
+        assertEquals(2, histogram.getCount());
+        assertEquals(16, histogram.getSum());
+        assertEquals(8, histogram.getMin());
+        assertEquals(8, histogram.getMax());
+        assertEquals(2, histogram.getBucketCount(Histogram.getBucket(8)));
+
+        SOAPModelBuilder builder = createBuilder();
+        builder.getSOAPEnvelope();
+        try {
+            ((StatisticsSupport)builder).addStatisticsCollector(collector);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+    }
+}
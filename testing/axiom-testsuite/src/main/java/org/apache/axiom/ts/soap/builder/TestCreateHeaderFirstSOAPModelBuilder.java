@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.soap.builder;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static com.google.common.truth.Truth.assertThat;
+import static org.apache.axiom.truth.xml.XMLTruth.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMSourcedElement;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFault;
+import org.apache.axiom.ts.AxiomTestCase;
+import org.apache.axiom.ts.soap.SOAPSample;
+import org.w3c.dom.Element;
+
+/**
+ * Tests the builder created by
+ * {@link OMXMLBuilderFactory#createHeaderFirstSOAPModelBuilder(OMMetaFactory, java.io.InputStream, String)}.
+ * Checks that the payload is represented by an {@link OMSourcedElement} that is not expanded
+ * during serialization and that the expanded payload has the expected content.
+ */
+public class TestCreateHeaderFirstSOAPModelBuilder extends AxiomTestCase {
+    private final SOAPSample message;
+
+    public TestCreateHeaderFirstSOAPModelBuilder(OMMetaFactory metaFactory, SOAPSample message) {
+        super(metaFactory);
+        this.message = message;
+        addTestParameter("message", message.getName());
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        SOAPEnvelope envelope = OMXMLBuilderFactory.createHeaderFirstSOAPModelBuilder(metaFactory,
+                message.getInputStream(), null).getSOAPEnvelope();
+        OMElement payload = envelope.getBody().getFirstElement();
+        Element expectedPayload = message.getPayload();
+        if (expectedPayload == null) {
+            assertThat(payload).isNull();
+        } else if (expectedPayload.getLocalName().equals("Fault")) {
+            assertThat(payload).isInstanceOf(SOAPFault.class);
+        } else {
+            assertThat(payload).isInstanceOf(OMSourcedElement.class);
+            assertThat(payload.getQName()).isEqualTo(new QName(
+                    expectedPayload.getNamespaceURI() == null ? "" : expectedPayload.getNamespaceURI(),
+                    expectedPayload.getLocalName()));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        envelope.serialize(out);
+        assertAbout(xml())
+                .that(new ByteArrayInputStream(out.toByteArray()))
+                .ignoringRedundantNamespaceDeclarations()
+                .ignoringPrologAndEpilog()
+                .hasSameContentAs(message.getInputStream());
+        if (payload instanceof OMSourcedElement) {
+            assertThat(((OMSourcedElement)payload).isExpanded()).isFalse();
+            payload.getFirstOMChild();
+            assertThat(((OMSourcedElement)payload).isExpanded()).isTrue();
+        }
+        assertAbout(xml())
+                .that(envelope.getXMLStreamReader(false))
+                .ignoringRedundantNamespaceDeclarations()
+                .ignoringPrologAndEpilog()
+                .hasSameContentAs(message.getInputStream());
+    }
+}
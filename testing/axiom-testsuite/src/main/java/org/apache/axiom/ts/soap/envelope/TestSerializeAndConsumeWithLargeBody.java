@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.soap.envelope;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPHeaderBlock;
+import org.apache.axiom.ts.soap.SOAPSpec;
+import org.apache.axiom.ts.soap.SOAPTestCase;
+
+/**
+ * Tests that {@link SOAPEnvelope#serializeAndConsume(OutputStream)} streams the content of an
+ * incomplete SOAP body directly from the input to the output, i.e. without building it, while the
+ * header can still be accessed and modified as a tree. The size of the body is fixed (so that the
+ * execution time of the test doesn't depend on the heap size), but large enough for the object
+ * model of the body to exceed the 64 MB heap used by the implementation test suites many times,
+ * so that the test fails with an {@link OutOfMemoryError} if the body is built.
+ */
+public class TestSerializeAndConsumeWithLargeBody extends SOAPTestCase {
+    private static final long BODY_SIZE = 64L*1024*1024;
+
+    /**
+     * Generates a SOAP message with a body of the given size.
+     */
+    private static class MessageGenerator extends InputStream {
+        private final byte[] head;
+        private final byte[] item = "<p:item id=\"x\">some text &amp; more</p:item>".getBytes();
+        private final byte[] tail;
+        private long remaining;
+        private byte[] current;
+        private int pos;
+
+        MessageGenerator(SOAPSpec spec, String headerValue, long bodySize) {
+            head = ("<s:Envelope xmlns:s=\"" + spec.getEnvelopeNamespaceURI() + "\"><s:Header>"
+                    + "<h:test xmlns:h=\"urn:header\">" + headerValue + "</h:test></s:Header><s:Body>"
+                    + "<p:payload xmlns:p=\"urn:payload\">").getBytes();
+            tail = "</p:payload></s:Body></s:Envelope>".getBytes();
+            remaining = bodySize / item.length;
+            current = head;
+        }
+
+        /**
+         * Move to the next segment of the message if the current one has been consumed.
+         * 
+         * @return {@code false} if the end of the message has been reached
+         */
+        private boolean ensureAvailable() {
+            if (current == null) {
+                return false;
+            }
+            if (pos == current.length) {
+                if (current == tail) {
+                    current = null;
+                    return false;
+                }
+                current = remaining-- > 0 ? item : tail;
+                pos = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return ensureAvailable() ? current[pos++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (!ensureAvailable()) {
+                return -1;
+            }
+            int c = Math.min(len, current.length - pos);
+            System.arraycopy(current, pos, b, off, c);
+            pos += c;
+            return c;
+        }
+    }
+
+    /**
+     * Compares the data written to it with the content of an input stream.
+     */
+    private static class ComparingOutputStream extends OutputStream {
+        private final InputStream expected;
+        private byte[] buffer = new byte[4096];
+        long count;
+
+        ComparingOutputStream(InputStream expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            int e = expected.read();
+            if (e != (b & 0xFF)) {
+                fail("Mismatch at byte " + count);
+            }
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (buffer.length < len) {
+                buffer = new byte[len];
+            }
+            int read = 0;
+            while (read < len) {
+                int c = expected.read(buffer, read, len-read);
+                if (c == -1) {
+                    fail("Unexpected data at byte " + (count+read));
+                }
+                read += c;
+            }
+            for (int i=0; i<len; i++) {
+                if (buffer[i] != b[off+i]) {
+                    fail("Mismatch at byte " + (count+i));
+                }
+            }
+            count += len;
+        }
+    }
+
+    public TestSerializeAndConsumeWithLargeBody(OMMetaFactory metaFactory, SOAPSpec spec) {
+        super(metaFactory, spec);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        SOAPEnvelope envelope = OMXMLBuilderFactory.createSOAPModelBuilder(metaFactory,
+                new MessageGenerator(spec, "1", BODY_SIZE), null).getSOAPEnvelope();
+        SOAPHeaderBlock headerBlock = (SOAPHeaderBlock)envelope.getHeader().getFirstElement();
+        assertEquals("1", headerBlock.getText());
+        headerBlock.setText("2");
+        InputStream expected = new MessageGenerator(spec, "2", BODY_SIZE);
+        ComparingOutputStream out = new ComparingOutputStream(expected);
+        envelope.serializeAndConsume(out);
+        assertEquals(-1, expected.read());
+        assertTrue(out.count > BODY_SIZE);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.soap.envelope;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static org.apache.axiom.truth.xml.XMLTruth.xml;
+
+import java.io.ByteArrayOutputStream;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPEnvelopeTemplate;
+import org.apache.axiom.soap.SOAPHeader;
+import org.apache.axiom.ts.soap.SOAPSpec;
+import org.apache.axiom.ts.soap.SOAPTestCase;
+
+/**
+ * Tests that {@link SOAPEnvelopeTemplate} produces the same message as an equivalent envelope
+ * built with the Axiom API.
+ */
+public class TestWriteFromTemplate extends SOAPTestCase {
+    private static final QName MESSAGE_ID = new QName("urn:test", "MessageID");
+    private static final QName RELATES_TO = new QName("urn:test", "RelatesTo");
+
+    private final String charset;
+
+    public TestWriteFromTemplate(OMMetaFactory metaFactory, SOAPSpec spec, String charset) {
+        super(metaFactory, spec);
+        this.charset = charset;
+        addTestParameter("charset", charset);
+    }
+
+    private SOAPEnvelope createEnvelope(String messageId, String relatesTo, String payload) {
+        SOAPEnvelope envelope = soapFactory.createSOAPEnvelope();
+        SOAPHeader header = soapFactory.createSOAPHeader(envelope);
+        OMNamespace ns = soapFactory.createOMNamespace("urn:test", "t");
+        header.addHeaderBlock("To", ns).setText("urn:destination");
+        header.addHeaderBlock("MessageID", ns).setText(messageId);
+        OMElement relatesToElement = soapFactory.createOMElement(RELATES_TO, header.addHeaderBlock("Related", ns));
+        relatesToElement.setText(relatesTo);
+        soapFactory.createSOAPBody(envelope);
+        if (payload != null) {
+            soapFactory.createOMElement("payload", soapFactory.createOMNamespace("urn:payload", "p"),
+                    envelope.getBody()).setText(payload);
+        }
+        return envelope;
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        OMOutputFormat format = new OMOutputFormat();
+        format.setCharSetEncoding(charset);
+        SOAPEnvelopeTemplate template = SOAPEnvelopeTemplate.create(
+                createEnvelope("dummy", "dummy", "dummy"), format, RELATES_TO, MESSAGE_ID);
+        assertEquals(soapFactory.getSOAPVersion(), template.getSOAPVersion());
+        
+        String[][] values = { { "urn:uuid:1", "urn:uuid:0", "text" },
+                              { "urn:uuid:2", "a<b&c>\u00e9\u20ac", null } };
+        for (String[] v : values) {
+            SOAPEnvelope expected = createEnvelope(v[0], v[1], v[2]);
+            OMElement payload = v[2] == null ? null : expected.getBody().getFirstElement().cloneOMElement();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            template.writeTo(out, payload, v[1], v[0]);
+            assertAbout(xml())
+                    .that(new String(out.toByteArray(), charset))
+                    .ignoringRedundantNamespaceDeclarations()
+                    .hasSameContentAs(xml(OMElement.class, expected));
+        }
+    }
+}
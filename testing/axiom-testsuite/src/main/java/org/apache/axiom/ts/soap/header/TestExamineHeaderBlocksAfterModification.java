@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.soap.header;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.soap.SOAPHeader;
+import org.apache.axiom.soap.SOAPHeaderBlock;
+import org.apache.axiom.ts.soap.SOAPSpec;
+import org.apache.axiom.ts.soap.SOAPTestCase;
+
+/**
+ * Tests that the header block lookup methods of {@link SOAPHeader} reflect changes made to the
+ * header and its header blocks after a previous lookup.
+ */
+public class TestExamineHeaderBlocksAfterModification extends SOAPTestCase {
+    public TestExamineHeaderBlocksAfterModification(OMMetaFactory metaFactory, SOAPSpec spec) {
+        super(metaFactory, spec);
+    }
+
+    private static List<SOAPHeaderBlock> toList(Iterator<SOAPHeaderBlock> it) {
+        List<SOAPHeaderBlock> list = new ArrayList<SOAPHeaderBlock>();
+        while (it.hasNext()) {
+            list.add(it.next());
+        }
+        return list;
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        String role = "urn:test-role";
+        QName qname = new QName("urn:ns1", "h");
+        SOAPHeader header = soapFactory.createSOAPHeader(soapFactory.createSOAPEnvelope());
+        OMNamespace ns1 = soapFactory.createOMNamespace("urn:ns1", "ns1");
+        OMNamespace ns2 = soapFactory.createOMNamespace("urn:ns2", "ns2");
+        SOAPHeaderBlock block1 = header.addHeaderBlock("h", ns1);
+        SOAPHeaderBlock block2 = header.addHeaderBlock("h", ns2);
+        block2.setRole(role);
+        
+        assertThat(toList(header.getHeaderBlocksWithName(qname))).containsExactly(block1);
+        assertThat(toList(header.examineHeaderBlocks(role))).containsExactly(block2);
+        assertThat(toList(header.examineMustUnderstandHeaderBlocks(null))).isEmpty();
+        
+        // Change the role and mustUnderstand attributes
+        block1.setRole(role);
+        block2.setMustUnderstand(true);
+        assertThat(toList(header.examineHeaderBlocks(role))).containsExactly(block1, block2).inOrder();
+        assertThat(toList(header.examineMustUnderstandHeaderBlocks(role))).containsExactly(block2);
+        block2.removeAttribute(block2.getAttribute(new QName(spec.getEnvelopeNamespaceURI(),
+                spec == SOAPSpec.SOAP11 ? "actor" : "role")));
+        assertThat(toList(header.examineHeaderBlocks(role))).containsExactly(block1);
+        assertThat(toList(header.examineMustUnderstandHeaderBlocks(role))).isEmpty();
+        assertThat(toList(header.examineMustUnderstandHeaderBlocks(null))).containsExactly(block2);
+        
+        // Change the name of a header block
+        block2.setNamespace(ns1);
+        assertThat(toList(header.getHeaderBlocksWithName(qname))).containsExactly(block1, block2).inOrder();
+        block1.setLocalName("other");
+        assertThat(toList(header.getHeaderBlocksWithName(qname))).containsExactly(block2);
+        
+        // Add and remove header blocks
+        SOAPHeaderBlock block3 = header.addHeaderBlock("h", ns1);
+        block2.insertSiblingBefore(block3);
+        assertThat(toList(header.getHeaderBlocksWithName(qname))).containsExactly(block3, block2).inOrder();
+        block2.detach();
+        assertThat(toList(header.getHeaderBlocksWithName(qname))).containsExactly(block3);
+        assertThat(toList(header.examineAllHeaderBlocks())).containsExactly(block1, block3).inOrder();
+        
+        // Remove header blocks using the iterator
+        Iterator<SOAPHeaderBlock> it = header.examineHeaderBlocks(role);
+        assertThat(it.next()).isSameInstanceAs(block1);
+        it.remove();
+        assertThat(it.hasNext()).isFalse();
+        assertThat(block1.getParent()).isNull();
+        assertThat(toList(header.examineAllHeaderBlocks())).containsExactly(block3);
+    }
+}
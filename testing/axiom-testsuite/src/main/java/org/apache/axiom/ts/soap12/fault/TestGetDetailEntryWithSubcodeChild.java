@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.soap12.fault;
+
+import java.io.StringReader;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFaultDetail;
+import org.apache.axiom.ts.AxiomTestCase;
+
+/**
+ * Tests that the builder doesn't attempt to interpret elements in the fault detail that happen to
+ * have the same local name as one of the SOAP fault children (here <tt>Subcode</tt>).
+ */
+public class TestGetDetailEntryWithSubcodeChild extends AxiomTestCase {
+    public TestGetDetailEntryWithSubcodeChild(OMMetaFactory metaFactory) {
+        super(metaFactory);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        SOAPEnvelope envelope = OMXMLBuilderFactory.createSOAPModelBuilder(metaFactory, new StringReader(
+                "<soapenv:Envelope xmlns:soapenv='http://www.w3.org/2003/05/soap-envelope'>"
+                + "<soapenv:Body><soapenv:Fault>"
+                + "<soapenv:Code><soapenv:Value>soapenv:Receiver</soapenv:Value></soapenv:Code>"
+                + "<soapenv:Reason><soapenv:Text xml:lang='en'>Error</soapenv:Text></soapenv:Reason>"
+                + "<soapenv:Detail><p:entry xmlns:p='urn:test'>"
+                + "<p:Subcode><p:info>test</p:info></p:Subcode>"
+                + "</p:entry></soapenv:Detail>"
+                + "</soapenv:Fault></soapenv:Body></soapenv:Envelope>")).getSOAPEnvelope();
+        SOAPFaultDetail detail = envelope.getBody().getFault().getDetail();
+        OMElement entry = detail.getFirstElement();
+        assertEquals("entry", entry.getLocalName());
+        OMElement info = entry.getFirstElement().getFirstElement();
+        assertEquals("info", info.getLocalName());
+        assertEquals("test", info.getText());
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axiom.ts.soapdom.header;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Iterator;
+
+import org.apache.axiom.om.OMMetaFactory;
+import org.apache.axiom.soap.SOAPHeader;
+import org.apache.axiom.soap.SOAPHeaderBlock;
+import org.apache.axiom.ts.soap.SOAPSpec;
+import org.apache.axiom.ts.soap.SOAPTestCase;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+
+/**
+ * Tests that {@link SOAPHeader#examineMustUnderstandHeaderBlocks(String)} takes into account
+ * changes to the mustUnderstand attribute made using the DOM API after a previous lookup.
+ */
+public class TestExamineMustUnderstandHeaderBlocksAfterDOMModification extends SOAPTestCase {
+    public TestExamineMustUnderstandHeaderBlocksAfterDOMModification(OMMetaFactory metaFactory, SOAPSpec spec) {
+        super(metaFactory, spec);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        SOAPHeader header = soapFactory.createSOAPHeader();
+        SOAPHeaderBlock headerBlock = header.addHeaderBlock("h", soapFactory.createOMNamespace("urn:test", "p"));
+        assertThat(header.examineMustUnderstandHeaderBlocks(null).hasNext()).isFalse();
+        
+        Element domHeaderBlock = (Element)headerBlock;
+        domHeaderBlock.setAttributeNS(spec.getEnvelopeNamespaceURI(), "S:mustUnderstand", "1");
+        Iterator<SOAPHeaderBlock> it = header.examineMustUnderstandHeaderBlocks(null);
+        assertThat(it.hasNext()).isTrue();
+        assertThat(it.next()).isSameInstanceAs(headerBlock);
+        assertThat(it.hasNext()).isFalse();
+        
+        Attr attr = domHeaderBlock.getAttributeNodeNS(spec.getEnvelopeNamespaceURI(), "mustUnderstand");
+        attr.getFirstChild().setNodeValue("0");
+        assertThat(header.examineMustUnderstandHeaderBlocks(null).hasNext()).isFalse();
+    }
+}